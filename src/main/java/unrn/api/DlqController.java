@@ -0,0 +1,170 @@
+package unrn.api;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import unrn.dto.ApiErrorResponse;
+import unrn.dto.DlqMensajeResponse;
+import unrn.dto.DlqPaginaResponse;
+import unrn.dto.DlqRedriveRequest;
+import unrn.dto.DlqRedriveJobResponse;
+import unrn.dto.DlqResumenResponse;
+import unrn.service.DlqRedriveJob;
+import unrn.service.DlqRedriveService;
+
+import java.net.URI;
+import java.util.List;
+
+@RestController
+@RequestMapping("/internal/dlq")
+public class DlqController {
+
+    static final String ERROR_TOKEN_INVALIDO = "Token interno inválido";
+    static final String ERROR_TOKEN_NO_CONFIGURADO = "Token interno no configurado";
+    static final String ERROR_COLA_DESCONOCIDA = "Cola DLQ desconocida";
+    static final String ERROR_REDRIVE_EN_CURSO = "Ya existe un redrive de DLQ en ejecución";
+    static final String ERROR_REDRIVE_DESCONOCIDO = "Redrive DLQ desconocido";
+
+    private final DlqRedriveService dlqRedriveService;
+    private final String internalToken;
+    private final int redriveMaximo;
+
+    public DlqController(DlqRedriveService dlqRedriveService,
+            @Value("${ventas.dlq.internal-token:${ventas.bootstrap.internal-token:}}") String internalToken,
+            @Value("${ventas.dlq.redrive.max-messages:10000}") int redriveMaximo) {
+        this.dlqRedriveService = dlqRedriveService;
+        this.internalToken = internalToken;
+        this.redriveMaximo = redriveMaximo;
+    }
+
+    @GetMapping("/{cola}")
+    public ResponseEntity<?> inspeccionar(
+            @RequestHeader(value = "X-Internal-Token", required = false) String requestToken,
+            @PathVariable String cola,
+            @RequestParam(defaultValue = "0") int desde,
+            @RequestParam(defaultValue = "50") int limite) {
+        ResponseEntity<ApiErrorResponse> rechazo = validarAcceso(requestToken, cola);
+        if (rechazo != null) {
+            return rechazo;
+        }
+
+        var pagina = dlqRedriveService.inspeccionar(cola, desde, limite);
+        List<DlqMensajeResponse> mensajes = pagina.mensajes().stream()
+                .map(mensaje -> new DlqMensajeResponse(
+                        mensaje.messageId(),
+                        mensaje.eventId(),
+                        mensaje.motivo(),
+                        mensaje.timestamp(),
+                        mensaje.tamanioBytes(),
+                        mensaje.payload()))
+                .toList();
+        return ResponseEntity.ok(new DlqPaginaResponse(pagina.cola(), pagina.mensajesEnCola(), pagina.desde(),
+                mensajes));
+    }
+
+    @GetMapping("/{cola}/resumen")
+    public ResponseEntity<?> resumir(
+            @RequestHeader(value = "X-Internal-Token", required = false) String requestToken,
+            @PathVariable String cola) {
+        ResponseEntity<ApiErrorResponse> rechazo = validarAcceso(requestToken, cola);
+        if (rechazo != null) {
+            return rechazo;
+        }
+
+        var resumen = dlqRedriveService.resumir(cola);
+        return ResponseEntity.ok(new DlqResumenResponse(
+                resumen.cola(),
+                resumen.mensajesEnCola(),
+                resumen.inspeccionados(),
+                resumen.porMotivo()));
+    }
+
+    // El redrive corre en segundo plano: responde 202 con el job y el progreso se consulta en la Location
+    @PostMapping("/{cola}/redrive")
+    public ResponseEntity<?> redrive(
+            @RequestHeader(value = "X-Internal-Token", required = false) String requestToken,
+            @PathVariable String cola,
+            @RequestBody(required = false) DlqRedriveRequest request) {
+        ResponseEntity<ApiErrorResponse> rechazo = validarAcceso(requestToken, cola);
+        if (rechazo != null) {
+            return rechazo;
+        }
+
+        List<String> ids = request != null && request.ids() != null ? request.ids() : List.of();
+        String motivo = request != null ? request.motivo() : null;
+        int maxMensajes = request != null && request.maxMensajes() != null
+                ? Math.min(request.maxMensajes(), redriveMaximo)
+                : redriveMaximo;
+
+        var job = dlqRedriveService.iniciarRedrive(cola, ids, motivo, maxMensajes);
+        if (job.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new ApiErrorResponse("DLQ_REDRIVE_EN_CURSO", ERROR_REDRIVE_EN_CURSO));
+        }
+        return ResponseEntity.accepted()
+                .location(URI.create("/internal/dlq/" + cola + "/redrive/" + job.get().id()))
+                .body(aResponse(job.get()));
+    }
+
+    @GetMapping("/{cola}/redrive/{id}")
+    public ResponseEntity<?> consultarRedrive(
+            @RequestHeader(value = "X-Internal-Token", required = false) String requestToken,
+            @PathVariable String cola,
+            @PathVariable String id) {
+        ResponseEntity<ApiErrorResponse> rechazo = validarAcceso(requestToken, cola);
+        if (rechazo != null) {
+            return rechazo;
+        }
+
+        return dlqRedriveService.consultarRedrive(cola, id)
+                .<ResponseEntity<?>>map(job -> ResponseEntity.ok(aResponse(job)))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(new ApiErrorResponse("DLQ_REDRIVE_NOT_FOUND", ERROR_REDRIVE_DESCONOCIDO)));
+    }
+
+    private DlqRedriveJobResponse aResponse(DlqRedriveJob job) {
+        var resultado = job.resultado();
+        return new DlqRedriveJobResponse(
+                job.id(),
+                job.cola(),
+                job.estado().name(),
+                resultado.redirigidos(),
+                resultado.omitidos(),
+                resultado.fallidos(),
+                resultado.duracionMs(),
+                resultado.mensajesPorSegundo(),
+                job.error());
+    }
+
+    private ResponseEntity<ApiErrorResponse> validarAcceso(String requestToken, String cola) {
+        if (internalToken == null || internalToken.isBlank()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(new ApiErrorResponse("DLQ_FORBIDDEN", ERROR_TOKEN_NO_CONFIGURADO));
+        }
+
+        if (requestToken == null || requestToken.isBlank()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(new ApiErrorResponse("DLQ_UNAUTHORIZED", ERROR_TOKEN_INVALIDO));
+        }
+
+        if (!internalToken.equals(requestToken)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(new ApiErrorResponse("DLQ_FORBIDDEN", ERROR_TOKEN_INVALIDO));
+        }
+
+        if (!dlqRedriveService.colaConocida(cola)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new ApiErrorResponse("DLQ_NOT_FOUND", ERROR_COLA_DESCONOCIDA));
+        }
+        return null;
+    }
+}
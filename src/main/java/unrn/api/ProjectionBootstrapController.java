@@ -10,6 +10,8 @@ import org.springframework.web.bind.annotation.RestController;
 
 import unrn.dto.ApiErrorResponse;
 import unrn.dto.ProjectionBootstrapResponse;
+import unrn.service.CuponProyeccionService;
+import unrn.service.ProjectionBootstrapResult;
 import unrn.service.ProjectionBootstrapService;
 
 @RestController
@@ -20,17 +22,40 @@ public class ProjectionBootstrapController {
     static final String ERROR_TOKEN_NO_CONFIGURADO = "Token interno no configurado";
 
     private final ProjectionBootstrapService projectionBootstrapService;
+    private final CuponProyeccionService cuponProyeccionService;
     private final String internalToken;
 
     public ProjectionBootstrapController(ProjectionBootstrapService projectionBootstrapService,
+            CuponProyeccionService cuponProyeccionService,
             @Value("${ventas.bootstrap.internal-token:}") String internalToken) {
         this.projectionBootstrapService = projectionBootstrapService;
+        this.cuponProyeccionService = cuponProyeccionService;
         this.internalToken = internalToken;
     }
 
     @PostMapping("/rebuild")
     public ResponseEntity<?> rebuildProjection(
             @RequestHeader(value = "X-Internal-Token", required = false) String requestToken) {
+        var rechazo = validarToken(requestToken);
+        if (rechazo != null) {
+            return rechazo;
+        }
+
+        return respuesta(projectionBootstrapService.rebuildProjection());
+    }
+
+    @PostMapping("/cupones/rebuild")
+    public ResponseEntity<?> rebuildCuponProjection(
+            @RequestHeader(value = "X-Internal-Token", required = false) String requestToken) {
+        var rechazo = validarToken(requestToken);
+        if (rechazo != null) {
+            return rechazo;
+        }
+
+        return respuesta(cuponProyeccionService.rebuildProjection());
+    }
+
+    private ResponseEntity<ApiErrorResponse> validarToken(String requestToken) {
         if (internalToken == null || internalToken.isBlank()) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN)
                     .body(new ApiErrorResponse("PROJECTION_BOOTSTRAP_FORBIDDEN", ERROR_TOKEN_NO_CONFIGURADO));
@@ -46,7 +71,10 @@ public class ProjectionBootstrapController {
                     .body(new ApiErrorResponse("PROJECTION_BOOTSTRAP_FORBIDDEN", ERROR_TOKEN_INVALIDO));
         }
 
-        var result = projectionBootstrapService.rebuildProjection();
+        return null;
+    }
+
+    private ResponseEntity<ProjectionBootstrapResponse> respuesta(ProjectionBootstrapResult result) {
         return ResponseEntity.ok(new ProjectionBootstrapResponse(
                 result.fetched(),
                 result.inserted(),
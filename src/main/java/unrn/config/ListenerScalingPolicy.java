@@ -0,0 +1,53 @@
+package unrn.config;
+
+class ListenerScalingPolicy {
+
+    static final String ERROR_CONSUMIDORES_INVALIDOS = "La concurrencia del listener debe ser mayor a cero y min <= max";
+    static final String ERROR_MENSAJES_POR_CONSUMIDOR_INVALIDO = "Los mensajes por consumidor deben ser mayores a cero";
+
+    private final int minConsumidores;
+    private final int maxConsumidores;
+    private final long mensajesPorConsumidor;
+
+    ListenerScalingPolicy(int minConsumidores, int maxConsumidores, long mensajesPorConsumidor) {
+        assertConsumidoresValidos(minConsumidores, maxConsumidores);
+        assertMensajesPorConsumidorValido(mensajesPorConsumidor);
+
+        this.minConsumidores = minConsumidores;
+        this.maxConsumidores = maxConsumidores;
+        this.mensajesPorConsumidor = mensajesPorConsumidor;
+    }
+
+    int minConsumidores() {
+        return minConsumidores;
+    }
+
+    int maxConsumidores() {
+        return maxConsumidores;
+    }
+
+    // Sube de golpe hasta cubrir el backlog; con la cola vacía baja de a un consumidor por ciclo
+    int consumidoresDeseados(long mensajesEnCola, int actuales) {
+        if (mensajesEnCola == 0) {
+            return Math.max(actuales - 1, minConsumidores);
+        }
+
+        long necesarios = (mensajesEnCola + mensajesPorConsumidor - 1) / mensajesPorConsumidor;
+        if (necesarios > actuales) {
+            return (int) Math.min(necesarios, maxConsumidores);
+        }
+        return Math.max(actuales, minConsumidores);
+    }
+
+    private void assertConsumidoresValidos(int minConsumidores, int maxConsumidores) {
+        if (minConsumidores <= 0 || maxConsumidores < minConsumidores) {
+            throw new RuntimeException(ERROR_CONSUMIDORES_INVALIDOS);
+        }
+    }
+
+    private void assertMensajesPorConsumidorValido(long mensajesPorConsumidor) {
+        if (mensajesPorConsumidor <= 0) {
+            throw new RuntimeException(ERROR_MENSAJES_POR_CONSUMIDOR_INVALIDO);
+        }
+    }
+}
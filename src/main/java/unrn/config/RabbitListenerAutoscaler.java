@@ -0,0 +1,153 @@
+package unrn.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.amqp.rabbit.config.ContainerCustomizer;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Ajusta concurrencia y prefetch por listener (ventas.rabbit.listeners.<id>.*) y escala consumidores según la cola
+@Component
+public class RabbitListenerAutoscaler implements ContainerCustomizer<SimpleMessageListenerContainer> {
+
+    private static final Logger log = LoggerFactory.getLogger(RabbitListenerAutoscaler.class);
+    private static final String PREFIJO = "ventas.rabbit.listeners.";
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+    private final ObjectProvider<AmqpAdmin> amqpAdminProvider;
+    private final boolean enabled;
+    private final long mensajesPorConsumidor;
+    private final Map<String, Escalado> escalados = new ConcurrentHashMap<>();
+
+    public RabbitListenerAutoscaler(Environment environment,
+            MeterRegistry meterRegistry,
+            ObjectProvider<AmqpAdmin> amqpAdminProvider,
+            @Value("${ventas.rabbit.autoscaler.enabled:true}") boolean enabled,
+            @Value("${ventas.rabbit.autoscaler.messages-per-consumer:100}") long mensajesPorConsumidor) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+        this.amqpAdminProvider = amqpAdminProvider;
+        this.enabled = enabled;
+        this.mensajesPorConsumidor = mensajesPorConsumidor;
+    }
+
+    // Solo se ajustan los listeners con max-concurrency configurado; el resto conserva su concurrencia fija
+    @Override
+    public void configure(SimpleMessageListenerContainer container) {
+        String listenerId = container.getListenerId();
+        Integer maxConcurrencia = environment.getProperty(PREFIJO + listenerId + ".max-concurrency", Integer.class);
+        if (maxConcurrencia == null) {
+            return;
+        }
+
+        int concurrencia = environment.getProperty(PREFIJO + listenerId + ".concurrency", Integer.class, 1);
+        var policy = new ListenerScalingPolicy(concurrencia, maxConcurrencia, mensajesPorConsumidor);
+        container.setConcurrentConsumers(concurrencia);
+        Integer prefetch = environment.getProperty(PREFIJO + listenerId + ".prefetch", Integer.class);
+        if (prefetch != null) {
+            container.setPrefetchCount(prefetch);
+        }
+
+        var enVuelo = new AtomicInteger();
+        var tiempoProcesamiento = Timer.builder("ventas.rabbit.listener.processing")
+                .tag("listener", listenerId)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        container.setAdviceChain(medirProcesamiento(enVuelo, tiempoProcesamiento));
+
+        Gauge.builder("ventas.rabbit.listener.consumers", container, SimpleMessageListenerContainer::getActiveConsumerCount)
+                .tag("listener", listenerId)
+                .register(meterRegistry);
+        Gauge.builder("ventas.rabbit.listener.inflight", enVuelo, AtomicInteger::get)
+                .tag("listener", listenerId)
+                .register(meterRegistry);
+
+        escalados.put(listenerId, new Escalado(container, policy));
+    }
+
+    @Scheduled(fixedDelayString = "${ventas.rabbit.autoscaler.interval-ms:10000}")
+    public void escalar() {
+        if (!enabled) {
+            return;
+        }
+
+        AmqpAdmin amqpAdmin = amqpAdminProvider.getIfAvailable();
+        if (amqpAdmin == null) {
+            return;
+        }
+
+        escalados.forEach((listenerId, escalado) -> escalar(amqpAdmin, listenerId, escalado));
+    }
+
+    private void escalar(AmqpAdmin amqpAdmin, String listenerId, Escalado escalado) {
+        var container = escalado.container();
+        if (!container.isRunning()) {
+            return;
+        }
+
+        long mensajesEnCola;
+        try {
+            mensajesEnCola = mensajesEnCola(amqpAdmin, container.getQueueNames());
+        } catch (AmqpException ex) {
+            log.debug("No se pudo consultar la profundidad de cola listener={} error={}", listenerId, ex.getMessage());
+            return;
+        }
+
+        int actuales = container.getActiveConsumerCount();
+        int deseados = escalado.policy().consumidoresDeseados(mensajesEnCola, actuales);
+        if (deseados != actuales) {
+            container.setConcurrentConsumers(deseados);
+            meterRegistry.counter("ventas.rabbit.listener.scale.total",
+                    "listener", listenerId,
+                    "direction", deseados > actuales ? "up" : "down").increment();
+            log.info("Listener escalado listener={} mensajesEnCola={} consumidores={}->{}",
+                    listenerId, mensajesEnCola, actuales, deseados);
+        }
+    }
+
+    private long mensajesEnCola(AmqpAdmin amqpAdmin, String[] colas) {
+        long total = 0;
+        for (String cola : colas) {
+            QueueInformation info = amqpAdmin.getQueueInfo(cola);
+            if (info != null) {
+                total += info.getMessageCount();
+            }
+        }
+        return total;
+    }
+
+    private MethodInterceptor medirProcesamiento(AtomicInteger enVuelo, Timer tiempoProcesamiento) {
+        return invocation -> {
+            int entregas = invocation.getArguments().length > 1
+                    && invocation.getArguments()[1] instanceof List<?> lote ? lote.size() : 1;
+            enVuelo.addAndGet(entregas);
+            Timer.Sample sample = Timer.start(meterRegistry);
+            try {
+                return invocation.proceed();
+            } finally {
+                sample.stop(tiempoProcesamiento);
+                enVuelo.addAndGet(-entregas);
+            }
+        };
+    }
+
+    private record Escalado(SimpleMessageListenerContainer container, ListenerScalingPolicy policy) {
+    }
+}
@@ -0,0 +1,26 @@
+package unrn.config;
+
+import com.rabbitmq.client.Channel;
+import org.springframework.amqp.core.Message;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.OptionalLong;
+
+// Ack múltiple de las entregas de un lote que se aplicaron juntas. Las reprocesadas de a una ya se confirmaron o
+// rechazaron por su cuenta, así que el ack llega solo hasta el tag aplicado más alto: un tag ya resuelto hace que
+// RabbitMQ cierre el canal con PRECONDITION_FAILED y redelivere todo lo pendiente
+public final class RabbitLoteAcks {
+
+    private RabbitLoteAcks() {
+    }
+
+    public static void confirmarAplicados(Channel channel, Collection<Message> aplicados) throws IOException {
+        OptionalLong ultimoTag = aplicados.stream()
+                .mapToLong(message -> message.getMessageProperties().getDeliveryTag())
+                .max();
+        if (ultimoTag.isPresent()) {
+            channel.basicAck(ultimoTag.getAsLong(), true);
+        }
+    }
+}
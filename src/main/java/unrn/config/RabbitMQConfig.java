@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.amqp.core.*;
+import org.springframework.amqp.rabbit.AsyncRabbitTemplate;
 import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
@@ -14,6 +15,11 @@ import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 @Configuration
 public class RabbitMQConfig {
@@ -78,6 +84,15 @@ public class RabbitMQConfig {
     @Value("${rabbitmq.ventas.retry.exchange:ventas.retry.exchange}")
     private String ventasRetryExchangeName;
 
+    @Value("${rabbitmq.ventas.retry.return.exchange:ventas.retry.return.exchange}")
+    private String ventasRetryReturnExchangeName;
+
+    @Value("${rabbitmq.event.movie.queue.name:movie.events.queue}")
+    private String movieEventsQueueName;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean hilosVirtuales;
+
     @Bean
     public TopicExchange comprasEventsExchange() {
         return new TopicExchange(comprasEventsExchangeName, true, false);
@@ -187,6 +202,28 @@ public class RabbitMQConfig {
         return new Declarables(retryBinding, dlqBinding);
     }
 
+    @Bean
+    public HeadersExchange ventasRetryReturnExchange() {
+        return new HeadersExchange(ventasRetryReturnExchangeName, true, false);
+    }
+
+    // Colas de espera por nivel (sin consumidores): al expirar, el exchange de retorno las devuelve a su cola de origen
+    @Bean
+    public Declarables ventasRetryTiersDeclarables(RabbitRetryTiers rabbitRetryTiers) {
+        List<Declarable> declarables = new ArrayList<>();
+        for (int nivel = 0; nivel < rabbitRetryTiers.cantidadNiveles(); nivel++) {
+            declarables.add(org.springframework.amqp.core.QueueBuilder.durable(rabbitRetryTiers.colaDeNivel(nivel))
+                    .deadLetterExchange(ventasRetryReturnExchangeName)
+                    .build());
+        }
+        for (String cola : List.of(ventasStockRechazadoQueueName, ventasStockValidationAcceptedQueueName,
+                movieEventsQueueName)) {
+            declarables.add(new Binding(cola, Binding.DestinationType.QUEUE, ventasRetryReturnExchangeName, "",
+                    Map.<String, Object>of("x-match", "all", RabbitRetryTiers.HEADER_COLA_DESTINO, cola)));
+        }
+        return new Declarables(declarables);
+    }
+
     @Bean
     public ObjectMapper objectMapper() {
         ObjectMapper objectMapper = new ObjectMapper();
@@ -228,15 +265,76 @@ public class RabbitMQConfig {
         return rabbitTemplate;
     }
 
+    // RPC no bloqueante por direct reply-to: envuelve el template compartido sin tocar su reply timeout ni callbacks
+    @Bean
+    public AsyncRabbitTemplate asyncRabbitTemplate(RabbitTemplate rabbitTemplate,
+            @Value("${rabbitmq.descuentos.cupon.validar.timeout-ms:5000}") long replyTimeoutMs) {
+        AsyncRabbitTemplate asyncRabbitTemplate = new AsyncRabbitTemplate(rabbitTemplate);
+        asyncRabbitTemplate.setReceiveTimeout(replyTimeoutMs);
+        return asyncRabbitTemplate;
+    }
+
     @Bean(name = "manualAckRabbitListenerContainerFactory")
     public SimpleRabbitListenerContainerFactory manualAckRabbitListenerContainerFactory(
             ConnectionFactory connectionFactory,
-            MessageConverter messageConverter) {
+            MessageConverter messageConverter,
+            RabbitListenerAutoscaler rabbitListenerAutoscaler) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setMessageConverter(messageConverter);
+        factory.setAcknowledgeMode(org.springframework.amqp.core.AcknowledgeMode.MANUAL);
+        factory.setContainerCustomizer(rabbitListenerAutoscaler);
+        aplicarHilosVirtuales(factory);
+        return factory;
+    }
+
+    // Variante por lotes de manualAck: el listener recibe hasta batch-size entregas y confirma con multiple=true
+    @Bean(name = "manualAckBatchRabbitListenerContainerFactory")
+    public SimpleRabbitListenerContainerFactory manualAckBatchRabbitListenerContainerFactory(
+            ConnectionFactory connectionFactory,
+            MessageConverter messageConverter,
+            @Value("${ventas.stock.validation.batch.size:50}") int batchSize,
+            @Value("${ventas.stock.validation.batch.receive-timeout-ms:100}") long receiveTimeoutMs,
+            RabbitListenerAutoscaler rabbitListenerAutoscaler) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setMessageConverter(messageConverter);
+        factory.setAcknowledgeMode(org.springframework.amqp.core.AcknowledgeMode.MANUAL);
+        factory.setContainerCustomizer(rabbitListenerAutoscaler);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        factory.setPrefetchCount(batchSize);
+        factory.setBatchReceiveTimeout(receiveTimeoutMs);
+        aplicarHilosVirtuales(factory);
+        return factory;
+    }
+
+    // Entrega lotes de hasta batch-size mensajes; el listener confirma con multiple=true y deriva los fallidos a reintento
+    @Bean(name = "movieEventBatchContainerFactory")
+    public SimpleRabbitListenerContainerFactory movieEventBatchContainerFactory(
+            ConnectionFactory connectionFactory,
+            MessageConverter messageConverter,
+            @Value("${ventas.movie.events.batch.size:500}") int batchSize,
+            @Value("${ventas.movie.events.batch.receive-timeout-ms:200}") long receiveTimeoutMs) {
         SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
         factory.setConnectionFactory(connectionFactory);
         factory.setMessageConverter(messageConverter);
         factory.setAcknowledgeMode(org.springframework.amqp.core.AcknowledgeMode.MANUAL);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        factory.setPrefetchCount(batchSize);
+        factory.setBatchReceiveTimeout(receiveTimeoutMs);
+        aplicarHilosVirtuales(factory);
         return factory;
     }
 
+    // Las factories propias no pasan por el configurer de Boot, así que el modo virtual se aplica a mano.
+    // Solo cambia el tipo de hilo: cada consumidor sigue procesando una entrega a la vez según su concurrency
+    private void aplicarHilosVirtuales(SimpleRabbitListenerContainerFactory factory) {
+        if (hilosVirtuales) {
+            factory.setTaskExecutor(new VirtualThreadTaskExecutor("rabbit-listener-"));
+        }
+    }
 }
@@ -0,0 +1,112 @@
+package unrn.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Reintentos escalonados compartidos por los listeners: cada nivel es una cola sin consumidores donde el mensaje
+// espera su expiration y vuelve a la cola de origen por el exchange headers de retorno (x-retry-target-queue)
+@Component
+public class RabbitRetryTiers {
+
+    static final String HEADER_COLA_DESTINO = "x-retry-target-queue";
+    static final String HEADER_REINTENTOS = "x-retry-count";
+
+    private static final Logger log = LoggerFactory.getLogger(RabbitRetryTiers.class);
+
+    private final RabbitTemplate rabbitTemplate;
+    private final MeterRegistry meterRegistry;
+    private final RetryTierPolicy policy;
+    private final String prefijoCola;
+    private final long confirmTimeoutMs;
+
+    public RabbitRetryTiers(RabbitTemplate rabbitTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${rabbitmq.ventas.retry.tiers-ms:1000,5000,30000,300000}") long[] nivelesMs,
+            @Value("${rabbitmq.ventas.retry.jitter-ratio:0.2}") double jitterRatio,
+            @Value("${rabbitmq.ventas.retry.tier.queue-prefix:ventas.q.retry.tier-}") String prefijoCola,
+            @Value("${rabbitmq.publisher.confirm-timeout-ms:5000}") long confirmTimeoutMs) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.meterRegistry = meterRegistry;
+        this.policy = new RetryTierPolicy(Arrays.stream(nivelesMs).boxed().toList(), jitterRatio,
+                () -> ThreadLocalRandom.current().nextDouble());
+        this.prefijoCola = prefijoCola;
+        this.confirmTimeoutMs = confirmTimeoutMs;
+    }
+
+    public int cantidadNiveles() {
+        return policy.cantidadNiveles();
+    }
+
+    public String colaDeNivel(int nivel) {
+        return prefijoCola + (nivel + 1);
+    }
+
+    // Los reintentos escalonados llevan su propio contador; sin él se cae al x-death de la cola de retry fija
+    public long cantidadReintentos(Message message) {
+        Map<String, Object> headers = message.getMessageProperties().getHeaders();
+        if (headers.get(HEADER_REINTENTOS) instanceof Number reintentos) {
+            return reintentos.longValue();
+        }
+
+        if (!(headers.get("x-death") instanceof List<?> entries) || entries.isEmpty()) {
+            return 0;
+        }
+        if (entries.get(0) instanceof Map<?, ?> deathEntry && deathEntry.get("count") instanceof Number count) {
+            return count.longValue();
+        }
+        return 0;
+    }
+
+    // Publica una copia en la cola del nivel que corresponde y espera el confirm del broker. El caller confirma la
+    // entrega original solo si devuelve true; con nack, return o sin confirm a tiempo debe devolverla a la cola
+    public boolean reintentar(String listener, String colaDestino, Message original, long intentosPrevios) {
+        int nivel = policy.nivel(intentosPrevios);
+        Message copia = MessageBuilder.withBody(original.getBody())
+                .andProperties(original.getMessageProperties())
+                .setHeader(HEADER_COLA_DESTINO, colaDestino)
+                .setHeader(HEADER_REINTENTOS, intentosPrevios + 1)
+                .setExpiration(String.valueOf(policy.delayMs(nivel)))
+                .build();
+
+        if (!publicarConfirmado(colaDeNivel(nivel), copia)) {
+            meterRegistry.counter("ventas.rabbit.retry.tier.unconfirmed.total", "listener", listener).increment();
+            return false;
+        }
+
+        meterRegistry.counter("ventas.rabbit.retry.tier.total",
+                "listener", listener,
+                "tier", policy.delayBaseMs(nivel) + "ms").increment();
+        return true;
+    }
+
+    private boolean publicarConfirmado(String colaNivel, Message copia) {
+        CorrelationData correlationData = new CorrelationData(UUID.randomUUID().toString());
+        rabbitTemplate.send("", colaNivel, copia, correlationData);
+        try {
+            CorrelationData.Confirm confirm = correlationData.getFuture().get(confirmTimeoutMs, TimeUnit.MILLISECONDS);
+            return confirm != null && confirm.isAck() && correlationData.getReturned() == null;
+        } catch (ExecutionException | TimeoutException ex) {
+            log.warn("Sin confirm del nivel de reintento cola={} reason={}", colaNivel, ex.getMessage());
+            return false;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package unrn.config;
+
+import java.util.List;
+import java.util.function.DoubleSupplier;
+
+class RetryTierPolicy {
+
+    static final String ERROR_NIVELES_VACIOS = "Debe configurarse al menos un nivel de reintento";
+    static final String ERROR_DELAY_INVALIDO = "Los delays de reintento deben ser positivos y crecientes";
+    static final String ERROR_JITTER_INVALIDO = "El jitter de reintento debe estar entre 0 y 1";
+
+    private final List<Long> delaysMs;
+    private final double jitterRatio;
+    private final DoubleSupplier aleatorio;
+
+    RetryTierPolicy(List<Long> delaysMs, double jitterRatio, DoubleSupplier aleatorio) {
+        assertNivelesConfigurados(delaysMs);
+        assertDelaysValidos(delaysMs);
+        assertJitterValido(jitterRatio);
+
+        this.delaysMs = List.copyOf(delaysMs);
+        this.jitterRatio = jitterRatio;
+        this.aleatorio = aleatorio;
+    }
+
+    int cantidadNiveles() {
+        return delaysMs.size();
+    }
+
+    long delayBaseMs(int nivel) {
+        return delaysMs.get(nivel);
+    }
+
+    // intentosPrevios=0 -> primer nivel, 1 -> segundo, ...; pasado el último se sigue usando el último
+    int nivel(long intentosPrevios) {
+        return (int) Math.min(Math.max(0, intentosPrevios), delaysMs.size() - 1);
+    }
+
+    // Delay del nivel más hasta jitterRatio de ese delay al azar, para no devolver juntos los que fallaron juntos
+    long delayMs(int nivel) {
+        long delayMs = delaysMs.get(nivel);
+        return delayMs + (long) (delayMs * jitterRatio * aleatorio.getAsDouble());
+    }
+
+    private void assertNivelesConfigurados(List<Long> delaysMs) {
+        if (delaysMs == null || delaysMs.isEmpty()) {
+            throw new RuntimeException(ERROR_NIVELES_VACIOS);
+        }
+    }
+
+    private void assertDelaysValidos(List<Long> delaysMs) {
+        long anterior = 0;
+        for (Long delayMs : delaysMs) {
+            if (delayMs == null || delayMs <= anterior) {
+                throw new RuntimeException(ERROR_DELAY_INVALIDO);
+            }
+            anterior = delayMs;
+        }
+    }
+
+    private void assertJitterValido(double jitterRatio) {
+        if (jitterRatio < 0 || jitterRatio > 1) {
+            throw new RuntimeException(ERROR_JITTER_INVALIDO);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package unrn.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+// Expone como métrica los eventos JFR jdk.VirtualThreadPinned (un virtual thread bloqueado sin liberar su carrier)
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+    static final String EVENTO_PINNED = "jdk.VirtualThreadPinned";
+
+    private final Timer pinned;
+    private final long umbralMs;
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry,
+            @Value("${ventas.virtual-threads.pinning.threshold-ms:20}") long umbralMs) {
+        this.umbralMs = umbralMs;
+        this.pinned = Timer.builder("ventas.jvm.virtual.thread.pinned")
+                .description("Bloqueos de virtual threads que retuvieron su carrier más que el umbral")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public synchronized void start() {
+        stream = new RecordingStream();
+        stream.enable(EVENTO_PINNED).withThreshold(Duration.ofMillis(umbralMs)).withStackTrace();
+        stream.onEvent(EVENTO_PINNED, this::registrar);
+        stream.startAsync();
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (stream != null) {
+            stream.close();
+            stream = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return stream != null;
+    }
+
+    private void registrar(RecordedEvent evento) {
+        pinned.record(evento.getDuration());
+        if (log.isWarnEnabled()) {
+            log.warn("virtual_thread_pinned duracionMs={} frame={}", evento.getDuration().toMillis(), primerFrame(evento));
+        }
+    }
+
+    // El primer frame de la aplicación suele señalar el synchronized o la llamada nativa responsable
+    private String primerFrame(RecordedEvent evento) {
+        if (evento.getStackTrace() == null) {
+            return "desconocido";
+        }
+        for (RecordedFrame frame : evento.getStackTrace().getFrames()) {
+            String tipo = frame.getMethod().getType().getName();
+            if (tipo.startsWith("unrn.")) {
+                return tipo + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+            }
+        }
+        var frames = evento.getStackTrace().getFrames();
+        return frames.isEmpty() ? "desconocido"
+                : frames.get(0).getMethod().getType().getName() + "." + frames.get(0).getMethod().getName();
+    }
+}
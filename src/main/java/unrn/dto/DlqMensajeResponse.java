@@ -0,0 +1,12 @@
+package unrn.dto;
+
+import java.time.Instant;
+
+public record DlqMensajeResponse(
+        String messageId,
+        String eventId,
+        String motivo,
+        Instant timestamp,
+        int tamanioBytes,
+        String payload) {
+}
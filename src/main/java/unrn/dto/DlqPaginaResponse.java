@@ -0,0 +1,10 @@
+package unrn.dto;
+
+import java.util.List;
+
+public record DlqPaginaResponse(
+        String cola,
+        long mensajesEnCola,
+        int desde,
+        List<DlqMensajeResponse> mensajes) {
+}
@@ -0,0 +1,13 @@
+package unrn.dto;
+
+public record DlqRedriveJobResponse(
+        String id,
+        String cola,
+        String estado,
+        int redirigidos,
+        int omitidos,
+        int fallidos,
+        long duracionMs,
+        double mensajesPorSegundo,
+        String error) {
+}
@@ -0,0 +1,9 @@
+package unrn.dto;
+
+import java.util.List;
+
+public record DlqRedriveRequest(
+        List<String> ids,
+        String motivo,
+        Integer maxMensajes) {
+}
@@ -0,0 +1,10 @@
+package unrn.dto;
+
+import java.util.Map;
+
+public record DlqResumenResponse(
+        String cola,
+        long mensajesEnCola,
+        int inspeccionados,
+        Map<String, Long> porMotivo) {
+}
@@ -0,0 +1,14 @@
+package unrn.dto;
+
+import java.time.Instant;
+
+public record OutboxEventoTrabadoResponse(
+        Long id,
+        Long aggregateId,
+        String eventType,
+        String status,
+        int attempts,
+        Instant createdAt,
+        Instant nextAttemptAt,
+        String lastError) {
+}
@@ -4,14 +4,18 @@ import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.MDC;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
 import org.springframework.amqp.core.TopicExchange;
 import org.springframework.amqp.rabbit.connection.CorrelationData;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.amqp.support.converter.AbstractJavaTypeMapper;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.util.concurrent.TimeUnit;
 
 @Component
@@ -45,22 +49,10 @@ public class CompraConfirmadaPublisher {
     public void publicarAhora(CompraConfirmadaEvent event) {
         MDC.put("eventId", event.eventId().toString());
         MDC.put("compraId", String.valueOf(event.data().compraId()));
-        CorrelationData correlationData = new CorrelationData(event.eventId().toString());
         try {
             log.info("Publicando CompraConfirmada eventId={} compraId={}", event.eventId(), event.data().compraId());
-            rabbitTemplate.convertAndSend(
-                    comprasEventsExchange.getName(),
-                    routingKey,
-                    event,
-                    message -> {
-                        message.getMessageProperties().setHeader("x-event-id", event.eventId().toString());
-                        message.getMessageProperties().setHeader("x-correlation-id", event.eventId().toString());
-                        message.getMessageProperties().setHeader("x-source", "ventas");
-                        message.getMessageProperties().setHeader(AmqpHeaders.TYPE, CompraConfirmadaEvent.EVENT_TYPE);
-                        return message;
-                    },
-                    correlationData);
-            validarConfirmacion(correlationData, event);
+            CorrelationData correlationData = enviar(event);
+            validarConfirmacion(correlationData, event.eventId().toString());
             meterRegistry.counter("ventas.publisher.compra_confirmada.success.total").increment();
         } catch (Exception ex) {
             log.error("No se pudo publicar CompraConfirmada eventId={} compraId={} mensaje={}",
@@ -75,7 +67,64 @@ public class CompraConfirmadaPublisher {
         }
     }
 
-    private void validarConfirmacion(CorrelationData correlationData, CompraConfirmadaEvent event) throws Exception {
+    // Envía sin esperar la confirmación; quien llama resuelve el futuro del CorrelationData
+    public CorrelationData enviar(CompraConfirmadaEvent event) {
+        CorrelationData correlationData = new CorrelationData(event.eventId().toString());
+        rabbitTemplate.convertAndSend(
+                comprasEventsExchange.getName(),
+                routingKey,
+                event,
+                message -> {
+                    message.getMessageProperties().setHeader("x-event-id", event.eventId().toString());
+                    message.getMessageProperties().setHeader("x-correlation-id", event.eventId().toString());
+                    message.getMessageProperties().setHeader("x-source", "ventas");
+                    message.getMessageProperties().setHeader(AmqpHeaders.TYPE, CompraConfirmadaEvent.EVENT_TYPE);
+                    return message;
+                },
+                correlationData);
+        return correlationData;
+    }
+
+    // Publica el JSON ya serializado en outbox sin volver a pasar por Jackson
+    public void publicarPayloadAhora(String eventId, byte[] payload) {
+        MDC.put("eventId", eventId);
+        try {
+            CorrelationData correlationData = enviarPayload(eventId, payload);
+            validarConfirmacion(correlationData, eventId);
+            meterRegistry.counter("ventas.publisher.compra_confirmada.success.total").increment();
+        } catch (Exception ex) {
+            log.error("No se pudo publicar CompraConfirmada eventId={} mensaje={}", eventId, ex.getMessage());
+            meterRegistry.counter("ventas.publisher.compra_confirmada.failed.total").increment();
+            if (strictConfirms) {
+                throw new RuntimeException(ERROR_PUBLICACION_COMPRA_CONFIRMADA, ex);
+            }
+        } finally {
+            MDC.remove("eventId");
+        }
+    }
+
+    public CorrelationData enviarPayload(String eventId, byte[] payload) {
+        CorrelationData correlationData = new CorrelationData(eventId);
+        rabbitTemplate.send(comprasEventsExchange.getName(), routingKey, mensajeDesdePayload(eventId, payload),
+                correlationData);
+        return correlationData;
+    }
+
+    // Mismos headers que produce Jackson2JsonMessageConverter para que los consumidores no noten diferencia
+    private Message mensajeDesdePayload(String eventId, byte[] payload) {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+        properties.setContentEncoding(StandardCharsets.UTF_8.name());
+        properties.setContentLength(payload.length);
+        properties.setHeader(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME, CompraConfirmadaEvent.class.getName());
+        properties.setHeader("x-event-id", eventId);
+        properties.setHeader("x-correlation-id", eventId);
+        properties.setHeader("x-source", "ventas");
+        properties.setHeader(AmqpHeaders.TYPE, CompraConfirmadaEvent.EVENT_TYPE);
+        return new Message(payload, properties);
+    }
+
+    private void validarConfirmacion(CorrelationData correlationData, String eventId) throws Exception {
         if (!strictConfirms) {
             return;
         }
@@ -83,11 +132,11 @@ public class CompraConfirmadaPublisher {
         CorrelationData.Confirm confirm = correlationData.getFuture().get(confirmTimeoutMs, TimeUnit.MILLISECONDS);
         if (confirm == null || !confirm.isAck()) {
             String causa = confirm != null ? confirm.getReason() : "confirmación nula";
-            throw new RuntimeException("Broker NACK para eventId=" + event.eventId() + " causa=" + causa);
+            throw new RuntimeException("Broker NACK para eventId=" + eventId + " causa=" + causa);
         }
 
         if (correlationData.getReturned() != null) {
-            throw new RuntimeException("Evento retornado por broker para eventId=" + event.eventId());
+            throw new RuntimeException("Evento retornado por broker para eventId=" + eventId);
         }
     }
 }
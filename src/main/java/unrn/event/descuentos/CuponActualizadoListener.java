@@ -0,0 +1,97 @@
+package unrn.event.descuentos;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.Exchange;
+import org.springframework.amqp.rabbit.annotation.Queue;
+import org.springframework.amqp.rabbit.annotation.QueueBinding;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+import unrn.model.CuponProyeccion;
+import unrn.service.CuponProyeccionService;
+import unrn.service.CuponValidacionCache;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Cuando descuentos publica un cambio de cupón se actualiza la proyección local (si el evento trae el cupón completo)
+// y se descarta la entrada cacheada. El exchange pertenece a descuentos y no se declara desde acá; sin alguno de los
+// flags tampoco se declaran cola ni binding
+@Component
+@ConditionalOnExpression("${ventas.cupon-cache.invalidation.enabled:false} or ${ventas.cupon-proyeccion.events.enabled:false}")
+public class CuponActualizadoListener {
+
+    private static final Logger log = LoggerFactory.getLogger(CuponActualizadoListener.class);
+
+    private final CuponValidacionCache cuponValidacionCache;
+    private final CuponProyeccionService cuponProyeccionService;
+    private final ObjectMapper objectMapper;
+
+    public CuponActualizadoListener(CuponValidacionCache cuponValidacionCache,
+            CuponProyeccionService cuponProyeccionService, ObjectMapper objectMapper) {
+        this.cuponValidacionCache = cuponValidacionCache;
+        this.cuponProyeccionService = cuponProyeccionService;
+        this.objectMapper = objectMapper;
+    }
+
+    @RabbitListener(bindings = @QueueBinding(value = @Queue(value = "${rabbitmq.descuentos.cupon.actualizado.queue:ventas.q.descuentos-cupon-actualizado}", durable = "true"), exchange = @Exchange(value = "${rabbitmq.descuentos.exchange:descuentos.exchange}", declare = "false"), key = "${rabbitmq.descuentos.cupon.actualizado.routing-key:descuentos.cupon.actualizado}"))
+    public void onCuponActualizado(Message message) {
+        JsonNode evento = leer(message);
+        JsonNode data = evento.has("data") ? evento.path("data") : evento;
+        String nombreCupon = texto(data.path("nombreCupon"));
+        if (nombreCupon == null) {
+            // Sin cupón identificable no se sabe qué entrada quedó vieja: se descarta toda la cache
+            log.warn("Evento de cupón actualizado sin nombreCupon, se invalida toda la cache");
+            cuponValidacionCache.invalidarTodo();
+            return;
+        }
+
+        CuponProyeccion cupon = cuponDe(nombreCupon, data);
+        if (cupon != null) {
+            boolean aplicado = cuponProyeccionService.aplicarCambio(cupon);
+            log.info("Cupón actualizado en descuentos nombreCupon={}, version={}, aplicado={}",
+                    nombreCupon, cupon.version(), aplicado);
+            return;
+        }
+
+        log.info("Cupón actualizado en descuentos, se invalida la cache nombreCupon={}", nombreCupon);
+        cuponValidacionCache.invalidar(nombreCupon);
+    }
+
+    // Un evento que solo trae el nombre (o datos inválidos) no alcanza para proyectar: queda solo la invalidación
+    private CuponProyeccion cuponDe(String nombreCupon, JsonNode data) {
+        if (!data.path("porcentajeDescuento").isNumber() || !data.path("version").canConvertToLong()
+                || texto(data.path("vigenteDesde")) == null || texto(data.path("vigenteHasta")) == null) {
+            return null;
+        }
+        try {
+            return new CuponProyeccion(
+                    nombreCupon,
+                    new BigDecimal(data.path("porcentajeDescuento").asText()),
+                    LocalDate.parse(data.path("vigenteDesde").asText()),
+                    LocalDate.parse(data.path("vigenteHasta").asText()),
+                    data.path("activo").asBoolean(true),
+                    data.path("version").asLong());
+        } catch (RuntimeException ex) {
+            log.warn("Evento de cupón con datos inválidos nombreCupon={}: {}", nombreCupon, ex.getMessage());
+            return null;
+        }
+    }
+
+    private JsonNode leer(Message message) {
+        try {
+            return objectMapper.readTree(message.getBody());
+        } catch (IOException ex) {
+            return objectMapper.createObjectNode();
+        }
+    }
+
+    private String texto(JsonNode nodo) {
+        return nodo.isTextual() && !nodo.asText().isBlank() ? nodo.asText() : null;
+    }
+}
@@ -1,10 +1,17 @@
 package unrn.event.movie;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 import unrn.model.PeliculaProyeccion;
 import unrn.repository.PeliculaProyeccionRepository;
 
@@ -27,18 +34,73 @@ public class MovieEventHandler {
     public void handle(MovieEventEnvelope envelope) {
         assertEventoNoNulo(envelope);
         assertPayloadNoNulo(envelope.payload());
+        assertMovieIdNoNulo(envelope.payload().movieId());
+        var movieId = String.valueOf(envelope.payload().movieId());
 
+        resolver(repository.buscarPorMovieId(movieId), envelope).ifPresent(repository::guardar);
+    }
+
+    // Coalesce el lote por película: aplica la secuencia en memoria y persiste solo la última versión aplicable
+    @Transactional
+    public MovieEventLoteResultado handleLote(List<MovieEventEnvelope> envelopes) {
+        Map<String, List<MovieEventEnvelope>> porPelicula = new LinkedHashMap<>();
+        int descartados = 0;
+        for (var envelope : envelopes) {
+            try {
+                assertEventoNoNulo(envelope);
+                assertPayloadNoNulo(envelope.payload());
+                assertMovieIdNoNulo(envelope.payload().movieId());
+                porPelicula.computeIfAbsent(String.valueOf(envelope.payload().movieId()), id -> new ArrayList<>())
+                        .add(envelope);
+            } catch (MovieEventNoRetryException ex) {
+                descartados++;
+                log.error("evento_movie_descartado_sin_reintento eventId={} reason={}",
+                        envelope != null ? envelope.eventId() : "unknown", ex.getMessage());
+            }
+        }
+
+        var existentes = repository.buscarPorMovieIds(porPelicula.keySet());
+        Map<String, PeliculaProyeccion> aGuardar = new LinkedHashMap<>();
+        List<MovieEventEnvelope> fueraDeSecuencia = new ArrayList<>();
+        int aplicados = 0;
+        for (var entrada : porPelicula.entrySet()) {
+            var movieId = entrada.getKey();
+            var actual = Optional.ofNullable(existentes.get(movieId));
+            var eventos = entrada.getValue().stream()
+                    .sorted(Comparator.comparingLong(envelope -> envelope.payload().version()))
+                    .toList();
+
+            for (var envelope : eventos) {
+                try {
+                    var nueva = resolver(actual, envelope);
+                    if (nueva.isPresent()) {
+                        actual = nueva;
+                        aGuardar.put(movieId, nueva.get());
+                        aplicados++;
+                    }
+                } catch (MovieEventVersionGapException ex) {
+                    fueraDeSecuencia.add(envelope);
+                } catch (MovieEventNoRetryException ex) {
+                    descartados++;
+                    log.error("evento_movie_descartado_sin_reintento eventId={} reason={}",
+                            envelope.eventId(), ex.getMessage());
+                }
+            }
+        }
+
+        repository.guardarTodas(List.copyOf(aGuardar.values()));
+        return new MovieEventLoteResultado(aplicados, descartados, aGuardar.keySet(), fueraDeSecuencia);
+    }
+
+    // Decide la proyección resultante de aplicar el evento sobre el estado actual; vacío si ya estaba aplicado
+    private Optional<PeliculaProyeccion> resolver(Optional<PeliculaProyeccion> existente, MovieEventEnvelope envelope) {
         var payload = envelope.payload();
-        assertMovieIdNoNulo(payload.movieId());
         var movieId = String.valueOf(payload.movieId());
         var incomingVersion = payload.version();
 
-        var existente = repository.buscarPorMovieId(movieId);
-
         if (existente.isEmpty()) {
             long versionPersistida = normalizarVersionInicial(movieId, incomingVersion, envelope);
-            guardarProyeccion(payload, movieId, versionPersistida);
-            return;
+            return Optional.of(proyeccionDesde(payload, movieId, versionPersistida));
         }
 
         var currentVersion = existente.get().version();
@@ -51,7 +113,7 @@ public class MovieEventHandler {
                     movieId,
                     currentVersion,
                     incomingVersion);
-            return;
+            return Optional.empty();
         }
 
         if (incomingVersion > currentVersion + 1) {
@@ -64,7 +126,7 @@ public class MovieEventHandler {
                     envelope.eventType());
         }
 
-        guardarProyeccion(payload, movieId, incomingVersion);
+        return Optional.of(proyeccionDesde(payload, movieId, incomingVersion));
     }
 
     private long normalizarVersionInicial(String movieId, long incomingVersion, MovieEventEnvelope envelope) {
@@ -87,15 +149,13 @@ public class MovieEventHandler {
         return incomingVersion;
     }
 
-    private void guardarProyeccion(MovieEventPayload payload, String movieId, long version) {
-        var proyeccion = new PeliculaProyeccion(
+    private PeliculaProyeccion proyeccionDesde(MovieEventPayload payload, String movieId, long version) {
+        return new PeliculaProyeccion(
                 movieId,
                 payload.title(),
                 BigDecimal.valueOf(payload.price()),
                 payload.active(),
                 version);
-
-        repository.guardar(proyeccion);
     }
 
     private void assertEventoNoNulo(MovieEventEnvelope envelope) {
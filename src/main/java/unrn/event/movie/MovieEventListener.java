@@ -1,12 +1,31 @@
 package unrn.event.movie;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rabbitmq.client.Channel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.Exchange;
 import org.springframework.amqp.rabbit.annotation.Queue;
 import org.springframework.amqp.rabbit.annotation.QueueBinding;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import unrn.config.RabbitLoteAcks;
+import unrn.config.RabbitRetryTiers;
+import unrn.inbox.InboxEventService;
+import unrn.inbox.InboxEventoRecibido;
+import unrn.service.ProjectionBootstrapService;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class MovieEventListener {
@@ -14,13 +33,51 @@ public class MovieEventListener {
     private static final Logger log = LoggerFactory.getLogger(MovieEventListener.class);
 
     private final MovieEventHandler handler;
+    private final MovieEventReorderBuffer reorderBuffer;
+    private final ProjectionBootstrapService projectionBootstrapService;
+    private final MovieEventPartitionedExecutor partitionedExecutor;
+    private final RabbitRetryTiers rabbitRetryTiers;
+    private final InboxEventService inboxEventService;
+    private final ObjectMapper objectMapper;
+    private final String queueName;
+    private final long requeueDelayMs;
+
+    @Value("${ventas.inbox.enabled:false}")
+    private boolean inboxHabilitado;
 
-    public MovieEventListener(MovieEventHandler handler) {
+    public MovieEventListener(MovieEventHandler handler,
+            MovieEventReorderBuffer reorderBuffer,
+            ProjectionBootstrapService projectionBootstrapService,
+            MovieEventPartitionedExecutor partitionedExecutor,
+            RabbitRetryTiers rabbitRetryTiers,
+            InboxEventService inboxEventService,
+            ObjectMapper objectMapper,
+            @Value("${rabbitmq.event.movie.queue.name:movie.events.queue}") String queueName,
+            @Value("${rabbitmq.event.movie.requeue-delay-ms:1000}") long requeueDelayMs) {
         this.handler = handler;
+        this.reorderBuffer = reorderBuffer;
+        this.projectionBootstrapService = projectionBootstrapService;
+        this.partitionedExecutor = partitionedExecutor;
+        this.rabbitRetryTiers = rabbitRetryTiers;
+        this.inboxEventService = inboxEventService;
+        this.objectMapper = objectMapper;
+        this.queueName = queueName;
+        this.requeueDelayMs = requeueDelayMs;
     }
 
-        @RabbitListener(bindings = @QueueBinding(value = @Queue(value = "${rabbitmq.event.movie.queue.name:movie.events.queue}", durable = "true"), exchange = @Exchange(value = "${rabbitmq.catalogo.events.exchange:catalogo.events.exchange}", type = "topic"), key = {
+    // Solo uno de los dos consumidores arranca, según ventas.movie.events.batch.enabled (respetando el auto-startup global)
+    @RabbitListener(autoStartup = "#{!${ventas.movie.events.batch.enabled:false} and ${spring.rabbitmq.listener.simple.auto-startup:true}}", containerFactory = "manualAckRabbitListenerContainerFactory", bindings = @QueueBinding(value = @Queue(value = "${rabbitmq.event.movie.queue.name:movie.events.queue}", durable = "true"), exchange = @Exchange(value = "${rabbitmq.catalogo.events.exchange:catalogo.events.exchange}", type = "topic"), key = {
             "MovieCreated.v1", "MovieUpdated.v1", "MovieRetired.v1" }))
+    public void consumirMovieEvent(MovieEventEnvelope envelope, Message message, Channel channel) {
+        if (inboxHabilitado && envelope != null && envelope.eventId() != null) {
+            registrarEnInbox(envelope, message, channel);
+            return;
+        }
+        // El consumidor solo reparte; el ack llega cuando el carril de la película terminó de aplicarlo
+        partitionedExecutor.ejecutar(claveDeParticion(envelope), () -> onMovieEvent(envelope))
+                .whenComplete((ok, ex) -> confirmar(channel, message, ex));
+    }
+
     public void onMovieEvent(MovieEventEnvelope envelope) {
         String eventType = envelope != null ? envelope.eventType() : "unknown";
         String eventId = envelope != null ? envelope.eventId() : "unknown";
@@ -28,6 +85,9 @@ public class MovieEventListener {
         log.info("Evento de catalogo recibido: {} ({})", eventType, eventId);
         try {
             handler.handle(envelope);
+            aplicarRetenidos(movieIdDe(envelope));
+        } catch (MovieEventVersionGapException ex) {
+            retener(envelope, ex.getMessage());
         } catch (MovieEventNoRetryException ex) {
             log.error(
                     "evento_movie_descartado_sin_reintento eventId={} eventType={} reason={}",
@@ -36,4 +96,181 @@ public class MovieEventListener {
                     ex.getMessage());
         }
     }
+
+    // Cada partición aplica su sub-lote; las entregas de una partición que falla se reprocesan de a una por el camino
+    // individual (niveles de reintento) y el resto se confirma con multiple=true, como los listeners de stock
+    @RabbitListener(autoStartup = "#{${ventas.movie.events.batch.enabled:false} and ${spring.rabbitmq.listener.simple.auto-startup:true}}", containerFactory = "movieEventBatchContainerFactory", bindings = @QueueBinding(value = @Queue(value = "${rabbitmq.event.movie.queue.name:movie.events.queue}", durable = "true"), exchange = @Exchange(value = "${rabbitmq.catalogo.events.exchange:catalogo.events.exchange}", type = "topic"), key = {
+            "MovieCreated.v1", "MovieUpdated.v1", "MovieRetired.v1" }))
+    public void onMovieEventLote(List<Message> messages, Channel channel) throws IOException {
+        List<Map<Message, MovieEventEnvelope>> porParticion = new ArrayList<>();
+        for (int i = 0; i < partitionedExecutor.cantidadParticiones(); i++) {
+            porParticion.add(new LinkedHashMap<>());
+        }
+        List<Message> ilegibles = new ArrayList<>();
+        for (var message : messages) {
+            try {
+                var envelope = objectMapper.readValue(message.getBody(), MovieEventEnvelope.class);
+                if (envelope == null) {
+                    ilegibles.add(message);
+                    continue;
+                }
+                porParticion.get(partitionedExecutor.particion(claveDeParticion(envelope))).put(message, envelope);
+            } catch (IOException ex) {
+                ilegibles.add(message);
+            }
+        }
+
+        List<CompletableFuture<Throwable>> pendientes = new ArrayList<>();
+        for (int i = 0; i < porParticion.size(); i++) {
+            var subLote = List.copyOf(porParticion.get(i).values());
+            pendientes.add(subLote.isEmpty()
+                    ? CompletableFuture.completedFuture(null)
+                    : partitionedExecutor.ejecutarEnParticion(i, () -> aplicarLote(subLote)).handle((ok, ex) -> ex));
+        }
+
+        List<Message> aplicados = new ArrayList<>();
+        for (int i = 0; i < porParticion.size(); i++) {
+            Throwable error = pendientes.get(i).join();
+            if (error == null) {
+                aplicados.addAll(porParticion.get(i).keySet());
+                continue;
+            }
+            log.warn("evento_movie_lote_particion_fallida particion={} size={} reason={}",
+                    i, porParticion.get(i).size(), error.getMessage());
+            reprocesarIndividual(porParticion.get(i), channel);
+        }
+        for (var message : ilegibles) {
+            confirmar(channel, message, new IllegalArgumentException("evento de catalogo ilegible"));
+        }
+
+        RabbitLoteAcks.confirmarAplicados(channel, aplicados);
+    }
+
+    // En orden dentro de la partición: cada entrega se resuelve (ack o nivel de reintento) antes del ack múltiple
+    private void reprocesarIndividual(Map<Message, MovieEventEnvelope> subLote, Channel channel) {
+        subLote.forEach((message, envelope) -> {
+            Throwable error = partitionedExecutor.ejecutar(claveDeParticion(envelope), () -> onMovieEvent(envelope))
+                    .handle((ok, ex) -> ex)
+                    .join();
+            confirmar(channel, message, error);
+        });
+    }
+
+    private void aplicarLote(List<MovieEventEnvelope> envelopes) {
+        var resultado = handler.handleLote(envelopes);
+        log.info("Lote de eventos de catalogo aplicado: recibidos={} aplicados={} peliculas={} fueraDeSecuencia={}",
+                envelopes.size(), resultado.aplicados(), resultado.peliculasActualizadas().size(),
+                resultado.fueraDeSecuencia().size());
+
+        for (var envelope : resultado.fueraDeSecuencia()) {
+            retener(envelope, "version fuera de secuencia en lote");
+        }
+        resultado.peliculasActualizadas().forEach(this::aplicarRetenidos);
+    }
+
+    // Un hueco que no se completa dentro de max-age se resuelve resincronizando solo esa película
+    @Scheduled(fixedDelayString = "${ventas.movie.events.reorder.sweep-ms:5000}")
+    public void expirarRetenidos() {
+        for (String movieId : reorderBuffer.expirarVencidos()) {
+            log.warn("evento_movie_hueco_vencido movieId={}", movieId);
+            partitionedExecutor.ejecutar(movieId, () -> resincronizar(movieId));
+        }
+    }
+
+    private void retener(MovieEventEnvelope envelope, String motivo) {
+        String movieId = movieIdDe(envelope);
+        log.info("evento_movie_retenido_fuera_de_orden eventId={} reason={}", envelope.eventId(), motivo);
+        if (!reorderBuffer.retener(movieId, envelope)) {
+            log.warn("evento_movie_buffer_desbordado movieId={}", movieId);
+            resincronizar(movieId);
+        }
+    }
+
+    private void aplicarRetenidos(String movieId) {
+        var siguiente = reorderBuffer.extraerSiguiente(movieId);
+        while (siguiente.isPresent()) {
+            var retenido = siguiente.get();
+            try {
+                handler.handle(retenido.envelope());
+                reorderBuffer.registrarAplicadoTarde();
+            } catch (MovieEventVersionGapException ex) {
+                reorderBuffer.devolver(movieId, retenido);
+                return;
+            } catch (MovieEventNoRetryException ex) {
+                log.error("evento_movie_retenido_descartado eventId={} reason={}",
+                        retenido.envelope().eventId(), ex.getMessage());
+            }
+            siguiente = reorderBuffer.extraerSiguiente(movieId);
+        }
+    }
+
+    private void resincronizar(String movieId) {
+        try {
+            projectionBootstrapService.resincronizarPelicula(Long.valueOf(movieId));
+        } catch (RuntimeException ex) {
+            log.error("evento_movie_resync_fallido movieId={} reason={}", movieId, ex.getMessage());
+        }
+    }
+
+    // Con el inbox la entrega se confirma apenas queda persistida; los workers del inbox la aplican después
+    private void registrarEnInbox(MovieEventEnvelope envelope, Message message, Channel channel) {
+        RuntimeException error = null;
+        try {
+            inboxEventService.registrar(new InboxEventoRecibido(InboxEventService.TIPO_MOVIE_EVENT,
+                    envelope.eventId(), claveDeParticion(envelope),
+                    new String(message.getBody(), StandardCharsets.UTF_8)));
+        } catch (RuntimeException ex) {
+            error = ex;
+        }
+        confirmar(channel, message, error);
+    }
+
+    // Un fallo pasa por los niveles de reintento y se queda en el último: la proyección no puede perder eventos
+    private void confirmar(Channel channel, Message message, Throwable error) {
+        long deliveryTag = message.getMessageProperties().getDeliveryTag();
+        try {
+            if (error == null) {
+                channel.basicAck(deliveryTag, false);
+                return;
+            }
+
+            long reintentos = rabbitRetryTiers.cantidadReintentos(message);
+            log.error("evento_movie_reintento deliveryTag={} intentosPrevios={} reason={}",
+                    deliveryTag, reintentos, error.getMessage());
+            try {
+                if (rabbitRetryTiers.reintentar("movie-events", queueName, message, reintentos)) {
+                    channel.basicAck(deliveryTag, false);
+                    return;
+                }
+            } catch (AmqpException ex) {
+                log.warn("evento_movie_nivel_reintento_no_disponible deliveryTag={} reason={}", deliveryTag, ex.getMessage());
+            }
+            reencolarConDemora(channel, deliveryTag);
+        } catch (IOException ex) {
+            log.error("evento_movie_ack_fallido deliveryTag={} reason={}", deliveryTag, ex.getMessage());
+        }
+    }
+
+    // La cola de movies no tiene DLX: sin la copia en el nivel de reintento (cola faltante o sin ruta, que el template
+    // mandatory devuelve al instante) la entrega vuelve a la cola, pero tras una demora para no girar en caliente
+    private void reencolarConDemora(Channel channel, long deliveryTag) throws IOException {
+        try {
+            Thread.sleep(requeueDelayMs);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        channel.basicNack(deliveryTag, false, true);
+    }
+
+    // Los eventos sin movieId se descartan en el handler; cualquier carril sirve para eso
+    private String claveDeParticion(MovieEventEnvelope envelope) {
+        if (envelope == null || envelope.payload() == null || envelope.payload().movieId() == null) {
+            return "";
+        }
+        return movieIdDe(envelope);
+    }
+
+    private String movieIdDe(MovieEventEnvelope envelope) {
+        return String.valueOf(envelope.payload().movieId());
+    }
 }
@@ -0,0 +1,16 @@
+package unrn.event.movie;
+
+import java.util.List;
+import java.util.Set;
+
+public record MovieEventLoteResultado(
+        int aplicados,
+        int descartados,
+        Set<String> peliculasActualizadas,
+        List<MovieEventEnvelope> fueraDeSecuencia) {
+
+    public MovieEventLoteResultado {
+        peliculasActualizadas = Set.copyOf(peliculasActualizadas);
+        fueraDeSecuencia = List.copyOf(fueraDeSecuencia);
+    }
+}
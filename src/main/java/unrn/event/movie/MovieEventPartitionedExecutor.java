@@ -0,0 +1,85 @@
+package unrn.event.movie;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Carriles de un solo hilo por hash de movieId: paralelismo entre películas y orden FIFO dentro de cada una
+@Component
+public class MovieEventPartitionedExecutor implements DisposableBean {
+
+    static final String ERROR_PARTICIONES_INVALIDAS = "La cantidad de particiones debe ser mayor a cero";
+
+    private final ThreadPoolExecutor[] particiones;
+
+    @Autowired
+    public MovieEventPartitionedExecutor(@Value("${ventas.movie.events.partitions:8}") int cantidadParticiones,
+            @Value("${spring.threads.virtual.enabled:false}") boolean hilosVirtuales,
+            MeterRegistry meterRegistry) {
+        assertParticionesValidas(cantidadParticiones);
+        this.particiones = new ThreadPoolExecutor[cantidadParticiones];
+        for (int i = 0; i < cantidadParticiones; i++) {
+            // Cada carril sigue siendo de un solo hilo; en modo virtual ese hilo no ocupa un carrier mientras espera JDBC
+            ThreadFactory threadFactory = hilosVirtuales
+                    ? Thread.ofVirtual().name("movie-events-" + i).factory()
+                    : Thread.ofPlatform().name("movie-events-" + i).factory();
+            particiones[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                    threadFactory);
+        }
+
+        Gauge.builder("ventas.movie.events.partitions", () -> particiones.length)
+                .register(meterRegistry);
+        Gauge.builder("ventas.movie.events.partitions.queued", this, MovieEventPartitionedExecutor::encolados)
+                .register(meterRegistry);
+    }
+
+    MovieEventPartitionedExecutor(int cantidadParticiones, MeterRegistry meterRegistry) {
+        this(cantidadParticiones, false, meterRegistry);
+    }
+
+    public CompletableFuture<Void> ejecutar(String movieId, Runnable tarea) {
+        return ejecutarEnParticion(particion(movieId), tarea);
+    }
+
+    public CompletableFuture<Void> ejecutarEnParticion(int particion, Runnable tarea) {
+        return CompletableFuture.runAsync(tarea, particiones[particion]);
+    }
+
+    public int particion(String movieId) {
+        return Math.floorMod(movieId.hashCode(), particiones.length);
+    }
+
+    public int cantidadParticiones() {
+        return particiones.length;
+    }
+
+    int encolados() {
+        return Arrays.stream(particiones).mapToInt(particion -> particion.getQueue().size()).sum();
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        for (var particion : particiones) {
+            particion.shutdown();
+        }
+        for (var particion : particiones) {
+            particion.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    private void assertParticionesValidas(int cantidadParticiones) {
+        if (cantidadParticiones <= 0) {
+            throw new RuntimeException(ERROR_PARTICIONES_INVALIDAS);
+        }
+    }
+}
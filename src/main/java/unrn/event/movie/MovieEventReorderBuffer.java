@@ -0,0 +1,131 @@
+package unrn.event.movie;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+
+// Retiene eventos que llegan antes que sus versiones previas, acotado por película y por antigüedad
+@Component
+public class MovieEventReorderBuffer {
+
+    static final String ERROR_LIMITES_INVALIDOS = "Los límites del buffer de reordenamiento deben ser mayores a cero";
+
+    private final int maxPorPelicula;
+    private final long maxAgeMs;
+    private final Clock clock;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, TreeMap<Long, Retenido>> retenidosPorPelicula = new HashMap<>();
+    private int cantidadRetenidos;
+
+    @Autowired
+    public MovieEventReorderBuffer(@Value("${ventas.movie.events.reorder.max-per-movie:50}") int maxPorPelicula,
+            @Value("${ventas.movie.events.reorder.max-age-ms:30000}") long maxAgeMs,
+            MeterRegistry meterRegistry) {
+        this(maxPorPelicula, maxAgeMs, meterRegistry, Clock.systemUTC());
+    }
+
+    MovieEventReorderBuffer(int maxPorPelicula, long maxAgeMs, MeterRegistry meterRegistry, Clock clock) {
+        assertLimitesValidos(maxPorPelicula, maxAgeMs);
+        this.maxPorPelicula = maxPorPelicula;
+        this.maxAgeMs = maxAgeMs;
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+
+        Gauge.builder("ventas.movie.events.buffer.size", this, MovieEventReorderBuffer::tamanio)
+                .register(meterRegistry);
+    }
+
+    // false si la película desbordó el buffer: se descartan sus eventos retenidos y corresponde resincronizarla
+    public synchronized boolean retener(String movieId, MovieEventEnvelope envelope) {
+        var retenidos = retenidosPorPelicula.computeIfAbsent(movieId, id -> new TreeMap<>());
+        if (!retenidos.containsKey(envelope.payload().version())) {
+            cantidadRetenidos++;
+        }
+        retenidos.put(envelope.payload().version(), new Retenido(envelope, clock.instant()));
+        meterRegistry.counter("ventas.movie.events.buffered.total").increment();
+
+        if (retenidos.size() > maxPorPelicula) {
+            descartar(movieId);
+            meterRegistry.counter("ventas.movie.events.buffer.overflow.total").increment();
+            return false;
+        }
+        return true;
+    }
+
+    public synchronized Optional<Retenido> extraerSiguiente(String movieId) {
+        var retenidos = retenidosPorPelicula.get(movieId);
+        if (retenidos == null) {
+            return Optional.empty();
+        }
+
+        var siguiente = retenidos.pollFirstEntry();
+        cantidadRetenidos--;
+        if (retenidos.isEmpty()) {
+            retenidosPorPelicula.remove(movieId);
+        }
+        return Optional.of(siguiente.getValue());
+    }
+
+    // Vuelve a retener un evento extraído que todavía no es aplicable, conservando su antigüedad original
+    public synchronized void devolver(String movieId, Retenido retenido) {
+        var anterior = retenidosPorPelicula.computeIfAbsent(movieId, id -> new TreeMap<>())
+                .put(retenido.envelope().payload().version(), retenido);
+        if (anterior == null) {
+            cantidadRetenidos++;
+        }
+    }
+
+    public void registrarAplicadoTarde() {
+        meterRegistry.counter("ventas.movie.events.applied.late.total").increment();
+    }
+
+    // Devuelve las películas cuyo hueco de versiones no se completó a tiempo
+    public synchronized Set<String> expirarVencidos() {
+        Instant limite = clock.instant().minusMillis(maxAgeMs);
+        Set<String> vencidas = new HashSet<>();
+        for (var entrada : retenidosPorPelicula.entrySet()) {
+            boolean vencida = entrada.getValue().values().stream()
+                    .anyMatch(retenido -> retenido.retenidoAt().isBefore(limite));
+            if (vencida) {
+                vencidas.add(entrada.getKey());
+            }
+        }
+
+        for (String movieId : vencidas) {
+            int expirados = descartar(movieId);
+            meterRegistry.counter("ventas.movie.events.expired.total").increment(expirados);
+        }
+        return vencidas;
+    }
+
+    public synchronized int tamanio() {
+        return cantidadRetenidos;
+    }
+
+    private int descartar(String movieId) {
+        var retenidos = retenidosPorPelicula.remove(movieId);
+        int descartados = retenidos == null ? 0 : retenidos.size();
+        cantidadRetenidos -= descartados;
+        return descartados;
+    }
+
+    private void assertLimitesValidos(int maxPorPelicula, long maxAgeMs) {
+        if (maxPorPelicula <= 0 || maxAgeMs <= 0) {
+            throw new RuntimeException(ERROR_LIMITES_INVALIDOS);
+        }
+    }
+
+    record Retenido(MovieEventEnvelope envelope, Instant retenidoAt) {
+    }
+}
@@ -1,21 +1,32 @@
 package unrn.event.stock;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.rabbitmq.client.Channel;
 import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.MDC;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
 import org.springframework.amqp.core.Message;
 import org.springframework.amqp.core.MessageBuilder;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import unrn.config.RabbitLoteAcks;
+import unrn.config.RabbitRetryTiers;
+import unrn.inbox.InboxEventService;
+import unrn.inbox.InboxEventoRecibido;
 import unrn.service.CompraCompensacionService;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Component
 public class StockRechazadoListener {
@@ -26,6 +37,9 @@ public class StockRechazadoListener {
     private final CompraCompensacionService compraCompensacionService;
     private final RabbitTemplate rabbitTemplate;
     private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+    private final RabbitRetryTiers rabbitRetryTiers;
+    private final InboxEventService inboxEventService;
 
     @Value("${rabbitmq.ventas.dlx.exchange}")
     private String deadLetterExchange;
@@ -33,25 +47,94 @@ public class StockRechazadoListener {
     @Value("${rabbitmq.ventas.stock.rechazado.dlq.routing-key}")
     private String deadLetterRoutingKey;
 
-    @Value("${rabbitmq.ventas.stock.rechazado.max-retries:3}")
+    @Value("${rabbitmq.ventas.stock.rechazado.max-retries:4}")
     private int maxRetries;
 
+    @Value("${rabbitmq.ventas.stock.rechazado.queue}")
+    private String queueName;
+
+    @Value("${ventas.inbox.enabled:false}")
+    private boolean inboxHabilitado;
+
     public StockRechazadoListener(CompraCompensacionService compraCompensacionService,
             RabbitTemplate rabbitTemplate,
-            MeterRegistry meterRegistry) {
+            MeterRegistry meterRegistry,
+            ObjectMapper objectMapper,
+            RabbitRetryTiers rabbitRetryTiers,
+            InboxEventService inboxEventService) {
         this.compraCompensacionService = compraCompensacionService;
         this.rabbitTemplate = rabbitTemplate;
         this.meterRegistry = meterRegistry;
+        this.objectMapper = objectMapper;
+        this.rabbitRetryTiers = rabbitRetryTiers;
+        this.inboxEventService = inboxEventService;
     }
 
-    @RabbitListener(queues = "${rabbitmq.ventas.stock.rechazado.queue}", containerFactory = "manualAckRabbitListenerContainerFactory")
-    public void onStockRechazado(StockRechazadoEvent event, Message message, Channel channel) throws IOException {
+    @RabbitListener(id = "stock-rechazado", queues = "${rabbitmq.ventas.stock.rechazado.queue}", containerFactory = "manualAckRabbitListenerContainerFactory", autoStartup = "#{!${ventas.stock.validation.batch.enabled:false}}")
+    public void onStockRechazado(StockRechazadoEvent event, Message message, Channel channel)
+            throws IOException {
+        procesarIndividual(event, message, channel);
+    }
+
+    // Lote de hasta batch-size entregas en una transacción; los que fallan se reprocesan de a uno
+    @RabbitListener(id = "stock-rechazado-lote", queues = "${rabbitmq.ventas.stock.rechazado.queue}", containerFactory = "manualAckBatchRabbitListenerContainerFactory", autoStartup = "${ventas.stock.validation.batch.enabled:false}")
+    public void onStockRechazadoLote(List<Message> messages, Channel channel) throws IOException {
+        meterRegistry.summary("ventas.stock_rechazado.batch.size").record(messages.size());
+        Map<Message, StockRechazadoEvent> eventos = new LinkedHashMap<>();
+        List<Message> individuales = new ArrayList<>();
+        for (Message message : messages) {
+            try {
+                var event = objectMapper.readValue(message.getBody(), StockRechazadoEvent.class);
+                assertEventoValido(event);
+                eventos.put(message, event);
+            } catch (IOException | RuntimeException ex) {
+                individuales.add(message);
+            }
+        }
+
+        Set<String> fallidos;
+        try {
+            fallidos = inboxHabilitado
+                    ? registrarEnInbox(eventos)
+                    : compraCompensacionService.compensarLote(List.copyOf(eventos.values()));
+        } catch (RuntimeException ex) {
+            log.warn("Lote de stock rechazado fallido, se reprocesa de a uno size={} error={}", eventos.size(), ex.getMessage());
+            fallidos = eventos.values().stream().map(StockRechazadoEvent::eventId).collect(Collectors.toSet());
+        }
+
+        List<Message> aplicados = new ArrayList<>();
+        for (var entrada : eventos.entrySet()) {
+            if (fallidos.contains(entrada.getValue().eventId())) {
+                individuales.add(entrada.getKey());
+            } else {
+                aplicados.add(entrada.getKey());
+            }
+        }
+
+        for (Message message : individuales) {
+            meterRegistry.counter("ventas.stock_rechazado.batch.fallback.total").increment();
+            procesarIndividual(eventos.get(message), message, channel);
+        }
+
+        RabbitLoteAcks.confirmarAplicados(channel, aplicados);
+        // Con el inbox el lote solo quedó persistido: se cuenta en ventas.inbox.received.total, no como aplicado
+        if (!inboxHabilitado && !aplicados.isEmpty()) {
+            meterRegistry.counter("ventas.stock_rechazado.consumed.success.total").increment(aplicados.size());
+        }
+    }
+
+    private void procesarIndividual(StockRechazadoEvent event, Message message, Channel channel) throws IOException {
         long deliveryTag = message.getMessageProperties().getDeliveryTag();
         MDC.put("eventId", event != null ? event.eventId() : "null");
         MDC.put("compraId", event != null ? String.valueOf(event.compraId()) : "null");
 
         try {
             assertEventoValido(event);
+            if (inboxHabilitado) {
+                inboxEventService.registrar(recibido(event, message));
+                channel.basicAck(deliveryTag, false);
+                return;
+            }
 
             compraCompensacionService.compensar(event);
             meterRegistry.counter("ventas.stock_rechazado.consumed.success.total").increment();
@@ -59,7 +142,7 @@ public class StockRechazadoListener {
             log.info("Compensacion aplicada para compraId={} por evento stock rechazado eventId={}",
                     event.compraId(), event.eventId());
         } catch (RuntimeException ex) {
-            long reintentos = obtenerCantidadReintentos(message);
+            long reintentos = rabbitRetryTiers.cantidadReintentos(message);
 
             if (reintentos >= maxRetries) {
                 enviarADlq(message, ex.getMessage());
@@ -70,7 +153,7 @@ public class StockRechazadoListener {
                         event != null ? event.compraId() : null,
                         ex.getMessage());
             } else {
-                channel.basicNack(deliveryTag, false, false);
+                reintentar(message, reintentos, channel);
                 meterRegistry.counter("ventas.stock_rechazado.retry.total").increment();
                 log.warn("Reintentando evento stock rechazado eventId={} compraId={} intentosPrevios={} error={}",
                         event != null ? event.eventId() : "null",
@@ -84,6 +167,19 @@ public class StockRechazadoListener {
         }
     }
 
+    // Con el inbox el lote solo se persiste en una transacción; si falla se registra de a uno
+    private Set<String> registrarEnInbox(Map<Message, StockRechazadoEvent> eventos) {
+        inboxEventService.registrarLote(eventos.entrySet().stream()
+                .map(entrada -> recibido(entrada.getValue(), entrada.getKey()))
+                .toList());
+        return Set.of();
+    }
+
+    private InboxEventoRecibido recibido(StockRechazadoEvent event, Message message) {
+        return new InboxEventoRecibido(InboxEventService.TIPO_STOCK_RECHAZADO, event.eventId(),
+                String.valueOf(event.compraId()), new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+
     private void assertEventoValido(StockRechazadoEvent event) {
         if (event == null || event.eventId() == null || event.eventId().isBlank() || event.compraId() == null
                 || event.motivo() == null || event.motivo().isBlank()) {
@@ -91,21 +187,19 @@ public class StockRechazadoListener {
         }
     }
 
-    private long obtenerCantidadReintentos(Message message) {
-        Object xDeath = message.getMessageProperties().getHeaders().get("x-death");
-        if (!(xDeath instanceof List<?> entries) || entries.isEmpty()) {
-            return 0;
-        }
-
-        Object first = entries.get(0);
-        if (first instanceof Map<?, ?> deathEntry) {
-            Object count = deathEntry.get("count");
-            if (count instanceof Number number) {
-                return number.longValue();
+    // Sin el nivel de reintento disponible se rechaza hacia la cola de retry fija que declara la cola principal
+    private void reintentar(Message message, long reintentos, Channel channel) throws IOException {
+        long deliveryTag = message.getMessageProperties().getDeliveryTag();
+        try {
+            if (rabbitRetryTiers.reintentar("stock-rechazado", queueName, message, reintentos)) {
+                channel.basicAck(deliveryTag, false);
+            } else {
+                // Sin confirm de la copia (o sin ruta al nivel) va a la cola de retry fija, que aplica su demora
+                channel.basicNack(deliveryTag, false, false);
             }
+        } catch (AmqpException ex) {
+            channel.basicNack(deliveryTag, false, false);
         }
-
-        return 0;
     }
 
     private void enviarADlq(Message original, String motivo) {
@@ -1,21 +1,32 @@
 package unrn.event.stock;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.rabbitmq.client.Channel;
 import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
+import org.springframework.amqp.AmqpException;
 import org.springframework.amqp.core.Message;
 import org.springframework.amqp.core.MessageBuilder;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import unrn.config.RabbitLoteAcks;
+import unrn.config.RabbitRetryTiers;
+import unrn.inbox.InboxEventService;
+import unrn.inbox.InboxEventoRecibido;
 import unrn.service.CompraAceptacionService;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Component
 public class StockValidationAcceptedListener {
@@ -27,6 +38,9 @@ public class StockValidationAcceptedListener {
     private final CompraAceptacionService compraAceptacionService;
     private final RabbitTemplate rabbitTemplate;
     private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+    private final RabbitRetryTiers rabbitRetryTiers;
+    private final InboxEventService inboxEventService;
 
     @Value("${rabbitmq.ventas.dlx.exchange}")
     private String deadLetterExchange;
@@ -34,33 +48,101 @@ public class StockValidationAcceptedListener {
     @Value("${rabbitmq.ventas.stock.validation.accepted.dlq.routing-key:ventas.stock.validation.accepted.dlq}")
     private String deadLetterRoutingKey;
 
-    @Value("${rabbitmq.ventas.stock.validation.accepted.max-retries:3}")
+    @Value("${rabbitmq.ventas.stock.validation.accepted.max-retries:4}")
     private int maxRetries;
 
+    @Value("${rabbitmq.ventas.stock.validation.accepted.queue:ventas.q.catalogo-stock-validation-accepted}")
+    private String queueName;
+
+    @Value("${ventas.inbox.enabled:false}")
+    private boolean inboxHabilitado;
+
     public StockValidationAcceptedListener(CompraAceptacionService compraAceptacionService,
             RabbitTemplate rabbitTemplate,
-            MeterRegistry meterRegistry) {
+            MeterRegistry meterRegistry,
+            ObjectMapper objectMapper,
+            RabbitRetryTiers rabbitRetryTiers,
+            InboxEventService inboxEventService) {
         this.compraAceptacionService = compraAceptacionService;
         this.rabbitTemplate = rabbitTemplate;
         this.meterRegistry = meterRegistry;
+        this.objectMapper = objectMapper;
+        this.rabbitRetryTiers = rabbitRetryTiers;
+        this.inboxEventService = inboxEventService;
     }
 
-    @RabbitListener(queues = "${rabbitmq.ventas.stock.validation.accepted.queue:ventas.q.catalogo-stock-validation-accepted}", containerFactory = "manualAckRabbitListenerContainerFactory")
+    @RabbitListener(id = "stock-validation-accepted", queues = "${rabbitmq.ventas.stock.validation.accepted.queue:ventas.q.catalogo-stock-validation-accepted}", containerFactory = "manualAckRabbitListenerContainerFactory", autoStartup = "#{!${ventas.stock.validation.batch.enabled:false}}")
     public void onStockValidationAccepted(StockValidationAcceptedEvent event, Message message, Channel channel)
             throws IOException {
+        procesarIndividual(event, message, channel);
+    }
+
+    // Lote de hasta batch-size entregas en una transacción; los que fallan se reprocesan de a uno
+    @RabbitListener(id = "stock-validation-accepted-lote", queues = "${rabbitmq.ventas.stock.validation.accepted.queue:ventas.q.catalogo-stock-validation-accepted}", containerFactory = "manualAckBatchRabbitListenerContainerFactory", autoStartup = "${ventas.stock.validation.batch.enabled:false}")
+    public void onStockValidationAcceptedLote(List<Message> messages, Channel channel) throws IOException {
+        meterRegistry.summary("ventas.stock_validation_accepted.batch.size").record(messages.size());
+        Map<Message, StockValidationAcceptedEvent> eventos = new LinkedHashMap<>();
+        List<Message> individuales = new ArrayList<>();
+        for (Message message : messages) {
+            try {
+                var event = objectMapper.readValue(message.getBody(), StockValidationAcceptedEvent.class);
+                assertEventoValido(event);
+                eventos.put(message, event);
+            } catch (IOException | RuntimeException ex) {
+                individuales.add(message);
+            }
+        }
+
+        Set<String> fallidos;
+        try {
+            fallidos = inboxHabilitado
+                    ? registrarEnInbox(eventos)
+                    : compraAceptacionService.aceptarLote(List.copyOf(eventos.values()));
+        } catch (RuntimeException ex) {
+            log.warn("Lote de stock validation accepted fallido, se reprocesa de a uno size={} error={}", eventos.size(), ex.getMessage());
+            fallidos = eventos.values().stream().map(StockValidationAcceptedEvent::eventId).collect(Collectors.toSet());
+        }
+
+        List<Message> aplicados = new ArrayList<>();
+        for (var entrada : eventos.entrySet()) {
+            if (fallidos.contains(entrada.getValue().eventId())) {
+                individuales.add(entrada.getKey());
+            } else {
+                aplicados.add(entrada.getKey());
+            }
+        }
+
+        for (Message message : individuales) {
+            meterRegistry.counter("ventas.stock_validation_accepted.batch.fallback.total").increment();
+            procesarIndividual(eventos.get(message), message, channel);
+        }
+
+        RabbitLoteAcks.confirmarAplicados(channel, aplicados);
+        // Con el inbox el lote solo quedó persistido: se cuenta en ventas.inbox.received.total, no como aplicado
+        if (!inboxHabilitado && !aplicados.isEmpty()) {
+            meterRegistry.counter("ventas.stock_validation_accepted.consumed.success.total").increment(aplicados.size());
+        }
+    }
+
+    private void procesarIndividual(StockValidationAcceptedEvent event, Message message, Channel channel) throws IOException {
         long deliveryTag = message.getMessageProperties().getDeliveryTag();
         MDC.put("eventId", event != null ? event.eventId() : "null");
         MDC.put("compraId", event != null ? String.valueOf(event.compraId()) : "null");
 
         try {
             assertEventoValido(event);
+            if (inboxHabilitado) {
+                inboxEventService.registrar(recibido(event, message));
+                channel.basicAck(deliveryTag, false);
+                return;
+            }
             compraAceptacionService.aceptar(event);
             meterRegistry.counter("ventas.stock_validation_accepted.consumed.success.total").increment();
             channel.basicAck(deliveryTag, false);
             log.info("Aceptacion aplicada para compraId={} por evento stock validation accepted eventId={}",
                     event.compraId(), event.eventId());
         } catch (RuntimeException ex) {
-            long reintentos = obtenerCantidadReintentos(message);
+            long reintentos = rabbitRetryTiers.cantidadReintentos(message);
             if (reintentos >= maxRetries) {
                 enviarADlq(message, ex.getMessage());
                 channel.basicAck(deliveryTag, false);
@@ -70,7 +152,7 @@ public class StockValidationAcceptedListener {
                         event != null ? event.compraId() : null,
                         ex.getMessage());
             } else {
-                channel.basicNack(deliveryTag, false, false);
+                reintentar(message, reintentos, channel);
                 meterRegistry.counter("ventas.stock_validation_accepted.retry.total").increment();
                 log.warn("Reintentando evento stock validation accepted eventId={} compraId={} intentosPrevios={} error={}",
                         event != null ? event.eventId() : "null",
@@ -84,27 +166,38 @@ public class StockValidationAcceptedListener {
         }
     }
 
+    // Con el inbox el lote solo se persiste en una transacción; si falla se registra de a uno
+    private Set<String> registrarEnInbox(Map<Message, StockValidationAcceptedEvent> eventos) {
+        inboxEventService.registrarLote(eventos.entrySet().stream()
+                .map(entrada -> recibido(entrada.getValue(), entrada.getKey()))
+                .toList());
+        return Set.of();
+    }
+
+    private InboxEventoRecibido recibido(StockValidationAcceptedEvent event, Message message) {
+        return new InboxEventoRecibido(InboxEventService.TIPO_STOCK_VALIDATION_ACCEPTED, event.eventId(),
+                String.valueOf(event.compraId()), new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+
     private void assertEventoValido(StockValidationAcceptedEvent event) {
         if (event == null || event.eventId() == null || event.eventId().isBlank() || event.compraId() == null) {
             throw new RuntimeException(ERROR_EVENTO_MALFORMADO);
         }
     }
 
-    private long obtenerCantidadReintentos(Message message) {
-        Object xDeath = message.getMessageProperties().getHeaders().get("x-death");
-        if (!(xDeath instanceof List<?> entries) || entries.isEmpty()) {
-            return 0;
-        }
-
-        Object first = entries.get(0);
-        if (first instanceof Map<?, ?> deathEntry) {
-            Object count = deathEntry.get("count");
-            if (count instanceof Number number) {
-                return number.longValue();
+    // Sin el nivel de reintento disponible se rechaza hacia la cola de retry fija que declara la cola principal
+    private void reintentar(Message message, long reintentos, Channel channel) throws IOException {
+        long deliveryTag = message.getMessageProperties().getDeliveryTag();
+        try {
+            if (rabbitRetryTiers.reintentar("stock-validation-accepted", queueName, message, reintentos)) {
+                channel.basicAck(deliveryTag, false);
+            } else {
+                // Sin confirm de la copia (o sin ruta al nivel) va a la cola de retry fija, que aplica su demora
+                channel.basicNack(deliveryTag, false, false);
             }
+        } catch (AmqpException ex) {
+            channel.basicNack(deliveryTag, false, false);
         }
-
-        return 0;
     }
 
     private void enviarADlq(Message original, String motivo) {
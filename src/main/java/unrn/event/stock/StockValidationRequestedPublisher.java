@@ -2,13 +2,20 @@ package unrn.event.stock;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.core.MessageProperties;
 import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.amqp.support.converter.AbstractJavaTypeMapper;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+
 @Component
 public class StockValidationRequestedPublisher {
 
@@ -36,18 +43,65 @@ public class StockValidationRequestedPublisher {
                     ventasEventsExchange.getName(),
                     routingKey,
                     event,
-                    message -> {
-                        message.getMessageProperties().setHeader("x-event-id", event.eventId());
-                        message.getMessageProperties().setHeader("x-correlation-id", event.eventId());
-                        message.getMessageProperties().setHeader("x-source", "ventas");
-                        message.getMessageProperties().setHeader(AmqpHeaders.TYPE,
-                                StockValidationRequestedEvent.EVENT_TYPE);
-                        return message;
-                    });
+                    encabezados(event));
         } catch (RuntimeException ex) {
             log.error("No se pudo publicar StockValidationRequested eventId={} compraId={} mensaje={}",
                     event.eventId(), event.compraId(), ex.getMessage());
             throw new RuntimeException(ERROR_PUBLICACION_STOCK_VALIDATION_REQUESTED, ex);
         }
     }
+
+    // Envía sin esperar la confirmación; quien llama resuelve el futuro del CorrelationData
+    public CorrelationData enviar(StockValidationRequestedEvent event) {
+        CorrelationData correlationData = new CorrelationData(event.eventId());
+        rabbitTemplate.convertAndSend(
+                ventasEventsExchange.getName(),
+                routingKey,
+                event,
+                encabezados(event),
+                correlationData);
+        return correlationData;
+    }
+
+    // Publica el JSON ya serializado en outbox sin volver a pasar por Jackson
+    public void publicarPayloadAhora(String eventId, byte[] payload) {
+        try {
+            rabbitTemplate.send(ventasEventsExchange.getName(), routingKey, mensajeDesdePayload(eventId, payload));
+        } catch (RuntimeException ex) {
+            log.error("No se pudo publicar StockValidationRequested eventId={} mensaje={}", eventId, ex.getMessage());
+            throw new RuntimeException(ERROR_PUBLICACION_STOCK_VALIDATION_REQUESTED, ex);
+        }
+    }
+
+    public CorrelationData enviarPayload(String eventId, byte[] payload) {
+        CorrelationData correlationData = new CorrelationData(eventId);
+        rabbitTemplate.send(ventasEventsExchange.getName(), routingKey, mensajeDesdePayload(eventId, payload),
+                correlationData);
+        return correlationData;
+    }
+
+    // Mismos headers que produce Jackson2JsonMessageConverter para que catálogo no note diferencia
+    private Message mensajeDesdePayload(String eventId, byte[] payload) {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+        properties.setContentEncoding(StandardCharsets.UTF_8.name());
+        properties.setContentLength(payload.length);
+        properties.setHeader(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME,
+                StockValidationRequestedEvent.class.getName());
+        properties.setHeader("x-event-id", eventId);
+        properties.setHeader("x-correlation-id", eventId);
+        properties.setHeader("x-source", "ventas");
+        properties.setHeader(AmqpHeaders.TYPE, StockValidationRequestedEvent.EVENT_TYPE);
+        return new Message(payload, properties);
+    }
+
+    private MessagePostProcessor encabezados(StockValidationRequestedEvent event) {
+        return message -> {
+            message.getMessageProperties().setHeader("x-event-id", event.eventId());
+            message.getMessageProperties().setHeader("x-correlation-id", event.eventId());
+            message.getMessageProperties().setHeader("x-source", "ventas");
+            message.getMessageProperties().setHeader(AmqpHeaders.TYPE, StockValidationRequestedEvent.EVENT_TYPE);
+            return message;
+        };
+    }
 }
@@ -0,0 +1,29 @@
+package unrn.inbox;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// El gauge lee un valor cacheado: el COUNT del inbox corre solo en cada refresco, nunca en el scrape
+@Component
+@ConditionalOnProperty(name = "ventas.inbox.enabled", havingValue = "true")
+public class InboxBacklogMetrics {
+
+    private final InboxEventService inboxEventService;
+    private final AtomicLong pendientes = new AtomicLong();
+
+    public InboxBacklogMetrics(InboxEventService inboxEventService, MeterRegistry meterRegistry) {
+        this.inboxEventService = inboxEventService;
+
+        Gauge.builder("ventas.inbox.pending", pendientes, AtomicLong::get).register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${ventas.inbox.metrics.refresh-ms:15000}")
+    public void refrescar() {
+        pendientes.set(inboxEventService.pendientes());
+    }
+}
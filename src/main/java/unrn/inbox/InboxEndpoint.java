@@ -0,0 +1,38 @@
+package unrn.inbox;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// GET /actuator/inbox: filas por estado. POST /actuator/inbox {"tipo": "..."}: replay de los fallidos terminales
+@Component
+@Endpoint(id = "inbox")
+public class InboxEndpoint {
+
+    private final InboxEventJpaRepository inboxEventJpaRepository;
+    private final InboxEventService inboxEventService;
+
+    public InboxEndpoint(InboxEventJpaRepository inboxEventJpaRepository, InboxEventService inboxEventService) {
+        this.inboxEventJpaRepository = inboxEventJpaRepository;
+        this.inboxEventService = inboxEventService;
+    }
+
+    @ReadOperation
+    public Map<String, Long> filasPorEstado() {
+        Map<String, Long> filas = new LinkedHashMap<>();
+        for (InboxEventStatus status : InboxEventStatus.values()) {
+            filas.put(status.name(), inboxEventJpaRepository.countByStatus(status));
+        }
+        return filas;
+    }
+
+    @WriteOperation
+    public int reencolarFallidos(@Nullable String tipo) {
+        return inboxEventService.reencolarFallidos(tipo);
+    }
+}
@@ -0,0 +1,116 @@
+package unrn.inbox;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface InboxEventJpaRepository extends JpaRepository<InboxEventEntity, Long> {
+
+    // La unique (tipo, event_id) deduplica las reentregas en la recepción: 0 filas si ya estaba en el inbox
+    @Modifying
+    @Query(value = """
+            INSERT IGNORE INTO inbox_event (tipo, event_id, partition_key, payload_json, status, received_at,
+                attempts, next_attempt_at)
+            VALUES (:tipo, :eventId, :clave, :payload, 'PENDING', :ahora, 0, :ahora)
+            """, nativeQuery = true)
+    int insertarSiNoExiste(@Param("tipo") String tipo,
+            @Param("eventId") String eventId,
+            @Param("clave") String clave,
+            @Param("payload") String payloadJson,
+            @Param("ahora") Instant ahora);
+
+    // Igual que el outbox: SKIP LOCKED entre workers y sin adelantar filas de la misma clave (compra o película)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("""
+            SELECT e FROM InboxEventEntity e
+            WHERE e.status = :status
+              AND e.nextAttemptAt <= :ahora
+              AND (e.leaseUntil IS NULL OR e.leaseUntil < :ahora)
+              AND NOT EXISTS (
+                  SELECT 1 FROM InboxEventEntity previo
+                  WHERE previo.tipo = e.tipo
+                    AND previo.partitionKey = e.partitionKey
+                    AND previo.status = :status
+                    AND previo.id < e.id)
+            ORDER BY e.id ASC
+            """)
+    List<InboxEventEntity> findReclamables(@Param("status") InboxEventStatus status,
+            @Param("ahora") Instant ahora,
+            Pageable pageable);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            UPDATE InboxEventEntity e
+            SET e.leaseOwner = :owner, e.leaseUntil = :hasta
+            WHERE e.id IN :ids
+              AND (e.leaseUntil IS NULL OR e.leaseUntil < :ahora)
+            """)
+    int arrendar(@Param("ids") Collection<Long> ids,
+            @Param("owner") String owner,
+            @Param("ahora") Instant ahora,
+            @Param("hasta") Instant hasta);
+
+    @Query("SELECT e.id FROM InboxEventEntity e WHERE e.id IN :ids AND e.leaseOwner = :owner")
+    List<Long> findIdsArrendados(@Param("ids") Collection<Long> ids, @Param("owner") String owner);
+
+    @Modifying
+    @Query("""
+            UPDATE InboxEventEntity e
+            SET e.status = unrn.inbox.InboxEventStatus.PROCESSED,
+                e.processedAt = :ahora,
+                e.lastError = NULL,
+                e.leaseOwner = NULL,
+                e.leaseUntil = NULL
+            WHERE e.id IN :ids
+            """)
+    int marcarProcesados(@Param("ids") Collection<Long> ids, @Param("ahora") Instant ahora);
+
+    // status se asigna antes que attempts: MySQL evalúa el SET de izquierda a derecha con valores ya actualizados
+    @Modifying
+    @Query("""
+            UPDATE InboxEventEntity e
+            SET e.status = CASE WHEN e.attempts + 1 >= :maxAttempts THEN :terminal ELSE :reintento END,
+                e.attempts = e.attempts + 1,
+                e.lastError = :error,
+                e.nextAttemptAt = :proximoIntento,
+                e.leaseOwner = NULL,
+                e.leaseUntil = NULL
+            WHERE e.id = :id
+            """)
+    int registrarIntentoFallido(@Param("id") Long id,
+            @Param("error") String error,
+            @Param("proximoIntento") Instant proximoIntento,
+            @Param("maxAttempts") int maxAttempts,
+            @Param("terminal") InboxEventStatus terminal,
+            @Param("reintento") InboxEventStatus reintento);
+
+    // Replay: los fallidos terminales vuelven a pendientes con el contador de intentos en cero
+    @Modifying
+    @Query("""
+            UPDATE InboxEventEntity e
+            SET e.status = unrn.inbox.InboxEventStatus.PENDING,
+                e.attempts = 0,
+                e.nextAttemptAt = :ahora
+            WHERE e.status = unrn.inbox.InboxEventStatus.FAILED
+              AND (:tipo IS NULL OR e.tipo = :tipo)
+            """)
+    int reencolarFallidos(@Param("tipo") String tipo, @Param("ahora") Instant ahora);
+
+    @Modifying
+    @Query(value = "DELETE FROM inbox_event WHERE status = 'PROCESSED' AND processed_at < :limite LIMIT :lote",
+            nativeQuery = true)
+    int eliminarProcesadosAnterioresA(@Param("limite") Instant limite, @Param("lote") int lote);
+
+    long countByStatus(InboxEventStatus status);
+}
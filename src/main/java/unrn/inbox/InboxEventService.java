@@ -0,0 +1,149 @@
+package unrn.inbox;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import unrn.outbox.OutboxRetryBackoff;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+@Service
+public class InboxEventService {
+
+    public static final String TIPO_STOCK_VALIDATION_ACCEPTED = "stock-validation-accepted";
+    public static final String TIPO_STOCK_RECHAZADO = "stock-rechazado";
+    public static final String TIPO_MOVIE_EVENT = "movie-event";
+
+    static final String ERROR_EVENTO_SIN_ID = "El evento del inbox requiere tipo y eventId";
+    static final int MAX_LARGO_ERROR = 1000;
+
+    private final InboxEventJpaRepository inboxEventJpaRepository;
+    private final MeterRegistry meterRegistry;
+    private final String leaseOwner;
+    private final OutboxRetryBackoff retryBackoff;
+
+    @Value("${ventas.inbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${ventas.inbox.lease.duration-ms:60000}")
+    private long leaseDurationMs;
+
+    public InboxEventService(InboxEventJpaRepository inboxEventJpaRepository,
+            MeterRegistry meterRegistry,
+            @Value("${ventas.inbox.retry.base-delay-ms:1000}") long baseDelayMs,
+            @Value("${ventas.inbox.retry.max-delay-ms:300000}") long maxDelayMs,
+            @Value("${ventas.inbox.retry.jitter-ratio:0.2}") double jitterRatio) {
+        this.inboxEventJpaRepository = inboxEventJpaRepository;
+        this.meterRegistry = meterRegistry;
+        this.leaseOwner = System.getenv().getOrDefault("HOSTNAME", "ventas") + "-inbox-" + UUID.randomUUID();
+        this.retryBackoff = new OutboxRetryBackoff(baseDelayMs, Math.max(baseDelayMs, maxDelayMs), jitterRatio,
+                () -> ThreadLocalRandom.current().nextDouble());
+    }
+
+    // true si la entrega quedó en el inbox; false si era una reentrega ya recibida
+    @Transactional
+    public boolean registrar(InboxEventoRecibido evento) {
+        assertEventoIdentificado(evento);
+        boolean nuevo = inboxEventJpaRepository.insertarSiNoExiste(evento.tipo(), evento.eventId(),
+                evento.clave() != null ? evento.clave() : "", evento.payloadJson(), Instant.now()) == 1;
+        meterRegistry.counter(nuevo ? "ventas.inbox.received.total" : "ventas.inbox.duplicate.total",
+                "tipo", evento.tipo()).increment();
+        return nuevo;
+    }
+
+    @Transactional
+    public int registrarLote(List<InboxEventoRecibido> eventos) {
+        int nuevos = 0;
+        for (InboxEventoRecibido evento : eventos) {
+            if (registrar(evento)) {
+                nuevos++;
+            }
+        }
+        return nuevos;
+    }
+
+    @Transactional
+    public List<InboxEventEntity> reclamarLote(int tamanioLote) {
+        Instant ahora = Instant.now();
+        List<InboxEventEntity> reclamables = inboxEventJpaRepository
+                .findReclamables(InboxEventStatus.PENDING, ahora, PageRequest.of(0, tamanioLote));
+        if (reclamables.isEmpty()) {
+            return reclamables;
+        }
+
+        List<Long> ids = reclamables.stream().map(InboxEventEntity::getId).toList();
+        int arrendados = inboxEventJpaRepository.arrendar(ids, leaseOwner, ahora, ahora.plusMillis(leaseDurationMs));
+        if (arrendados == ids.size()) {
+            return reclamables;
+        }
+        Set<Long> propios = new HashSet<>(inboxEventJpaRepository.findIdsArrendados(ids, leaseOwner));
+        return reclamables.stream().filter(evento -> propios.contains(evento.getId())).toList();
+    }
+
+    @Transactional
+    public void registrarResultados(InboxProcessResult resultado) {
+        Instant ahora = Instant.now();
+        if (!resultado.procesados().isEmpty()) {
+            inboxEventJpaRepository.marcarProcesados(
+                    resultado.procesados().stream().map(InboxProcessResult.Procesado::inboxId).toList(), ahora);
+            resultado.procesados().forEach(procesado -> {
+                meterRegistry.counter("ventas.inbox.processed.total", "tipo", procesado.tipo()).increment();
+                Timer.builder("ventas.inbox.receipt.to.process")
+                        .tag("tipo", procesado.tipo())
+                        .publishPercentiles(0.5, 0.99)
+                        .register(meterRegistry)
+                        .record(Duration.between(procesado.recibidoAt(), ahora));
+            });
+        }
+
+        for (InboxProcessResult.Fallo fallo : resultado.fallidos()) {
+            inboxEventJpaRepository.registrarIntentoFallido(
+                    fallo.inboxId(),
+                    recortar(fallo.error()),
+                    retryBackoff.proximoIntento(fallo.intentosPrevios(), ahora),
+                    maxAttempts,
+                    InboxEventStatus.FAILED,
+                    InboxEventStatus.PENDING);
+            meterRegistry.counter("ventas.inbox.failed.total", "tipo", fallo.tipo()).increment();
+        }
+    }
+
+    // tipo null reencola los fallidos de todos los consumidores
+    @Transactional
+    public int reencolarFallidos(String tipo) {
+        int reencolados = inboxEventJpaRepository.reencolarFallidos(tipo, Instant.now());
+        meterRegistry.counter("ventas.inbox.replayed.total").increment(reencolados);
+        return reencolados;
+    }
+
+    @Transactional
+    public int purgarProcesados(Instant limite, int tamanioLote) {
+        return inboxEventJpaRepository.eliminarProcesadosAnterioresA(limite, tamanioLote);
+    }
+
+    public long pendientes() {
+        return inboxEventJpaRepository.countByStatus(InboxEventStatus.PENDING);
+    }
+
+    private String recortar(String error) {
+        if (error == null || error.length() <= MAX_LARGO_ERROR) {
+            return error;
+        }
+        return error.substring(0, MAX_LARGO_ERROR);
+    }
+
+    private void assertEventoIdentificado(InboxEventoRecibido evento) {
+        if (evento == null || evento.tipo() == null || evento.eventId() == null || evento.eventId().isBlank()) {
+            throw new RuntimeException(ERROR_EVENTO_SIN_ID);
+        }
+    }
+}
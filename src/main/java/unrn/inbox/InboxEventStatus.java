@@ -0,0 +1,7 @@
+package unrn.inbox;
+
+public enum InboxEventStatus {
+    PENDING,
+    PROCESSED,
+    FAILED
+}
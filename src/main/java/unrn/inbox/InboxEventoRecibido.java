@@ -0,0 +1,5 @@
+package unrn.inbox;
+
+// Entrega tal como llegó del broker: tipo de consumidor, id para deduplicar, clave de orden y cuerpo crudo
+public record InboxEventoRecibido(String tipo, String eventId, String clave, String payloadJson) {
+}
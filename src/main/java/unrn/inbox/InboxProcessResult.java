@@ -0,0 +1,34 @@
+package unrn.inbox;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class InboxProcessResult {
+
+    private final List<Procesado> procesados = new ArrayList<>();
+    private final List<Fallo> fallidos = new ArrayList<>();
+
+    public void registrarProcesado(InboxEventEntity evento) {
+        procesados.add(new Procesado(evento.getId(), evento.getTipo(), evento.getReceivedAt()));
+    }
+
+    public void registrarFallido(InboxEventEntity evento, String error) {
+        fallidos.add(new Fallo(evento.getId(), evento.getTipo(), evento.getAttempts(), error));
+    }
+
+    public List<Procesado> procesados() {
+        return Collections.unmodifiableList(procesados);
+    }
+
+    public List<Fallo> fallidos() {
+        return Collections.unmodifiableList(fallidos);
+    }
+
+    public record Procesado(Long inboxId, String tipo, Instant recibidoAt) {
+    }
+
+    public record Fallo(Long inboxId, String tipo, int intentosPrevios, String error) {
+    }
+}
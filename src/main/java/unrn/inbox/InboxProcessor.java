@@ -0,0 +1,121 @@
+package unrn.inbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import unrn.event.movie.MovieEventEnvelope;
+import unrn.event.movie.MovieEventListener;
+import unrn.event.stock.StockRechazadoEvent;
+import unrn.event.stock.StockValidationAcceptedEvent;
+import unrn.service.CompraAceptacionService;
+import unrn.service.CompraCompensacionService;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// Aplica filas del inbox con los mismos servicios que usaban los listeners; los lotes de stock van en una transacción
+@Component
+public class InboxProcessor {
+
+    private static final Logger log = LoggerFactory.getLogger(InboxProcessor.class);
+    static final String ERROR_TIPO_DESCONOCIDO = "Tipo de evento de inbox desconocido";
+
+    private final ObjectMapper objectMapper;
+    private final CompraAceptacionService compraAceptacionService;
+    private final CompraCompensacionService compraCompensacionService;
+    private final MovieEventListener movieEventListener;
+
+    public InboxProcessor(ObjectMapper objectMapper,
+            CompraAceptacionService compraAceptacionService,
+            CompraCompensacionService compraCompensacionService,
+            MovieEventListener movieEventListener) {
+        this.objectMapper = objectMapper;
+        this.compraAceptacionService = compraAceptacionService;
+        this.compraCompensacionService = compraCompensacionService;
+        this.movieEventListener = movieEventListener;
+    }
+
+    public InboxProcessResult procesar(List<InboxEventEntity> lote) {
+        InboxProcessResult resultado = new InboxProcessResult();
+        Map<String, List<InboxEventEntity>> porTipo = new LinkedHashMap<>();
+        lote.forEach(evento -> porTipo.computeIfAbsent(evento.getTipo(), tipo -> new ArrayList<>()).add(evento));
+
+        porTipo.forEach((tipo, eventos) -> {
+            switch (tipo) {
+                case InboxEventService.TIPO_STOCK_VALIDATION_ACCEPTED -> procesarEnLote(eventos,
+                        StockValidationAcceptedEvent.class, compraAceptacionService::aceptarLote,
+                        compraAceptacionService::aceptar, StockValidationAcceptedEvent::eventId, resultado);
+                case InboxEventService.TIPO_STOCK_RECHAZADO -> procesarEnLote(eventos,
+                        StockRechazadoEvent.class, compraCompensacionService::compensarLote,
+                        compraCompensacionService::compensar, StockRechazadoEvent::eventId, resultado);
+                // Las filas de una película llegan en orden de recepción; el listener conserva el buffer de reorden
+                case InboxEventService.TIPO_MOVIE_EVENT -> eventos.forEach(evento -> procesarUno(evento,
+                        MovieEventEnvelope.class, movieEventListener::onMovieEvent, resultado));
+                default -> eventos.forEach(evento -> resultado.registrarFallido(evento, ERROR_TIPO_DESCONOCIDO));
+            }
+        });
+        return resultado;
+    }
+
+    // Una transacción para el lote; lo que el servicio informa como fallido se reintenta de a uno
+    private <T> void procesarEnLote(List<InboxEventEntity> eventos,
+            Class<T> clase,
+            Function<List<T>, Set<String>> aplicarLote,
+            Consumer<T> aplicarUno,
+            Function<T, String> eventId,
+            InboxProcessResult resultado) {
+        Map<InboxEventEntity, T> legibles = new LinkedHashMap<>();
+        for (InboxEventEntity evento : eventos) {
+            try {
+                legibles.put(evento, leer(evento, clase));
+            } catch (IOException ex) {
+                resultado.registrarFallido(evento, ex.getMessage());
+            }
+        }
+        if (legibles.isEmpty()) {
+            return;
+        }
+
+        Set<String> fallidos;
+        try {
+            fallidos = aplicarLote.apply(List.copyOf(legibles.values()));
+        } catch (RuntimeException ex) {
+            log.warn("Lote de inbox fallido, se reprocesa de a uno size={} error={}", legibles.size(), ex.getMessage());
+            fallidos = null;
+        }
+
+        for (var entrada : legibles.entrySet()) {
+            if (fallidos != null && !fallidos.contains(eventId.apply(entrada.getValue()))) {
+                resultado.registrarProcesado(entrada.getKey());
+                continue;
+            }
+            try {
+                aplicarUno.accept(entrada.getValue());
+                resultado.registrarProcesado(entrada.getKey());
+            } catch (RuntimeException ex) {
+                resultado.registrarFallido(entrada.getKey(), ex.getMessage());
+            }
+        }
+    }
+
+    private <T> void procesarUno(InboxEventEntity evento, Class<T> clase, Consumer<T> aplicar,
+            InboxProcessResult resultado) {
+        try {
+            aplicar.accept(leer(evento, clase));
+            resultado.registrarProcesado(evento);
+        } catch (IOException | RuntimeException ex) {
+            resultado.registrarFallido(evento, ex.getMessage());
+        }
+    }
+
+    private <T> T leer(InboxEventEntity evento, Class<T> clase) throws IOException {
+        return objectMapper.readValue(evento.getPayloadJson(), clase);
+    }
+}
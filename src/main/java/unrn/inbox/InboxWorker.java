@@ -0,0 +1,133 @@
+package unrn.inbox;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Pool de workers que drena el inbox: cada uno reclama un lote (SKIP LOCKED), lo aplica y registra el resultado.
+// El ritmo de consumo del broker queda desacoplado del de la base; el backlog se ve en ventas.inbox.pending (InboxBacklogMetrics).
+@Component
+@ConditionalOnProperty(name = "ventas.inbox.enabled", havingValue = "true")
+public class InboxWorker implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(InboxWorker.class);
+
+    private final InboxEventService inboxEventService;
+    private final InboxProcessor inboxProcessor;
+    private final int workers;
+    private final int batchSize;
+    private final long pollMs;
+    private final boolean autoStartup;
+    private volatile boolean corriendo;
+    private ExecutorService executor;
+
+    @Value("${ventas.inbox.retention.processed-ttl-ms:86400000}")
+    private long retencionProcesadosMs;
+
+    @Value("${ventas.inbox.retention.batch-size:1000}")
+    private int retencionBatchSize;
+
+    public InboxWorker(InboxEventService inboxEventService,
+            InboxProcessor inboxProcessor,
+            @Value("${ventas.inbox.workers:4}") int workers,
+            @Value("${ventas.inbox.batch-size:100}") int batchSize,
+            @Value("${ventas.inbox.poll-ms:200}") long pollMs,
+            @Value("${ventas.inbox.worker.auto-startup:true}") boolean autoStartup) {
+        this.inboxEventService = inboxEventService;
+        this.inboxProcessor = inboxProcessor;
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.pollMs = pollMs;
+        this.autoStartup = autoStartup;
+    }
+
+    // Devuelve cuántas filas se reclamaron; 0 indica que no hay trabajo disponible
+    public int drenar() {
+        List<InboxEventEntity> lote = inboxEventService.reclamarLote(batchSize);
+        if (lote.isEmpty()) {
+            return 0;
+        }
+        inboxEventService.registrarResultados(inboxProcessor.procesar(lote));
+        return lote.size();
+    }
+
+    @Scheduled(fixedDelayString = "${ventas.inbox.retention.interval-ms:600000}",
+            initialDelayString = "${ventas.inbox.retention.interval-ms:600000}")
+    public void purgarProcesados() {
+        Instant limite = Instant.now().minusMillis(retencionProcesadosMs);
+        int eliminados;
+        do {
+            eliminados = inboxEventService.purgarProcesados(limite, retencionBatchSize);
+        } while (eliminados == retencionBatchSize && corriendo);
+    }
+
+    @Override
+    public synchronized void start() {
+        corriendo = true;
+        AtomicInteger numero = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(workers,
+                tarea -> new Thread(tarea, "inbox-worker-" + numero.incrementAndGet()));
+        for (int i = 0; i < workers; i++) {
+            executor.submit(this::ciclo);
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        corriendo = false;
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            executor = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return executor != null;
+    }
+
+    @Override
+    public boolean isAutoStartup() {
+        return autoStartup;
+    }
+
+    private void ciclo() {
+        while (corriendo) {
+            try {
+                if (drenar() == 0) {
+                    Thread.sleep(pollMs);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException ex) {
+                log.error("inbox_worker_error reason={}", ex.getMessage());
+                esperar();
+            }
+        }
+    }
+
+    private void esperar() {
+        try {
+            Thread.sleep(pollMs);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
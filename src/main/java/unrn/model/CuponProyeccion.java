@@ -0,0 +1,111 @@
+package unrn.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public class CuponProyeccion {
+
+    static final String ERROR_NOMBRE_NULO = "El nombre del cupón no puede ser nulo";
+    static final String ERROR_NOMBRE_VACIO = "El nombre del cupón no puede estar vacío";
+    static final String ERROR_PORCENTAJE_NULO = "El porcentaje del cupón no puede ser nulo";
+    static final String ERROR_PORCENTAJE_INVALIDO = "El porcentaje del cupón debe estar entre 0 y 100";
+    static final String ERROR_VIGENCIA_NULA = "La vigencia del cupón no puede ser nula";
+    static final String ERROR_RANGO_VIGENCIA_INVALIDO = "La vigencia desde del cupón no puede ser posterior a la vigencia hasta";
+    static final String ERROR_VERSION_INVALIDA = "La versión debe ser mayor a cero";
+
+    private final String nombre;
+    private final BigDecimal porcentaje;
+    private final LocalDate vigenteDesde;
+    private final LocalDate vigenteHasta;
+    private final boolean activo;
+    private final long version;
+
+    public CuponProyeccion(String nombre, BigDecimal porcentaje, LocalDate vigenteDesde, LocalDate vigenteHasta,
+            boolean activo, long version) {
+        assertNombreNoNulo(nombre);
+        assertNombreNoVacio(nombre);
+        assertPorcentajeNoNulo(porcentaje);
+        assertPorcentajeValido(porcentaje);
+        assertVigenciaNoNula(vigenteDesde, vigenteHasta);
+        assertRangoVigenciaValido(vigenteDesde, vigenteHasta);
+        assertVersionValida(version);
+
+        this.nombre = nombre;
+        this.porcentaje = porcentaje;
+        this.vigenteDesde = vigenteDesde;
+        this.vigenteHasta = vigenteHasta;
+        this.activo = activo;
+        this.version = version;
+    }
+
+    // Un cupón vencido o dado de baja ya no se puede usar; si todavía no empezó, Descuento no lo aplica
+    public boolean utilizableEn(LocalDate fecha) {
+        return activo && !fecha.isAfter(vigenteHasta);
+    }
+
+    private void assertNombreNoNulo(String nombre) {
+        if (nombre == null) {
+            throw new RuntimeException(ERROR_NOMBRE_NULO);
+        }
+    }
+
+    private void assertNombreNoVacio(String nombre) {
+        if (nombre.trim().isEmpty()) {
+            throw new RuntimeException(ERROR_NOMBRE_VACIO);
+        }
+    }
+
+    private void assertPorcentajeNoNulo(BigDecimal porcentaje) {
+        if (porcentaje == null) {
+            throw new RuntimeException(ERROR_PORCENTAJE_NULO);
+        }
+    }
+
+    private void assertPorcentajeValido(BigDecimal porcentaje) {
+        if (porcentaje.compareTo(BigDecimal.ZERO) < 0 || porcentaje.compareTo(BigDecimal.valueOf(100)) > 0) {
+            throw new RuntimeException(ERROR_PORCENTAJE_INVALIDO);
+        }
+    }
+
+    private void assertVigenciaNoNula(LocalDate vigenteDesde, LocalDate vigenteHasta) {
+        if (vigenteDesde == null || vigenteHasta == null) {
+            throw new RuntimeException(ERROR_VIGENCIA_NULA);
+        }
+    }
+
+    private void assertRangoVigenciaValido(LocalDate vigenteDesde, LocalDate vigenteHasta) {
+        if (vigenteDesde.isAfter(vigenteHasta)) {
+            throw new RuntimeException(ERROR_RANGO_VIGENCIA_INVALIDO);
+        }
+    }
+
+    private void assertVersionValida(long version) {
+        if (version <= 0) {
+            throw new RuntimeException(ERROR_VERSION_INVALIDA);
+        }
+    }
+
+    public String nombre() {
+        return nombre;
+    }
+
+    public BigDecimal porcentaje() {
+        return porcentaje;
+    }
+
+    public LocalDate vigenteDesde() {
+        return vigenteDesde;
+    }
+
+    public LocalDate vigenteHasta() {
+        return vigenteHasta;
+    }
+
+    public boolean activo() {
+        return activo;
+    }
+
+    public long version() {
+        return version;
+    }
+}
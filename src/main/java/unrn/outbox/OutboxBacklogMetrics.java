@@ -0,0 +1,46 @@
+package unrn.outbox;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Los gauges leen valores cacheados: la base se consulta solo en cada refresco, nunca en el scrape
+@Component
+public class OutboxBacklogMetrics {
+
+    private final OutboxEventJpaRepository outboxEventJpaRepository;
+    private final AtomicLong pendientes = new AtomicLong();
+    private final AtomicLong fallidos = new AtomicLong();
+    private volatile Instant pendienteMasAntiguo;
+
+    public OutboxBacklogMetrics(OutboxEventJpaRepository outboxEventJpaRepository, MeterRegistry meterRegistry) {
+        this.outboxEventJpaRepository = outboxEventJpaRepository;
+
+        Gauge.builder("ventas.outbox.pending", pendientes, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("ventas.outbox.failed", fallidos, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("ventas.outbox.oldest.pending.age", this, OutboxBacklogMetrics::antiguedadPendienteSegundos)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${ventas.outbox.metrics.refresh-ms:15000}")
+    public void refrescar() {
+        pendientes.set(outboxEventJpaRepository.countByStatus(OutboxEventStatus.PENDING));
+        fallidos.set(outboxEventJpaRepository.countByStatus(OutboxEventStatus.FAILED));
+        pendienteMasAntiguo = outboxEventJpaRepository.findCreacionMasAntigua(OutboxEventStatus.PENDING);
+    }
+
+    // Se calcula contra el reloj actual para que la antigüedad crezca entre refrescos si el publisher se traba
+    double antiguedadPendienteSegundos() {
+        Instant masAntiguo = pendienteMasAntiguo;
+        if (masAntiguo == null) {
+            return 0;
+        }
+        return Math.max(0, Duration.between(masAntiguo, Instant.now()).toMillis() / 1000.0);
+    }
+}
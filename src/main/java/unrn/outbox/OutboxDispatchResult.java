@@ -0,0 +1,50 @@
+package unrn.outbox;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class OutboxDispatchResult {
+
+    private final List<Long> publicados = new ArrayList<>();
+    private final List<Publicado> detallePublicados = new ArrayList<>();
+    private final List<Fallo> fallidos = new ArrayList<>();
+
+    public void registrarPublicado(OutboxEventEntity evento) {
+        publicados.add(evento.getId());
+        detallePublicados.add(new Publicado(evento.getEventType(), evento.getCreatedAt()));
+    }
+
+    public void registrarFallido(OutboxEventEntity evento, String error) {
+        fallidos.add(new Fallo(evento.getId(), evento.getAttempts(), error));
+    }
+
+    public List<Long> publicados() {
+        return Collections.unmodifiableList(publicados);
+    }
+
+    List<Publicado> detallePublicados() {
+        return Collections.unmodifiableList(detallePublicados);
+    }
+
+    public List<Fallo> fallidos() {
+        return Collections.unmodifiableList(fallidos);
+    }
+
+    public int cantidadFallidos() {
+        return fallidos.size();
+    }
+
+    void agregar(OutboxDispatchResult otro) {
+        publicados.addAll(otro.publicados);
+        detallePublicados.addAll(otro.detallePublicados);
+        fallidos.addAll(otro.fallidos);
+    }
+
+    public record Fallo(Long outboxId, int intentosPrevios, String error) {
+    }
+
+    record Publicado(String eventType, Instant createdAt) {
+    }
+}
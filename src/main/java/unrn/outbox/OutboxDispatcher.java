@@ -0,0 +1,235 @@
+package unrn.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import unrn.event.compra.CompraConfirmadaEvent;
+import unrn.event.compra.CompraConfirmadaPublisher;
+import unrn.event.stock.StockValidationRequestedEvent;
+import unrn.event.stock.StockValidationRequestedPublisher;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Component
+public class OutboxDispatcher implements DisposableBean {
+
+    static final String ERROR_DESERIALIZACION_OUTBOX = "No se pudo deserializar payload outbox";
+    static final String ERROR_TIPO_NO_SOPORTADO = "Tipo de evento outbox no soportado: ";
+    static final String ERROR_CONFIRMACION_NACK = "Broker NACK: ";
+    static final String ERROR_CONFIRMACION_RETORNADO = "Evento retornado por broker";
+    static final String ERROR_CONFIRMACION_TIMEOUT = "Timeout esperando confirmación del broker";
+    static final String ERROR_CONFIRMACION_INTERRUMPIDA = "Espera de confirmación interrumpida";
+    static final String ERROR_EVENTO_ANTERIOR_FALLIDO = "No publicado: falló un evento anterior de la misma compra";
+    static final String ERROR_CARRILES_INVALIDOS = "La cantidad de carriles de outbox debe ser mayor a cero";
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+    private final ObjectMapper objectMapper;
+    private final CompraConfirmadaPublisher compraConfirmadaPublisher;
+    private final StockValidationRequestedPublisher stockValidationRequestedPublisher;
+    private final MeterRegistry meterRegistry;
+    private final long confirmTimeoutMs;
+    private final boolean batchConfirms;
+    private final boolean payloadAlmacenado;
+    private final int maxCarriles;
+    private final Semaphore carrilesDisponibles;
+    private final AtomicInteger carrilesActivos = new AtomicInteger();
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("outbox-carril-", 0).factory());
+
+    public OutboxDispatcher(ObjectMapper objectMapper,
+            CompraConfirmadaPublisher compraConfirmadaPublisher,
+            StockValidationRequestedPublisher stockValidationRequestedPublisher,
+            MeterRegistry meterRegistry,
+            @Value("${rabbitmq.publisher.confirm-timeout-ms:5000}") long confirmTimeoutMs,
+            @Value("${ventas.outbox.publish.batch-confirms:false}") boolean batchConfirms,
+            @Value("${ventas.outbox.publish.raw-payload:false}") boolean payloadAlmacenado,
+            @Value("${ventas.outbox.dispatch.max-lanes:64}") int maxCarriles) {
+        assertCarrilesValidos(maxCarriles);
+        this.objectMapper = objectMapper;
+        this.compraConfirmadaPublisher = compraConfirmadaPublisher;
+        this.stockValidationRequestedPublisher = stockValidationRequestedPublisher;
+        this.meterRegistry = meterRegistry;
+        this.confirmTimeoutMs = confirmTimeoutMs;
+        this.batchConfirms = batchConfirms;
+        this.payloadAlmacenado = payloadAlmacenado;
+        this.maxCarriles = maxCarriles;
+        this.carrilesDisponibles = new Semaphore(maxCarriles);
+
+        Gauge.builder("ventas.outbox.dispatch.lanes.max", () -> this.maxCarriles).register(meterRegistry);
+        Gauge.builder("ventas.outbox.dispatch.lanes.active", carrilesActivos, AtomicInteger::get)
+                .register(meterRegistry);
+        Gauge.builder("ventas.outbox.dispatch.lanes.waiting", carrilesDisponibles, Semaphore::getQueueLength)
+                .register(meterRegistry);
+    }
+
+    // Un carril por compra: orden estricto dentro del carril, compras distintas en paralelo sobre virtual threads
+    public OutboxDispatchResult despachar(List<OutboxEventEntity> lote) {
+        Map<Long, List<OutboxEventEntity>> carriles = new LinkedHashMap<>();
+        for (OutboxEventEntity evento : lote) {
+            carriles.computeIfAbsent(evento.getAggregateId(), aggregateId -> new ArrayList<>()).add(evento);
+        }
+
+        List<CompletableFuture<OutboxDispatchResult>> resultadosCarriles = carriles.values().stream()
+                .map(carril -> CompletableFuture.supplyAsync(() -> despacharCarrilAcotado(carril), executor))
+                .toList();
+
+        OutboxDispatchResult resultado = new OutboxDispatchResult();
+        resultadosCarriles.forEach(carril -> resultado.agregar(carril.join()));
+        return resultado;
+    }
+
+    private OutboxDispatchResult despacharCarrilAcotado(List<OutboxEventEntity> carril) {
+        if (!carrilesDisponibles.tryAcquire()) {
+            meterRegistry.counter("ventas.outbox.dispatch.lanes.saturated.total").increment();
+            carrilesDisponibles.acquireUninterruptibly();
+        }
+        carrilesActivos.incrementAndGet();
+        try {
+            return despacharCarril(carril);
+        } finally {
+            carrilesActivos.decrementAndGet();
+            carrilesDisponibles.release();
+        }
+    }
+
+    private OutboxDispatchResult despacharCarril(List<OutboxEventEntity> carril) {
+        OutboxDispatchResult resultado = new OutboxDispatchResult();
+        boolean fallaAnterior = false;
+        for (OutboxEventEntity evento : carril) {
+            String error = fallaAnterior ? ERROR_EVENTO_ANTERIOR_FALLIDO : publicarEvento(evento);
+            if (error == null) {
+                resultado.registrarPublicado(evento);
+            } else {
+                registrarFallido(resultado, evento, error);
+                fallaAnterior = true;
+            }
+        }
+        return resultado;
+    }
+
+    // Con confirms asincrónicos los carriles se solapan y cada uno espera solo el confirm de su evento
+    private String publicarEvento(OutboxEventEntity evento) {
+        try {
+            if (!batchConfirms) {
+                publicar(evento);
+                return null;
+            }
+            return esperarConfirmacion(enviar(evento));
+        } catch (RuntimeException ex) {
+            return mensajeDeError(ex);
+        }
+    }
+
+    private String esperarConfirmacion(CorrelationData correlationData) {
+        try {
+            CorrelationData.Confirm confirm = correlationData.getFuture().get(confirmTimeoutMs, TimeUnit.MILLISECONDS);
+            if (confirm == null || !confirm.isAck()) {
+                meterRegistry.counter("ventas.outbox.confirms.nack.total").increment();
+                return ERROR_CONFIRMACION_NACK + (confirm != null ? confirm.getReason() : "confirmación nula");
+            }
+            if (correlationData.getReturned() != null) {
+                meterRegistry.counter("ventas.outbox.confirms.returned.total").increment();
+                return ERROR_CONFIRMACION_RETORNADO;
+            }
+            return null;
+        } catch (TimeoutException ex) {
+            meterRegistry.counter("ventas.outbox.confirms.timeout.total").increment();
+            return ERROR_CONFIRMACION_TIMEOUT;
+        } catch (ExecutionException ex) {
+            return ERROR_CONFIRMACION_NACK + ex.getCause().getMessage();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return ERROR_CONFIRMACION_INTERRUMPIDA;
+        }
+    }
+
+    private void publicar(OutboxEventEntity evento) {
+        String eventType = evento.getEventType();
+        if (OutboxEventService.EVENT_TYPE_COMPRA_CONFIRMADA.equals(eventType)) {
+            if (usaPayloadAlmacenado(evento)) {
+                compraConfirmadaPublisher.publicarPayloadAhora(evento.getEventId(), bytesDe(evento));
+            } else {
+                compraConfirmadaPublisher.publicarAhora(leerPayload(evento, CompraConfirmadaEvent.class));
+            }
+        } else if (OutboxEventService.EVENT_TYPE_STOCK_VALIDATION_REQUESTED.equals(eventType)) {
+            if (usaPayloadAlmacenado(evento)) {
+                stockValidationRequestedPublisher.publicarPayloadAhora(evento.getEventId(), bytesDe(evento));
+            } else {
+                stockValidationRequestedPublisher.publicarAhora(leerPayload(evento, StockValidationRequestedEvent.class));
+            }
+        } else {
+            throw new RuntimeException(ERROR_TIPO_NO_SOPORTADO + eventType);
+        }
+    }
+
+    private CorrelationData enviar(OutboxEventEntity evento) {
+        String eventType = evento.getEventType();
+        if (OutboxEventService.EVENT_TYPE_COMPRA_CONFIRMADA.equals(eventType)) {
+            return usaPayloadAlmacenado(evento)
+                    ? compraConfirmadaPublisher.enviarPayload(evento.getEventId(), bytesDe(evento))
+                    : compraConfirmadaPublisher.enviar(leerPayload(evento, CompraConfirmadaEvent.class));
+        } else if (OutboxEventService.EVENT_TYPE_STOCK_VALIDATION_REQUESTED.equals(eventType)) {
+            return usaPayloadAlmacenado(evento)
+                    ? stockValidationRequestedPublisher.enviarPayload(evento.getEventId(), bytesDe(evento))
+                    : stockValidationRequestedPublisher.enviar(leerPayload(evento, StockValidationRequestedEvent.class));
+        }
+        throw new RuntimeException(ERROR_TIPO_NO_SOPORTADO + eventType);
+    }
+
+    // Filas anteriores a event_id no tienen con qué armar los headers: se siguen deserializando
+    private boolean usaPayloadAlmacenado(OutboxEventEntity evento) {
+        return payloadAlmacenado && evento.getEventId() != null;
+    }
+
+    private byte[] bytesDe(OutboxEventEntity evento) {
+        return evento.getPayloadJson().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private <T> T leerPayload(OutboxEventEntity evento, Class<T> tipo) {
+        try {
+            return objectMapper.readValue(evento.getPayloadJson(), tipo);
+        } catch (JsonProcessingException ex) {
+            throw new RuntimeException(ERROR_DESERIALIZACION_OUTBOX, ex);
+        }
+    }
+
+    private void registrarFallido(OutboxDispatchResult resultado, OutboxEventEntity evento, String error) {
+        resultado.registrarFallido(evento, error);
+        log.error("Fallo publicación outbox id={} mensaje={}", evento.getId(), error);
+    }
+
+    private String mensajeDeError(RuntimeException ex) {
+        return ex.getMessage() != null ? ex.getMessage() : ex.getClass().getSimpleName();
+    }
+
+    private void assertCarrilesValidos(int maxCarriles) {
+        if (maxCarriles <= 0) {
+            throw new RuntimeException(ERROR_CARRILES_INVALIDOS);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,66 @@
+package unrn.outbox;
+
+class OutboxDrainPolicy {
+
+    static final String ERROR_TAMANIO_LOTE_INVALIDO = "El tamaño de lote del outbox debe ser mayor a cero y min <= max";
+    static final String ERROR_INTERVALO_INVALIDO = "El intervalo de polling del outbox debe ser mayor a cero y min <= max";
+
+    private final int minBatchSize;
+    private final int maxBatchSize;
+    private final long minDelayMs;
+    private final long maxDelayMs;
+
+    private volatile int batchSize;
+    private volatile long delayMs;
+
+    OutboxDrainPolicy(int minBatchSize, int maxBatchSize, long minDelayMs, long maxDelayMs) {
+        assertTamanioLoteValido(minBatchSize, maxBatchSize);
+        assertIntervaloValido(minDelayMs, maxDelayMs);
+
+        this.minBatchSize = minBatchSize;
+        this.maxBatchSize = maxBatchSize;
+        this.minDelayMs = minDelayMs;
+        this.maxDelayMs = maxDelayMs;
+        this.batchSize = minBatchSize;
+        this.delayMs = minDelayMs;
+    }
+
+    int batchSize() {
+        return batchSize;
+    }
+
+    long delayMs() {
+        return delayMs;
+    }
+
+    // Devuelve true si queda backlog y conviene pedir otro lote en el mismo ciclo.
+    boolean registrarLote(int reclamados, int fallidos) {
+        boolean loteCompleto = reclamados >= batchSize;
+        if (loteCompleto) {
+            batchSize = Math.min(batchSize * 2, maxBatchSize);
+        } else if (reclamados < batchSize / 2) {
+            batchSize = Math.max(batchSize / 2, minBatchSize);
+        }
+        return loteCompleto && fallidos == 0;
+    }
+
+    void registrarFinCiclo(boolean huboTrabajo) {
+        if (huboTrabajo) {
+            delayMs = minDelayMs;
+        } else {
+            delayMs = Math.min(delayMs * 2, maxDelayMs);
+        }
+    }
+
+    private void assertTamanioLoteValido(int minBatchSize, int maxBatchSize) {
+        if (minBatchSize <= 0 || maxBatchSize < minBatchSize) {
+            throw new RuntimeException(ERROR_TAMANIO_LOTE_INVALIDO);
+        }
+    }
+
+    private void assertIntervaloValido(long minDelayMs, long maxDelayMs) {
+        if (minDelayMs <= 0 || maxDelayMs < minDelayMs) {
+            throw new RuntimeException(ERROR_INTERVALO_INVALIDO);
+        }
+    }
+}
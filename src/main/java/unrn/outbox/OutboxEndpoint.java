@@ -0,0 +1,45 @@
+package unrn.outbox;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import unrn.dto.OutboxEventoTrabadoResponse;
+
+import java.util.List;
+
+// GET /actuator/outbox?limite=N: eventos no publicados más antiguos con su último error
+@Component
+@Endpoint(id = "outbox")
+public class OutboxEndpoint {
+
+    static final int LIMITE_POR_DEFECTO = 20;
+    static final int LIMITE_MAXIMO = 200;
+
+    private final OutboxEventJpaRepository outboxEventJpaRepository;
+
+    public OutboxEndpoint(OutboxEventJpaRepository outboxEventJpaRepository) {
+        this.outboxEventJpaRepository = outboxEventJpaRepository;
+    }
+
+    @ReadOperation
+    public List<OutboxEventoTrabadoResponse> eventosTrabados(@Nullable Integer limite) {
+        int tamanio = limite == null ? LIMITE_POR_DEFECTO : Math.clamp(limite, 1, LIMITE_MAXIMO);
+        return outboxEventJpaRepository
+                .findByStatusInOrderByCreatedAtAsc(
+                        List.of(OutboxEventStatus.PENDING, OutboxEventStatus.FAILED),
+                        PageRequest.of(0, tamanio))
+                .stream()
+                .map(evento -> new OutboxEventoTrabadoResponse(
+                        evento.getId(),
+                        evento.getAggregateId(),
+                        evento.getEventType(),
+                        evento.getStatus().name(),
+                        evento.getAttempts(),
+                        evento.getCreatedAt(),
+                        evento.getNextAttemptAt(),
+                        evento.getLastError()))
+                .toList();
+    }
+}
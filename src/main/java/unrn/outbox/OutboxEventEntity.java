@@ -28,6 +28,9 @@ public class OutboxEventEntity {
     @Column(name = "event_type", nullable = false, length = 128)
     private String eventType;
 
+    @Column(name = "event_id", length = 64)
+    private String eventId;
+
     @Column(name = "payload_json", nullable = false, length = 8000)
     private String payloadJson;
 
@@ -47,16 +50,32 @@ public class OutboxEventEntity {
     @Column(name = "last_error", length = 1000)
     private String lastError;
 
+    @Column(name = "next_attempt_at", nullable = false)
+    private Instant nextAttemptAt;
+
+    @Column(name = "lease_owner", length = 128)
+    private String leaseOwner;
+
+    @Column(name = "lease_until")
+    private Instant leaseUntil;
+
     protected OutboxEventEntity() {
     }
 
     public OutboxEventEntity(String aggregateType, Long aggregateId, String eventType, String payloadJson) {
+        this(aggregateType, aggregateId, eventType, null, payloadJson);
+    }
+
+    public OutboxEventEntity(String aggregateType, Long aggregateId, String eventType, String eventId,
+            String payloadJson) {
         this.aggregateType = aggregateType;
         this.aggregateId = aggregateId;
         this.eventType = eventType;
+        this.eventId = eventId;
         this.payloadJson = payloadJson;
         this.status = OutboxEventStatus.PENDING;
         this.createdAt = Instant.now();
+        this.nextAttemptAt = this.createdAt;
         this.attempts = 0;
     }
 
@@ -72,6 +91,10 @@ public class OutboxEventEntity {
         return eventType;
     }
 
+    public String getEventId() {
+        return eventId;
+    }
+
     public String getPayloadJson() {
         return payloadJson;
     }
@@ -84,23 +107,23 @@ public class OutboxEventEntity {
         return attempts;
     }
 
+    public String getLastError() {
+        return lastError;
+    }
+
     public Instant getCreatedAt() {
         return createdAt;
     }
 
-    public void registrarIntentoFallido(String error, int maxAttempts) {
-        this.attempts += 1;
-        this.lastError = error;
-        if (this.attempts >= maxAttempts) {
-            this.status = OutboxEventStatus.FAILED;
-        } else {
-            this.status = OutboxEventStatus.PENDING;
-        }
+    public Instant getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public String getLeaseOwner() {
+        return leaseOwner;
     }
 
-    public void marcarPublicado() {
-        this.status = OutboxEventStatus.PUBLISHED;
-        this.publishedAt = Instant.now();
-        this.lastError = null;
+    public Instant getLeaseUntil() {
+        return leaseUntil;
     }
 }
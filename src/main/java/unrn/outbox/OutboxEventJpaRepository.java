@@ -1,9 +1,139 @@
 package unrn.outbox;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 
 public interface OutboxEventJpaRepository extends JpaRepository<OutboxEventEntity, Long> {
-    List<OutboxEventEntity> findTop100ByStatusOrderByCreatedAtAsc(OutboxEventStatus status);
+
+    // lock.timeout=-2 -> FOR UPDATE SKIP LOCKED (MySQL 8 y H2 2.x vía dialecto de Hibernate)
+    // NOT EXISTS: un evento solo es reclamable cuando no quedan pendientes anteriores de la misma compra
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("""
+            SELECT e FROM OutboxEventEntity e
+            WHERE e.status = :status
+              AND e.nextAttemptAt <= :ahora
+              AND (e.leaseUntil IS NULL OR e.leaseUntil < :ahora)
+              AND NOT EXISTS (
+                  SELECT 1 FROM OutboxEventEntity previo
+                  WHERE previo.aggregateType = e.aggregateType
+                    AND previo.aggregateId = e.aggregateId
+                    AND previo.status = :status
+                    AND previo.id < e.id)
+            ORDER BY e.nextAttemptAt ASC, e.id ASC
+            """)
+    List<OutboxEventEntity> findReclamables(@Param("status") OutboxEventStatus status,
+            @Param("ahora") Instant ahora,
+            Pageable pageable);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("""
+            SELECT e FROM OutboxEventEntity e
+            WHERE e.id IN :ids
+              AND e.status = :status
+              AND (e.leaseUntil IS NULL OR e.leaseUntil < :ahora)
+              AND NOT EXISTS (
+                  SELECT 1 FROM OutboxEventEntity previo
+                  WHERE previo.aggregateType = e.aggregateType
+                    AND previo.aggregateId = e.aggregateId
+                    AND previo.status = :status
+                    AND previo.id < e.id)
+            ORDER BY e.id ASC
+            """)
+    List<OutboxEventEntity> findReclamablesPorIds(@Param("ids") Collection<Long> ids,
+            @Param("status") OutboxEventStatus status,
+            @Param("ahora") Instant ahora);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            UPDATE OutboxEventEntity e
+            SET e.leaseOwner = :owner, e.leaseUntil = :hasta
+            WHERE e.id IN :ids
+              AND (e.leaseUntil IS NULL OR e.leaseUntil < :ahora)
+            """)
+    int arrendar(@Param("ids") Collection<Long> ids,
+            @Param("owner") String owner,
+            @Param("ahora") Instant ahora,
+            @Param("hasta") Instant hasta);
+
+    @Query("SELECT e.id FROM OutboxEventEntity e WHERE e.id IN :ids AND e.leaseOwner = :owner")
+    List<Long> findIdsArrendados(@Param("ids") Collection<Long> ids, @Param("owner") String owner);
+
+    @Modifying
+    @Query("""
+            UPDATE OutboxEventEntity e
+            SET e.status = unrn.outbox.OutboxEventStatus.PUBLISHED,
+                e.publishedAt = :ahora,
+                e.lastError = NULL,
+                e.leaseOwner = NULL,
+                e.leaseUntil = NULL
+            WHERE e.id IN :ids
+            """)
+    int marcarPublicados(@Param("ids") Collection<Long> ids, @Param("ahora") Instant ahora);
+
+    // status se asigna antes que attempts: MySQL evalúa el SET de izquierda a derecha con valores ya actualizados
+    @Modifying
+    @Query("""
+            UPDATE OutboxEventEntity e
+            SET e.status = CASE WHEN e.attempts + 1 >= :maxAttempts THEN :terminal ELSE :reintento END,
+                e.attempts = e.attempts + 1,
+                e.lastError = :error,
+                e.nextAttemptAt = :proximoIntento,
+                e.leaseOwner = NULL,
+                e.leaseUntil = NULL
+            WHERE e.id = :id
+            """)
+    int registrarIntentoFallido(@Param("id") Long id,
+            @Param("error") String error,
+            @Param("proximoIntento") Instant proximoIntento,
+            @Param("maxAttempts") int maxAttempts,
+            @Param("terminal") OutboxEventStatus terminal,
+            @Param("reintento") OutboxEventStatus reintento);
+
+    @Query("""
+            SELECT e.id FROM OutboxEventEntity e
+            WHERE e.status = :status
+              AND e.publishedAt < :limite
+              AND e.id > :desdeId
+            ORDER BY e.id ASC
+            """)
+    List<Long> findIdsPublicadosAntesDe(@Param("status") OutboxEventStatus status,
+            @Param("limite") Instant limite,
+            @Param("desdeId") Long desdeId,
+            Pageable pageable);
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO outbox_event_archive (id, aggregate_type, aggregate_id, event_type, event_id, payload_json,
+                status, created_at, published_at, attempts, last_error, archived_at)
+            SELECT id, aggregate_type, aggregate_id, event_type, event_id, payload_json,
+                status, created_at, published_at, attempts, last_error, :ahora
+            FROM outbox_event
+            WHERE id IN (:ids)
+            """, nativeQuery = true)
+    int archivar(@Param("ids") Collection<Long> ids, @Param("ahora") Instant ahora);
+
+    @Modifying
+    @Query("DELETE FROM OutboxEventEntity e WHERE e.id IN :ids")
+    int eliminarPorIds(@Param("ids") Collection<Long> ids);
+
+    long countByStatus(OutboxEventStatus status);
+
+    @Query("SELECT MIN(e.createdAt) FROM OutboxEventEntity e WHERE e.status = :status")
+    Instant findCreacionMasAntigua(@Param("status") OutboxEventStatus status);
+
+    List<OutboxEventEntity> findByStatusInOrderByCreatedAtAsc(Collection<OutboxEventStatus> estados,
+            Pageable pageable);
 }
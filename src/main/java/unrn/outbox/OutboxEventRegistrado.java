@@ -0,0 +1,4 @@
+package unrn.outbox;
+
+record OutboxEventRegistrado(Long outboxId) {
+}
@@ -3,15 +3,23 @@ package unrn.outbox;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import unrn.event.compra.CompraConfirmadaEvent;
 import unrn.event.stock.StockValidationRequestedEvent;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 
 @Service
 public class OutboxEventService {
@@ -20,25 +28,38 @@ public class OutboxEventService {
     static final String EVENT_TYPE_COMPRA_CONFIRMADA = "CompraConfirmadaEvent";
     static final String EVENT_TYPE_STOCK_VALIDATION_REQUESTED = "StockValidationRequestedEvent";
     static final String ERROR_SERIALIZACION_OUTBOX = "No se pudo serializar el evento para outbox";
-    static final String ERROR_OUTBOX_NO_ENCONTRADO = "No se encontró evento outbox";
+    static final String PATH_FAST = "fast";
+    static final String PATH_RECOVERY = "recovery";
 
     private final OutboxEventJpaRepository outboxEventJpaRepository;
     private final ObjectMapper objectMapper;
     private final MeterRegistry meterRegistry;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final String leaseOwner;
+    private final OutboxRetryBackoff retryBackoff;
 
     @Value("${ventas.outbox.max-attempts:10}")
     private int maxAttempts;
 
-    @Value("${ventas.outbox.retry.base-delay-ms:2000}")
-    private long baseDelayMs;
+    @Value("${ventas.outbox.lease.duration-ms:30000}")
+    private long leaseDurationMs;
 
     public OutboxEventService(
             OutboxEventJpaRepository outboxEventJpaRepository,
             ObjectMapper objectMapper,
-            MeterRegistry meterRegistry) {
+            MeterRegistry meterRegistry,
+            ApplicationEventPublisher applicationEventPublisher,
+            @Value("${ventas.outbox.lease.owner-id:}") String leaseOwner,
+            @Value("${ventas.outbox.retry.base-delay-ms:2000}") long baseDelayMs,
+            @Value("${ventas.outbox.retry.max-delay-ms:300000}") long maxDelayMs,
+            @Value("${ventas.outbox.retry.jitter-ratio:0.2}") double jitterRatio) {
         this.outboxEventJpaRepository = outboxEventJpaRepository;
         this.objectMapper = objectMapper;
         this.meterRegistry = meterRegistry;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.leaseOwner = leaseOwner == null || leaseOwner.isBlank() ? generarLeaseOwner() : leaseOwner;
+        this.retryBackoff = new OutboxRetryBackoff(baseDelayMs, Math.max(baseDelayMs, maxDelayMs), jitterRatio,
+                () -> ThreadLocalRandom.current().nextDouble());
     }
 
     @Transactional
@@ -49,8 +70,10 @@ public class OutboxEventService {
                     AGGREGATE_TYPE_COMPRA,
                     compraId,
                     EVENT_TYPE_COMPRA_CONFIRMADA,
+                    event.eventId().toString(),
                     payload);
             outboxEventJpaRepository.save(entity);
+            applicationEventPublisher.publishEvent(new OutboxEventRegistrado(entity.getId()));
         } catch (JsonProcessingException ex) {
             throw new RuntimeException(ERROR_SERIALIZACION_OUTBOX, ex);
         }
@@ -64,75 +87,102 @@ public class OutboxEventService {
                     AGGREGATE_TYPE_COMPRA,
                     compraId,
                     EVENT_TYPE_STOCK_VALIDATION_REQUESTED,
+                    event.eventId(),
                     payload);
             outboxEventJpaRepository.save(entity);
+            applicationEventPublisher.publishEvent(new OutboxEventRegistrado(entity.getId()));
         } catch (JsonProcessingException ex) {
             throw new RuntimeException(ERROR_SERIALIZACION_OUTBOX, ex);
         }
     }
 
-    @Transactional(readOnly = true)
-    public List<Long> obtenerPendientesProcesables() {
+    @Transactional
+    public List<OutboxEventEntity> reclamarLote(int tamanioLote) {
         Instant ahora = Instant.now();
-        return outboxEventJpaRepository.findTop100ByStatusOrderByCreatedAtAsc(OutboxEventStatus.PENDING)
-                .stream()
-                .filter(evento -> debeProcesarseAhora(evento, ahora))
-                .map(OutboxEventEntity::getId)
-                .toList();
+        List<OutboxEventEntity> reclamables = outboxEventJpaRepository
+                .findReclamables(OutboxEventStatus.PENDING, ahora, PageRequest.of(0, tamanioLote));
+        return arrendar(reclamables, ahora);
     }
 
-    @Transactional(readOnly = true)
-    public CompraConfirmadaEvent leerEventoCompraConfirmada(Long outboxId) {
-        OutboxEventEntity entity = outboxEventJpaRepository.findById(outboxId)
-                .orElseThrow(() -> new RuntimeException(ERROR_OUTBOX_NO_ENCONTRADO));
-        try {
-            return objectMapper.readValue(entity.getPayloadJson(), CompraConfirmadaEvent.class);
-        } catch (JsonProcessingException ex) {
-            throw new RuntimeException("No se pudo deserializar payload outbox", ex);
-        }
+    @Transactional
+    public List<OutboxEventEntity> reclamarPorIds(Collection<Long> ids) {
+        Instant ahora = Instant.now();
+        List<OutboxEventEntity> reclamables = outboxEventJpaRepository
+                .findReclamablesPorIds(ids, OutboxEventStatus.PENDING, ahora);
+        return arrendar(reclamables, ahora);
     }
 
-    @Transactional(readOnly = true)
-    public StockValidationRequestedEvent leerEventoStockValidationRequested(Long outboxId) {
-        OutboxEventEntity entity = outboxEventJpaRepository.findById(outboxId)
-                .orElseThrow(() -> new RuntimeException(ERROR_OUTBOX_NO_ENCONTRADO));
-        try {
-            return objectMapper.readValue(entity.getPayloadJson(), StockValidationRequestedEvent.class);
-        } catch (JsonProcessingException ex) {
-            throw new RuntimeException("No se pudo deserializar payload outbox", ex);
+    private List<OutboxEventEntity> arrendar(List<OutboxEventEntity> reclamables, Instant ahora) {
+        if (reclamables.isEmpty()) {
+            return reclamables;
+        }
+
+        List<Long> ids = reclamables.stream().map(OutboxEventEntity::getId).toList();
+        int arrendados = outboxEventJpaRepository.arrendar(ids, leaseOwner, ahora, ahora.plusMillis(leaseDurationMs));
+        List<OutboxEventEntity> reclamados = reclamables;
+        if (arrendados != ids.size()) {
+            Set<Long> propios = new HashSet<>(outboxEventJpaRepository.findIdsArrendados(ids, leaseOwner));
+            reclamados = reclamables.stream().filter(evento -> propios.contains(evento.getId())).toList();
         }
+        meterRegistry.counter("ventas.outbox.claimed.total").increment(reclamados.size());
+        return reclamados;
     }
 
-    @Transactional(readOnly = true)
-    public String obtenerTipoEvento(Long outboxId) {
-        OutboxEventEntity entity = outboxEventJpaRepository.findById(outboxId)
-                .orElseThrow(() -> new RuntimeException(ERROR_OUTBOX_NO_ENCONTRADO));
-        return entity.getEventType();
+    public String leaseOwner() {
+        return leaseOwner;
     }
 
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
-    public void marcarPublicado(Long outboxId) {
-        OutboxEventEntity entity = outboxEventJpaRepository.findById(outboxId)
-                .orElseThrow(() -> new RuntimeException(ERROR_OUTBOX_NO_ENCONTRADO));
-        entity.marcarPublicado();
-        meterRegistry.counter("ventas.outbox.published.total").increment();
+    @Transactional
+    public void registrarResultados(OutboxDispatchResult resultado) {
+        registrarResultados(resultado, PATH_RECOVERY);
     }
 
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
-    public void registrarFallo(Long outboxId, String error) {
-        OutboxEventEntity entity = outboxEventJpaRepository.findById(outboxId)
-                .orElseThrow(() -> new RuntimeException(ERROR_OUTBOX_NO_ENCONTRADO));
+    @Transactional
+    public void registrarResultados(OutboxDispatchResult resultado, String path) {
+        if (!resultado.publicados().isEmpty()) {
+            Instant publicadoAt = Instant.now();
+            outboxEventJpaRepository.marcarPublicados(resultado.publicados(), publicadoAt);
+            meterRegistry.counter("ventas.outbox.published.total", "path", path).increment(resultado.publicados().size());
+            registrarLatenciaPublicacion(resultado, path, publicadoAt);
+        }
 
-        entity.registrarIntentoFallido(error, maxAttempts);
-        meterRegistry.counter("ventas.outbox.publish.failed.total").increment();
-        if (entity.getStatus() == OutboxEventStatus.FAILED) {
-            meterRegistry.counter("ventas.outbox.failed.terminal.total").increment();
+        if (resultado.cantidadFallidos() == 0) {
+            return;
         }
+
+        // Un UPDATE por fila: cada evento sortea su propio jitter para que los que fallaron juntos (caída del
+        // broker) no vuelvan a intentar todos en el mismo instante
+        Instant ahora = Instant.now();
+        resultado.fallidos().forEach(fallo -> outboxEventJpaRepository.registrarIntentoFallido(
+                fallo.outboxId(),
+                fallo.error(),
+                retryBackoff.proximoIntento(fallo.intentosPrevios(), ahora),
+                maxAttempts,
+                OutboxEventStatus.FAILED,
+                OutboxEventStatus.PENDING));
+        meterRegistry.counter("ventas.outbox.publish.failed.total").increment(resultado.cantidadFallidos());
+
+        long terminales = resultado.fallidos().stream()
+                .filter(fallo -> fallo.intentosPrevios() + 1 >= maxAttempts)
+                .count();
+        if (terminales > 0) {
+            meterRegistry.counter("ventas.outbox.failed.terminal.total").increment(terminales);
+        }
+    }
+
+    // Latencia desde que la fila se escribió en la transacción de negocio hasta quedar publicada
+    private void registrarLatenciaPublicacion(OutboxDispatchResult resultado, String path, Instant publicadoAt) {
+        resultado.detallePublicados().forEach(publicado -> Timer.builder("ventas.outbox.commit.to.publish")
+                .tag("path", path)
+                .tag("event_type", publicado.eventType())
+                .publishPercentiles(0.5, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(Duration.between(publicado.createdAt(), publicadoAt)));
     }
 
-    private boolean debeProcesarseAhora(OutboxEventEntity evento, Instant ahora) {
-        long backoffMs = (long) Math.pow(2, Math.max(0, evento.getAttempts())) * baseDelayMs;
-        Instant disponibleDesde = evento.getCreatedAt().plusMillis(backoffMs);
-        return !disponibleDesde.isAfter(ahora);
+    private String generarLeaseOwner() {
+        String host = System.getenv().getOrDefault("HOSTNAME", "ventas");
+        return host + "-" + UUID.randomUUID();
     }
 }
@@ -0,0 +1,74 @@
+package unrn.outbox;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Publica apenas confirma la transacción de negocio; el scheduler queda como camino de recuperación
+@Component
+@ConditionalOnProperty(name = "ventas.outbox.fast-path.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxFastPathPublisher implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxFastPathPublisher.class);
+
+    private final OutboxEventService outboxEventService;
+    private final OutboxDispatcher outboxDispatcher;
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolExecutor executor;
+
+    public OutboxFastPathPublisher(OutboxEventService outboxEventService,
+            OutboxDispatcher outboxDispatcher,
+            MeterRegistry meterRegistry,
+            @Value("${ventas.outbox.fast-path.threads:2}") int threads,
+            @Value("${ventas.outbox.fast-path.queue-capacity:1000}") int queueCapacity) {
+        this.outboxEventService = outboxEventService;
+        this.outboxDispatcher = outboxDispatcher;
+        this.meterRegistry = meterRegistry;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("outbox-fast-path-", 0).daemon(true).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void alRegistrarEvento(OutboxEventRegistrado registrado) {
+        try {
+            executor.execute(() -> publicar(List.of(registrado.outboxId())));
+        } catch (RejectedExecutionException ex) {
+            // Cola llena: el evento queda PENDING y lo toma el scheduler
+            meterRegistry.counter("ventas.outbox.fast.path.rejected.total").increment();
+        }
+    }
+
+    void publicar(List<Long> ids) {
+        try {
+            List<OutboxEventEntity> lote = outboxEventService.reclamarPorIds(ids);
+            if (lote.isEmpty()) {
+                return;
+            }
+            OutboxDispatchResult resultado = outboxDispatcher.despachar(lote);
+            outboxEventService.registrarResultados(resultado, OutboxEventService.PATH_FAST);
+        } catch (RuntimeException ex) {
+            // Si falla a mitad de camino el lease vence y el scheduler reintenta
+            log.warn("Fast path de outbox falló para ids={}: {}", ids, ex.getMessage());
+            meterRegistry.counter("ventas.outbox.fast.path.errors.total").increment();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
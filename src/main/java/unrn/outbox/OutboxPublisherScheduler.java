@@ -1,52 +1,115 @@
 package unrn.outbox;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.TriggerContext;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.stereotype.Component;
-import unrn.event.compra.CompraConfirmadaEvent;
-import unrn.event.compra.CompraConfirmadaPublisher;
-import unrn.event.stock.StockValidationRequestedEvent;
-import unrn.event.stock.StockValidationRequestedPublisher;
 
+import java.time.Instant;
+import java.util.List;
+
+// El drenaje corre en su propio hilo y no en el scheduler compartido de @Scheduled: con backlog sostenido no frena
+// al autoscaler, las métricas ni las purgas, y una purga larga tampoco demora la publicación
 @Component
 @ConditionalOnProperty(name = "ventas.outbox.scheduler.enabled", havingValue = "true", matchIfMissing = true)
-public class OutboxPublisherScheduler {
+public class OutboxPublisherScheduler implements SmartLifecycle {
 
-    private static final Logger log = LoggerFactory.getLogger(OutboxPublisherScheduler.class);
+    static final String ERROR_LOTES_POR_CICLO_INVALIDO = "La cantidad de lotes por ciclo del outbox debe ser mayor a cero";
 
     private final OutboxEventService outboxEventService;
-    private final CompraConfirmadaPublisher compraConfirmadaPublisher;
-    private final StockValidationRequestedPublisher stockValidationRequestedPublisher;
+    private final OutboxDispatcher outboxDispatcher;
+    private final OutboxDrainPolicy drainPolicy;
+    private final int maxLotesPorCiclo;
+    private final boolean autoStartup;
+    private ThreadPoolTaskScheduler scheduler;
+
+    // El hilo propio del outbox sigue el modo virtual igual que el scheduler compartido de @Scheduled
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean hilosVirtuales;
 
     public OutboxPublisherScheduler(OutboxEventService outboxEventService,
-            CompraConfirmadaPublisher compraConfirmadaPublisher,
-            StockValidationRequestedPublisher stockValidationRequestedPublisher) {
+            OutboxDispatcher outboxDispatcher,
+            MeterRegistry meterRegistry,
+            @Value("${ventas.outbox.batch-size:100}") int minBatchSize,
+            @Value("${ventas.outbox.batch-max-size:500}") int maxBatchSize,
+            @Value("${ventas.outbox.scheduler.min-delay-ms:50}") long minDelayMs,
+            @Value("${ventas.outbox.scheduler.max-delay-ms:${ventas.outbox.scheduler.delay-ms:3000}}") long maxDelayMs,
+            @Value("${ventas.outbox.scheduler.max-batches-per-cycle:20}") int maxLotesPorCiclo,
+            @Value("${ventas.outbox.scheduler.auto-startup:true}") boolean autoStartup) {
+        assertLotesPorCicloValido(maxLotesPorCiclo);
         this.outboxEventService = outboxEventService;
-        this.compraConfirmadaPublisher = compraConfirmadaPublisher;
-        this.stockValidationRequestedPublisher = stockValidationRequestedPublisher;
+        this.outboxDispatcher = outboxDispatcher;
+        this.drainPolicy = new OutboxDrainPolicy(minBatchSize, maxBatchSize, minDelayMs, maxDelayMs);
+        this.maxLotesPorCiclo = maxLotesPorCiclo;
+        this.autoStartup = autoStartup;
+
+        Gauge.builder("ventas.outbox.scheduler.batch.size", drainPolicy, OutboxDrainPolicy::batchSize)
+                .register(meterRegistry);
+        Gauge.builder("ventas.outbox.scheduler.poll.interval.ms", drainPolicy, OutboxDrainPolicy::delayMs)
+                .register(meterRegistry);
     }
 
-    @Scheduled(fixedDelayString = "${ventas.outbox.scheduler.delay-ms:3000}")
+    // Un ciclo drena a lo sumo maxLotesPorCiclo lotes; si queda backlog el próximo arranca tras min-delay-ms
     public void publicarPendientes() {
-        for (Long outboxId : outboxEventService.obtenerPendientesProcesables()) {
-            try {
-                String eventType = outboxEventService.obtenerTipoEvento(outboxId);
-                if (OutboxEventService.EVENT_TYPE_COMPRA_CONFIRMADA.equals(eventType)) {
-                    CompraConfirmadaEvent event = outboxEventService.leerEventoCompraConfirmada(outboxId);
-                    compraConfirmadaPublisher.publicarAhora(event);
-                } else if (OutboxEventService.EVENT_TYPE_STOCK_VALIDATION_REQUESTED.equals(eventType)) {
-                    StockValidationRequestedEvent event = outboxEventService.leerEventoStockValidationRequested(outboxId);
-                    stockValidationRequestedPublisher.publicarAhora(event);
-                } else {
-                    throw new RuntimeException("Tipo de evento outbox no soportado: " + eventType);
-                }
-                outboxEventService.marcarPublicado(outboxId);
-            } catch (RuntimeException ex) {
-                outboxEventService.registrarFallo(outboxId, ex.getMessage());
-                log.error("Fallo publicación outbox id={} mensaje={}", outboxId, ex.getMessage());
-            }
+        boolean huboTrabajo = false;
+        boolean quedaBacklog = true;
+        int lotes = 0;
+
+        while (quedaBacklog && lotes < maxLotesPorCiclo) {
+            List<OutboxEventEntity> lote = outboxEventService.reclamarLote(drainPolicy.batchSize());
+            OutboxDispatchResult resultado = outboxDispatcher.despachar(lote);
+            outboxEventService.registrarResultados(resultado);
+            huboTrabajo |= !lote.isEmpty();
+            quedaBacklog = drainPolicy.registrarLote(lote.size(), resultado.cantidadFallidos());
+            lotes++;
+        }
+
+        drainPolicy.registrarFinCiclo(huboTrabajo);
+    }
+
+    @Override
+    public synchronized void start() {
+        scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("outbox-publisher-");
+        scheduler.setVirtualThreads(hilosVirtuales);
+        scheduler.setWaitForTasksToCompleteOnShutdown(true);
+        scheduler.setAwaitTerminationSeconds(10);
+        scheduler.initialize();
+        scheduler.schedule(this::publicarPendientes, this::proximaEjecucion);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            scheduler = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return scheduler != null;
+    }
+
+    @Override
+    public boolean isAutoStartup() {
+        return autoStartup;
+    }
+
+    private Instant proximaEjecucion(TriggerContext contexto) {
+        Instant ultimaEjecucion = contexto.lastCompletion();
+        Instant desde = ultimaEjecucion != null ? ultimaEjecucion : Instant.now();
+        return desde.plusMillis(drainPolicy.delayMs());
+    }
+
+    private void assertLotesPorCicloValido(int maxLotesPorCiclo) {
+        if (maxLotesPorCiclo <= 0) {
+            throw new RuntimeException(ERROR_LOTES_POR_CICLO_INVALIDO);
         }
     }
 }
@@ -0,0 +1,91 @@
+package unrn.outbox;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Purga eventos PUBLISHED viejos en lotes chicos por keyset sobre id: cada lote es una transacción corta
+@Component
+@ConditionalOnProperty(name = "ventas.outbox.retention.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRetentionJob {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRetentionJob.class);
+
+    private final OutboxEventJpaRepository outboxEventJpaRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final DistributionSummary filasPorEjecucion;
+    private final AtomicLong filasEnTabla = new AtomicLong();
+    private final boolean archivar;
+    private final String modo;
+
+    @Value("${ventas.outbox.retention.max-age-ms:604800000}")
+    private long maxAgeMs;
+
+    @Value("${ventas.outbox.retention.batch-size:500}")
+    private int batchSize;
+
+    @Value("${ventas.outbox.retention.max-batches-per-run:200}")
+    private int maxBatchesPorEjecucion;
+
+    public OutboxRetentionJob(OutboxEventJpaRepository outboxEventJpaRepository,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${ventas.outbox.retention.archive:false}") boolean archivar) {
+        this.outboxEventJpaRepository = outboxEventJpaRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.archivar = archivar;
+        this.modo = archivar ? "archive" : "delete";
+        this.filasPorEjecucion = DistributionSummary.builder("ventas.outbox.retention.rows.per.run")
+                .tag("mode", modo)
+                .register(meterRegistry);
+        Gauge.builder("ventas.outbox.table.rows", filasEnTabla, AtomicLong::get).register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${ventas.outbox.retention.interval-ms:600000}",
+            initialDelayString = "${ventas.outbox.retention.interval-ms:600000}")
+    public int purgarPublicados() {
+        Instant limite = Instant.now().minusMillis(maxAgeMs);
+        long desdeId = 0L;
+        int purgadas = 0;
+
+        for (int lote = 0; lote < maxBatchesPorEjecucion; lote++) {
+            List<Long> ids = outboxEventJpaRepository.findIdsPublicadosAntesDe(
+                    OutboxEventStatus.PUBLISHED, limite, desdeId, PageRequest.of(0, batchSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+            Integer eliminadas = transactionTemplate.execute(status -> purgarLote(ids));
+            purgadas += eliminadas != null ? eliminadas : 0;
+            desdeId = ids.get(ids.size() - 1);
+        }
+
+        filasPorEjecucion.record(purgadas);
+        meterRegistry.counter("ventas.outbox.retention.purged.total", "mode", modo).increment(purgadas);
+        filasEnTabla.set(outboxEventJpaRepository.count());
+        if (purgadas > 0) {
+            log.info("Retención de outbox: {} eventos publicados purgados (modo={})", purgadas, modo);
+        }
+        return purgadas;
+    }
+
+    private int purgarLote(List<Long> ids) {
+        if (archivar) {
+            outboxEventJpaRepository.archivar(ids, Instant.now());
+        }
+        return outboxEventJpaRepository.eliminarPorIds(ids);
+    }
+}
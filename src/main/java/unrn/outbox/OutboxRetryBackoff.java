@@ -0,0 +1,47 @@
+package unrn.outbox;
+
+import java.time.Instant;
+import java.util.function.DoubleSupplier;
+
+public class OutboxRetryBackoff {
+
+    static final String ERROR_DELAY_INVALIDO = "Los delays de reintento del outbox deben ser no negativos y base <= max";
+    static final String ERROR_JITTER_INVALIDO = "El jitter de reintento del outbox debe estar entre 0 y 1";
+
+    private static final int MAX_EXPONENTE = 30;
+
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+    private final double jitterRatio;
+    private final DoubleSupplier aleatorio;
+
+    public OutboxRetryBackoff(long baseDelayMs, long maxDelayMs, double jitterRatio, DoubleSupplier aleatorio) {
+        assertDelaysValidos(baseDelayMs, maxDelayMs);
+        assertJitterValido(jitterRatio);
+
+        this.baseDelayMs = baseDelayMs;
+        this.maxDelayMs = maxDelayMs;
+        this.jitterRatio = jitterRatio;
+        this.aleatorio = aleatorio;
+    }
+
+    // intentosPrevios=0 -> base, 1 -> 2*base, ... acotado a max, más hasta jitterRatio del delay al azar
+    public Instant proximoIntento(int intentosPrevios, Instant ahora) {
+        int exponente = Math.min(Math.max(0, intentosPrevios), MAX_EXPONENTE);
+        long delayMs = Math.min(baseDelayMs << exponente, maxDelayMs);
+        long jitterMs = (long) (delayMs * jitterRatio * aleatorio.getAsDouble());
+        return ahora.plusMillis(delayMs + jitterMs);
+    }
+
+    private void assertDelaysValidos(long baseDelayMs, long maxDelayMs) {
+        if (baseDelayMs < 0 || maxDelayMs < baseDelayMs) {
+            throw new RuntimeException(ERROR_DELAY_INVALIDO);
+        }
+    }
+
+    private void assertJitterValido(double jitterRatio) {
+        if (jitterRatio < 0 || jitterRatio > 1) {
+            throw new RuntimeException(ERROR_JITTER_INVALIDO);
+        }
+    }
+}
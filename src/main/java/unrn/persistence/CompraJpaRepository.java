@@ -1,7 +1,10 @@
 package unrn.persistence;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -10,4 +13,7 @@ public interface CompraJpaRepository extends JpaRepository<CompraEntity, Long> {
     List<CompraEntity> findByClienteIdOrderByFechaHoraDesc(String clienteId);
 
     Optional<CompraEntity> findByIdAndClienteId(Long id, String clienteId);
+
+    @Query("SELECT DISTINCT c FROM CompraEntity c LEFT JOIN FETCH c.items WHERE c.id IN :ids")
+    List<CompraEntity> findConItemsPorIds(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
@@ -3,13 +3,17 @@ package unrn.persistence;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import org.springframework.data.domain.Persistable;
 
 import java.time.Instant;
 
 @Entity
 @Table(name = "processed_events")
-public class ProcessedEventEntity {
+public class ProcessedEventEntity implements Persistable<String> {
 
     @Id
     @Column(name = "event_id", nullable = false, length = 64)
@@ -18,6 +22,10 @@ public class ProcessedEventEntity {
     @Column(name = "processed_at", nullable = false)
     private Instant processedAt;
 
+    // El id es asignado: sin esto save()/saveAll() hacen merge con un SELECT previo por cada evento
+    @Transient
+    private boolean nuevo = true;
+
     protected ProcessedEventEntity() {
     }
 
@@ -25,4 +33,20 @@ public class ProcessedEventEntity {
         this.eventId = eventId;
         this.processedAt = Instant.now();
     }
+
+    @Override
+    public String getId() {
+        return eventId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return nuevo;
+    }
+
+    @PostLoad
+    @PostPersist
+    void marcarPersistido() {
+        this.nuevo = false;
+    }
 }
@@ -1,6 +1,26 @@
 package unrn.persistence;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 
 public interface ProcessedEventJpaRepository extends JpaRepository<ProcessedEventEntity, String> {
+
+    // Insert-first: 1 si el evento es nuevo, 0 si ya estaba registrado; una sola ida a la base
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO processed_events (event_id, processed_at) VALUES (:eventId, :ahora)",
+            nativeQuery = true)
+    int insertarSiNoExiste(@Param("eventId") String eventId, @Param("ahora") Instant ahora);
+
+    @Query("SELECT p.eventId FROM ProcessedEventEntity p WHERE p.eventId IN :eventIds")
+    List<String> findIdsExistentes(@Param("eventIds") Collection<String> eventIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM processed_events WHERE processed_at < :limite LIMIT :lote", nativeQuery = true)
+    int eliminarAnterioresA(@Param("limite") Instant limite, @Param("lote") int lote);
 }
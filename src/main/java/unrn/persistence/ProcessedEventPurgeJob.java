@@ -0,0 +1,64 @@
+package unrn.persistence;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+
+// Purga ids de eventos procesados más viejos que el TTL; el TTL debe superar la ventana máxima de reentrega
+@Component
+@ConditionalOnProperty(name = "ventas.processed-events.purge.enabled", havingValue = "true", matchIfMissing = true)
+public class ProcessedEventPurgeJob {
+
+    private static final Logger log = LoggerFactory.getLogger(ProcessedEventPurgeJob.class);
+
+    private final ProcessedEventJpaRepository processedEventJpaRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${ventas.processed-events.purge.ttl-ms:1209600000}")
+    private long ttlMs;
+
+    @Value("${ventas.processed-events.purge.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${ventas.processed-events.purge.max-batches-per-run:100}")
+    private int maxBatchesPorEjecucion;
+
+    public ProcessedEventPurgeJob(ProcessedEventJpaRepository processedEventJpaRepository,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry) {
+        this.processedEventJpaRepository = processedEventJpaRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Scheduled(fixedDelayString = "${ventas.processed-events.purge.interval-ms:3600000}",
+            initialDelayString = "${ventas.processed-events.purge.interval-ms:3600000}")
+    public int purgarVencidos() {
+        Instant limite = Instant.now().minusMillis(ttlMs);
+        int purgados = 0;
+
+        for (int lote = 0; lote < maxBatchesPorEjecucion; lote++) {
+            Integer eliminados = transactionTemplate.execute(
+                    status -> processedEventJpaRepository.eliminarAnterioresA(limite, batchSize));
+            int cantidad = eliminados != null ? eliminados : 0;
+            purgados += cantidad;
+            if (cantidad < batchSize) {
+                break;
+            }
+        }
+
+        meterRegistry.counter("ventas.processed_events.purged.total").increment(purgados);
+        if (purgados > 0) {
+            log.info("Purga de eventos procesados: {} ids anteriores a {} eliminados", purgados, limite);
+        }
+        return purgados;
+    }
+}
@@ -0,0 +1,124 @@
+package unrn.persistence;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Deduplicación de eventos consumidos: cache LRU de ids confirmados delante de processed_events con insert-first
+@Component
+public class ProcessedEventStore {
+
+    static final String ERROR_CAPACIDAD_INVALIDA = "La capacidad de la cache de eventos procesados debe ser mayor a cero";
+
+    private final ProcessedEventJpaRepository processedEventJpaRepository;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Boolean> recientes;
+
+    public ProcessedEventStore(ProcessedEventJpaRepository processedEventJpaRepository,
+            MeterRegistry meterRegistry,
+            @Value("${ventas.processed-events.cache.max-size:100000}") int capacidad) {
+        assertCapacidadValida(capacidad);
+        this.processedEventJpaRepository = processedEventJpaRepository;
+        this.meterRegistry = meterRegistry;
+        this.recientes = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > capacidad;
+            }
+        };
+
+        Gauge.builder("ventas.processed_events.cache.size", this, ProcessedEventStore::tamanioCache)
+                .register(meterRegistry);
+    }
+
+    // true si el evento es nuevo y quedó registrado en la transacción actual; false si es un duplicado
+    public boolean registrarSiNuevo(String eventId) {
+        if (enCache(eventId)) {
+            meterRegistry.counter("ventas.processed_events.duplicate.total", "source", "cache").increment();
+            return false;
+        }
+
+        if (processedEventJpaRepository.insertarSiNoExiste(eventId, Instant.now()) == 0) {
+            meterRegistry.counter("ventas.processed_events.duplicate.total", "source", "db").increment();
+            recordarAlConfirmar(List.of(eventId));
+            return false;
+        }
+
+        recordarAlConfirmar(List.of(eventId));
+        return true;
+    }
+
+    public Set<String> filtrarProcesados(Collection<String> eventIds) {
+        Set<String> procesados = new HashSet<>();
+        List<String> aConsultar = eventIds.stream()
+                .filter(eventId -> {
+                    if (enCache(eventId)) {
+                        procesados.add(eventId);
+                        return false;
+                    }
+                    return true;
+                })
+                .distinct()
+                .toList();
+
+        if (!aConsultar.isEmpty()) {
+            procesados.addAll(processedEventJpaRepository.findIdsExistentes(aConsultar));
+        }
+        return procesados;
+    }
+
+    public void registrarTodos(Collection<String> eventIds) {
+        processedEventJpaRepository.saveAll(eventIds.stream().map(ProcessedEventEntity::new).toList());
+        recordarAlConfirmar(eventIds);
+    }
+
+    int tamanioCache() {
+        synchronized (recientes) {
+            return recientes.size();
+        }
+    }
+
+    private boolean enCache(String eventId) {
+        synchronized (recientes) {
+            return recientes.get(eventId) != null;
+        }
+    }
+
+    // Solo se cachean ids confirmados: si la transacción hace rollback el marcador desaparece con ella
+    private void recordarAlConfirmar(Collection<String> eventIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            recordar(eventIds);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recordar(eventIds);
+            }
+        });
+    }
+
+    private void recordar(Collection<String> eventIds) {
+        synchronized (recientes) {
+            eventIds.forEach(eventId -> recientes.put(eventId, Boolean.TRUE));
+        }
+    }
+
+    private void assertCapacidadValida(int capacidad) {
+        if (capacidad <= 0) {
+            throw new RuntimeException(ERROR_CAPACIDAD_INVALIDA);
+        }
+    }
+}
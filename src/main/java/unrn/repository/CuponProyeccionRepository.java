@@ -0,0 +1,18 @@
+package unrn.repository;
+
+import java.util.List;
+import java.util.Optional;
+import unrn.model.CuponProyeccion;
+
+public interface CuponProyeccionRepository {
+
+    Optional<CuponProyeccion> buscarPorNombre(String nombre);
+
+    void guardar(CuponProyeccion proyeccion);
+
+    void guardarTodas(List<CuponProyeccion> proyecciones);
+
+    int desactivar(List<CuponProyeccion> proyecciones);
+
+    List<CuponProyeccion> buscarTodas();
+}
@@ -0,0 +1,100 @@
+package unrn.repository;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import unrn.model.CuponProyeccion;
+
+@Repository
+public class JdbcCuponProyeccionRepository implements CuponProyeccionRepository {
+
+    private static final String COLUMNAS = "nombre, porcentaje, vigente_desde, vigente_hasta, activo, version";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JdbcCuponProyeccionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public Optional<CuponProyeccion> buscarPorNombre(String nombre) {
+        var sql = "SELECT " + COLUMNAS + " FROM cupon_proyeccion WHERE nombre = ?";
+        return jdbcTemplate.query(sql, new CuponProyeccionRowMapper(), nombre).stream().findFirst();
+    }
+
+    @Override
+    public void guardar(CuponProyeccion proyeccion) {
+        guardarTodas(List.of(proyeccion));
+    }
+
+    @Override
+    public void guardarTodas(List<CuponProyeccion> proyecciones) {
+        if (proyecciones.isEmpty()) {
+            return;
+        }
+
+        // Nunca se pisa una versión más nueva (un evento aplicado mientras corría el rebuild); version va última
+        // porque MySQL evalúa las asignaciones de izquierda a derecha con los valores ya actualizados
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO cupon_proyeccion (" + COLUMNAS + ") VALUES (?, ?, ?, ?, ?, ?) "
+                        + "ON DUPLICATE KEY UPDATE "
+                        + "porcentaje = CASE WHEN VALUES(version) >= version THEN VALUES(porcentaje) ELSE porcentaje END, "
+                        + "vigente_desde = CASE WHEN VALUES(version) >= version THEN VALUES(vigente_desde) ELSE vigente_desde END, "
+                        + "vigente_hasta = CASE WHEN VALUES(version) >= version THEN VALUES(vigente_hasta) ELSE vigente_hasta END, "
+                        + "activo = CASE WHEN VALUES(version) >= version THEN VALUES(activo) ELSE activo END, "
+                        + "version = CASE WHEN VALUES(version) >= version THEN VALUES(version) ELSE version END",
+                proyecciones,
+                proyecciones.size(),
+                (ps, proyeccion) -> {
+                    ps.setString(1, proyeccion.nombre());
+                    ps.setBigDecimal(2, proyeccion.porcentaje());
+                    ps.setDate(3, Date.valueOf(proyeccion.vigenteDesde()));
+                    ps.setDate(4, Date.valueOf(proyeccion.vigenteHasta()));
+                    ps.setBoolean(5, proyeccion.activo());
+                    ps.setLong(6, proyeccion.version());
+                });
+    }
+
+    // La baja conserva la versión de descuentos; si la fila cambió desde que se leyó, el cambio nuevo gana
+    @Override
+    public int desactivar(List<CuponProyeccion> proyecciones) {
+        if (proyecciones.isEmpty()) {
+            return 0;
+        }
+
+        int[][] filas = jdbcTemplate.batchUpdate(
+                "UPDATE cupon_proyeccion SET activo = FALSE WHERE nombre = ? AND version = ? AND activo = TRUE",
+                proyecciones,
+                proyecciones.size(),
+                (ps, proyeccion) -> {
+                    ps.setString(1, proyeccion.nombre());
+                    ps.setLong(2, proyeccion.version());
+                });
+        return Arrays.stream(filas).flatMapToInt(Arrays::stream).map(fila -> Math.max(fila, 0)).sum();
+    }
+
+    @Override
+    public List<CuponProyeccion> buscarTodas() {
+        return jdbcTemplate.query("SELECT " + COLUMNAS + " FROM cupon_proyeccion", new CuponProyeccionRowMapper());
+    }
+
+    private static class CuponProyeccionRowMapper implements RowMapper<CuponProyeccion> {
+        @Override
+        public CuponProyeccion mapRow(ResultSet rs, int rowNum) throws SQLException {
+            return new CuponProyeccion(
+                    rs.getString("nombre"),
+                    rs.getBigDecimal("porcentaje"),
+                    rs.getDate("vigente_desde").toLocalDate(),
+                    rs.getDate("vigente_hasta").toLocalDate(),
+                    rs.getBoolean("activo"),
+                    rs.getLong("version"));
+        }
+    }
+}
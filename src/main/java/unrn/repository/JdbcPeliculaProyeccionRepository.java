@@ -2,11 +2,17 @@ package unrn.repository;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Repository;
 import unrn.model.PeliculaProyeccion;
 
@@ -14,9 +20,11 @@ import unrn.model.PeliculaProyeccion;
 public class JdbcPeliculaProyeccionRepository implements PeliculaProyeccionRepository {
 
     private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
 
     public JdbcPeliculaProyeccionRepository(JdbcTemplate jdbcTemplate) {
         this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
     }
 
     @Override
@@ -26,6 +34,19 @@ public class JdbcPeliculaProyeccionRepository implements PeliculaProyeccionRepos
         return results.stream().findFirst();
     }
 
+    @Override
+    public Map<String, PeliculaProyeccion> buscarPorMovieIds(Collection<String> movieIds) {
+        if (movieIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        var sql = "SELECT movie_id, titulo, precio_actual, activa, version FROM pelicula_proyeccion WHERE movie_id IN (:movieIds)";
+        Map<String, PeliculaProyeccion> proyecciones = new HashMap<>();
+        namedJdbcTemplate.query(sql, new MapSqlParameterSource("movieIds", movieIds), new PeliculaProyeccionRowMapper())
+                .forEach(proyeccion -> proyecciones.put(proyeccion.movieId(), proyeccion));
+        return proyecciones;
+    }
+
     @Override
     public void guardar(PeliculaProyeccion proyeccion) {
         var updated = jdbcTemplate.update(
@@ -47,6 +68,28 @@ public class JdbcPeliculaProyeccionRepository implements PeliculaProyeccionRepos
         }
     }
 
+    // Upsert en un único batch JDBC: una sola ida y vuelta por lote en lugar de SELECT + UPDATE + INSERT por fila
+    @Override
+    public void guardarTodas(List<PeliculaProyeccion> proyecciones) {
+        if (proyecciones.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO pelicula_proyeccion (movie_id, titulo, precio_actual, activa, version) VALUES (?, ?, ?, ?, ?) "
+                        + "ON DUPLICATE KEY UPDATE titulo = VALUES(titulo), precio_actual = VALUES(precio_actual), "
+                        + "activa = VALUES(activa), version = VALUES(version)",
+                proyecciones,
+                proyecciones.size(),
+                (ps, proyeccion) -> {
+                    ps.setString(1, proyeccion.movieId());
+                    ps.setString(2, proyeccion.titulo());
+                    ps.setBigDecimal(3, proyeccion.precioActual());
+                    ps.setBoolean(4, proyeccion.activa());
+                    ps.setLong(5, proyeccion.version());
+                });
+    }
+
     @Override
     public List<PeliculaProyeccion> buscarTodas() {
         var sql = "SELECT movie_id, titulo, precio_actual, activa, version FROM pelicula_proyeccion";
@@ -1,6 +1,8 @@
 package unrn.repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import unrn.model.PeliculaProyeccion;
 
@@ -8,7 +10,11 @@ public interface PeliculaProyeccionRepository {
 
     Optional<PeliculaProyeccion> buscarPorMovieId(String movieId);
 
+    Map<String, PeliculaProyeccion> buscarPorMovieIds(Collection<String> movieIds);
+
     void guardar(PeliculaProyeccion proyeccion);
 
+    void guardarTodas(List<PeliculaProyeccion> proyecciones);
+
     List<PeliculaProyeccion> buscarTodas();
 }
@@ -49,6 +49,8 @@ public class SecurityConfig {
                                 .authorizeHttpRequests(auth -> auth
                                                 .requestMatchers("/actuator/health").permitAll()
                                                 .requestMatchers("/internal/projection/rebuild").permitAll()
+                                                .requestMatchers("/internal/projection/cupones/rebuild").permitAll()
+                                                .requestMatchers("/internal/dlq/**").permitAll()
                                                 .requestMatchers("/api/**").authenticated()
                                                 .anyRequest().authenticated())
                                 .oauth2ResourceServer(oauth2 -> oauth2
@@ -1,8 +1,11 @@
 package unrn.service;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface CatalogoClient {
 
     List<CatalogoPeliculaSnapshot> obtenerTodasLasPeliculas();
+
+    Optional<CatalogoPeliculaSnapshot> obtenerPelicula(Long movieId);
 }
@@ -9,15 +9,20 @@ import unrn.outbox.OutboxEventService;
 import unrn.persistence.CompraEntity;
 import unrn.persistence.CompraJpaRepository;
 import unrn.persistence.EstadoCompra;
-import unrn.persistence.ProcessedEventEntity;
-import unrn.persistence.ProcessedEventJpaRepository;
+import unrn.persistence.ProcessedEventStore;
 import unrn.persistence.document.CompraHistorialDocumentStore;
 
 import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class CompraAceptacionService {
@@ -26,18 +31,18 @@ public class CompraAceptacionService {
     static final String ERROR_EVENT_ID_REQUERIDO = "El eventId es obligatorio para idempotencia";
 
     private final CompraJpaRepository compraJpaRepository;
-    private final ProcessedEventJpaRepository processedEventJpaRepository;
+    private final ProcessedEventStore processedEventStore;
     private final OutboxEventService outboxEventService;
     private final CompraHistorialDocumentStore compraHistorialDocumentStore;
     private final MeterRegistry meterRegistry;
 
     public CompraAceptacionService(CompraJpaRepository compraJpaRepository,
-            ProcessedEventJpaRepository processedEventJpaRepository,
+            ProcessedEventStore processedEventStore,
             OutboxEventService outboxEventService,
             CompraHistorialDocumentStore compraHistorialDocumentStore,
             MeterRegistry meterRegistry) {
         this.compraJpaRepository = compraJpaRepository;
-        this.processedEventJpaRepository = processedEventJpaRepository;
+        this.processedEventStore = processedEventStore;
         this.outboxEventService = outboxEventService;
         this.compraHistorialDocumentStore = compraHistorialDocumentStore;
         this.meterRegistry = meterRegistry;
@@ -46,7 +51,8 @@ public class CompraAceptacionService {
     @Transactional
     public void aceptar(StockValidationAcceptedEvent event) {
         assertEventIdValido(event);
-        if (processedEventJpaRepository.existsById(event.eventId())) {
+        // Insert-first: el marcador se registra antes de aplicar y se descarta si la transacción falla
+        if (!processedEventStore.registrarSiNuevo(event.eventId())) {
             meterRegistry.counter("ventas.aceptacion.duplicados.ignorados.total").increment();
             return;
         }
@@ -55,7 +61,6 @@ public class CompraAceptacionService {
                 .orElseThrow(() -> new RuntimeException(ERROR_COMPRA_NO_ENCONTRADA_PARA_CONFIRMAR));
 
         if (!EstadoCompra.PENDING.name().equals(compra.getEstado())) {
-            processedEventJpaRepository.save(new ProcessedEventEntity(event.eventId()));
             meterRegistry.counter("ventas.aceptacion.no_pendiente.ignorada.total").increment();
             return;
         }
@@ -63,10 +68,53 @@ public class CompraAceptacionService {
         compra.confirmar();
         outboxEventService.registrarCompraConfirmada(compra.getId(), crearEventoCompraConfirmada(compra, event));
         compraHistorialDocumentStore.guardar(compra);
-        processedEventJpaRepository.save(new ProcessedEventEntity(event.eventId()));
         meterRegistry.counter("ventas.aceptacion.aplicada.total").increment();
     }
 
+    // Aplica el lote en una sola transacción con deduplicación y lecturas en bloque.
+    // Devuelve los eventIds que no pudieron aplicarse para reprocesarlos de a uno.
+    @Transactional
+    public Set<String> aceptarLote(List<StockValidationAcceptedEvent> eventos) {
+        eventos.forEach(this::assertEventIdValido);
+        Set<String> yaProcesados = processedEventStore
+                .filtrarProcesados(eventos.stream().map(StockValidationAcceptedEvent::eventId).toList());
+        Map<Long, CompraEntity> compras = compraJpaRepository
+                .findConItemsPorIds(eventos.stream().map(StockValidationAcceptedEvent::compraId).distinct().toList())
+                .stream()
+                .collect(Collectors.toMap(CompraEntity::getId, Function.identity()));
+
+        Set<String> fallidos = new HashSet<>();
+        Set<String> vistos = new HashSet<>();
+        List<String> procesados = new ArrayList<>();
+        for (var event : eventos) {
+            if (yaProcesados.contains(event.eventId()) || !vistos.add(event.eventId())) {
+                meterRegistry.counter("ventas.aceptacion.duplicados.ignorados.total").increment();
+                continue;
+            }
+
+            CompraEntity compra = compras.get(event.compraId());
+            if (compra == null) {
+                fallidos.add(event.eventId());
+                continue;
+            }
+
+            if (!EstadoCompra.PENDING.name().equals(compra.getEstado())) {
+                procesados.add(event.eventId());
+                meterRegistry.counter("ventas.aceptacion.no_pendiente.ignorada.total").increment();
+                continue;
+            }
+
+            compra.confirmar();
+            outboxEventService.registrarCompraConfirmada(compra.getId(), crearEventoCompraConfirmada(compra, event));
+            compraHistorialDocumentStore.guardar(compra);
+            procesados.add(event.eventId());
+            meterRegistry.counter("ventas.aceptacion.aplicada.total").increment();
+        }
+
+        processedEventStore.registrarTodos(procesados);
+        return fallidos;
+    }
+
     private CompraConfirmadaEvent crearEventoCompraConfirmada(CompraEntity compra, StockValidationAcceptedEvent event) {
         List<CompraConfirmadaEvent.ItemCompraConfirmada> items = compra.getItems().stream()
                 .map(item -> new CompraConfirmadaEvent.ItemCompraConfirmada(
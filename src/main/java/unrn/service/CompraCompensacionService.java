@@ -7,10 +7,17 @@ import unrn.event.stock.StockRechazadoEvent;
 import unrn.persistence.CompraEntity;
 import unrn.persistence.CompraJpaRepository;
 import unrn.persistence.EstadoCompra;
-import unrn.persistence.ProcessedEventEntity;
-import unrn.persistence.ProcessedEventJpaRepository;
+import unrn.persistence.ProcessedEventStore;
 import unrn.persistence.document.CompraHistorialDocumentStore;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 @Service
 public class CompraCompensacionService {
 
@@ -18,16 +25,16 @@ public class CompraCompensacionService {
     static final String ERROR_EVENT_ID_REQUERIDO = "El eventId es obligatorio para idempotencia";
 
     private final CompraJpaRepository compraJpaRepository;
-    private final ProcessedEventJpaRepository processedEventJpaRepository;
+    private final ProcessedEventStore processedEventStore;
     private final CompraHistorialDocumentStore compraHistorialDocumentStore;
     private final MeterRegistry meterRegistry;
 
     public CompraCompensacionService(CompraJpaRepository compraJpaRepository,
-            ProcessedEventJpaRepository processedEventJpaRepository,
+            ProcessedEventStore processedEventStore,
             CompraHistorialDocumentStore compraHistorialDocumentStore,
             MeterRegistry meterRegistry) {
         this.compraJpaRepository = compraJpaRepository;
-        this.processedEventJpaRepository = processedEventJpaRepository;
+        this.processedEventStore = processedEventStore;
         this.compraHistorialDocumentStore = compraHistorialDocumentStore;
         this.meterRegistry = meterRegistry;
     }
@@ -35,7 +42,7 @@ public class CompraCompensacionService {
     @Transactional
     public void compensar(StockRechazadoEvent event) {
         assertEventIdValido(event);
-        if (processedEventJpaRepository.existsById(event.eventId())) {
+        if (!processedEventStore.registrarSiNuevo(event.eventId())) {
             meterRegistry.counter("ventas.compensacion.duplicados.ignorados.total").increment();
             return;
         }
@@ -44,7 +51,6 @@ public class CompraCompensacionService {
                 .orElseThrow(() -> new RuntimeException(ERROR_COMPRA_NO_ENCONTRADA_PARA_COMPENSAR));
 
         if (!EstadoCompra.PENDING.name().equals(compra.getEstado())) {
-            processedEventJpaRepository.save(new ProcessedEventEntity(event.eventId()));
             meterRegistry.counter("ventas.compensacion.no_pendiente.ignorada.total").increment();
             return;
         }
@@ -52,10 +58,52 @@ public class CompraCompensacionService {
         String detalles = serializarDetalles(event);
         compra.rechazar(event.motivo(), detalles);
         compraHistorialDocumentStore.guardar(compra);
-        processedEventJpaRepository.save(new ProcessedEventEntity(event.eventId()));
         meterRegistry.counter("ventas.compensacion.aplicada.total").increment();
     }
 
+    // Aplica el lote en una sola transacción con deduplicación y lecturas en bloque.
+    // Devuelve los eventIds que no pudieron aplicarse para reprocesarlos de a uno.
+    @Transactional
+    public Set<String> compensarLote(List<StockRechazadoEvent> eventos) {
+        eventos.forEach(this::assertEventIdValido);
+        Set<String> yaProcesados = processedEventStore
+                .filtrarProcesados(eventos.stream().map(StockRechazadoEvent::eventId).toList());
+        Map<Long, CompraEntity> compras = compraJpaRepository
+                .findConItemsPorIds(eventos.stream().map(StockRechazadoEvent::compraId).distinct().toList())
+                .stream()
+                .collect(Collectors.toMap(CompraEntity::getId, Function.identity()));
+
+        Set<String> fallidos = new HashSet<>();
+        Set<String> vistos = new HashSet<>();
+        List<String> procesados = new ArrayList<>();
+        for (var event : eventos) {
+            if (yaProcesados.contains(event.eventId()) || !vistos.add(event.eventId())) {
+                meterRegistry.counter("ventas.compensacion.duplicados.ignorados.total").increment();
+                continue;
+            }
+
+            CompraEntity compra = compras.get(event.compraId());
+            if (compra == null) {
+                fallidos.add(event.eventId());
+                continue;
+            }
+
+            if (!EstadoCompra.PENDING.name().equals(compra.getEstado())) {
+                procesados.add(event.eventId());
+                meterRegistry.counter("ventas.compensacion.no_pendiente.ignorada.total").increment();
+                continue;
+            }
+
+            compra.rechazar(event.motivo(), serializarDetalles(event));
+            compraHistorialDocumentStore.guardar(compra);
+            procesados.add(event.eventId());
+            meterRegistry.counter("ventas.compensacion.aplicada.total").increment();
+        }
+
+        processedEventStore.registrarTodos(procesados);
+        return fallidos;
+    }
+
     private void assertEventIdValido(StockRechazadoEvent event) {
         if (event == null || event.eventId() == null || event.eventId().isBlank()) {
             throw new RuntimeException(ERROR_EVENT_ID_REQUERIDO);
@@ -1,5 +1,7 @@
 package unrn.service;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import unrn.dto.CarritoCompraResponse;
@@ -9,6 +11,7 @@ import unrn.dto.CompraResumenResponse;
 import unrn.dto.ConfirmarCompraRequest;
 import unrn.dto.ConfirmarCompraResponse;
 import unrn.dto.ItemCarritoCompraResponse;
+import unrn.dto.ValidarCuponResponse;
 import unrn.model.Carrito;
 import unrn.model.Cliente;
 import unrn.model.Compra;
@@ -29,6 +32,8 @@ import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 @Service
 public class ConfirmarCompraService {
@@ -41,6 +46,7 @@ public class ConfirmarCompraService {
             "Compra registrada en estado PENDING. La validación de stock está en progreso";
         static final String ERROR_PELICULA_ID_INVALIDO_EN_EVENTO =
             "El peliculaId del evento de validación debe ser numérico";
+    static final String ERROR_VALIDACION_CUPON_INTERRUMPIDA = "La validación del cupón fue interrumpida";
 
     private final CarritoRepository carritoRepository;
     private final CompraJpaRepository compraJpaRepository;
@@ -48,21 +54,27 @@ public class ConfirmarCompraService {
     private final OutboxEventService outboxEventService;
     private final CompraHistorialDocumentStore compraHistorialDocumentStore;
 
-    // NUEVO: cliente RPC a descuentos
-    private final DescuentosRpcClient descuentosRpcClient;
+    // NUEVO: validación de cupones contra descuentos, con cache delante del RPC
+    private final CuponValidacionCache cuponValidacionCache;
 
+    // El RPC del cupón queda en vuelo mientras se carga el carrito; false lo deja en secuencia
+    private final boolean cuponConcurrente;
+
+    @Autowired
     public ConfirmarCompraService(CarritoRepository carritoRepository,
                                   CompraJpaRepository compraJpaRepository,
                                   ClienteActualProvider clienteActualProvider,
                                   OutboxEventService outboxEventService,
                                   CompraHistorialDocumentStore compraHistorialDocumentStore,
-                                  DescuentosRpcClient descuentosRpcClient) { // NUEVO parámetro
+                                  CuponValidacionCache cuponValidacionCache, // NUEVO parámetro
+                                  @Value("${ventas.checkout.cupon-concurrente.enabled:true}") boolean cuponConcurrente) {
         this.carritoRepository = carritoRepository;
         this.compraJpaRepository = compraJpaRepository;
         this.clienteActualProvider = clienteActualProvider;
         this.outboxEventService = outboxEventService;
         this.compraHistorialDocumentStore = compraHistorialDocumentStore;
-        this.descuentosRpcClient = descuentosRpcClient; // NUEVO
+        this.cuponValidacionCache = cuponValidacionCache; // NUEVO
+        this.cuponConcurrente = cuponConcurrente;
     }
 
     @Transactional(readOnly = true)
@@ -76,10 +88,16 @@ public class ConfirmarCompraService {
     public ConfirmarCompraResponse confirmarCompra(ConfirmarCompraRequest request) {
         String clienteId = clienteActualProvider.obtenerClienteId();
         String clienteEmail = emailParaNotificacion(clienteId);
-        Carrito carrito = carritoRepository.obtenerDe(clienteId);
-        Instant ahora = Instant.now();
 
-        Descuento descuento = construirDescuento(request);
+        // Cache y proyección se resuelven acá, con la transacción del request; solo el RPC a descuentos de un
+        // cupón desconocido queda en vuelo mientras se carga el carrito
+        CompletableFuture<ValidarCuponResponse> cuponEnCurso = iniciarValidacionCupon(request);
+        Carrito carrito = cargarCarrito(clienteId, cuponEnCurso);
+        Descuento descuento = cuponEnCurso != null
+                ? descuentoDeCupon(esperarCupon(cuponEnCurso))
+                : construirDescuento(request);
+
+        Instant ahora = Instant.now();
         Compra compra = carrito.confirmarCompra(new Cliente(clienteId), ahora, descuento);
         String eventId = UUID.randomUUID().toString();
 
@@ -165,39 +183,49 @@ public class ConfirmarCompraService {
         return new CarritoCompraResponse(items, subtotal, descuentoAplicado, totalFinal);
     }
 
-    // CAMBIO PRINCIPAL: si vino nombreCupon, pedir a descuentos el porcentaje+vigencia
-    private Descuento construirDescuento(ConfirmarCompraRequest request) {
-        if (request == null) {
-            return Descuento.sinDescuento();
+    private CompletableFuture<ValidarCuponResponse> iniciarValidacionCupon(ConfirmarCompraRequest request) {
+        if (!cuponConcurrente || request == null
+                || request.nombreCupon() == null || request.nombreCupon().isBlank()) {
+            return null;
         }
+        return cuponValidacionCache.validarCuponAsync(request.nombreCupon());
+    }
 
-        if (request.nombreCupon() != null && !request.nombreCupon().isBlank()) {
-            var resp = descuentosRpcClient.validarCupon(request.nombreCupon());
-
-            if (!resp.valido()) {
-                throw new RuntimeException("CUPON_INVALIDO: " + resp.motivo());
+    private Carrito cargarCarrito(String clienteId, CompletableFuture<ValidarCuponResponse> cuponEnCurso) {
+        try {
+            return carritoRepository.obtenerDe(clienteId);
+        } catch (RuntimeException ex) {
+            // Sin carrito no hay compra: se deja de esperar el cupón (la consulta compartida sigue para los demás)
+            if (cuponEnCurso != null) {
+                cuponEnCurso.cancel(true);
             }
+            throw ex;
+        }
+    }
 
-            if (resp.porcentajeDescuento() == null || resp.vigenteDesde() == null || resp.vigenteHasta() == null) {
-                throw new RuntimeException("CUPON_RESPUESTA_INCOMPLETA");
+    private ValidarCuponResponse esperarCupon(CompletableFuture<ValidarCuponResponse> cuponEnCurso) {
+        try {
+            return cuponEnCurso.get();
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException causa) {
+                throw causa;
             }
+            throw new RuntimeException(ex.getCause());
+        } catch (InterruptedException ex) {
+            cuponEnCurso.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(ERROR_VALIDACION_CUPON_INTERRUMPIDA);
+        }
+    }
 
-            ZoneId zone = ZoneId.systemDefault();
-
-            Instant desde = resp.vigenteDesde()
-                    .atStartOfDay(zone)
-                    .toInstant();
-
-            Instant hasta = resp.vigenteHasta()
-                    .plusDays(1)
-                    .atStartOfDay(zone)
-                    .toInstant()
-                    .minusNanos(1);
+    // CAMBIO PRINCIPAL: si vino nombreCupon, pedir a descuentos el porcentaje+vigencia
+    private Descuento construirDescuento(ConfirmarCompraRequest request) {
+        if (request == null) {
+            return Descuento.sinDescuento();
+        }
 
-            return new Descuento(
-                    BigDecimal.valueOf(resp.porcentajeDescuento()),
-                    desde,
-                    hasta);
+        if (request.nombreCupon() != null && !request.nombreCupon().isBlank()) {
+            return descuentoDeCupon(cuponValidacionCache.validarCupon(request.nombreCupon()));
         }
 
         // fallback: tu comportamiento actual
@@ -210,6 +238,33 @@ public class ConfirmarCompraService {
         return new Descuento(request.porcentajeDescuento(), request.vigenteDesde(), request.vigenteHasta());
     }
 
+    private Descuento descuentoDeCupon(ValidarCuponResponse resp) {
+        if (!resp.valido()) {
+            throw new RuntimeException("CUPON_INVALIDO: " + resp.motivo());
+        }
+
+        if (resp.porcentajeDescuento() == null || resp.vigenteDesde() == null || resp.vigenteHasta() == null) {
+            throw new RuntimeException("CUPON_RESPUESTA_INCOMPLETA");
+        }
+
+        ZoneId zone = ZoneId.systemDefault();
+
+        Instant desde = resp.vigenteDesde()
+                .atStartOfDay(zone)
+                .toInstant();
+
+        Instant hasta = resp.vigenteHasta()
+                .plusDays(1)
+                .atStartOfDay(zone)
+                .toInstant()
+                .minusNanos(1);
+
+        return new Descuento(
+                BigDecimal.valueOf(resp.porcentajeDescuento()),
+                desde,
+                hasta);
+    }
+
     private CompraEntity mapearCompraAEntity(String clienteId, String clienteEmail, Compra compra, String eventId) {
         CompraEntity entity = new CompraEntity(
                 clienteId,
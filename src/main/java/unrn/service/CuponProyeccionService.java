@@ -0,0 +1,141 @@
+package unrn.service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import unrn.model.CuponProyeccion;
+import unrn.repository.CuponProyeccionRepository;
+import unrn.repository.ProjectionBootstrapLockRepository;
+
+// Réplica local del catálogo de cupones de descuentos: se arma con el rebuild y se mantiene con sus eventos
+@Service
+public class CuponProyeccionService {
+
+    static final String ERROR_REBUILD_EN_EJECUCION = "Ya existe un rebuild de cupones en ejecución";
+    static final String LOCK_NAME = "cupon_projection_rebuild";
+
+    private static final Logger LOG = LoggerFactory.getLogger(CuponProyeccionService.class);
+
+    private final DescuentosCuponesClient descuentosCuponesClient;
+    private final CuponProyeccionRepository proyeccionRepository;
+    private final ProjectionBootstrapLockRepository lockRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final CuponValidacionCache cuponValidacionCache;
+    private final MeterRegistry meterRegistry;
+
+    public CuponProyeccionService(DescuentosCuponesClient descuentosCuponesClient,
+            CuponProyeccionRepository proyeccionRepository,
+            ProjectionBootstrapLockRepository lockRepository,
+            TransactionTemplate transactionTemplate,
+            CuponValidacionCache cuponValidacionCache,
+            MeterRegistry meterRegistry) {
+        this.descuentosCuponesClient = descuentosCuponesClient;
+        this.proyeccionRepository = proyeccionRepository;
+        this.lockRepository = lockRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.cuponValidacionCache = cuponValidacionCache;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public ProjectionBootstrapResult rebuildProjection() {
+        long inicio = System.currentTimeMillis();
+        String ownerId = UUID.randomUUID().toString();
+
+        if (!lockRepository.intentarAdquirir(LOCK_NAME, ownerId)) {
+            throw new RuntimeException(ERROR_REBUILD_EN_EJECUCION);
+        }
+
+        try {
+            List<CuponProyeccion> cuponesDescuentos = descuentosCuponesClient.obtenerTodosLosCupones();
+            Map<String, CuponProyeccion> existentes = proyeccionRepository.buscarTodas().stream()
+                    .collect(Collectors.toMap(CuponProyeccion::nombre, Function.identity()));
+
+            List<CuponProyeccion> cambios = new ArrayList<>();
+            Set<String> nombresDescuentos = new HashSet<>();
+            int inserted = 0;
+            int updated = 0;
+            int deactivated = 0;
+
+            for (var cupon : cuponesDescuentos) {
+                nombresDescuentos.add(cupon.nombre());
+                var actual = existentes.get(cupon.nombre());
+                if (actual == null) {
+                    cambios.add(cupon);
+                    inserted++;
+                    continue;
+                }
+
+                // Un evento más nuevo que la lista de descuentos ya está proyectado: se conserva
+                if (actual.version() > cupon.version()) {
+                    continue;
+                }
+                if (hayCambios(actual, cupon)) {
+                    cambios.add(cupon);
+                    if (actual.activo() && !cupon.activo()) {
+                        deactivated++;
+                    } else {
+                        updated++;
+                    }
+                }
+            }
+
+            List<CuponProyeccion> bajas = new ArrayList<>();
+            for (var existente : existentes.values()) {
+                if (!nombresDescuentos.contains(existente.nombre()) && existente.activo()) {
+                    bajas.add(existente);
+                }
+            }
+
+            Integer desactivados = transactionTemplate.execute(status -> {
+                proyeccionRepository.guardarTodas(cambios);
+                return proyeccionRepository.desactivar(bajas);
+            });
+            deactivated += desactivados == null ? 0 : desactivados;
+            cuponValidacionCache.invalidarTodo();
+
+            long durationMs = System.currentTimeMillis() - inicio;
+            LOG.info("cupon-projection-bootstrap-summary fetched={}, inserted={}, updated={}, deactivated={}, durationMs={}",
+                    cuponesDescuentos.size(), inserted, updated, deactivated, durationMs);
+            return new ProjectionBootstrapResult(cuponesDescuentos.size(), inserted, updated, deactivated, durationMs);
+        } finally {
+            lockRepository.liberar(LOCK_NAME, ownerId);
+        }
+    }
+
+    // Los eventos pueden llegar desordenados: solo se aplica una versión más nueva que la proyectada
+    public boolean aplicarCambio(CuponProyeccion cupon) {
+        boolean aplicado = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            var actual = proyeccionRepository.buscarPorNombre(cupon.nombre());
+            if (actual.isPresent() && actual.get().version() >= cupon.version()) {
+                return false;
+            }
+            proyeccionRepository.guardar(cupon);
+            return true;
+        }));
+
+        meterRegistry.counter("ventas.cupon_proyeccion.eventos.total",
+                "resultado", aplicado ? "aplicado" : "obsoleto").increment();
+        cuponValidacionCache.invalidar(cupon.nombre());
+        return aplicado;
+    }
+
+    private boolean hayCambios(CuponProyeccion actual, CuponProyeccion destino) {
+        return actual.porcentaje().compareTo(destino.porcentaje()) != 0
+                || !actual.vigenteDesde().equals(destino.vigenteDesde())
+                || !actual.vigenteHasta().equals(destino.vigenteHasta())
+                || actual.activo() != destino.activo()
+                || actual.version() != destino.version();
+    }
+}
@@ -0,0 +1,162 @@
+package unrn.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import unrn.dto.ValidarCuponResponse;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+// Cache acotada de validaciones de cupón delante del validador (proyección local o RPC a descuentos). Un cupón válido
+// vence al cumplirse el TTL o al terminar su vigencia, lo que ocurra primero; uno inválido se recuerda poco tiempo
+// por si se da de alta enseguida
+@Component
+public class CuponValidacionCache {
+
+    static final String ERROR_CONFIGURACION_INVALIDA =
+            "La cache de cupones necesita capacidad y TTL mayores a cero";
+
+    private final CuponValidador cuponValidador;
+    private final MeterRegistry meterRegistry;
+    private final Clock clock;
+    private final long ttlMs;
+    private final long ttlInvalidoMs;
+    private final Map<String, Entrada> entradas;
+
+    record Entrada(ValidarCuponResponse respuesta, Instant venceEn) {
+    }
+
+    @Autowired
+    public CuponValidacionCache(CuponValidador cuponValidador,
+            MeterRegistry meterRegistry,
+            @Value("${ventas.cupon-cache.max-size:10000}") int capacidad,
+            @Value("${ventas.cupon-cache.ttl-ms:300000}") long ttlMs,
+            @Value("${ventas.cupon-cache.invalid-ttl-ms:30000}") long ttlInvalidoMs) {
+        this(cuponValidador, meterRegistry, capacidad, ttlMs, ttlInvalidoMs, Clock.systemDefaultZone());
+    }
+
+    CuponValidacionCache(CuponValidador cuponValidador, MeterRegistry meterRegistry, int capacidad,
+            long ttlMs, long ttlInvalidoMs, Clock clock) {
+        assertConfiguracionValida(capacidad, ttlMs, ttlInvalidoMs);
+        this.cuponValidador = cuponValidador;
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+        this.ttlMs = ttlMs;
+        this.ttlInvalidoMs = ttlInvalidoMs;
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entrada> eldest) {
+                if (size() > capacidad) {
+                    registrarEviccion("capacidad");
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        Gauge.builder("ventas.cupon_cache.size", this, CuponValidacionCache::tamanio)
+                .register(meterRegistry);
+    }
+
+    public ValidarCuponResponse validarCupon(String nombreCupon) {
+        ValidarCuponResponse cacheada = consultar(nombreCupon);
+        if (cacheada != null) {
+            return cacheada;
+        }
+
+        // Los errores de validación no se cachean: el próximo checkout vuelve a consultar
+        ValidarCuponResponse respuesta = cuponValidador.validarCupon(nombreCupon);
+        guardar(nombreCupon, respuesta);
+        return respuesta;
+    }
+
+    // Igual que validarCupon, pero sin bloquear el hilo mientras el RPC a descuentos está en vuelo
+    public CompletableFuture<ValidarCuponResponse> validarCuponAsync(String nombreCupon) {
+        ValidarCuponResponse cacheada = consultar(nombreCupon);
+        if (cacheada != null) {
+            return CompletableFuture.completedFuture(cacheada);
+        }
+
+        return cuponValidador.validarCuponAsync(nombreCupon)
+                .thenApply(respuesta -> {
+                    guardar(nombreCupon, respuesta);
+                    return respuesta;
+                });
+    }
+
+    public synchronized void invalidar(String nombreCupon) {
+        if (entradas.remove(nombreCupon) != null) {
+            registrarEviccion("invalidacion");
+        }
+    }
+
+    public synchronized void invalidarTodo() {
+        if (!entradas.isEmpty()) {
+            meterRegistry.counter("ventas.cupon_cache.eviction.total", "causa", "invalidacion")
+                    .increment(entradas.size());
+            entradas.clear();
+        }
+    }
+
+    private ValidarCuponResponse consultar(String nombreCupon) {
+        ValidarCuponResponse cacheada = vigente(nombreCupon);
+        meterRegistry.counter(cacheada != null ? "ventas.cupon_cache.hit.total" : "ventas.cupon_cache.miss.total")
+                .increment();
+        return cacheada;
+    }
+
+    synchronized int tamanio() {
+        return entradas.size();
+    }
+
+    private synchronized ValidarCuponResponse vigente(String nombreCupon) {
+        Entrada entrada = entradas.get(nombreCupon);
+        if (entrada == null) {
+            return null;
+        }
+        if (!clock.instant().isBefore(entrada.venceEn())) {
+            entradas.remove(nombreCupon);
+            registrarEviccion("vencimiento");
+            return null;
+        }
+        return entrada.respuesta();
+    }
+
+    private synchronized void guardar(String nombreCupon, ValidarCuponResponse respuesta) {
+        Instant ahora = clock.instant();
+        Instant venceEn = venceEn(respuesta, ahora);
+        if (venceEn.isAfter(ahora)) {
+            entradas.put(nombreCupon, new Entrada(respuesta, venceEn));
+        }
+    }
+
+    private Instant venceEn(ValidarCuponResponse respuesta, Instant ahora) {
+        if (!respuesta.valido()) {
+            return ahora.plusMillis(ttlInvalidoMs);
+        }
+
+        Instant porTtl = ahora.plusMillis(ttlMs);
+        if (respuesta.vigenteHasta() == null) {
+            return porTtl;
+        }
+        // vigenteHasta es inclusivo, igual que en ConfirmarCompraService: el cupón vale hasta el fin de ese día
+        Instant finVigencia = respuesta.vigenteHasta().plusDays(1).atStartOfDay(clock.getZone()).toInstant();
+        return finVigencia.isBefore(porTtl) ? finVigencia : porTtl;
+    }
+
+    private void registrarEviccion(String causa) {
+        meterRegistry.counter("ventas.cupon_cache.eviction.total", "causa", causa).increment();
+    }
+
+    private void assertConfiguracionValida(int capacidad, long ttlMs, long ttlInvalidoMs) {
+        if (capacidad <= 0 || ttlMs <= 0 || ttlInvalidoMs <= 0) {
+            throw new RuntimeException(ERROR_CONFIGURACION_INVALIDA);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package unrn.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import unrn.dto.ValidarCuponResponse;
+import unrn.model.CuponProyeccion;
+import unrn.repository.CuponProyeccionRepository;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+// Resuelve un cupón contra la proyección local; el RPC a descuentos queda solo para nombres que la réplica no conoce
+@Component
+public class CuponValidador {
+
+    static final String MOTIVO_CUPON_INEXISTENTE = "CUPON_INEXISTENTE";
+    static final String MOTIVO_CUPON_NO_UTILIZABLE = "CUPON_NO_UTILIZABLE";
+    static final String ERROR_PROYECCION_SIN_EVENTOS =
+            "La proyección de cupones necesita ventas.cupon-proyeccion.events.enabled: sin eventos queda desactualizada";
+
+    private final CuponProyeccionRepository cuponProyeccionRepository;
+    private final DescuentosRpcClient descuentosRpcClient;
+    private final MeterRegistry meterRegistry;
+    private final boolean proyeccionHabilitada;
+    private final boolean rpcFallbackHabilitado;
+    private final Clock clock;
+
+    @Autowired
+    public CuponValidador(CuponProyeccionRepository cuponProyeccionRepository,
+            DescuentosRpcClient descuentosRpcClient,
+            MeterRegistry meterRegistry,
+            @Value("${ventas.cupon-proyeccion.enabled:false}") boolean proyeccionHabilitada,
+            @Value("${ventas.cupon-proyeccion.rpc-fallback.enabled:true}") boolean rpcFallbackHabilitado,
+            @Value("${ventas.cupon-proyeccion.events.enabled:false}") boolean eventosHabilitados) {
+        this(cuponProyeccionRepository, descuentosRpcClient, meterRegistry, proyeccionHabilitada,
+                rpcFallbackHabilitado, eventosHabilitados, Clock.systemDefaultZone());
+    }
+
+    CuponValidador(CuponProyeccionRepository cuponProyeccionRepository, DescuentosRpcClient descuentosRpcClient,
+            MeterRegistry meterRegistry, boolean proyeccionHabilitada, boolean rpcFallbackHabilitado,
+            boolean eventosHabilitados, Clock clock) {
+        assertProyeccionConEventos(proyeccionHabilitada, eventosHabilitados);
+        this.cuponProyeccionRepository = cuponProyeccionRepository;
+        this.descuentosRpcClient = descuentosRpcClient;
+        this.meterRegistry = meterRegistry;
+        this.proyeccionHabilitada = proyeccionHabilitada;
+        this.rpcFallbackHabilitado = rpcFallbackHabilitado;
+        this.clock = clock;
+    }
+
+    public ValidarCuponResponse validarCupon(String nombreCupon) {
+        ValidarCuponResponse local = resolverLocal(nombreCupon);
+        if (local != null) {
+            return local;
+        }
+
+        registrar("rpc");
+        return descuentosRpcClient.validarCupon(nombreCupon);
+    }
+
+    // La proyección se lee en el hilo del caller (y su transacción); solo el RPC queda en vuelo
+    public CompletableFuture<ValidarCuponResponse> validarCuponAsync(String nombreCupon) {
+        ValidarCuponResponse local = resolverLocal(nombreCupon);
+        if (local != null) {
+            return CompletableFuture.completedFuture(local);
+        }
+
+        registrar("rpc");
+        return descuentosRpcClient.validarCuponAsync(nombreCupon);
+    }
+
+    private ValidarCuponResponse resolverLocal(String nombreCupon) {
+        Optional<CuponProyeccion> local = proyeccionHabilitada
+                ? cuponProyeccionRepository.buscarPorNombre(nombreCupon)
+                : Optional.empty();
+
+        if (local.isPresent()) {
+            registrar("proyeccion");
+            return aRespuesta(local.get());
+        }
+
+        if (proyeccionHabilitada && !rpcFallbackHabilitado) {
+            registrar("desconocido");
+            return new ValidarCuponResponse(false, null, null, null, MOTIVO_CUPON_INEXISTENTE);
+        }
+        return null;
+    }
+
+    private ValidarCuponResponse aRespuesta(CuponProyeccion cupon) {
+        if (!cupon.utilizableEn(LocalDate.now(clock))) {
+            return new ValidarCuponResponse(false, null, cupon.vigenteDesde(), cupon.vigenteHasta(),
+                    MOTIVO_CUPON_NO_UTILIZABLE);
+        }
+        return new ValidarCuponResponse(true, cupon.porcentaje().floatValue(), cupon.vigenteDesde(),
+                cupon.vigenteHasta(), null);
+    }
+
+    // Sin CuponActualizadoListener el único que escribe la tabla es el rebuild manual: la proyección respondería
+    // con precios y bajas viejas hasta el próximo rebuild
+    private void assertProyeccionConEventos(boolean proyeccionHabilitada, boolean eventosHabilitados) {
+        if (proyeccionHabilitada && !eventosHabilitados) {
+            throw new RuntimeException(ERROR_PROYECCION_SIN_EVENTOS);
+        }
+    }
+
+    private void registrar(String fuente) {
+        meterRegistry.counter("ventas.cupon.validacion.total", "fuente", fuente).increment();
+    }
+}
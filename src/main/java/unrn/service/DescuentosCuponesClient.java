@@ -0,0 +1,9 @@
+package unrn.service;
+
+import java.util.List;
+import unrn.model.CuponProyeccion;
+
+public interface DescuentosCuponesClient {
+
+    List<CuponProyeccion> obtenerTodosLosCupones();
+}
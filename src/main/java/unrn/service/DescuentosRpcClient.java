@@ -1,48 +1,138 @@
 package unrn.service;
 
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.amqp.core.AsyncAmqpTemplate;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import unrn.dto.ValidarCuponRequest;
 import unrn.dto.ValidarCuponResponse;
 
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
 @Component
 public class DescuentosRpcClient {
 
     static final String ERROR_DESCUENTOS_NO_DISPONIBLE = "No se pudo validar el cupón (servicio descuentos no disponible)";
     static final String ERROR_RESPUESTA_INVALIDA = "Respuesta inválida del servicio de descuentos";
 
-    private final RabbitTemplate rabbitTemplate;
+    private final AsyncAmqpTemplate asyncAmqpTemplate;
+    private final MeterRegistry meterRegistry;
     private final String exchange;
     private final String routingKey;
     private final long timeoutMs;
+    private final Map<String, Vuelo> enVuelo = new ConcurrentHashMap<>();
+    private final DistributionSummary fanIn;
+
+    // Una consulta al broker en curso y cuántos checkouts esperan su respuesta
+    private record Vuelo(CompletableFuture<ValidarCuponResponse> respuesta, AtomicInteger interesados) {
+    }
 
     public DescuentosRpcClient(
-            RabbitTemplate rabbitTemplate,
+            AsyncAmqpTemplate asyncAmqpTemplate,
+            MeterRegistry meterRegistry,
             @Value("${rabbitmq.descuentos.exchange}") String exchange,
             @Value("${rabbitmq.descuentos.cupon.validar.routing-key}") String routingKey,
             @Value("${rabbitmq.descuentos.cupon.validar.timeout-ms:1500}") long timeoutMs) {
-        this.rabbitTemplate = rabbitTemplate;
+        this.asyncAmqpTemplate = asyncAmqpTemplate;
+        this.meterRegistry = meterRegistry;
         this.exchange = exchange;
         this.routingKey = routingKey;
         this.timeoutMs = timeoutMs;
+        this.fanIn = DistributionSummary.builder("ventas.descuentos.rpc.fan_in")
+                .description("Checkouts atendidos por cada RPC de validación de cupón")
+                .register(meterRegistry);
     }
 
     public ValidarCuponResponse validarCupon(String nombreCupon) {
-        rabbitTemplate.setReplyTimeout(timeoutMs);
+        try {
+            return validarCuponAsync(nombreCupon).get();
+        } catch (ExecutionException ex) {
+            throw (RuntimeException) ex.getCause();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(ERROR_DESCUENTOS_NO_DISPONIBLE, ex);
+        }
+    }
 
-        Object resp = rabbitTemplate.convertSendAndReceive(
-                exchange,
-                routingKey,
-                new ValidarCuponRequest(nombreCupon)
-        );
+    // Single-flight: los pedidos concurrentes del mismo cupón comparten una sola consulta al broker.
+    // Cada caller recibe su propia copia con su propio deadline, así un timeout no cancela la consulta compartida
+    public CompletableFuture<ValidarCuponResponse> validarCuponAsync(String nombreCupon) {
+        var propio = new Vuelo(new CompletableFuture<>(), new AtomicInteger(1));
+        Vuelo vuelo = enVuelo.compute(nombreCupon, (clave, actual) -> {
+            if (actual == null) {
+                return propio;
+            }
+            actual.interesados().incrementAndGet();
+            return actual;
+        });
 
-        if (resp == null) {
-            throw new RuntimeException(ERROR_DESCUENTOS_NO_DISPONIBLE);
+        if (vuelo == propio) {
+            iniciar(nombreCupon, propio);
+        } else {
+            meterRegistry.counter("ventas.descuentos.rpc.coalesced.total").increment();
         }
-        if (!(resp instanceof ValidarCuponResponse r)) {
-            throw new RuntimeException(ERROR_RESPUESTA_INVALIDA + ": " + resp.getClass());
+
+        return vuelo.respuesta().copy()
+                .orTimeout(timeoutMs, TimeUnit.MILLISECONDS)
+                .exceptionallyCompose(ex -> CompletableFuture.failedFuture(traducir(ex)));
+    }
+
+    private void iniciar(String nombreCupon, Vuelo vuelo) {
+        meterRegistry.counter("ventas.descuentos.rpc.total").increment();
+        CompletableFuture<Object> rpc;
+        try {
+            rpc = asyncAmqpTemplate.convertSendAndReceive(exchange, routingKey, new ValidarCuponRequest(nombreCupon));
+        } catch (RuntimeException ex) {
+            finalizar(nombreCupon, vuelo);
+            vuelo.respuesta().completeExceptionally(ex);
+            return;
         }
-        return r;
+
+        // El template asíncrono corta la consulta al vencer su receive-timeout y libera la correlación pendiente
+        rpc.whenComplete((resp, ex) -> {
+            finalizar(nombreCupon, vuelo);
+            if (ex != null) {
+                vuelo.respuesta().completeExceptionally(ex);
+            } else if (resp == null) {
+                vuelo.respuesta().completeExceptionally(new RuntimeException(ERROR_DESCUENTOS_NO_DISPONIBLE));
+            } else if (!(resp instanceof ValidarCuponResponse r)) {
+                vuelo.respuesta().completeExceptionally(
+                        new RuntimeException(ERROR_RESPUESTA_INVALIDA + ": " + resp.getClass()));
+            } else {
+                vuelo.respuesta().complete(r);
+            }
+        });
+    }
+
+    private void finalizar(String nombreCupon, Vuelo vuelo) {
+        enVuelo.remove(nombreCupon, vuelo);
+        fanIn.record(vuelo.interesados().get());
+    }
+
+    private RuntimeException traducir(Throwable ex) {
+        Throwable causa = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        if (causa instanceof TimeoutException) {
+            meterRegistry.counter("ventas.descuentos.rpc.wait.timeout.total").increment();
+            return new RuntimeException(ERROR_DESCUENTOS_NO_DISPONIBLE, causa);
+        }
+        if (causa instanceof RuntimeException propia && esErrorPropio(propia)) {
+            return propia;
+        }
+        // Errores del template (reply timeout, envío fallido) se informan igual que antes: descuentos no disponible
+        return new RuntimeException(ERROR_DESCUENTOS_NO_DISPONIBLE, causa);
+    }
+
+    private boolean esErrorPropio(RuntimeException ex) {
+        String mensaje = ex.getMessage();
+        return mensaje != null
+                && (mensaje.equals(ERROR_DESCUENTOS_NO_DISPONIBLE) || mensaje.startsWith(ERROR_RESPUESTA_INVALIDA));
     }
-}
\ No newline at end of file
+}
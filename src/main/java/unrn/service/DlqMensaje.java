@@ -0,0 +1,12 @@
+package unrn.service;
+
+import java.time.Instant;
+
+public record DlqMensaje(
+        String messageId,
+        String eventId,
+        String motivo,
+        Instant timestamp,
+        int tamanioBytes,
+        String payload) {
+}
@@ -0,0 +1,10 @@
+package unrn.service;
+
+import java.util.List;
+
+public record DlqPagina(
+        String cola,
+        long mensajesEnCola,
+        int desde,
+        List<DlqMensaje> mensajes) {
+}
@@ -0,0 +1,94 @@
+package unrn.service;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Progreso de un redrive de DLQ: los contadores avanzan mensaje a mensaje mientras el job corre en segundo plano
+public class DlqRedriveJob {
+
+    public enum Estado {
+        EN_CURSO, TERMINADO, FALLIDO
+    }
+
+    private final String id;
+    private final String cola;
+    private final Instant iniciadoEn;
+    private final AtomicInteger redirigidos = new AtomicInteger();
+    private final AtomicInteger omitidos = new AtomicInteger();
+    private final AtomicInteger fallidos = new AtomicInteger();
+    private volatile Estado estado = Estado.EN_CURSO;
+    private volatile long duracionMs;
+    private volatile String error;
+
+    DlqRedriveJob(String id, String cola, Instant iniciadoEn) {
+        this.id = id;
+        this.cola = cola;
+        this.iniciadoEn = iniciadoEn;
+    }
+
+    public String id() {
+        return id;
+    }
+
+    public String cola() {
+        return cola;
+    }
+
+    public Instant iniciadoEn() {
+        return iniciadoEn;
+    }
+
+    public Estado estado() {
+        return estado;
+    }
+
+    public int redirigidos() {
+        return redirigidos.get();
+    }
+
+    public int omitidos() {
+        return omitidos.get();
+    }
+
+    public int fallidos() {
+        return fallidos.get();
+    }
+
+    // Mientras corre se mide contra el inicio; al terminar queda la duración final
+    public long duracionMs() {
+        return estado == Estado.EN_CURSO
+                ? Math.max(0, Instant.now().toEpochMilli() - iniciadoEn.toEpochMilli())
+                : duracionMs;
+    }
+
+    public String error() {
+        return error;
+    }
+
+    public DlqRedriveResult resultado() {
+        return new DlqRedriveResult(cola, redirigidos(), omitidos(), fallidos(), duracionMs());
+    }
+
+    void registrarRedirigido() {
+        redirigidos.incrementAndGet();
+    }
+
+    void registrarOmitido() {
+        omitidos.incrementAndGet();
+    }
+
+    void registrarFallido() {
+        fallidos.incrementAndGet();
+    }
+
+    void terminar(long duracionMs) {
+        this.duracionMs = duracionMs;
+        this.estado = Estado.TERMINADO;
+    }
+
+    void fallar(long duracionMs, String error) {
+        this.duracionMs = duracionMs;
+        this.error = error;
+        this.estado = Estado.FALLIDO;
+    }
+}
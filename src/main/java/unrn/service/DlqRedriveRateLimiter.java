@@ -0,0 +1,38 @@
+package unrn.service;
+
+import java.util.concurrent.TimeUnit;
+
+// Espaciado fijo entre permisos: a N mensajes por segundo cada publicación sale 1/N segundos después de la anterior
+class DlqRedriveRateLimiter {
+
+    static final String ERROR_TASA_INVALIDA = "La tasa de redrive debe ser mayor a cero";
+
+    private final long intervaloNanos;
+    private long proximoPermisoNanos;
+
+    DlqRedriveRateLimiter(double mensajesPorSegundo, long ahoraNanos) {
+        assertTasaValida(mensajesPorSegundo);
+        this.intervaloNanos = (long) (TimeUnit.SECONDS.toNanos(1) / mensajesPorSegundo);
+        this.proximoPermisoNanos = ahoraNanos;
+    }
+
+    // Reserva el próximo permiso y devuelve cuánto hay que esperar para usarlo
+    long reservar(long ahoraNanos) {
+        long permisoNanos = Math.max(ahoraNanos, proximoPermisoNanos);
+        proximoPermisoNanos = permisoNanos + intervaloNanos;
+        return permisoNanos - ahoraNanos;
+    }
+
+    void adquirir() throws InterruptedException {
+        long esperaNanos = reservar(System.nanoTime());
+        if (esperaNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(esperaNanos);
+        }
+    }
+
+    private void assertTasaValida(double mensajesPorSegundo) {
+        if (!(mensajesPorSegundo > 0)) {
+            throw new RuntimeException(ERROR_TASA_INVALIDA);
+        }
+    }
+}
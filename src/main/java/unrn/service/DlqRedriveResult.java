@@ -0,0 +1,13 @@
+package unrn.service;
+
+public record DlqRedriveResult(
+        String cola,
+        int redirigidos,
+        int omitidos,
+        int fallidos,
+        long duracionMs) {
+
+    public double mensajesPorSegundo() {
+        return duracionMs > 0 ? redirigidos * 1000.0 / duracionMs : redirigidos;
+    }
+}
@@ -0,0 +1,344 @@
+package unrn.service;
+
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.GetResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.support.DefaultMessagePropertiesConverter;
+import org.springframework.amqp.rabbit.support.MessagePropertiesConverter;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+// Inspección y redrive de las DLQ de stock. RabbitMQ no permite leer sin consumir: se toman mensajes con basicGet
+// sin ack y se devuelven a la cola con un nack múltiple, que los deja en su posición original.
+// El redrive pedido por HTTP corre en un hilo propio (a 50 msg/s puede tardar minutos); el request recibe el id del
+// job y consulta el progreso aparte
+@Service
+public class DlqRedriveService implements DisposableBean {
+
+    static final String ERROR_COLA_DESCONOCIDA = "Cola DLQ desconocida";
+    static final String ERROR_PAGINA_INVALIDA = "La página de la DLQ debe tener desde >= 0 y límite > 0";
+    static final String ERROR_REDRIVE_EN_EJECUCION = "Ya existe un redrive de DLQ en ejecución";
+    static final String MOTIVO_DESCONOCIDO = "desconocido";
+    static final String HEADER_MOTIVO = "x-reject-reason";
+
+    // Headers del ciclo de fallo anterior: si viajan con el mensaje redirigido el listener lo cuenta como reintento
+    private static final List<String> HEADERS_DE_FALLO = List.of(
+            HEADER_MOTIVO, "x-death", "x-first-death-exchange", "x-first-death-queue", "x-first-death-reason",
+            "x-last-death-exchange", "x-last-death-queue", "x-last-death-reason",
+            "x-retry-count", "x-retry-target-queue");
+    private static final int PAYLOAD_MAXIMO = 2048;
+    private static final int HISTORIAL_JOBS = 20;
+
+    private static final Logger log = LoggerFactory.getLogger(DlqRedriveService.class);
+
+    private final RabbitTemplate rabbitTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Colas> colas;
+    private final int inspeccionMaxima;
+    private final double mensajesPorSegundo;
+    private final long confirmTimeoutMs;
+    private final AtomicBoolean redriveEnCurso = new AtomicBoolean();
+    private final MessagePropertiesConverter propertiesConverter = new DefaultMessagePropertiesConverter();
+    private final ExecutorService redriveExecutor = Executors.newSingleThreadExecutor(tarea -> {
+        Thread hilo = new Thread(tarea, "dlq-redrive");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+    private final Map<String, DlqRedriveJob> jobs = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, DlqRedriveJob> eldest) {
+            return size() > HISTORIAL_JOBS;
+        }
+    };
+
+    record Colas(String dlq, String principal) {
+    }
+
+    public DlqRedriveService(RabbitTemplate rabbitTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${rabbitmq.ventas.stock.rechazado.dlq.queue:ventas.q.catalogo-stock-rechazado.dlq}") String rechazadoDlq,
+            @Value("${rabbitmq.ventas.stock.rechazado.queue:ventas.q.catalogo-stock-rechazado}") String rechazadoQueue,
+            @Value("${rabbitmq.ventas.stock.validation.accepted.dlq.queue:ventas.q.catalogo-stock-validation-accepted.dlq}") String aceptadoDlq,
+            @Value("${rabbitmq.ventas.stock.validation.accepted.queue:ventas.q.catalogo-stock-validation-accepted}") String aceptadoQueue,
+            @Value("${ventas.dlq.inspect.max-messages:500}") int inspeccionMaxima,
+            @Value("${ventas.dlq.redrive.rate-per-second:50}") double mensajesPorSegundo,
+            @Value("${rabbitmq.publisher.confirm-timeout-ms:5000}") long confirmTimeoutMs) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.meterRegistry = meterRegistry;
+        // Solo se exponen las DLQ conocidas; el nombre de cola nunca llega crudo desde el request
+        this.colas = Map.of(
+                "stock-rechazado", new Colas(rechazadoDlq, rechazadoQueue),
+                "stock-validation-accepted", new Colas(aceptadoDlq, aceptadoQueue));
+        this.inspeccionMaxima = inspeccionMaxima;
+        this.mensajesPorSegundo = mensajesPorSegundo;
+        this.confirmTimeoutMs = confirmTimeoutMs;
+    }
+
+    public boolean colaConocida(String cola) {
+        return colas.containsKey(cola);
+    }
+
+    public DlqPagina inspeccionar(String cola, int desde, int limite) {
+        assertPaginaValida(desde, limite);
+        Colas destino = colasDe(cola);
+        int hasta = (int) Math.min((long) desde + limite, inspeccionMaxima);
+
+        return rabbitTemplate.execute(channel -> {
+            long enCola = channel.queueDeclarePassive(destino.dlq()).getMessageCount();
+            var mensajes = new ArrayList<DlqMensaje>();
+            long ultimoTag = -1;
+            try {
+                for (int posicion = 0; posicion < hasta; posicion++) {
+                    GetResponse response = channel.basicGet(destino.dlq(), false);
+                    if (response == null) {
+                        break;
+                    }
+                    ultimoTag = response.getEnvelope().getDeliveryTag();
+                    if (posicion >= desde) {
+                        mensajes.add(aMensaje(response));
+                    }
+                }
+            } finally {
+                if (ultimoTag >= 0) {
+                    channel.basicNack(ultimoTag, true, true);
+                }
+            }
+            return new DlqPagina(cola, enCola, desde, mensajes);
+        });
+    }
+
+    public DlqResumen resumir(String cola) {
+        DlqPagina pagina = inspeccionar(cola, 0, inspeccionMaxima);
+        Map<String, Long> porMotivo = pagina.mensajes().stream()
+                .collect(Collectors.groupingBy(DlqMensaje::motivo, TreeMap::new, Collectors.counting()));
+        return new DlqResumen(cola, pagina.mensajesEnCola(), pagina.mensajes().size(), porMotivo);
+    }
+
+    // ids vacío redirige todo; motivo nulo no filtra por x-reject-reason
+    public DlqRedriveResult redrive(String cola, Collection<String> ids, String motivo, int maxMensajes) {
+        Colas destino = colasDe(cola);
+        if (!redriveEnCurso.compareAndSet(false, true)) {
+            throw new RuntimeException(ERROR_REDRIVE_EN_EJECUCION);
+        }
+
+        try {
+            DlqRedriveJob job = registrarJob(cola);
+            ejecutar(job, destino, ids, motivo, maxMensajes);
+            return job.resultado();
+        } finally {
+            redriveEnCurso.set(false);
+        }
+    }
+
+    // Igual que redrive pero en segundo plano; vacío si ya hay un redrive en ejecución
+    public Optional<DlqRedriveJob> iniciarRedrive(String cola, Collection<String> ids, String motivo, int maxMensajes) {
+        Colas destino = colasDe(cola);
+        if (!redriveEnCurso.compareAndSet(false, true)) {
+            return Optional.empty();
+        }
+
+        DlqRedriveJob job = registrarJob(cola);
+        try {
+            redriveExecutor.execute(() -> {
+                try {
+                    ejecutar(job, destino, ids, motivo, maxMensajes);
+                } catch (RuntimeException ex) {
+                    log.error("Redrive DLQ fallido jobId={} cola={} error={}", job.id(), cola, ex.getMessage());
+                } finally {
+                    redriveEnCurso.set(false);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            job.fallar(0, ex.getMessage());
+            redriveEnCurso.set(false);
+            throw ex;
+        }
+        return Optional.of(job);
+    }
+
+    public synchronized Optional<DlqRedriveJob> consultarRedrive(String cola, String jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).filter(job -> job.cola().equals(cola));
+    }
+
+    @Override
+    public void destroy() {
+        redriveExecutor.shutdownNow();
+    }
+
+    private synchronized DlqRedriveJob registrarJob(String cola) {
+        var job = new DlqRedriveJob(UUID.randomUUID().toString(), cola, Instant.now());
+        jobs.put(job.id(), job);
+        return job;
+    }
+
+    private void ejecutar(DlqRedriveJob job, Colas destino, Collection<String> ids, String motivo, int maxMensajes) {
+        long inicio = System.nanoTime();
+        try {
+            var seleccion = new Seleccion(new HashSet<>(ids), motivo);
+            var limiter = new DlqRedriveRateLimiter(mensajesPorSegundo, inicio);
+            rabbitTemplate.execute(channel -> {
+                redriveEnCanal(channel, destino, seleccion, maxMensajes, limiter, job);
+                return null;
+            });
+        } catch (RuntimeException ex) {
+            job.fallar(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio), ex.getMessage());
+            throw ex;
+        }
+
+        long duracionNanos = System.nanoTime() - inicio;
+        job.terminar(TimeUnit.NANOSECONDS.toMillis(duracionNanos));
+        var resultado = job.resultado();
+        registrarMetricas(resultado, duracionNanos);
+        log.info("Redrive DLQ jobId={} cola={} redirigidos={} omitidos={} fallidos={} duracionMs={} mensajesPorSegundo={}",
+                job.id(), resultado.cola(), resultado.redirigidos(), resultado.omitidos(), resultado.fallidos(),
+                resultado.duracionMs(), String.format("%.1f", resultado.mensajesPorSegundo()));
+    }
+
+    // Recorre solo lo que había en la DLQ al empezar; lo no seleccionado o fallido vuelve a la cola al final
+    private void redriveEnCanal(Channel channel, Colas destino, Seleccion seleccion, int maxMensajes,
+            DlqRedriveRateLimiter limiter, DlqRedriveJob job) throws Exception {
+        long pendientes = channel.queueDeclarePassive(destino.dlq()).getMessageCount();
+        long ultimoTagSinAck = -1;
+        try {
+            for (long leidos = 0; leidos < pendientes && job.redirigidos() < maxMensajes; leidos++) {
+                GetResponse response = channel.basicGet(destino.dlq(), false);
+                if (response == null) {
+                    break;
+                }
+                long tag = response.getEnvelope().getDeliveryTag();
+                MessageProperties properties = propiedadesDe(response);
+                if (!seleccion.incluye(properties)) {
+                    job.registrarOmitido();
+                    ultimoTagSinAck = tag;
+                    continue;
+                }
+
+                limiter.adquirir();
+                if (!publicar(destino.principal(), response.getBody(), properties)) {
+                    // Con el broker rechazando publicaciones no tiene sentido seguir vaciando la DLQ
+                    job.registrarFallido();
+                    ultimoTagSinAck = tag;
+                    break;
+                }
+                channel.basicAck(tag, false);
+                job.registrarRedirigido();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (ultimoTagSinAck >= 0) {
+                channel.basicNack(ultimoTagSinAck, true, true);
+            }
+        }
+    }
+
+    // El mensaje de la DLQ se confirma solo después del ack del broker por la copia en la cola principal
+    private boolean publicar(String colaPrincipal, byte[] body, MessageProperties properties)
+            throws InterruptedException {
+        HEADERS_DE_FALLO.forEach(properties.getHeaders()::remove);
+        properties.setExpiration(null);
+        CorrelationData correlationData = new CorrelationData(UUID.randomUUID().toString());
+        try {
+            rabbitTemplate.send("", colaPrincipal, new Message(body, properties), correlationData);
+            CorrelationData.Confirm confirm = correlationData.getFuture().get(confirmTimeoutMs, TimeUnit.MILLISECONDS);
+            return confirm != null && confirm.isAck() && correlationData.getReturned() == null;
+        } catch (AmqpException | ExecutionException | TimeoutException ex) {
+            log.warn("No se pudo redirigir mensaje de DLQ messageId={} cola={} mensaje={}",
+                    properties.getMessageId(), colaPrincipal, ex.getMessage());
+            return false;
+        }
+    }
+
+    private void registrarMetricas(DlqRedriveResult resultado, long duracionNanos) {
+        contar(resultado.cola(), "redirigido", resultado.redirigidos());
+        contar(resultado.cola(), "omitido", resultado.omitidos());
+        contar(resultado.cola(), "fallido", resultado.fallidos());
+        meterRegistry.timer("ventas.dlq.redrive.duration", "cola", resultado.cola())
+                .record(duracionNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void contar(String cola, String resultado, int cantidad) {
+        meterRegistry.counter("ventas.dlq.redrive.total", "cola", cola, "resultado", resultado).increment(cantidad);
+    }
+
+    private DlqMensaje aMensaje(GetResponse response) {
+        MessageProperties properties = propiedadesDe(response);
+        byte[] body = response.getBody();
+        String payload = new String(body, 0, Math.min(body.length, PAYLOAD_MAXIMO), StandardCharsets.UTF_8);
+        return new DlqMensaje(
+                properties.getMessageId(),
+                eventIdDe(properties),
+                motivoDe(properties),
+                properties.getTimestamp() != null ? properties.getTimestamp().toInstant() : null,
+                body.length,
+                payload);
+    }
+
+    private MessageProperties propiedadesDe(GetResponse response) {
+        return propertiesConverter.toMessageProperties(response.getProps(), response.getEnvelope(),
+                StandardCharsets.UTF_8.name());
+    }
+
+    private Colas colasDe(String cola) {
+        Colas destino = colas.get(cola);
+        if (destino == null) {
+            throw new RuntimeException(ERROR_COLA_DESCONOCIDA);
+        }
+        return destino;
+    }
+
+    private void assertPaginaValida(int desde, int limite) {
+        if (desde < 0 || limite <= 0) {
+            throw new RuntimeException(ERROR_PAGINA_INVALIDA);
+        }
+    }
+
+    private static String motivoDe(MessageProperties properties) {
+        Object motivo = properties.getHeaders().get(HEADER_MOTIVO);
+        return motivo != null ? motivo.toString() : MOTIVO_DESCONOCIDO;
+    }
+
+    private static String eventIdDe(MessageProperties properties) {
+        Object eventId = properties.getHeaders().get("x-event-id");
+        return eventId != null ? eventId.toString() : null;
+    }
+
+    private record Seleccion(Set<String> ids, String motivo) {
+
+        boolean incluye(MessageProperties properties) {
+            boolean porId = ids.isEmpty()
+                    || ids.contains(properties.getMessageId())
+                    || ids.contains(eventIdDe(properties));
+            return porId && (motivo == null || motivo.equals(motivoDe(properties)));
+        }
+    }
+}
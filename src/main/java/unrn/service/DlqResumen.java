@@ -0,0 +1,10 @@
+package unrn.service;
+
+import java.util.Map;
+
+public record DlqResumen(
+        String cola,
+        long mensajesEnCola,
+        int inspeccionados,
+        Map<String, Long> porMotivo) {
+}
@@ -17,6 +17,7 @@ import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @Component
 public class HttpCatalogoClient implements CatalogoClient {
@@ -67,14 +68,7 @@ public class HttpCatalogoClient implements CatalogoClient {
             assertItemsNoNulos(respuesta.items());
 
             for (var pelicula : respuesta.items()) {
-                assertPeliculaNoNula(pelicula);
-                assertMovieIdNoNulo(pelicula.id());
-                var snapshot = new CatalogoPeliculaSnapshot(
-                        pelicula.id(),
-                        pelicula.titulo(),
-                        BigDecimal.valueOf(pelicula.precio()),
-                        pelicula.activa() == null ? true : pelicula.activa(),
-                        pelicula.version() == null || pelicula.version() <= 0 ? 1L : pelicula.version());
+                var snapshot = aSnapshot(pelicula);
                 snapshotsPorId.put(snapshot.movieId(), snapshot);
             }
 
@@ -85,6 +79,59 @@ public class HttpCatalogoClient implements CatalogoClient {
         return new ArrayList<>(snapshotsPorId.values());
     }
 
+    @Override
+    public Optional<CatalogoPeliculaSnapshot> obtenerPelicula(Long movieId) {
+        assertMovieIdNoNulo(movieId);
+        URI uri = URI.create(baseUrl() + "/peliculas/" + movieId);
+        try {
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(uri)
+                    .GET()
+                    .build();
+
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() == 404) {
+                return Optional.empty();
+            }
+            assertStatusHttpValido(uri, response);
+            assertContentTypeJson(uri, response);
+
+            String body = response.body();
+            assertBodyNoVacio(uri, response.statusCode(), body);
+
+            CatalogoMovieResponse pelicula;
+            try {
+                pelicula = objectMapper.readValue(body, CatalogoMovieResponse.class);
+            } catch (Exception ex) {
+                throw construirErrorCatalogo(ERROR_JSON_CATALOGO_INVALIDO, uri, response.statusCode(), body, ex);
+            }
+            return Optional.of(aSnapshot(pelicula));
+        } catch (Exception ex) {
+            if (ex instanceof RuntimeException) {
+                throw (RuntimeException) ex;
+            }
+
+            throw new RuntimeException(ERROR_CONSUMIENDO_CATALOGO, ex);
+        }
+    }
+
+    private CatalogoPeliculaSnapshot aSnapshot(CatalogoMovieResponse pelicula) {
+        assertPeliculaNoNula(pelicula);
+        assertMovieIdNoNulo(pelicula.id());
+        return new CatalogoPeliculaSnapshot(
+                pelicula.id(),
+                pelicula.titulo(),
+                BigDecimal.valueOf(pelicula.precio()),
+                pelicula.activa() == null ? true : pelicula.activa(),
+                pelicula.version() == null || pelicula.version() <= 0 ? 1L : pelicula.version());
+    }
+
+    private String baseUrl() {
+        return catalogoBaseUrl.endsWith("/")
+                ? catalogoBaseUrl.substring(0, catalogoBaseUrl.length() - 1)
+                : catalogoBaseUrl;
+    }
+
     private CatalogoPageResponse obtenerPagina(int paginaActual) {
         URI uri = null;
         try {
@@ -93,11 +140,7 @@ public class HttpCatalogoClient implements CatalogoClient {
                     + "&sort=" + encode("titulo")
                     + "&asc=true";
 
-            String base = catalogoBaseUrl.endsWith("/")
-                    ? catalogoBaseUrl.substring(0, catalogoBaseUrl.length() - 1)
-                    : catalogoBaseUrl;
-
-            uri = URI.create(base + "/peliculas?" + query);
+            uri = URI.create(baseUrl() + "/peliculas?" + query);
             HttpRequest request = HttpRequest.newBuilder()
                     .uri(uri)
                     .GET()
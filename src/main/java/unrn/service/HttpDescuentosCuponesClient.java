@@ -0,0 +1,92 @@
+package unrn.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import unrn.model.CuponProyeccion;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.List;
+
+@Component
+public class HttpDescuentosCuponesClient implements DescuentosCuponesClient {
+
+    static final String ERROR_CONSUMIENDO_DESCUENTOS = "No se pudo consumir descuentos para bootstrap de cupones";
+    static final String ERROR_STATUS_HTTP_DESCUENTOS = "Descuentos respondió estado HTTP inválido";
+    static final String ERROR_JSON_DESCUENTOS_INVALIDO = "La respuesta JSON de descuentos es inválida";
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final String descuentosBaseUrl;
+
+    @Autowired
+    public HttpDescuentosCuponesClient(@Value("${ventas.descuentos.base-url}") String descuentosBaseUrl) {
+        this(HttpClient.newHttpClient(), new ObjectMapper().findAndRegisterModules(), descuentosBaseUrl);
+    }
+
+    HttpDescuentosCuponesClient(HttpClient httpClient, ObjectMapper objectMapper, String descuentosBaseUrl) {
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+        this.descuentosBaseUrl = descuentosBaseUrl;
+    }
+
+    @Override
+    public List<CuponProyeccion> obtenerTodosLosCupones() {
+        URI uri = URI.create(baseUrl() + "/cupones");
+        HttpResponse<String> response;
+        try {
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(uri)
+                    .GET()
+                    .build();
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(ERROR_CONSUMIENDO_DESCUENTOS, ex);
+        } catch (Exception ex) {
+            throw new RuntimeException(ERROR_CONSUMIENDO_DESCUENTOS, ex);
+        }
+
+        if (response.statusCode() < 200 || response.statusCode() >= 300) {
+            throw new RuntimeException(ERROR_STATUS_HTTP_DESCUENTOS + " url=" + uri + " status=" + response.statusCode());
+        }
+
+        List<DescuentosCuponResponse> cupones;
+        try {
+            cupones = objectMapper.readValue(response.body(), new TypeReference<>() {
+            });
+        } catch (Exception ex) {
+            throw new RuntimeException(ERROR_JSON_DESCUENTOS_INVALIDO + " url=" + uri, ex);
+        }
+        return cupones.stream().map(this::aProyeccion).toList();
+    }
+
+    private CuponProyeccion aProyeccion(DescuentosCuponResponse cupon) {
+        return new CuponProyeccion(
+                cupon.nombre(),
+                cupon.porcentajeDescuento(),
+                cupon.vigenteDesde(),
+                cupon.vigenteHasta(),
+                cupon.activo() == null ? true : cupon.activo(),
+                cupon.version() == null || cupon.version() <= 0 ? 1L : cupon.version());
+    }
+
+    private String baseUrl() {
+        return descuentosBaseUrl.endsWith("/")
+                ? descuentosBaseUrl.substring(0, descuentosBaseUrl.length() - 1)
+                : descuentosBaseUrl;
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    private record DescuentosCuponResponse(String nombre, BigDecimal porcentajeDescuento, LocalDate vigenteDesde,
+            LocalDate vigenteHasta, Boolean activo, Long version) {
+    }
+}
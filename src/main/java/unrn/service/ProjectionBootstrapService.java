@@ -78,6 +78,28 @@ public class ProjectionBootstrapService {
         }
     }
 
+    // Resincroniza una sola película desde catálogo, sin el lock ni el barrido del rebuild completo
+    public void resincronizarPelicula(Long movieId) {
+        var peliculaCatalogo = catalogoClient.obtenerPelicula(movieId);
+        if (peliculaCatalogo.isPresent()) {
+            processMovie(peliculaCatalogo.get());
+            LOG.info("projection-resync-movie movieId={} version={}", movieId, peliculaCatalogo.get().version());
+            return;
+        }
+
+        var existente = proyeccionRepository.buscarPorMovieId(String.valueOf(movieId));
+        if (existente.isPresent() && existente.get().activa()) {
+            var actual = existente.get();
+            transactionTemplate.executeWithoutResult(status -> proyeccionRepository.guardar(new PeliculaProyeccion(
+                    actual.movieId(),
+                    actual.titulo(),
+                    actual.precioActual(),
+                    false,
+                    actual.version() + 1)));
+        }
+        LOG.info("projection-resync-movie movieId={} ausenteEnCatalogo=true", movieId);
+    }
+
     private ProjectionCounters processMovie(CatalogoPeliculaSnapshot peliculaCatalogo) {
         return transactionTemplate.execute(status -> {
             var counters = new ProjectionCounters();
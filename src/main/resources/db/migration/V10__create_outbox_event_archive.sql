@@ -0,0 +1,16 @@
+CREATE TABLE outbox_event_archive (
+    id BIGINT PRIMARY KEY,
+    aggregate_type VARCHAR(64) NOT NULL,
+    aggregate_id BIGINT NOT NULL,
+    event_type VARCHAR(128) NOT NULL,
+    event_id VARCHAR(64) NULL,
+    payload_json VARCHAR(8000) NOT NULL,
+    status VARCHAR(16) NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    published_at TIMESTAMP NULL,
+    attempts INT NOT NULL,
+    last_error VARCHAR(1000) NULL,
+    archived_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_outbox_archive_aggregate ON outbox_event_archive(aggregate_type, aggregate_id);
@@ -0,0 +1 @@
+CREATE INDEX idx_processed_events_processed_at ON processed_events(processed_at);
@@ -0,0 +1,20 @@
+CREATE TABLE inbox_event (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    tipo VARCHAR(64) NOT NULL,
+    event_id VARCHAR(64) NOT NULL,
+    partition_key VARCHAR(64) NOT NULL,
+    payload_json VARCHAR(8000) NOT NULL,
+    status VARCHAR(16) NOT NULL,
+    received_at TIMESTAMP NOT NULL,
+    processed_at TIMESTAMP NULL,
+    attempts INT NOT NULL,
+    last_error VARCHAR(1000) NULL,
+    next_attempt_at TIMESTAMP NOT NULL,
+    lease_owner VARCHAR(128) NULL,
+    lease_until TIMESTAMP NULL,
+    CONSTRAINT uk_inbox_tipo_event_id UNIQUE (tipo, event_id)
+);
+
+CREATE INDEX idx_inbox_status_next_attempt ON inbox_event(status, next_attempt_at);
+CREATE INDEX idx_inbox_partition_status ON inbox_event(tipo, partition_key, status, id);
+CREATE INDEX idx_inbox_status_processed ON inbox_event(status, processed_at);
@@ -0,0 +1,17 @@
+CREATE TABLE IF NOT EXISTS cupon_proyeccion (
+    nombre VARCHAR(64) NOT NULL,
+    porcentaje DECIMAL(5,2) NOT NULL,
+    vigente_desde DATE NOT NULL,
+    vigente_hasta DATE NOT NULL,
+    activo BOOLEAN NOT NULL,
+    version BIGINT NOT NULL,
+    CONSTRAINT pk_cupon_proyeccion PRIMARY KEY (nombre)
+);
+
+INSERT INTO projection_bootstrap_lock (lock_name, locked, locked_at, owner_id)
+SELECT 'cupon_projection_rebuild', 0, NULL, NULL
+WHERE NOT EXISTS (
+    SELECT 1
+    FROM projection_bootstrap_lock
+    WHERE lock_name = 'cupon_projection_rebuild'
+);
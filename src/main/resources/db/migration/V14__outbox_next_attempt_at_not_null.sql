@@ -0,0 +1,6 @@
+UPDATE outbox_event
+SET next_attempt_at = created_at
+WHERE next_attempt_at IS NULL;
+
+ALTER TABLE outbox_event
+    MODIFY next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP;
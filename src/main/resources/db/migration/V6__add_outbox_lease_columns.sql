@@ -0,0 +1,5 @@
+ALTER TABLE outbox_event
+    ADD COLUMN lease_owner VARCHAR(128);
+
+ALTER TABLE outbox_event
+    ADD COLUMN lease_until TIMESTAMP NULL;
@@ -0,0 +1,8 @@
+ALTER TABLE outbox_event
+    ADD COLUMN next_attempt_at TIMESTAMP NULL;
+
+UPDATE outbox_event
+SET next_attempt_at = created_at
+WHERE next_attempt_at IS NULL;
+
+CREATE INDEX idx_outbox_status_next_attempt ON outbox_event(status, next_attempt_at);
@@ -0,0 +1 @@
+CREATE INDEX idx_outbox_aggregate_status ON outbox_event(aggregate_type, aggregate_id, status, id);
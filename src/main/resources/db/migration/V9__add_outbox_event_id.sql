@@ -0,0 +1,2 @@
+ALTER TABLE outbox_event
+    ADD COLUMN event_id VARCHAR(64) NULL;
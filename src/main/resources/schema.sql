@@ -6,6 +6,15 @@ CREATE TABLE IF NOT EXISTS pelicula_proyeccion (
     version BIGINT NOT NULL
 );
 
+CREATE TABLE IF NOT EXISTS cupon_proyeccion (
+    nombre VARCHAR(64) PRIMARY KEY,
+    porcentaje DECIMAL(5,2) NOT NULL,
+    vigente_desde DATE NOT NULL,
+    vigente_hasta DATE NOT NULL,
+    activo BOOLEAN NOT NULL,
+    version BIGINT NOT NULL
+);
+
 CREATE TABLE IF NOT EXISTS carrito (
     id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     cliente_id VARCHAR(128) NOT NULL UNIQUE
@@ -52,17 +61,63 @@ CREATE TABLE IF NOT EXISTS outbox_event (
     aggregate_type VARCHAR(64) NOT NULL,
     aggregate_id BIGINT NOT NULL,
     event_type VARCHAR(128) NOT NULL,
+    event_id VARCHAR(64),
     payload_json VARCHAR(8000) NOT NULL,
     status VARCHAR(16) NOT NULL,
     created_at TIMESTAMP NOT NULL,
     published_at TIMESTAMP,
     attempts INT NOT NULL,
-    last_error VARCHAR(1000)
+    last_error VARCHAR(1000),
+    lease_owner VARCHAR(128),
+    lease_until TIMESTAMP,
+    next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
 );
 
 CREATE INDEX IF NOT EXISTS idx_outbox_status_created ON outbox_event(status, created_at);
+CREATE INDEX IF NOT EXISTS idx_outbox_status_next_attempt ON outbox_event(status, next_attempt_at);
+CREATE INDEX IF NOT EXISTS idx_outbox_aggregate_status ON outbox_event(aggregate_type, aggregate_id, status, id);
+
+CREATE TABLE IF NOT EXISTS outbox_event_archive (
+    id BIGINT PRIMARY KEY,
+    aggregate_type VARCHAR(64) NOT NULL,
+    aggregate_id BIGINT NOT NULL,
+    event_type VARCHAR(128) NOT NULL,
+    event_id VARCHAR(64),
+    payload_json VARCHAR(8000) NOT NULL,
+    status VARCHAR(16) NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    published_at TIMESTAMP,
+    attempts INT NOT NULL,
+    last_error VARCHAR(1000),
+    archived_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_outbox_archive_aggregate ON outbox_event_archive(aggregate_type, aggregate_id);
 
 CREATE TABLE IF NOT EXISTS processed_events (
     event_id VARCHAR(64) PRIMARY KEY,
     processed_at TIMESTAMP NOT NULL
 );
+
+CREATE INDEX IF NOT EXISTS idx_processed_events_processed_at ON processed_events(processed_at);
+
+CREATE TABLE IF NOT EXISTS inbox_event (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    tipo VARCHAR(64) NOT NULL,
+    event_id VARCHAR(64) NOT NULL,
+    partition_key VARCHAR(64) NOT NULL,
+    payload_json VARCHAR(8000) NOT NULL,
+    status VARCHAR(16) NOT NULL,
+    received_at TIMESTAMP NOT NULL,
+    processed_at TIMESTAMP,
+    attempts INT NOT NULL,
+    last_error VARCHAR(1000),
+    next_attempt_at TIMESTAMP NOT NULL,
+    lease_owner VARCHAR(128),
+    lease_until TIMESTAMP,
+    CONSTRAINT uk_inbox_tipo_event_id UNIQUE (tipo, event_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_inbox_status_next_attempt ON inbox_event(status, next_attempt_at);
+CREATE INDEX IF NOT EXISTS idx_inbox_partition_status ON inbox_event(tipo, partition_key, status, id);
+CREATE INDEX IF NOT EXISTS idx_inbox_status_processed ON inbox_event(status, processed_at);
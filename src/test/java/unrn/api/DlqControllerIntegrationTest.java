@@ -0,0 +1,154 @@
+package unrn.api;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import unrn.service.DlqRedriveJob;
+import unrn.service.DlqRedriveResult;
+import unrn.service.DlqRedriveService;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class DlqControllerIntegrationTest {
+
+    private static final String TOKEN = "test-bootstrap-token";
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @MockitoBean
+    private DlqRedriveService dlqRedriveService;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void beforeEach() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+        when(dlqRedriveService.colaConocida("stock-rechazado")).thenReturn(true);
+    }
+
+    @Test
+    @DisplayName("Redrive sinToken respondeUnauthorized")
+    void redrive_sinToken_respondeUnauthorized() throws Exception {
+        // Ejercitación y Verificación: sin header el redrive no se ejecuta
+        mockMvc.perform(post("/internal/dlq/stock-rechazado/redrive"))
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.code").value("DLQ_UNAUTHORIZED"));
+        verify(dlqRedriveService, never()).iniciarRedrive(anyString(), any(), any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Redrive tokenInvalido respondeForbidden")
+    void redrive_tokenInvalido_respondeForbidden() throws Exception {
+        // Ejercitación y Verificación: un token distinto al configurado se rechaza
+        mockMvc.perform(post("/internal/dlq/stock-rechazado/redrive").header("X-Internal-Token", "otro"))
+                .andExpect(status().isForbidden())
+                .andExpect(jsonPath("$.code").value("DLQ_FORBIDDEN"));
+    }
+
+    @Test
+    @DisplayName("Resumen colaNoPermitida respondeNotFound")
+    void resumen_colaNoPermitida_respondeNotFound() throws Exception {
+        // Ejercitación y Verificación: solo se exponen las DLQ conocidas
+        mockMvc.perform(get("/internal/dlq/ventas.q.compras/resumen")
+                        .header("X-Internal-Token", TOKEN))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.code").value("DLQ_NOT_FOUND"));
+    }
+
+    @Test
+    @DisplayName("Redrive tokenValido acotaMaxMensajes y respondeAcceptedConElJob")
+    void redrive_tokenValido_acotaMaxMensajesYRespondeAcceptedConElJob() throws Exception {
+        // Setup: el servicio acepta el redrive y lo deja corriendo en segundo plano
+        DlqRedriveJob job = job("job-1", DlqRedriveJob.Estado.EN_CURSO, new DlqRedriveResult("stock-rechazado", 0, 0, 0, 5));
+        when(dlqRedriveService.iniciarRedrive(eq("stock-rechazado"), eq(List.of("m-1")), eq("MAX_REINTENTOS"), anyInt()))
+                .thenReturn(Optional.of(job));
+
+        // Ejercitación: pedir más mensajes que el máximo permitido
+        mockMvc.perform(post("/internal/dlq/stock-rechazado/redrive")
+                        .header("X-Internal-Token", TOKEN)
+                        .contentType(APPLICATION_JSON)
+                        .content("{\"ids\":[\"m-1\"],\"motivo\":\"MAX_REINTENTOS\",\"maxMensajes\":999999}"))
+                // Verificación: responde sin esperar el redrive, con el id del job y dónde consultarlo
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/internal/dlq/stock-rechazado/redrive/job-1"))
+                .andExpect(jsonPath("$.id").value("job-1"))
+                .andExpect(jsonPath("$.estado").value("EN_CURSO"));
+        verify(dlqRedriveService).iniciarRedrive("stock-rechazado", List.of("m-1"), "MAX_REINTENTOS", 10000);
+    }
+
+    @Test
+    @DisplayName("Redrive conRedriveEnCurso respondeConflict")
+    void redrive_conRedriveEnCurso_respondeConflict() throws Exception {
+        // Setup: ya hay un redrive corriendo
+        when(dlqRedriveService.iniciarRedrive(anyString(), any(), any(), anyInt())).thenReturn(Optional.empty());
+
+        // Ejercitación y Verificación: el segundo pedido se rechaza sin encolar otro job
+        mockMvc.perform(post("/internal/dlq/stock-rechazado/redrive").header("X-Internal-Token", TOKEN))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.code").value("DLQ_REDRIVE_EN_CURSO"));
+    }
+
+    @Test
+    @DisplayName("ConsultarRedrive jobTerminado reportaConteosYThroughput")
+    void consultarRedrive_jobTerminado_reportaConteosYThroughput() throws Exception {
+        // Setup: el job redirigió 40 mensajes en 2 segundos
+        DlqRedriveJob job = job("job-1", DlqRedriveJob.Estado.TERMINADO,
+                new DlqRedriveResult("stock-rechazado", 40, 3, 0, 2000));
+        when(dlqRedriveService.consultarRedrive("stock-rechazado", "job-1")).thenReturn(Optional.of(job));
+
+        // Ejercitación y Verificación: el progreso incluye conteos y mensajes por segundo
+        mockMvc.perform(get("/internal/dlq/stock-rechazado/redrive/job-1").header("X-Internal-Token", TOKEN))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.estado").value("TERMINADO"))
+                .andExpect(jsonPath("$.redirigidos").value(40))
+                .andExpect(jsonPath("$.omitidos").value(3))
+                .andExpect(jsonPath("$.mensajesPorSegundo").value(20.0));
+    }
+
+    @Test
+    @DisplayName("ConsultarRedrive jobDesconocido respondeNotFound")
+    void consultarRedrive_jobDesconocido_respondeNotFound() throws Exception {
+        // Setup: el servicio no conoce el job
+        when(dlqRedriveService.consultarRedrive("stock-rechazado", "otro")).thenReturn(Optional.empty());
+
+        // Ejercitación y Verificación: Verificar el resultado esperado
+        mockMvc.perform(get("/internal/dlq/stock-rechazado/redrive/otro").header("X-Internal-Token", TOKEN))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.code").value("DLQ_REDRIVE_NOT_FOUND"));
+    }
+
+    private DlqRedriveJob job(String id, DlqRedriveJob.Estado estado, DlqRedriveResult resultado) {
+        DlqRedriveJob job = mock(DlqRedriveJob.class);
+        when(job.id()).thenReturn(id);
+        when(job.cola()).thenReturn(resultado.cola());
+        when(job.estado()).thenReturn(estado);
+        when(job.resultado()).thenReturn(resultado);
+        return job;
+    }
+}
@@ -0,0 +1,120 @@
+package unrn.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.amqp.core.AsyncAmqpTemplate;
+import unrn.dto.ConfirmarCompraRequest;
+import unrn.dto.ConfirmarCompraResponse;
+import unrn.dto.ValidarCuponResponse;
+import unrn.model.Carrito;
+import unrn.outbox.OutboxEventService;
+import unrn.persistence.CompraEntity;
+import unrn.persistence.CompraJpaRepository;
+import unrn.persistence.document.CompraHistorialDocumentStore;
+import unrn.repository.CarritoRepository;
+import unrn.repository.CuponProyeccionRepository;
+import unrn.service.ClienteActualProvider;
+import unrn.service.ConfirmarCompraService;
+import unrn.service.CuponValidacionCache;
+import unrn.service.CuponValidador;
+import unrn.service.DescuentosRpcClient;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Latencia de ConfirmarCompraService.confirmarCompra con un cupón que la proyección no conoce, así cada checkout
+// paga el RPC a descuentos (50–500 ms) además de la carga del carrito. "secuencial" espera el RPC y después carga
+// el carrito; "concurrente" carga el carrito con el RPC en vuelo. Repositorios y broker son stubs: la proyección
+// y el carrito no tocan una base, el RPC responde tras la latencia configurada y cada invocación usa un cupón
+// distinto para no medir la cache.
+// No corre con surefire. JMH forkea la JVM, así que se ejecuta con el classpath completo:
+//   mvn test-compile dependency:build-classpath -Dmdep.outputFile=cp.txt -Dmdep.includeScope=test
+//   java -cp target/test-classes:target/classes:$(cat cp.txt) unrn.benchmark.CheckoutPreparacionBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class CheckoutPreparacionBenchmark {
+
+    @Param({ "secuencial", "concurrente" })
+    public String modo;
+
+    @Param({ "50", "200", "500" })
+    public long latenciaDescuentosMs;
+
+    @Param({ "30" })
+    public long latenciaCarritoMs;
+
+    private final AtomicLong cupones = new AtomicLong();
+    private ConfirmarCompraService service;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        var meterRegistry = new SimpleMeterRegistry();
+
+        AsyncAmqpTemplate broker = mock(AsyncAmqpTemplate.class);
+        when(broker.convertSendAndReceive(anyString(), anyString(), any(Object.class))).thenAnswer(inv ->
+                CompletableFuture.supplyAsync(() -> new ValidarCuponResponse(true, 10f,
+                                LocalDate.now().minusDays(1), LocalDate.now().plusDays(30), null),
+                        CompletableFuture.delayedExecutor(latenciaDescuentosMs, TimeUnit.MILLISECONDS)));
+        var rpc = new DescuentosRpcClient(broker, meterRegistry, "descuentos.exchange", "cupon.validar", 2_000);
+
+        CuponProyeccionRepository proyeccion = mock(CuponProyeccionRepository.class);
+        when(proyeccion.buscarPorNombre(anyString())).thenReturn(Optional.empty());
+        var validador = new CuponValidador(proyeccion, rpc, meterRegistry, true, true, true);
+        var cache = new CuponValidacionCache(validador, meterRegistry, 10_000, 300_000, 30_000);
+
+        CarritoRepository carritos = mock(CarritoRepository.class);
+        when(carritos.obtenerDe(anyString())).thenAnswer(inv -> {
+            Thread.sleep(latenciaCarritoMs);
+            var carrito = new Carrito();
+            carrito.agregarPelicula("1", "Matrix", new BigDecimal("100.00"), 1);
+            return carrito;
+        });
+
+        CompraJpaRepository compras = mock(CompraJpaRepository.class);
+        when(compras.save(any(CompraEntity.class))).thenAnswer(inv -> inv.getArgument(0));
+        ClienteActualProvider clienteActual = mock(ClienteActualProvider.class);
+        when(clienteActual.obtenerClienteId()).thenReturn("cliente-bench");
+
+        service = new ConfirmarCompraService(carritos, compras, clienteActual, mock(OutboxEventService.class),
+                mock(CompraHistorialDocumentStore.class), cache, "concurrente".equals(modo));
+    }
+
+    @Benchmark
+    public ConfirmarCompraResponse confirmarCompra() {
+        String cupon = "BENCH-" + cupones.incrementAndGet();
+        return service.confirmarCompra(new ConfirmarCompraRequest(cupon, null, null, null));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CheckoutPreparacionBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
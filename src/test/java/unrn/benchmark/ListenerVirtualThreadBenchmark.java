@@ -0,0 +1,101 @@
+package unrn.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Modelo de planificación, no del listener: compara un pool fijo de hilos de plataforma contra virtual threads
+// esperando Thread.sleep a la misma concurrencia. No pasa por SimpleMessageListenerContainer, aplicarHilosVirtuales,
+// JDBC ni el VirtualThreadPinningMonitor, así que no mide el camino real y no respalda ninguna mejora de throughput
+// de los listeners. Lo único que muestra es que, con las mismas entregas en vuelo, el tipo de hilo da lo mismo.
+// No corre con surefire. JMH forkea la JVM, así que se ejecuta con el classpath completo:
+//   mvn test-compile dependency:build-classpath -Dmdep.outputFile=cp.txt -Dmdep.includeScope=test
+//   java -cp target/test-classes:target/classes:$(cat cp.txt) unrn.benchmark.ListenerVirtualThreadBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class ListenerVirtualThreadBenchmark {
+
+    private static final int MENSAJES_POR_OPERACION = 500;
+
+    @Param({ "platform", "virtual" })
+    public String hilos;
+
+    @Param({ "20" })
+    public long latenciaBaseMs;
+
+    // Entregas en vuelo, iguales para ambos tipos de hilo
+    @Param({ "16", "250" })
+    public int concurrencia;
+
+    private ExecutorService executor;
+    private Semaphore enVuelo;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        executor = "virtual".equals(hilos)
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(concurrencia);
+        enVuelo = new Semaphore(concurrencia);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MENSAJES_POR_OPERACION)
+    public void procesarMensajes() throws InterruptedException {
+        var pendientes = new CountDownLatch(MENSAJES_POR_OPERACION);
+        for (int i = 0; i < MENSAJES_POR_OPERACION; i++) {
+            enVuelo.acquire();
+            executor.execute(() -> {
+                try {
+                    consultaLenta();
+                } finally {
+                    enVuelo.release();
+                    pendientes.countDown();
+                }
+            });
+        }
+        pendientes.await();
+    }
+
+    private void consultaLenta() {
+        try {
+            Thread.sleep(latenciaBaseMs);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ListenerVirtualThreadBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,90 @@
+package unrn.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import unrn.config.RabbitMQConfig;
+import unrn.event.stock.StockValidationRequestedEvent;
+import unrn.event.stock.StockValidationRequestedPublisher;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+// Compara publicar desde outbox deserializando el payload contra enviar los bytes almacenados.
+// No corre con surefire; ejecutar con: mvn test-compile exec:java -Dexec.classpathScope=test
+//   -Dexec.mainClass=unrn.benchmark.OutboxPayloadPublishBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OutboxPayloadPublishBenchmark {
+
+    private ObjectMapper objectMapper;
+    private StockValidationRequestedPublisher publisher;
+    private String eventId;
+    private String payloadJson;
+
+    @Setup
+    public void setup() throws Exception {
+        RabbitMQConfig config = new RabbitMQConfig();
+        objectMapper = config.objectMapper();
+        RabbitTemplate rabbitTemplate = new RabbitTemplateSinBroker();
+        rabbitTemplate.setMessageConverter(config.jsonMessageConverter(objectMapper));
+        publisher = new StockValidationRequestedPublisher(rabbitTemplate, new TopicExchange("ventas.events"));
+        ReflectionTestUtils.setField(publisher, "routingKey", "catalogo.stock.validation.requested");
+
+        eventId = UUID.randomUUID().toString();
+        List<StockValidationRequestedEvent.Item> items = LongStream.rangeClosed(1, 5)
+                .mapToObj(peliculaId -> new StockValidationRequestedEvent.Item(peliculaId, 2))
+                .toList();
+        payloadJson = objectMapper.writeValueAsString(
+                new StockValidationRequestedEvent(eventId, 42L, items, Instant.now()));
+    }
+
+    @Benchmark
+    public CorrelationData deserializarYReserializar() throws Exception {
+        return publisher.enviar(objectMapper.readValue(payloadJson, StockValidationRequestedEvent.class));
+    }
+
+    @Benchmark
+    public CorrelationData payloadAlmacenado() {
+        return publisher.enviarPayload(eventId, payloadJson.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(OutboxPayloadPublishBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    // Descarta el mensaje ya armado: se mide solo el costo de serialización y headers
+    static class RabbitTemplateSinBroker extends RabbitTemplate {
+
+        @Override
+        public void send(String exchange, String routingKey, Message message, CorrelationData correlationData) {
+        }
+    }
+}
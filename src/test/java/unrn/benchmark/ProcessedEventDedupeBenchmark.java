@@ -0,0 +1,144 @@
+package unrn.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Costo de deduplicar un evento contra processed_events con millones de ids ya registrados:
+// existsById + insert (dos idas a la base), insert-first con INSERT IGNORE, y la cache LRU del frente.
+// Usa H2 en archivo y modo MySQL; el tamaño por defecto replica el volumen de una semana de eventos.
+// No corre con surefire. JMH forkea la JVM, así que se ejecuta con el classpath completo:
+//   mvn test-compile dependency:build-classpath -Dmdep.outputFile=cp.txt -Dmdep.includeScope=test
+//   java -cp target/test-classes:target/classes:$(cat cp.txt) unrn.benchmark.ProcessedEventDedupeBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ProcessedEventDedupeBenchmark {
+
+    @Param({ "10000000" })
+    public int idsRegistrados;
+
+    @Param({ "100000" })
+    public int capacidadCache;
+
+    private Path directorio;
+    private Connection connection;
+    private PreparedStatement existe;
+    private PreparedStatement insertar;
+    private PreparedStatement insertarIgnorando;
+    private Map<String, Boolean> cache;
+    private long siguienteId;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        directorio = Files.createTempDirectory("processed-events-bench");
+        connection = DriverManager.getConnection(
+                "jdbc:h2:file:" + directorio.resolve("bench") + ";MODE=MySQL", "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE processed_events (event_id VARCHAR(64) PRIMARY KEY, processed_at TIMESTAMP NOT NULL)");
+            statement.execute("INSERT INTO processed_events SELECT 'evt-' || X, CURRENT_TIMESTAMP FROM SYSTEM_RANGE(1, "
+                    + idsRegistrados + ")");
+            statement.execute("CREATE INDEX idx_processed_events_processed_at ON processed_events(processed_at)");
+        }
+        existe = connection.prepareStatement("SELECT 1 FROM processed_events WHERE event_id = ?");
+        insertar = connection.prepareStatement("INSERT INTO processed_events (event_id, processed_at) VALUES (?, ?)");
+        insertarIgnorando = connection.prepareStatement(
+                "INSERT IGNORE INTO processed_events (event_id, processed_at) VALUES (?, ?)");
+
+        cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > capacidadCache;
+            }
+        };
+        for (int i = idsRegistrados - capacidadCache + 1; i <= idsRegistrados; i++) {
+            cache.put("evt-" + i, Boolean.TRUE);
+        }
+        siguienteId = idsRegistrados;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        connection.close();
+        try (var archivos = Files.walk(directorio)) {
+            archivos.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public boolean existsLuegoInsertNuevo() throws SQLException {
+        String eventId = "evt-" + (++siguienteId);
+        existe.setString(1, eventId);
+        try (ResultSet resultSet = existe.executeQuery()) {
+            if (resultSet.next()) {
+                return false;
+            }
+        }
+        insertar.setString(1, eventId);
+        insertar.setTimestamp(2, Timestamp.from(Instant.now()));
+        return insertar.executeUpdate() == 1;
+    }
+
+    @Benchmark
+    public boolean insertIgnoreNuevo() throws SQLException {
+        return insertarIgnorando("evt-" + (++siguienteId));
+    }
+
+    @Benchmark
+    public boolean insertIgnoreDuplicado() throws SQLException {
+        return insertarIgnorando(idRegistradoAlAzar());
+    }
+
+    @Benchmark
+    public boolean cacheDuplicado() {
+        String eventId = "evt-" + ThreadLocalRandom.current().nextInt(idsRegistrados - capacidadCache + 1, idsRegistrados + 1);
+        return cache.get(eventId) != null;
+    }
+
+    private boolean insertarIgnorando(String eventId) throws SQLException {
+        insertarIgnorando.setString(1, eventId);
+        insertarIgnorando.setTimestamp(2, Timestamp.from(Instant.now()));
+        return insertarIgnorando.executeUpdate() == 1;
+    }
+
+    private String idRegistradoAlAzar() {
+        return "evt-" + ThreadLocalRandom.current().nextInt(1, idsRegistrados + 1);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ProcessedEventDedupeBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
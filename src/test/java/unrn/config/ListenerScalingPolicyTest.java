@@ -0,0 +1,62 @@
+package unrn.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ListenerScalingPolicyTest {
+
+    @Test
+    @DisplayName("ConsumidoresDeseados con backlog creciente sube hasta cubrirlo sin pasar el máximo")
+    void consumidoresDeseados_backlogCreciente_subeHastaElMaximo() {
+        // Setup: Preparar el escenario
+        var policy = new ListenerScalingPolicy(1, 8, 100);
+
+        // Ejercitación: Ejecutar la acción a probar
+        int conBacklogModerado = policy.consumidoresDeseados(350, 1);
+        int conBacklogGrande = policy.consumidoresDeseados(5_000, 4);
+
+        // Verificación: Verificar el resultado esperado
+        assertEquals(4, conBacklogModerado, "Debe haber un consumidor cada 100 mensajes encolados");
+        assertEquals(8, conBacklogGrande, "No debe superarse la concurrencia máxima");
+    }
+
+    @Test
+    @DisplayName("ConsumidoresDeseados con cola vacía baja de a uno hasta el mínimo")
+    void consumidoresDeseados_colaVacia_bajaDeAUnoHastaElMinimo() {
+        // Setup: Preparar el escenario
+        var policy = new ListenerScalingPolicy(2, 8, 100);
+
+        // Ejercitación: Ejecutar la acción a probar
+        int desdeCinco = policy.consumidoresDeseados(0, 5);
+        int desdeMinimo = policy.consumidoresDeseados(0, 2);
+
+        // Verificación: Verificar el resultado esperado
+        assertEquals(4, desdeCinco, "En idle se libera un consumidor por ciclo");
+        assertEquals(2, desdeMinimo, "No debe bajarse del mínimo configurado");
+    }
+
+    @Test
+    @DisplayName("ConsumidoresDeseados con backlog cubierto mantiene los consumidores actuales")
+    void consumidoresDeseados_backlogCubierto_mantieneActuales() {
+        // Setup: Preparar el escenario
+        var policy = new ListenerScalingPolicy(1, 8, 100);
+
+        // Ejercitación: Ejecutar la acción a probar
+        int deseados = policy.consumidoresDeseados(150, 4);
+
+        // Verificación: Verificar el resultado esperado
+        assertEquals(4, deseados, "Con backlog residual no conviene oscilar");
+    }
+
+    @Test
+    @DisplayName("Constructor con mínimo mayor al máximo lanza excepción")
+    void constructor_minimoMayorAMaximo_lanzaExcepcion() {
+        // Ejercitación: Ejecutar la acción a probar
+        var ex = assertThrows(RuntimeException.class, () -> new ListenerScalingPolicy(5, 2, 100));
+
+        // Verificación: Verificar el resultado esperado
+        assertEquals(ListenerScalingPolicy.ERROR_CONSUMIDORES_INVALIDOS, ex.getMessage());
+    }
+}
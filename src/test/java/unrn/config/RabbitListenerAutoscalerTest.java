@@ -0,0 +1,81 @@
+package unrn.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RabbitListenerAutoscalerTest {
+
+    @Test
+    @DisplayName("Escalar con backlog en la cola agrega consumidores y lo reporta")
+    void escalar_backlogEnCola_agregaConsumidores() {
+        // Setup: Preparar el escenario
+        var environment = new MockEnvironment()
+                .withProperty("ventas.rabbit.listeners.stock-rechazado.concurrency", "1")
+                .withProperty("ventas.rabbit.listeners.stock-rechazado.max-concurrency", "4")
+                .withProperty("ventas.rabbit.listeners.stock-rechazado.prefetch", "20");
+        var meterRegistry = new SimpleMeterRegistry();
+        var amqpAdmin = mock(AmqpAdmin.class);
+        when(amqpAdmin.getQueueInfo("stock.rechazado")).thenReturn(new QueueInformation("stock.rechazado", 250, 1));
+        var autoscaler = new RabbitListenerAutoscaler(environment, meterRegistry, proveedor(amqpAdmin), true, 100);
+        var container = contenedor("stock-rechazado");
+        autoscaler.configure(container);
+
+        // Ejercitación: Ejecutar la acción a probar
+        autoscaler.escalar();
+
+        // Verificación: Verificar el resultado esperado
+        verify(container).setPrefetchCount(20);
+        verify(container).setConcurrentConsumers(3);
+        assertEquals(1.0, meterRegistry.get("ventas.rabbit.listener.scale.total")
+                .tag("listener", "stock-rechazado").tag("direction", "up").counter().count());
+        assertEquals(1.0, meterRegistry.get("ventas.rabbit.listener.consumers")
+                .tag("listener", "stock-rechazado").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Configure sin max-concurrency deja el listener con su concurrencia fija")
+    void configure_sinMaxConcurrency_noModificaElListener() {
+        // Setup: Preparar el escenario
+        var amqpAdmin = mock(AmqpAdmin.class);
+        var autoscaler = new RabbitListenerAutoscaler(new MockEnvironment(), new SimpleMeterRegistry(),
+                proveedor(amqpAdmin), true, 100);
+        var container = contenedor("movie-events");
+
+        // Ejercitación: Ejecutar la acción a probar
+        autoscaler.configure(container);
+        autoscaler.escalar();
+
+        // Verificación: Verificar el resultado esperado
+        verify(container, never()).setConcurrentConsumers(anyInt());
+        verify(amqpAdmin, never()).getQueueInfo("stock.rechazado");
+    }
+
+    private SimpleMessageListenerContainer contenedor(String listenerId) {
+        var container = mock(SimpleMessageListenerContainer.class);
+        when(container.getListenerId()).thenReturn(listenerId);
+        when(container.isRunning()).thenReturn(true);
+        when(container.getActiveConsumerCount()).thenReturn(1);
+        when(container.getQueueNames()).thenReturn(new String[] { "stock.rechazado" });
+        return container;
+    }
+
+    @SuppressWarnings("unchecked")
+    private ObjectProvider<AmqpAdmin> proveedor(AmqpAdmin amqpAdmin) {
+        var provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(amqpAdmin);
+        return provider;
+    }
+}
@@ -0,0 +1,106 @@
+package unrn.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class RabbitRetryTiersTest {
+
+    private final RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RabbitRetryTiers retryTiers = new RabbitRetryTiers(rabbitTemplate, meterRegistry,
+            new long[] { 1000, 5000, 30000, 300000 }, 0.0, "ventas.q.retry.tier-", 200);
+
+    @Test
+    @DisplayName("Reintentar segundo intento publica en el segundo nivel con destino, contador y expiration")
+    void reintentar_segundoIntento_publicaEnSegundoNivel() {
+        // Setup: Preparar el escenario
+        Message original = new Message("{}".getBytes(), new MessageProperties());
+        brokerConfirma(true);
+
+        // Ejercitación: Ejecutar la acción a probar
+        boolean confirmado = retryTiers.reintentar("stock-rechazado", "ventas.q.catalogo-stock-rechazado", original, 1);
+
+        // Verificación: Verificar el resultado esperado
+        assertTrue(confirmado, "Con ack del broker la copia queda confirmada");
+        var enviado = ArgumentCaptor.forClass(Message.class);
+        verify(rabbitTemplate).send(eq(""), eq("ventas.q.retry.tier-2"), enviado.capture(), any(CorrelationData.class));
+        MessageProperties properties = enviado.getValue().getMessageProperties();
+        assertEquals("ventas.q.catalogo-stock-rechazado", properties.getHeader(RabbitRetryTiers.HEADER_COLA_DESTINO),
+                "El exchange de retorno enruta por la cola de origen");
+        assertEquals(2L, ((Number) properties.getHeader(RabbitRetryTiers.HEADER_REINTENTOS)).longValue(),
+                "El contador de reintentos debe incrementarse");
+        assertEquals("5000", properties.getExpiration(), "Sin jitter el mensaje espera el delay del nivel");
+        assertEquals(1.0, meterRegistry.get("ventas.rabbit.retry.tier.total")
+                .tags("listener", "stock-rechazado", "tier", "5000ms").counter().count());
+    }
+
+    @Test
+    @DisplayName("Reintentar con nack del broker devuelve falso y no cuenta el reintento")
+    void reintentar_nackDelBroker_devuelveFalso() {
+        // Setup: el broker rechaza la copia publicada en el nivel
+        Message original = new Message("{}".getBytes(), new MessageProperties());
+        brokerConfirma(false);
+
+        // Ejercitación: Ejecutar la acción a probar
+        boolean confirmado = retryTiers.reintentar("stock-rechazado", "ventas.q.catalogo-stock-rechazado", original, 0);
+
+        // Verificación: el caller no debe confirmar la entrega original
+        assertFalse(confirmado, "Sin ack del broker la copia no está a salvo");
+        assertEquals(1.0, meterRegistry.get("ventas.rabbit.retry.tier.unconfirmed.total")
+                .tags("listener", "stock-rechazado").counter().count());
+        assertTrue(meterRegistry.find("ventas.rabbit.retry.tier.total").counters().isEmpty(),
+                "Un reintento no confirmado no se cuenta como derivado");
+    }
+
+    @Test
+    @DisplayName("Reintentar sin confirm a tiempo devuelve falso")
+    void reintentar_sinConfirm_devuelveFalso() {
+        // Setup: el broker nunca confirma la copia
+        Message original = new Message("{}".getBytes(), new MessageProperties());
+
+        // Ejercitación: Ejecutar la acción a probar
+        boolean confirmado = retryTiers.reintentar("movie-events", "ventas.q.movie-events", original, 0);
+
+        // Verificación: Verificar el resultado esperado
+        assertFalse(confirmado, "Sin confirm dentro del timeout la copia se considera perdida");
+    }
+
+    @Test
+    @DisplayName("CantidadReintentos sin contador propio usa el x-death de la cola de retry fija")
+    void cantidadReintentos_sinContadorPropio_usaXDeath() {
+        // Setup: Preparar el escenario
+        MessageProperties properties = new MessageProperties();
+        properties.setHeader("x-death", List.of(Map.of("count", 2L, "reason", "expired")));
+
+        // Ejercitación: Ejecutar la acción a probar
+        long reintentos = retryTiers.cantidadReintentos(new Message(new byte[0], properties));
+
+        // Verificación: Verificar el resultado esperado
+        assertEquals(2L, reintentos, "Los mensajes de la topología anterior conservan su conteo");
+    }
+
+    private void brokerConfirma(boolean ack) {
+        doAnswer(inv -> {
+            CorrelationData correlationData = inv.getArgument(3);
+            correlationData.getFuture().complete(new CorrelationData.Confirm(ack, ack ? null : "nack"));
+            return null;
+        }).when(rabbitTemplate).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+    }
+}
@@ -0,0 +1,71 @@
+package unrn.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetryTierPolicyTest {
+
+    private static final List<Long> NIVELES = List.of(1000L, 5000L, 30000L, 300000L);
+
+    @Test
+    @DisplayName("Nivel según intentos previos avanza un nivel por reintento")
+    void nivel_intentosPrevios_avanzaUnNivelPorReintento() {
+        // Setup: Preparar el escenario
+        var policy = new RetryTierPolicy(NIVELES, 0.2, () -> 0.0);
+
+        // Ejercitación y Verificación: Ejecutar la acción a probar y verificar el resultado esperado
+        assertEquals(0, policy.nivel(0), "El primer reintento usa el nivel más corto");
+        assertEquals(2, policy.nivel(2), "Cada reintento previo sube un nivel");
+    }
+
+    @Test
+    @DisplayName("Nivel con más intentos que niveles se queda en el último")
+    void nivel_masIntentosQueNiveles_quedaEnElUltimo() {
+        // Setup: Preparar el escenario
+        var policy = new RetryTierPolicy(NIVELES, 0.2, () -> 0.0);
+
+        // Ejercitación: Ejecutar la acción a probar
+        int nivel = policy.nivel(9);
+
+        // Verificación: Verificar el resultado esperado
+        assertEquals(3, nivel, "Pasado el último nivel se sigue esperando el delay más largo");
+    }
+
+    @Test
+    @DisplayName("DelayMs suma hasta el ratio de jitter sobre el delay del nivel")
+    void delayMs_conJitter_sumaHastaElRatioSobreElNivel() {
+        // Setup: Preparar el escenario
+        var policy = new RetryTierPolicy(NIVELES, 0.2, () -> 0.5);
+
+        // Ejercitación: Ejecutar la acción a probar
+        long delayMs = policy.delayMs(1);
+
+        // Verificación: Verificar el resultado esperado
+        assertEquals(5500L, delayMs, "Debe sumarse la mitad del 20% del delay de 5 s");
+    }
+
+    @Test
+    @DisplayName("Constructor con niveles no crecientes lanza excepción")
+    void constructor_nivelesNoCrecientes_lanzaExcepcion() {
+        // Ejercitación: Ejecutar la acción a probar
+        var ex = assertThrows(RuntimeException.class,
+                () -> new RetryTierPolicy(List.of(5000L, 1000L), 0.2, () -> 0.0));
+
+        // Verificación: Verificar el resultado esperado
+        assertEquals(RetryTierPolicy.ERROR_DELAY_INVALIDO, ex.getMessage());
+    }
+
+    @Test
+    @DisplayName("Constructor sin niveles lanza excepción")
+    void constructor_sinNiveles_lanzaExcepcion() {
+        // Ejercitación: Ejecutar la acción a probar
+        var ex = assertThrows(RuntimeException.class, () -> new RetryTierPolicy(List.of(), 0.2, () -> 0.0));
+
+        // Verificación: Verificar el resultado esperado
+        assertEquals(RetryTierPolicy.ERROR_NIVELES_VACIOS, ex.getMessage());
+    }
+}
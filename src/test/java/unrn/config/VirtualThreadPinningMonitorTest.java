@@ -0,0 +1,49 @@
+package unrn.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VirtualThreadPinningMonitorTest {
+
+    private final Object monitor = new Object();
+
+    @Test
+    @DisplayName("Un virtual thread que duerme dentro de synchronized se reporta como pinned")
+    void virtualThread_duermeDentroDeSynchronized_seReportaComoPinned() throws Exception {
+        // Setup: Preparar el escenario
+        var meterRegistry = new SimpleMeterRegistry();
+        var pinningMonitor = new VirtualThreadPinningMonitor(meterRegistry, 10);
+        pinningMonitor.start();
+
+        try {
+            // Ejercitación: Ejecutar la acción a probar
+            Thread.ofVirtual().start(this::bloquearConMonitor).join();
+
+            // Verificación: Verificar el resultado esperado
+            long limite = System.currentTimeMillis() + 10_000;
+            while (contarPinned(meterRegistry) == 0 && System.currentTimeMillis() < limite) {
+                Thread.sleep(100);
+            }
+            assertTrue(contarPinned(meterRegistry) >= 1, "El evento JFR de pinning debe llegar a la métrica");
+        } finally {
+            pinningMonitor.stop();
+        }
+    }
+
+    private void bloquearConMonitor() {
+        synchronized (monitor) {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private long contarPinned(SimpleMeterRegistry meterRegistry) {
+        return meterRegistry.get("ventas.jvm.virtual.thread.pinned").timer().count();
+    }
+}
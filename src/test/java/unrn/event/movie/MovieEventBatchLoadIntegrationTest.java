@@ -0,0 +1,84 @@
+package unrn.event.movie;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rabbitmq.client.Channel;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class MovieEventBatchLoadIntegrationTest {
+
+    private static final Logger log = LoggerFactory.getLogger(MovieEventBatchLoadIntegrationTest.class);
+
+    private static final int PELICULAS = 5_000;
+    private static final int VERSIONES = 10;
+    private static final int TAMANIO_LOTE = 500;
+
+    @Autowired
+    private MovieEventListener movieEventListener;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void beforeEach() {
+        jdbcTemplate.update("DELETE FROM pelicula_proyeccion");
+    }
+
+    @Test
+    @DisplayName("OnMovieEventLote cincuentaMilEventos dejaCadaPeliculaEnSuUltimaVersion")
+    void onMovieEventLote_cincuentaMilEventos_dejaCadaPeliculaEnSuUltimaVersion() throws Exception {
+        // Setup: una importación de catálogo con 10 versiones por película, intercaladas como llegan del broker
+        List<Message> eventos = new ArrayList<>();
+        long deliveryTag = 0;
+        for (long version = 1; version <= VERSIONES; version++) {
+            for (long movieId = 1; movieId <= PELICULAS; movieId++) {
+                var envelope = new MovieEventEnvelope("evt-" + movieId + "-" + version, "MovieUpdated.v1",
+                        Instant.now(), new MovieEventPayload(movieId, "Pelicula " + movieId + " v" + version,
+                                1000.0 + version, true, version));
+                var properties = new MessageProperties();
+                properties.setDeliveryTag(++deliveryTag);
+                eventos.add(new Message(objectMapper.writeValueAsBytes(envelope), properties));
+            }
+        }
+        Channel channel = mock(Channel.class);
+
+        // Ejercitación: consumir en lotes como lo entrega el contenedor batch
+        long inicio = System.nanoTime();
+        for (int desde = 0; desde < eventos.size(); desde += TAMANIO_LOTE) {
+            movieEventListener.onMovieEventLote(eventos.subList(desde, Math.min(desde + TAMANIO_LOTE, eventos.size())),
+                    channel);
+        }
+        long duracionMs = Math.max(1, (System.nanoTime() - inicio) / 1_000_000);
+        log.info("carga_movie_events_lote eventos={} duracionMs={} eventosPorSegundo={}",
+                eventos.size(), duracionMs, eventos.size() * 1000L / duracionMs);
+
+        // Verificación: todas las películas quedan proyectadas en la última versión
+        Integer enUltimaVersion = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pelicula_proyeccion WHERE version = ?", Integer.class, VERSIONES);
+        assertEquals(PELICULAS, enUltimaVersion, "Cada película debe quedar en su última versión");
+        String titulo = jdbcTemplate.queryForObject(
+                "SELECT titulo FROM pelicula_proyeccion WHERE movie_id = '42'", String.class);
+        assertEquals("Pelicula 42 v" + VERSIONES, titulo, "El upsert debe conservar los datos de la última versión");
+    }
+}
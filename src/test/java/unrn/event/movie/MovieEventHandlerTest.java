@@ -6,6 +6,8 @@ import unrn.model.PeliculaProyeccion;
 import unrn.repository.PeliculaProyeccionRepository;
 
 import java.util.Map;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
@@ -111,8 +113,40 @@ class MovieEventHandlerTest {
         assertTrue(ex.getMessage().contains("movieId=1"), "El mensaje debe incluir el movieId para diagnóstico");
     }
 
+    @Test
+    @DisplayName("handleLote con varias versiones de una película guarda solo la última aplicable")
+    void handleLote_variasVersionesMismaPelicula_guardaSoloUltimaAplicable() {
+        // Setup: Preparar el escenario
+        var repo = new InMemoryPeliculaProyeccionRepository();
+        repo.guardar(new PeliculaProyeccion("1", "Matrix", new java.math.BigDecimal("1000.0"), true, 1L));
+        var handler = new MovieEventHandler(repo);
+        var lote = List.of(
+                evento("evt-3", 1L, "Matrix v3", 3L),
+                evento("evt-2", 1L, "Matrix v2", 2L),
+                evento("evt-5", 1L, "Matrix v5", 5L),
+                evento("evt-9", 9L, "Alien", 0L));
+
+        // Ejercitación: Ejecutar la acción a probar
+        var resultado = handler.handleLote(lote);
+
+        // Verificación: Verificar el resultado esperado
+        assertEquals(3, resultado.aplicados(), "Se aplican v2, v3 y la alta de la otra película");
+        assertEquals(1, repo.guardadasEnLote, "El lote debe persistirse con una sola escritura");
+        assertEquals(3L, repo.buscarPorMovieId("1").get().version(), "Debe quedar la última versión contigua");
+        assertEquals("Matrix v3", repo.buscarPorMovieId("1").get().titulo());
+        assertEquals(1L, repo.buscarPorMovieId("9").get().version(), "La alta con versión 0 se normaliza a 1");
+        assertEquals(List.of("evt-5"), resultado.fueraDeSecuencia().stream().map(MovieEventEnvelope::eventId).toList(),
+                "La versión con hueco se devuelve para retenerla");
+    }
+
+    private MovieEventEnvelope evento(String eventId, Long movieId, String titulo, long version) {
+        return new MovieEventEnvelope(eventId, "MovieUpdated.v1", java.time.Instant.now(),
+                new MovieEventPayload(movieId, titulo, 1000.0, true, version));
+    }
+
     private static class InMemoryPeliculaProyeccionRepository implements PeliculaProyeccionRepository {
         private final Map<String, PeliculaProyeccion> data = new ConcurrentHashMap<>();
+        private int guardadasEnLote;
 
         @Override
         public Optional<PeliculaProyeccion> buscarPorMovieId(String movieId) {
@@ -124,6 +158,20 @@ class MovieEventHandlerTest {
             data.put(proyeccion.movieId(), proyeccion);
         }
 
+        @Override
+        public Map<String, PeliculaProyeccion> buscarPorMovieIds(Collection<String> movieIds) {
+            Map<String, PeliculaProyeccion> encontradas = new HashMap<>();
+            movieIds.forEach(movieId -> buscarPorMovieId(movieId)
+                    .ifPresent(proyeccion -> encontradas.put(movieId, proyeccion)));
+            return encontradas;
+        }
+
+        @Override
+        public void guardarTodas(List<PeliculaProyeccion> proyecciones) {
+            guardadasEnLote++;
+            proyecciones.forEach(this::guardar);
+        }
+
         @Override
         public List<PeliculaProyeccion> buscarTodas() {
             return List.copyOf(data.values());
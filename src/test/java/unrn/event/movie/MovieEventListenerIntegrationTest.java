@@ -1,30 +1,59 @@
 package unrn.event.movie;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rabbitmq.client.Channel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import unrn.config.RabbitRetryTiers;
+import unrn.inbox.InboxEventService;
 import unrn.model.PeliculaProyeccion;
 import unrn.repository.PeliculaProyeccionRepository;
+import unrn.service.ProjectionBootstrapService;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 class MovieEventListenerIntegrationTest {
 
+    private static final String COLA = "ventas.movie.queue";
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().findAndRegisterModules();
+
     @Test
-    @DisplayName("Consumo de eventos con version invalida no bloquea y permite seguir procesando")
-    void consumoEventos_conVersionInvalidaNoBloquea_permiteSeguirProcesando() {
+    @DisplayName("Consumo de eventos fuera de orden retiene el adelantado y lo aplica al llegar la versión faltante")
+    void consumoEventos_fueraDeOrden_retieneYAplicaAlCompletarseLaSecuencia() {
         // Setup: Preparar el escenario
         var repo = new InMemoryPeliculaProyeccionRepository();
         var handler = new MovieEventHandler(repo);
-        var listener = new MovieEventListener(handler);
+        var meterRegistry = new SimpleMeterRegistry();
+        var listener = new MovieEventListener(handler, new MovieEventReorderBuffer(10, 60000, meterRegistry),
+                mock(ProjectionBootstrapService.class), new MovieEventPartitionedExecutor(2, meterRegistry),
+                mock(RabbitRetryTiers.class), mock(InboxEventService.class), OBJECT_MAPPER, COLA, 0L);
 
         var createdV0 = new MovieEventEnvelope(
                 "evt-1",
@@ -36,7 +65,7 @@ class MovieEventListenerIntegrationTest {
                 "evt-2",
                 "MovieUpdated.v1",
                 Instant.now(),
-                new MovieEventPayload(1L, "Matrix Reloaded", 1100.0, true, 3L));
+                new MovieEventPayload(1L, "Matrix Revolutions", 1200.0, true, 3L));
 
         var updateV2 = new MovieEventEnvelope(
                 "evt-3",
@@ -52,9 +81,219 @@ class MovieEventListenerIntegrationTest {
         // Verificación: Verificar el resultado esperado
         var proyeccion = repo.buscarPorMovieId("1");
         assertTrue(proyeccion.isPresent(), "La proyección debe existir luego de consumir eventos");
-        assertEquals(2L, proyeccion.get().version(), "Debe aplicar el evento válido posterior al rechazado");
-        assertEquals("Matrix Reloaded", proyeccion.get().titulo(), "Debe quedar la versión más reciente aplicable");
-        assertEquals(new BigDecimal("1100.0"), proyeccion.get().precioActual(), "El precio debe quedar actualizado");
+        assertEquals(3L, proyeccion.get().version(), "El evento retenido debe aplicarse tras la versión faltante");
+        assertEquals("Matrix Revolutions", proyeccion.get().titulo(), "Debe quedar la versión más reciente");
+        assertEquals(new BigDecimal("1200.0"), proyeccion.get().precioActual(), "El precio debe quedar actualizado");
+        assertEquals(1.0, meterRegistry.get("ventas.movie.events.applied.late.total").counter().count(),
+                "Debe contabilizarse el evento aplicado tarde");
+    }
+
+    @Test
+    @DisplayName("Consumo de eventos con buffer desbordado resincroniza solo esa película")
+    void consumoEventos_bufferDesbordado_resincronizaSoloEsaPelicula() {
+        // Setup: Preparar el escenario
+        var repo = new InMemoryPeliculaProyeccionRepository();
+        var projectionBootstrapService = mock(ProjectionBootstrapService.class);
+        var listener = new MovieEventListener(new MovieEventHandler(repo),
+                new MovieEventReorderBuffer(1, 60000, new SimpleMeterRegistry()), projectionBootstrapService,
+                new MovieEventPartitionedExecutor(2, new SimpleMeterRegistry()),
+                mock(RabbitRetryTiers.class), mock(InboxEventService.class), OBJECT_MAPPER, COLA, 0L);
+        listener.onMovieEvent(new MovieEventEnvelope("evt-1", "MovieCreated.v1", Instant.now(),
+                new MovieEventPayload(7L, "Alien", 900.0, true, 1L)));
+
+        // Ejercitación: Ejecutar la acción a probar
+        listener.onMovieEvent(new MovieEventEnvelope("evt-2", "MovieUpdated.v1", Instant.now(),
+                new MovieEventPayload(7L, "Alien", 950.0, true, 3L)));
+        listener.onMovieEvent(new MovieEventEnvelope("evt-3", "MovieUpdated.v1", Instant.now(),
+                new MovieEventPayload(7L, "Alien", 990.0, true, 4L)));
+
+        // Verificación: Verificar el resultado esperado
+        verify(projectionBootstrapService).resincronizarPelicula(7L);
+        assertEquals(1L, repo.buscarPorMovieId("7").get().version(), "Sin la versión 2 no se aplica nada retenido");
+    }
+
+    @Test
+    @DisplayName("Consumir evento confirma el mensaje recién cuando el carril de la película lo aplicó")
+    void consumirMovieEvent_eventoValido_confirmaLuegoDeAplicar() throws Exception {
+        // Setup: Preparar el escenario
+        var repo = new InMemoryPeliculaProyeccionRepository();
+        var meterRegistry = new SimpleMeterRegistry();
+        var listener = new MovieEventListener(new MovieEventHandler(repo),
+                new MovieEventReorderBuffer(10, 60000, meterRegistry), mock(ProjectionBootstrapService.class),
+                new MovieEventPartitionedExecutor(2, meterRegistry),
+                mock(RabbitRetryTiers.class), mock(InboxEventService.class), OBJECT_MAPPER, COLA, 0L);
+        var properties = new MessageProperties();
+        properties.setDeliveryTag(17L);
+        var channel = mock(Channel.class);
+
+        // Ejercitación: Ejecutar la acción a probar
+        listener.consumirMovieEvent(new MovieEventEnvelope("evt-1", "MovieCreated.v1", Instant.now(),
+                new MovieEventPayload(3L, "Dune", 1500.0, true, 1L)), new Message(new byte[0], properties), channel);
+
+        // Verificación: Verificar el resultado esperado
+        verify(channel, timeout(2000)).basicAck(17L, false);
+        assertEquals(1L, repo.buscarPorMovieId("3").get().version(), "El ack debe llegar después de aplicar el evento");
+    }
+
+    @Test
+    @DisplayName("Consumir evento con fallo al aplicar lo deriva al nivel de reintento y confirma la entrega")
+    void consumirMovieEvent_falloAlAplicar_derivaANivelDeReintentoYConfirma() throws Exception {
+        // Setup: Preparar el escenario
+        var repo = mock(PeliculaProyeccionRepository.class);
+        when(repo.buscarPorMovieId("4")).thenThrow(new RuntimeException("base caída"));
+        var meterRegistry = new SimpleMeterRegistry();
+        var rabbitRetryTiers = mock(RabbitRetryTiers.class);
+        when(rabbitRetryTiers.cantidadReintentos(any())).thenReturn(2L);
+        when(rabbitRetryTiers.reintentar(anyString(), anyString(), any(), anyLong())).thenReturn(true);
+        var listener = new MovieEventListener(new MovieEventHandler(repo),
+                new MovieEventReorderBuffer(10, 60000, meterRegistry), mock(ProjectionBootstrapService.class),
+                new MovieEventPartitionedExecutor(2, meterRegistry), rabbitRetryTiers,
+                mock(InboxEventService.class), OBJECT_MAPPER, COLA, 0L);
+        var properties = new MessageProperties();
+        properties.setDeliveryTag(18L);
+        var message = new Message(new byte[0], properties);
+        var channel = mock(Channel.class);
+
+        // Ejercitación: Ejecutar la acción a probar
+        listener.consumirMovieEvent(new MovieEventEnvelope("evt-1", "MovieUpdated.v1", Instant.now(),
+                new MovieEventPayload(4L, "Heat", 1300.0, true, 2L)), message, channel);
+
+        // Verificación: Verificar el resultado esperado
+        verify(channel, timeout(2000)).basicAck(18L, false);
+        verify(rabbitRetryTiers).reintentar("movie-events", COLA, message, 2L);
+        verify(channel, never()).basicNack(anyLong(), anyBoolean(), anyBoolean());
+    }
+
+    @Test
+    @DisplayName("Consumir evento con fallo y copia de reintento sin confirm reencola la entrega tras una demora")
+    void consumirMovieEvent_copiaDeReintentoSinConfirm_reencolaEntregaConDemora() throws Exception {
+        // Setup: el handler falla y el broker no confirma la copia en el nivel de reintento
+        var repo = mock(PeliculaProyeccionRepository.class);
+        when(repo.buscarPorMovieId("5")).thenThrow(new RuntimeException("base caída"));
+        var meterRegistry = new SimpleMeterRegistry();
+        var rabbitRetryTiers = mock(RabbitRetryTiers.class);
+        when(rabbitRetryTiers.reintentar(anyString(), anyString(), any(), anyLong())).thenReturn(false);
+        var listener = new MovieEventListener(new MovieEventHandler(repo),
+                new MovieEventReorderBuffer(10, 60000, meterRegistry), mock(ProjectionBootstrapService.class),
+                new MovieEventPartitionedExecutor(2, meterRegistry), rabbitRetryTiers,
+                mock(InboxEventService.class), OBJECT_MAPPER, COLA, 400L);
+        var properties = new MessageProperties();
+        properties.setDeliveryTag(19L);
+        var message = new Message(new byte[0], properties);
+        var channel = mock(Channel.class);
+        var nackEn = new AtomicLong();
+        doAnswer(inv -> {
+            nackEn.set(System.nanoTime());
+            return null;
+        }).when(channel).basicNack(anyLong(), anyBoolean(), anyBoolean());
+        long inicio = System.nanoTime();
+
+        // Ejercitación: Ejecutar la acción a probar
+        listener.consumirMovieEvent(new MovieEventEnvelope("evt-2", "MovieUpdated.v1", Instant.now(),
+                new MovieEventPayload(5L, "Ronin", 1100.0, true, 2L)), message, channel);
+
+        // Verificación: la entrega vuelve a la cola, pero no al instante (la cola de movies no tiene DLX que demore)
+        verify(channel, timeout(2000)).basicNack(19L, false, true);
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(nackEn.get() - inicio) >= 400,
+                "El nack con requeue espera la demora configurada");
+        verify(channel, never()).basicAck(anyLong(), anyBoolean());
+    }
+
+    @Test
+    @DisplayName("Consumir lote con evento que siempre falla lo deriva a reintento y aplica el resto")
+    void consumirLote_eventoQueSiempreFalla_loDerivaAReintentoYAplicaElResto() throws Exception {
+        // Setup: la película 7 falla siempre al aplicarse; comparte partición con la 8
+        var repo = new InMemoryPeliculaProyeccionRepository() {
+            @Override
+            public Optional<PeliculaProyeccion> buscarPorMovieId(String movieId) {
+                if ("7".equals(movieId)) {
+                    throw new RuntimeException("fila corrupta");
+                }
+                return super.buscarPorMovieId(movieId);
+            }
+
+            @Override
+            public Map<String, PeliculaProyeccion> buscarPorMovieIds(Collection<String> movieIds) {
+                if (movieIds.contains("7")) {
+                    throw new RuntimeException("fila corrupta");
+                }
+                return super.buscarPorMovieIds(movieIds);
+            }
+        };
+        var meterRegistry = new SimpleMeterRegistry();
+        var rabbitRetryTiers = mock(RabbitRetryTiers.class);
+        when(rabbitRetryTiers.reintentar(anyString(), anyString(), any(), anyLong())).thenReturn(true);
+        var listener = new MovieEventListener(new MovieEventHandler(repo),
+                new MovieEventReorderBuffer(10, 60000, meterRegistry), mock(ProjectionBootstrapService.class),
+                new MovieEventPartitionedExecutor(1, meterRegistry), rabbitRetryTiers,
+                mock(InboxEventService.class), OBJECT_MAPPER, COLA, 0L);
+        var venenoso = mensajeJson(new MovieEventEnvelope("evt-7", "MovieCreated.v1", Instant.now(),
+                new MovieEventPayload(7L, "Alien", 900.0, true, 0L)), 30L);
+        var sano = mensajeJson(new MovieEventEnvelope("evt-8", "MovieCreated.v1", Instant.now(),
+                new MovieEventPayload(8L, "Aliens", 950.0, true, 0L)), 31L);
+        var channel = mock(Channel.class);
+
+        // Ejercitación: Ejecutar la acción a probar
+        listener.onMovieEventLote(List.of(venenoso, sano), channel);
+
+        // Verificación: el lote no vuelve entero a la cola; solo el venenoso pasa por los niveles de reintento
+        verify(rabbitRetryTiers).reintentar("movie-events", COLA, venenoso, 0L);
+        verify(rabbitRetryTiers, never()).reintentar(anyString(), anyString(), eq(sano), anyLong());
+        verify(channel).basicAck(30L, false);
+        verify(channel).basicAck(31L, false);
+        verify(channel, never()).basicNack(anyLong(), anyBoolean(), anyBoolean());
+        assertTrue(repo.buscarPorMovieId("8").isPresent(), "La película sana debe quedar proyectada");
+    }
+
+    @Test
+    @DisplayName("Consumir lote con el tag más alto en la partición fallida confirma con multiple solo hasta el último aplicado")
+    void consumirLote_tagMasAltoEnParticionFallida_ackeaMultipleHastaUltimoAplicado() throws Exception {
+        // Setup: dos particiones; la película 7 (partición 1) falla siempre y llega con el tag más alto
+        var repo = new InMemoryPeliculaProyeccionRepository() {
+            @Override
+            public Optional<PeliculaProyeccion> buscarPorMovieId(String movieId) {
+                if ("7".equals(movieId)) {
+                    throw new RuntimeException("fila corrupta");
+                }
+                return super.buscarPorMovieId(movieId);
+            }
+
+            @Override
+            public Map<String, PeliculaProyeccion> buscarPorMovieIds(Collection<String> movieIds) {
+                if (movieIds.contains("7")) {
+                    throw new RuntimeException("fila corrupta");
+                }
+                return super.buscarPorMovieIds(movieIds);
+            }
+        };
+        var meterRegistry = new SimpleMeterRegistry();
+        var rabbitRetryTiers = mock(RabbitRetryTiers.class);
+        when(rabbitRetryTiers.reintentar(anyString(), anyString(), any(), anyLong())).thenReturn(true);
+        var executor = new MovieEventPartitionedExecutor(2, meterRegistry);
+        var listener = new MovieEventListener(new MovieEventHandler(repo),
+                new MovieEventReorderBuffer(10, 60000, meterRegistry), mock(ProjectionBootstrapService.class),
+                executor, rabbitRetryTiers, mock(InboxEventService.class), OBJECT_MAPPER, COLA, 0L);
+        assertTrue(executor.particion("7") != executor.particion("8"), "Las películas deben caer en particiones distintas");
+        var sano = mensajeJson(new MovieEventEnvelope("evt-8", "MovieCreated.v1", Instant.now(),
+                new MovieEventPayload(8L, "Aliens", 950.0, true, 0L)), 40L);
+        var venenoso = mensajeJson(new MovieEventEnvelope("evt-7", "MovieCreated.v1", Instant.now(),
+                new MovieEventPayload(7L, "Alien", 900.0, true, 0L)), 41L);
+        var channel = mock(Channel.class);
+
+        // Ejercitación: Ejecutar la acción a probar
+        listener.onMovieEventLote(List.of(sano, venenoso), channel);
+
+        // Verificación: el 41 ya quedó resuelto de a uno y el ack múltiple no lo vuelve a incluir
+        verify(channel).basicAck(41L, false);
+        verify(channel).basicAck(40L, true);
+        verify(channel, never()).basicAck(41L, true);
+        assertTrue(repo.buscarPorMovieId("8").isPresent(), "La película sana debe quedar proyectada");
+    }
+
+    private Message mensajeJson(MovieEventEnvelope envelope, long deliveryTag) throws Exception {
+        var properties = new MessageProperties();
+        properties.setDeliveryTag(deliveryTag);
+        return new Message(OBJECT_MAPPER.writeValueAsBytes(envelope), properties);
     }
 
     private static class InMemoryPeliculaProyeccionRepository implements PeliculaProyeccionRepository {
@@ -70,6 +309,19 @@ class MovieEventListenerIntegrationTest {
             data.put(proyeccion.movieId(), proyeccion);
         }
 
+        @Override
+        public Map<String, PeliculaProyeccion> buscarPorMovieIds(Collection<String> movieIds) {
+            Map<String, PeliculaProyeccion> encontradas = new HashMap<>();
+            movieIds.forEach(movieId -> buscarPorMovieId(movieId)
+                    .ifPresent(proyeccion -> encontradas.put(movieId, proyeccion)));
+            return encontradas;
+        }
+
+        @Override
+        public void guardarTodas(List<PeliculaProyeccion> proyecciones) {
+            proyecciones.forEach(this::guardar);
+        }
+
         @Override
         public List<PeliculaProyeccion> buscarTodas() {
             return List.copyOf(data.values());
@@ -0,0 +1,76 @@
+package unrn.event.movie;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MovieEventPartitionedExecutorTest {
+
+    @Test
+    @DisplayName("Ejecutar tareas de una misma película las aplica en orden de llegada")
+    void ejecutar_mismaPelicula_aplicaEnOrdenDeLlegada() throws Exception {
+        // Setup: Preparar el escenario
+        var executor = new MovieEventPartitionedExecutor(4, new SimpleMeterRegistry());
+        List<Integer> aplicadas = Collections.synchronizedList(new ArrayList<>());
+        List<CompletableFuture<Void>> pendientes = new ArrayList<>();
+
+        // Ejercitación: Ejecutar la acción a probar
+        for (int version = 1; version <= 200; version++) {
+            int actual = version;
+            pendientes.add(executor.ejecutar("42", () -> aplicadas.add(actual)));
+        }
+        CompletableFuture.allOf(pendientes.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+        // Verificación: Verificar el resultado esperado
+        for (int i = 0; i < aplicadas.size(); i++) {
+            assertEquals(i + 1, aplicadas.get(i), "Las versiones de una película no deben reordenarse");
+        }
+        executor.destroy();
+    }
+
+    @Test
+    @DisplayName("Ejecutar con una película bloqueada no frena a películas de otra partición")
+    void ejecutar_peliculaBloqueada_noFrenaOtraParticion() throws Exception {
+        // Setup: Preparar el escenario
+        var executor = new MovieEventPartitionedExecutor(4, new SimpleMeterRegistry());
+        String bloqueada = "1";
+        String otra = "2";
+        assertNotEquals(executor.particion(bloqueada), executor.particion(otra));
+        var liberar = new CountDownLatch(1);
+        executor.ejecutar(bloqueada, () -> {
+            try {
+                liberar.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        // Ejercitación: Ejecutar la acción a probar
+        var otraTarea = executor.ejecutar(otra, () -> {
+        });
+
+        // Verificación: Verificar el resultado esperado
+        assertDoesNotThrow(() -> otraTarea.get(2, TimeUnit.SECONDS), "Otra película debe avanzar en paralelo");
+        liberar.countDown();
+        executor.destroy();
+    }
+
+    @Test
+    @DisplayName("Constructor con cero particiones lanza excepción")
+    void constructor_ceroParticiones_lanzaExcepcion() {
+        // Ejercitación: Ejecutar la acción a probar
+        var ex = assertThrows(RuntimeException.class, () -> new MovieEventPartitionedExecutor(0, new SimpleMeterRegistry()));
+
+        // Verificación: Verificar el resultado esperado
+        assertEquals(MovieEventPartitionedExecutor.ERROR_PARTICIONES_INVALIDAS, ex.getMessage());
+    }
+}
@@ -0,0 +1,88 @@
+package unrn.event.movie;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MovieEventReorderBufferTest {
+
+    private static final Instant AHORA = Instant.parse("2026-10-18T10:00:00Z");
+
+    @Test
+    @DisplayName("ExtraerSiguiente con eventos retenidos devuelve la menor versión primero")
+    void extraerSiguiente_eventosRetenidos_devuelveMenorVersion() {
+        // Setup: Preparar el escenario
+        var buffer = new MovieEventReorderBuffer(10, 30000, new SimpleMeterRegistry(), reloj(AHORA));
+        buffer.retener("1", evento(1L, 5L));
+        buffer.retener("1", evento(1L, 3L));
+
+        // Ejercitación: Ejecutar la acción a probar
+        var siguiente = buffer.extraerSiguiente("1");
+
+        // Verificación: Verificar el resultado esperado
+        assertEquals(3L, siguiente.get().envelope().payload().version(), "Debe aplicarse primero la menor versión");
+        assertEquals(1, buffer.tamanio());
+    }
+
+    @Test
+    @DisplayName("Retener superando el máximo por película descarta sus eventos y pide resincronizar")
+    void retener_superaMaximoPorPelicula_descartaYPideResincronizar() {
+        // Setup: Preparar el escenario
+        var buffer = new MovieEventReorderBuffer(2, 30000, new SimpleMeterRegistry(), reloj(AHORA));
+        buffer.retener("1", evento(1L, 3L));
+        buffer.retener("1", evento(1L, 4L));
+
+        // Ejercitación: Ejecutar la acción a probar
+        boolean aceptado = buffer.retener("1", evento(1L, 5L));
+
+        // Verificación: Verificar el resultado esperado
+        assertFalse(aceptado, "El desborde debe informarse para resincronizar la película");
+        assertEquals(0, buffer.tamanio(), "Los eventos de la película desbordada se descartan");
+    }
+
+    @Test
+    @DisplayName("ExpirarVencidos con hueco más viejo que el máximo devuelve la película y cuenta expirados")
+    void expirarVencidos_huecoVencido_devuelvePeliculaYCuentaExpirados() {
+        // Setup: Preparar el escenario
+        var meterRegistry = new SimpleMeterRegistry();
+        var buffer = new MovieEventReorderBuffer(10, 30000, meterRegistry, reloj(AHORA));
+        buffer.devolver("1", new MovieEventReorderBuffer.Retenido(evento(1L, 3L), AHORA.minus(Duration.ofMinutes(1))));
+        buffer.retener("2", evento(2L, 8L));
+
+        // Ejercitación: Ejecutar la acción a probar
+        Set<String> vencidas = buffer.expirarVencidos();
+
+        // Verificación: Verificar el resultado esperado
+        assertEquals(Set.of("1"), vencidas, "Solo vence la película cuyo hueco superó max-age");
+        assertEquals(1.0, meterRegistry.get("ventas.movie.events.expired.total").counter().count());
+        assertEquals(1, buffer.tamanio());
+    }
+
+    @Test
+    @DisplayName("Constructor con límites en cero lanza excepción")
+    void constructor_limitesEnCero_lanzaExcepcion() {
+        // Ejercitación: Ejecutar la acción a probar
+        var ex = assertThrows(RuntimeException.class,
+                () -> new MovieEventReorderBuffer(0, 30000, new SimpleMeterRegistry(), reloj(AHORA)));
+
+        // Verificación: Verificar el resultado esperado
+        assertEquals(MovieEventReorderBuffer.ERROR_LIMITES_INVALIDOS, ex.getMessage());
+    }
+
+    private Clock reloj(Instant instante) {
+        return Clock.fixed(instante, ZoneOffset.UTC);
+    }
+
+    private MovieEventEnvelope evento(Long movieId, long version) {
+        return new MovieEventEnvelope("evt-" + movieId + "-" + version, "MovieUpdated.v1", AHORA,
+                new MovieEventPayload(movieId, "Matrix", 1000.0, true, version));
+    }
+}
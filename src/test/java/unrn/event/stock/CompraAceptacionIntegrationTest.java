@@ -200,4 +200,47 @@ class CompraAceptacionIntegrationTest {
         assertEquals(1, aceptadoProcesado,
                 "El evento accepted debe marcarse procesado para evitar reintentos infinitos");
     }
+
+    @Test
+    @DisplayName("AceptarLote variasCompras confirmaEnUnaTransaccion yDevuelveLosFallidos")
+    void aceptarLote_variasCompras_confirmaEnUnaTransaccionYDevuelveLosFallidos() throws Exception {
+        // Setup: dos compras pendientes, un evento duplicado y otro de una compra inexistente
+        Long primera = crearCompraPendiente("cliente-lote-1");
+        Long segunda = crearCompraPendiente("cliente-lote-2");
+        var aceptarPrimera = new StockValidationAcceptedEvent(UUID.randomUUID().toString(), primera, Instant.now());
+        var aceptarSegunda = new StockValidationAcceptedEvent(UUID.randomUUID().toString(), segunda, Instant.now());
+        var inexistente = new StockValidationAcceptedEvent(UUID.randomUUID().toString(), 9999L, Instant.now());
+
+        // Ejercitación: aplicar el lote con el primer evento repetido
+        var fallidos = compraAceptacionService.aceptarLote(
+                java.util.List.of(aceptarPrimera, aceptarSegunda, aceptarPrimera, inexistente));
+
+        // Verificación: ambas compras confirmadas, un solo outbox por compra y el inexistente devuelto
+        assertEquals(java.util.Set.of(inexistente.eventId()), fallidos,
+                "La compra inexistente debe devolverse para reprocesarse de a uno");
+        Integer confirmadas = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM compra WHERE estado = 'CONFIRMADA'", Integer.class);
+        assertEquals(2, confirmadas, "Ambas compras del lote deben quedar confirmadas");
+        Integer outboxCount = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM outbox_event WHERE event_type='CompraConfirmadaEvent'", Integer.class);
+        assertEquals(2, outboxCount, "El evento duplicado dentro del lote no debe registrar otra confirmación");
+        Integer procesados = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM processed_events", Integer.class);
+        assertEquals(2, procesados, "Solo los eventos aplicados se marcan procesados");
+    }
+
+    private Long crearCompraPendiente(String clienteId) throws Exception {
+        Carrito carrito = new Carrito();
+        carrito.agregarPelicula("1", "Matrix", new BigDecimal("100.00"), 1);
+        carritoRepository.guardar(clienteId, carrito);
+
+        String response = mockMvc.perform(post("/api/carrito/confirmar")
+                .header("X-Cliente-Id", clienteId)
+                .contentType(APPLICATION_JSON)
+                .content("{}"))
+                .andExpect(status().isCreated())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        return objectMapper.readTree(response).get("compraId").asLong();
+    }
 }
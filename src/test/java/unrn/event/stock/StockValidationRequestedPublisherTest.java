@@ -2,14 +2,22 @@ package unrn.event.stock;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
 import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.core.MessageProperties;
 import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import org.mockito.ArgumentCaptor;
+
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.same;
@@ -41,4 +49,26 @@ class StockValidationRequestedPublisherTest {
                 same(event),
                 any(MessagePostProcessor.class));
     }
+
+    @Test
+    @DisplayName("EnviarPayload envía los bytes almacenados con headers de Jackson2JsonMessageConverter")
+    void enviarPayload_bytesAlmacenados_conContentTypeYTypeId() {
+        RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+        StockValidationRequestedPublisher publisher = new StockValidationRequestedPublisher(
+                rabbitTemplate,
+                new TopicExchange("ventas.events", true, false));
+        ReflectionTestUtils.setField(publisher, "routingKey", "catalogo.stock.validation.requested");
+        byte[] payload = "{\"eventId\":\"event-1\"}".getBytes(StandardCharsets.UTF_8);
+
+        publisher.enviarPayload("event-1", payload);
+
+        ArgumentCaptor<Message> mensaje = ArgumentCaptor.forClass(Message.class);
+        verify(rabbitTemplate).send(eq("ventas.events"), eq("catalogo.stock.validation.requested"),
+                mensaje.capture(), any(CorrelationData.class));
+        MessageProperties properties = mensaje.getValue().getMessageProperties();
+        assertArrayEquals(payload, mensaje.getValue().getBody());
+        assertEquals(MessageProperties.CONTENT_TYPE_JSON, properties.getContentType());
+        assertEquals(StockValidationRequestedEvent.class.getName(), properties.getHeader("__TypeId__"));
+        assertEquals("event-1", properties.getHeader("x-event-id"));
+    }
 }
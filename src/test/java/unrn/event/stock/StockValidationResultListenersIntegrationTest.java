@@ -1,9 +1,12 @@
 package unrn.event.stock;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.rabbitmq.client.Channel;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.Mockito;
+import org.springframework.amqp.AmqpConnectException;
 import org.springframework.amqp.core.Message;
 import org.springframework.amqp.core.MessageProperties;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,13 +14,17 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import unrn.config.RabbitRetryTiers;
 import unrn.service.CompraAceptacionService;
 import unrn.service.CompraCompensacionService;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -35,12 +42,18 @@ class StockValidationResultListenersIntegrationTest {
     @Autowired
     private StockRechazadoListener stockRechazadoListener;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @MockitoBean
     private CompraAceptacionService compraAceptacionService;
 
     @MockitoBean
     private CompraCompensacionService compraCompensacionService;
 
+    @MockitoBean
+    private RabbitRetryTiers rabbitRetryTiers;
+
     @Test
     @DisplayName("StockValidationAcceptedListener eventoValido delegaServicio yAckeaMensaje")
     void stockValidationAcceptedListener_eventoValido_delegaServicioYAckeaMensaje() throws Exception {
@@ -80,6 +93,124 @@ class StockValidationResultListenersIntegrationTest {
         verify(channel, times(1)).basicAck(2L, false);
     }
 
+    @Test
+    @DisplayName("StockValidationAcceptedListener loteConUnFallido reprocesaSoloElFallido yAckeaElRestoConMultiple")
+    void stockValidationAcceptedListener_loteConUnFallido_reprocesaSoloElFallidoYAckeaConMultiple() throws Exception {
+        // Setup: tres entregas, el servicio por lotes no puede aplicar la segunda
+        var primero = new StockValidationAcceptedEvent(UUID.randomUUID().toString(), 20L, Instant.now());
+        var segundo = new StockValidationAcceptedEvent(UUID.randomUUID().toString(), 21L, Instant.now());
+        var tercero = new StockValidationAcceptedEvent(UUID.randomUUID().toString(), 22L, Instant.now());
+        Mockito.when(compraAceptacionService.aceptarLote(List.of(primero, segundo, tercero)))
+                .thenReturn(Set.of(segundo.eventId()));
+        Channel channel = Mockito.mock(Channel.class);
+
+        // Ejercitación: ejecutar listener por lotes
+        stockValidationAcceptedListener.onStockValidationAcceptedLote(List.of(
+                mensajeJson(primero, 5L), mensajeJson(segundo, 6L), mensajeJson(tercero, 7L)), channel);
+
+        // Verificación: el fallido va por el camino individual y el resto se confirma de una vez
+        InOrder orden = Mockito.inOrder(compraAceptacionService, channel);
+        orden.verify(compraAceptacionService).aceptar(segundo);
+        orden.verify(channel).basicAck(6L, false);
+        orden.verify(channel).basicAck(7L, true);
+        verify(compraAceptacionService, never()).aceptar(primero);
+    }
+
+    @Test
+    @DisplayName("StockValidationAcceptedListener loteConUltimaEntregaFallida ackeaConMultipleSoloHastaElUltimoAplicado")
+    void stockValidationAcceptedListener_ultimaEntregaFallida_ackeaMultipleHastaUltimoAplicado() throws Exception {
+        // Setup: tres entregas, el servicio por lotes no puede aplicar la última
+        var primero = new StockValidationAcceptedEvent(UUID.randomUUID().toString(), 23L, Instant.now());
+        var segundo = new StockValidationAcceptedEvent(UUID.randomUUID().toString(), 24L, Instant.now());
+        var tercero = new StockValidationAcceptedEvent(UUID.randomUUID().toString(), 25L, Instant.now());
+        Mockito.when(compraAceptacionService.aceptarLote(List.of(primero, segundo, tercero)))
+                .thenReturn(Set.of(tercero.eventId()));
+        Channel channel = Mockito.mock(Channel.class);
+
+        // Ejercitación: ejecutar listener por lotes
+        stockValidationAcceptedListener.onStockValidationAcceptedLote(List.of(
+                mensajeJson(primero, 12L), mensajeJson(segundo, 13L), mensajeJson(tercero, 14L)), channel);
+
+        // Verificación: el tag 14 ya quedó resuelto de a uno, el ack múltiple no debe volver a incluirlo
+        InOrder orden = Mockito.inOrder(compraAceptacionService, channel);
+        orden.verify(compraAceptacionService).aceptar(tercero);
+        orden.verify(channel).basicAck(14L, false);
+        orden.verify(channel).basicAck(13L, true);
+        verify(channel, never()).basicAck(14L, true);
+    }
+
+    @Test
+    @DisplayName("StockRechazadoListener loteConMensajeMalformado loEnviaAReintento yAckeaElRestoConMultiple")
+    void stockRechazadoListener_loteConMensajeMalformado_loEnviaAReintentoYAckeaConMultiple() throws Exception {
+        // Setup: una entrega válida y otra con cuerpo ilegible
+        var valido = new StockRechazadoEvent(UUID.randomUUID().toString(), 30L, "STOCK_INSUFICIENTE",
+                List.of(new StockRechazadoEvent.DetalleStockRechazado(1L, 2, "0")));
+        Mockito.when(compraCompensacionService.compensarLote(List.of(valido))).thenReturn(Set.of());
+        Channel channel = Mockito.mock(Channel.class);
+        MessageProperties properties = new MessageProperties();
+        properties.setDeliveryTag(8L);
+        Message malformado = new Message("{no-json".getBytes(StandardCharsets.UTF_8), properties);
+        Mockito.when(rabbitRetryTiers.reintentar("stock-rechazado", "ventas.stock.rechazado.queue", malformado, 0L))
+                .thenReturn(true);
+
+        // Ejercitación: ejecutar listener por lotes
+        stockRechazadoListener.onStockRechazadoLote(List.of(malformado, mensajeJson(valido, 9L)), channel);
+
+        // Verificación: el malformado pasa al primer nivel de reintento y el válido se confirma con multiple
+        verify(rabbitRetryTiers).reintentar("stock-rechazado", "ventas.stock.rechazado.queue", malformado, 0L);
+        verify(channel).basicAck(8L, false);
+        verify(channel).basicAck(9L, true);
+        verify(compraCompensacionService, never()).compensar(Mockito.any());
+    }
+
+    @Test
+    @DisplayName("StockValidationAcceptedListener nivelDeReintentoNoDisponible rechazaHaciaLaColaDeRetryFija")
+    void stockValidationAcceptedListener_nivelDeReintentoNoDisponible_rechazaHaciaColaDeRetryFija() throws Exception {
+        // Setup: el servicio falla y no se puede publicar en el nivel de reintento
+        var event = new StockValidationAcceptedEvent(UUID.randomUUID().toString(), 40L, Instant.now());
+        Mockito.doThrow(new RuntimeException("base caída")).when(compraAceptacionService).aceptar(event);
+        Message message = mensajeConDeliveryTag(10L);
+        Mockito.when(rabbitRetryTiers.cantidadReintentos(message)).thenReturn(1L);
+        Mockito.doThrow(new AmqpConnectException(new RuntimeException("broker caído")))
+                .when(rabbitRetryTiers).reintentar("stock-validation-accepted",
+                        "ventas.stock.validation.accepted.queue", message, 1L);
+        Channel channel = Mockito.mock(Channel.class);
+
+        // Ejercitación: ejecutar listener
+        stockValidationAcceptedListener.onStockValidationAccepted(event, message, channel);
+
+        // Verificación: la entrega se rechaza sin requeue para que la tome la cola de retry fija
+        verify(channel).basicNack(10L, false, false);
+        verify(channel, never()).basicAck(10L, false);
+    }
+
+    @Test
+    @DisplayName("StockValidationAcceptedListener copiaDeReintentoSinConfirm rechazaHaciaLaColaDeRetryFija")
+    void stockValidationAcceptedListener_copiaDeReintentoSinConfirm_rechazaHaciaColaDeRetryFija() throws Exception {
+        // Setup: el servicio falla y el broker rechaza la copia publicada en el nivel de reintento
+        var event = new StockValidationAcceptedEvent(UUID.randomUUID().toString(), 41L, Instant.now());
+        Mockito.doThrow(new RuntimeException("base caída")).when(compraAceptacionService).aceptar(event);
+        Message message = mensajeConDeliveryTag(11L);
+        Mockito.when(rabbitRetryTiers.cantidadReintentos(message)).thenReturn(0L);
+        Mockito.when(rabbitRetryTiers.reintentar("stock-validation-accepted",
+                "ventas.stock.validation.accepted.queue", message, 0L)).thenReturn(false);
+        Channel channel = Mockito.mock(Channel.class);
+
+        // Ejercitación: ejecutar listener
+        stockValidationAcceptedListener.onStockValidationAccepted(event, message, channel);
+
+        // Verificación: sin requeue, para que la demora la ponga la cola de retry fija y no haya un loop en caliente
+        verify(channel).basicNack(11L, false, false);
+        verify(channel, never()).basicNack(11L, false, true);
+        verify(channel, never()).basicAck(11L, false);
+    }
+
+    private Message mensajeJson(Object evento, long deliveryTag) throws Exception {
+        MessageProperties properties = new MessageProperties();
+        properties.setDeliveryTag(deliveryTag);
+        return new Message(objectMapper.writeValueAsBytes(evento), properties);
+    }
+
     private Message mensajeConDeliveryTag(long deliveryTag) {
         MessageProperties properties = new MessageProperties();
         properties.setDeliveryTag(deliveryTag);
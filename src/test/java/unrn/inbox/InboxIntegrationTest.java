@@ -0,0 +1,222 @@
+package unrn.inbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rabbitmq.client.Channel;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import unrn.event.stock.StockValidationAcceptedEvent;
+import unrn.event.stock.StockValidationAcceptedListener;
+import unrn.service.CompraAceptacionService;
+import unrn.service.CompraCompensacionService;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "ventas.inbox.enabled=true",
+        "ventas.inbox.worker.auto-startup=false",
+        "ventas.inbox.retry.base-delay-ms=0",
+        "ventas.inbox.max-attempts=2"
+})
+class InboxIntegrationTest {
+
+    @Autowired
+    private StockValidationAcceptedListener stockValidationAcceptedListener;
+
+    @Autowired
+    private InboxEventService inboxEventService;
+
+    @Autowired
+    private InboxWorker inboxWorker;
+
+    @Autowired
+    private InboxBacklogMetrics inboxBacklogMetrics;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory emf;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoBean
+    private CompraAceptacionService compraAceptacionService;
+
+    @MockitoBean
+    private CompraCompensacionService compraCompensacionService;
+
+    @BeforeEach
+    void beforeEach() {
+        emf.getSchemaManager().truncate();
+    }
+
+    @Test
+    @DisplayName("Listener conInbox persisteYAckeaSinAplicar yDeduplicaLaReentrega")
+    void listener_conInbox_persisteYAckeaSinAplicarYDeduplicaReentrega() throws Exception {
+        // Setup: una entrega de stock aceptado y su reentrega
+        var event = evento(10L);
+        Channel channel = Mockito.mock(Channel.class);
+
+        // Ejercitación: consumir la misma entrega dos veces
+        stockValidationAcceptedListener.onStockValidationAccepted(event, mensaje(event, 1L), channel);
+        stockValidationAcceptedListener.onStockValidationAccepted(event, mensaje(event, 2L), channel);
+
+        // Verificación: ambas se confirman, la compra no se toca y queda una sola fila pendiente
+        verify(channel).basicAck(1L, false);
+        verify(channel).basicAck(2L, false);
+        verify(compraAceptacionService, never()).aceptar(any());
+        assertEquals(Map.of("PENDING", 1L), filasPorEstado(), "La reentrega no debe duplicar la fila del inbox");
+    }
+
+    @Test
+    @DisplayName("ListenerLote conInbox cuentaRecibidos yNoLosCuentaComoAplicados")
+    void listenerLote_conInbox_cuentaRecibidosYNoComoAplicados() throws Exception {
+        // Setup: un lote de dos entregas de stock aceptado
+        var primero = evento(50L);
+        var segundo = evento(51L);
+        double exitososAntes = meterRegistry.counter("ventas.stock_validation_accepted.consumed.success.total").count();
+        double recibidosAntes = meterRegistry.counter("ventas.inbox.received.total",
+                "tipo", InboxEventService.TIPO_STOCK_VALIDATION_ACCEPTED).count();
+        Channel channel = Mockito.mock(Channel.class);
+
+        // Ejercitación: consumir el lote con el inbox activo
+        stockValidationAcceptedListener.onStockValidationAcceptedLote(
+                List.of(mensaje(primero, 3L), mensaje(segundo, 4L)), channel);
+
+        // Verificación: las filas solo se persistieron, así que no cuentan como consumo exitoso
+        verify(channel).basicAck(4L, true);
+        assertEquals(exitososAntes,
+                meterRegistry.counter("ventas.stock_validation_accepted.consumed.success.total").count(),
+                "Persistir en el inbox no es aplicar el evento");
+        assertEquals(recibidosAntes + 2, meterRegistry.counter("ventas.inbox.received.total",
+                "tipo", InboxEventService.TIPO_STOCK_VALIDATION_ACCEPTED).count(),
+                "Las entregas persistidas deben contarse como recibidas");
+    }
+
+    @Test
+    @DisplayName("GaugePendientes seActualizaSoloAlRefrescar")
+    void gaugePendientes_seActualizaSoloAlRefrescar() throws Exception {
+        // Setup: gauge refrescado con el inbox vacío y luego una fila nueva
+        inboxBacklogMetrics.refrescar();
+        registrar(evento(60L));
+
+        // Ejercitación: leer el gauge antes y después del refresco
+        double antesDelRefresco = meterRegistry.get("ventas.inbox.pending").gauge().value();
+        inboxBacklogMetrics.refrescar();
+        double despuesDelRefresco = meterRegistry.get("ventas.inbox.pending").gauge().value();
+
+        // Verificación: el scrape lee el valor cacheado, sin consultar la base
+        assertEquals(0.0, antesDelRefresco, "El scrape no debe disparar el COUNT del inbox");
+        assertEquals(1.0, despuesDelRefresco, "El refresco debe tomar el backlog actual");
+    }
+
+    @Test
+    @DisplayName("Drenar filasPendientes lasAplicaEnLote yLasMarcaProcesadas")
+    void drenar_filasPendientes_lasAplicaEnLoteYLasMarcaProcesadas() throws Exception {
+        // Setup: dos compras con su evento en el inbox
+        var primero = evento(20L);
+        var segundo = evento(21L);
+        registrar(primero);
+        registrar(segundo);
+        when(compraAceptacionService.aceptarLote(List.of(primero, segundo))).thenReturn(Set.of());
+
+        // Ejercitación: un ciclo de worker
+        int reclamados = inboxWorker.drenar();
+
+        // Verificación: se aplican en una sola llamada al servicio y quedan procesadas
+        assertEquals(2, reclamados, "El worker debe reclamar ambas filas");
+        verify(compraAceptacionService).aceptarLote(List.of(primero, segundo));
+        assertEquals(Map.of("PROCESSED", 2L), filasPorEstado(), "Ambas filas deben quedar procesadas");
+    }
+
+    @Test
+    @DisplayName("Drenar filaQueFallaHastaElMaximo quedaFallida yElReplayLaReencola")
+    void drenar_filaQueFallaHastaElMaximo_quedaFallidaYReplayLaReencola() throws Exception {
+        // Setup: un evento cuyo servicio falla en lote y de a uno
+        var event = evento(30L);
+        registrar(event);
+        when(compraAceptacionService.aceptarLote(any())).thenThrow(new RuntimeException("base caída"));
+        Mockito.doThrow(new RuntimeException("base caída")).when(compraAceptacionService).aceptar(event);
+
+        // Ejercitación: agotar los dos intentos y pedir el replay
+        inboxWorker.drenar();
+        inboxWorker.drenar();
+        Map<String, Long> agotada = filasPorEstado();
+        int reencolados = inboxEventService.reencolarFallidos(null);
+
+        // Verificación: la fila queda fallida con su error y el replay la devuelve a pendiente
+        assertEquals(Map.of("FAILED", 1L), agotada, "Al agotar los intentos la fila debe quedar fallida");
+        assertEquals("base caída", jdbcTemplate.queryForObject("SELECT last_error FROM inbox_event", String.class));
+        assertEquals(1, reencolados, "El replay debe reencolar la fila fallida");
+        assertEquals(Map.of("PENDING", 1L), filasPorEstado(), "La fila reencolada debe volver a pendiente");
+    }
+
+    @Test
+    @DisplayName("ReclamarLote dosEventosMismaCompra reclamaSoloElPrimero")
+    void reclamarLote_dosEventosMismaCompra_reclamaSoloElPrimero() throws Exception {
+        // Setup: dos eventos de la misma compra en el inbox
+        var primero = evento(40L);
+        registrar(primero);
+        registrar(evento(40L));
+
+        // Ejercitación: reclamar con lugar para ambos
+        List<InboxEventEntity> reclamados = inboxEventService.reclamarLote(10);
+
+        // Verificación: el segundo espera a que el primero deje de estar pendiente
+        assertEquals(1, reclamados.size(), "Solo debe reclamarse la primera fila de la compra");
+        assertEquals(primero.eventId(), reclamados.get(0).getEventId());
+    }
+
+    private void registrar(StockValidationAcceptedEvent event) throws Exception {
+        inboxEventService.registrar(new InboxEventoRecibido(InboxEventService.TIPO_STOCK_VALIDATION_ACCEPTED,
+                event.eventId(), String.valueOf(event.compraId()), objectMapper.writeValueAsString(event)));
+    }
+
+    private Map<String, Long> filasPorEstado() {
+        Map<String, Long> filas = new HashMap<>();
+        jdbcTemplate.query("SELECT status, COUNT(*) AS cantidad FROM inbox_event GROUP BY status",
+                rs -> {
+                    filas.put(rs.getString("status"), rs.getLong("cantidad"));
+                });
+        return filas;
+    }
+
+    private Message mensaje(Object evento, long deliveryTag) throws Exception {
+        MessageProperties properties = new MessageProperties();
+        properties.setDeliveryTag(deliveryTag);
+        return new Message(objectMapper.writeValueAsBytes(evento), properties);
+    }
+
+    private StockValidationAcceptedEvent evento(Long compraId) {
+        return new StockValidationAcceptedEvent(UUID.randomUUID().toString(), compraId, Instant.now());
+    }
+}
@@ -0,0 +1,35 @@
+package unrn.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CuponProyeccionTest {
+
+    @Test
+    @DisplayName("Constructor con porcentaje mayor a cien lanza excepción")
+    void constructor_porcentajeMayorACien_lanzaExcepcion() {
+        // Ejercitación: Ejecutar la acción a probar
+        var ex = assertThrows(RuntimeException.class, () -> new CuponProyeccion("PROMO", new BigDecimal("120"),
+                LocalDate.of(2026, 3, 1), LocalDate.of(2026, 3, 31), true, 1));
+
+        // Verificación: Verificar el resultado esperado
+        assertEquals(CuponProyeccion.ERROR_PORCENTAJE_INVALIDO, ex.getMessage());
+    }
+
+    @Test
+    @DisplayName("UtilizableEn después de la vigencia devuelve falso")
+    void utilizableEn_despuesDeVigencia_devuelveFalso() {
+        // Setup: Preparar el escenario
+        var cupon = new CuponProyeccion("PROMO", new BigDecimal("10"),
+                LocalDate.of(2026, 3, 1), LocalDate.of(2026, 3, 31), true, 1);
+
+        // Ejercitación y Verificación: el último día todavía vale, el siguiente ya no
+        assertTrue(cupon.utilizableEn(LocalDate.of(2026, 3, 31)), "El último día de vigencia el cupón es utilizable");
+        assertFalse(cupon.utilizableEn(LocalDate.of(2026, 4, 1)), "Un cupón vencido no es utilizable");
+    }
+}
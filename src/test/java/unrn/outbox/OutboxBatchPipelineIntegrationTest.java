@@ -0,0 +1,115 @@
+package unrn.outbox;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import unrn.event.compra.CompraConfirmadaPublisher;
+import unrn.event.stock.StockValidationRequestedEvent;
+import unrn.event.stock.StockValidationRequestedPublisher;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "ventas.outbox.retry.base-delay-ms=0",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class OutboxBatchPipelineIntegrationTest {
+
+    private static final int EVENTOS = 20;
+    // Pipeline anterior: 1 SELECT de pendientes + por evento 3 findById y 1 UPDATE
+    private static final int SENTENCIAS_PIPELINE_ANTERIOR = 1 + EVENTOS * 4;
+
+    @Autowired
+    private OutboxEventService outboxEventService;
+
+    @Autowired
+    private OutboxDispatcher outboxDispatcher;
+
+    @Autowired
+    private EntityManagerFactory emf;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoBean
+    private CompraConfirmadaPublisher compraConfirmadaPublisher;
+
+    @MockitoBean
+    private StockValidationRequestedPublisher stockValidationRequestedPublisher;
+
+    @BeforeEach
+    void beforeEach() {
+        emf.getSchemaManager().truncate();
+    }
+
+    @Test
+    @DisplayName("PipelineLote veinteEventos reduceSentenciasSqlAlMenosCuatroVeces")
+    void pipelineLote_veinteEventos_reduceSentenciasSqlAlMenosCuatroVeces() {
+        // Setup: registrar eventos pendientes y reiniciar estadísticas de Hibernate
+        for (long compraId = 1; compraId <= EVENTOS; compraId++) {
+            outboxEventService.registrarStockValidationRequested(compraId, evento(compraId));
+        }
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // Ejercitación: reclamar, despachar y registrar resultados del lote
+        List<OutboxEventEntity> lote = outboxEventService.reclamarLote(100);
+        OutboxDispatchResult resultado = outboxDispatcher.despachar(lote);
+        outboxEventService.registrarResultados(resultado);
+
+        // Verificación: todos quedan publicados con una fracción de las sentencias
+        long sentencias = statistics.getPrepareStatementCount();
+        assertTrue(sentencias * 4 <= SENTENCIAS_PIPELINE_ANTERIOR,
+                "El pipeline por lotes debe usar al menos 4 veces menos sentencias; usó " + sentencias);
+        Integer publicados = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM outbox_event WHERE status = 'PUBLISHED'", Integer.class);
+        assertEquals(EVENTOS, publicados, "Todos los eventos del lote deben quedar publicados");
+    }
+
+    @Test
+    @DisplayName("RegistrarResultados publicacionFallida incrementaIntentosYLiberaLease")
+    void registrarResultados_publicacionFallida_incrementaIntentosYLiberaLease() {
+        // Setup: un evento pendiente cuyo publisher falla
+        outboxEventService.registrarStockValidationRequested(1L, evento(1L));
+        doThrow(new RuntimeException("broker caído"))
+                .when(stockValidationRequestedPublisher).publicarAhora(any());
+
+        // Ejercitación: reclamar, despachar y registrar resultados del lote
+        OutboxDispatchResult resultado = outboxDispatcher.despachar(outboxEventService.reclamarLote(10));
+        outboxEventService.registrarResultados(resultado);
+
+        // Verificación: queda pendiente con un intento registrado y sin lease
+        var fila = jdbcTemplate.queryForMap(
+                "SELECT status, attempts, last_error, lease_owner FROM outbox_event");
+        assertEquals("PENDING", fila.get("STATUS"), "Con intentos disponibles debe seguir pendiente");
+        assertEquals(1, ((Number) fila.get("ATTEMPTS")).intValue(), "Debe registrarse un intento fallido");
+        assertEquals("broker caído", fila.get("LAST_ERROR"), "Debe guardarse el error de publicación");
+        assertEquals(null, fila.get("LEASE_OWNER"), "El lease debe liberarse para reintentar");
+    }
+
+    private StockValidationRequestedEvent evento(Long compraId) {
+        return new StockValidationRequestedEvent(
+                UUID.randomUUID().toString(),
+                compraId,
+                List.of(new StockValidationRequestedEvent.Item(1L, 1)),
+                Instant.now());
+    }
+}
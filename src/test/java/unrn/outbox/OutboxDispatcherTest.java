@@ -0,0 +1,203 @@
+package unrn.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.ReturnedMessage;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.test.util.ReflectionTestUtils;
+import unrn.event.compra.CompraConfirmadaPublisher;
+import unrn.event.stock.StockValidationRequestedEvent;
+import unrn.event.stock.StockValidationRequestedPublisher;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OutboxDispatcherTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final StockValidationRequestedPublisher stockPublisher = mock(StockValidationRequestedPublisher.class);
+    private final CompraConfirmadaPublisher compraPublisher = mock(CompraConfirmadaPublisher.class);
+
+    @Test
+    @DisplayName("Despachar con confirms por lote publica solo los eventos con ACK")
+    void despachar_confirmsPorLote_publicaSoloEventosConAck() throws Exception {
+        // Setup: Preparar el escenario
+        var dispatcher = dispatcher(true, 1000, 4);
+        when(stockPublisher.enviar(argThat(event -> event != null && event.compraId() == 1L)))
+                .thenReturn(confirmado(true, null));
+        when(stockPublisher.enviar(argThat(event -> event != null && event.compraId() == 2L)))
+                .thenReturn(confirmado(false, "cola llena"));
+        when(stockPublisher.enviar(argThat(event -> event != null && event.compraId() == 3L)))
+                .thenReturn(retornado());
+
+        // Ejercitación: Ejecutar la acción a probar
+        OutboxDispatchResult resultado = dispatcher.despachar(List.of(stock(1L, 1L), stock(2L, 2L), stock(3L, 3L)));
+
+        // Verificación: Verificar el resultado esperado
+        assertEquals(List.of(1L), resultado.publicados(), "Solo el evento con ACK debe marcarse publicado");
+        assertEquals(2, resultado.cantidadFallidos(), "NACK y retornados deben ir a reintento");
+        assertEquals(OutboxDispatcher.ERROR_CONFIRMACION_NACK + "cola llena", resultado.fallidos().get(0).error());
+        assertEquals(OutboxDispatcher.ERROR_CONFIRMACION_RETORNADO, resultado.fallidos().get(1).error());
+        verify(stockPublisher, never()).publicarAhora(any());
+    }
+
+    @Test
+    @DisplayName("Despachar con confirms por lote envía todas las compras antes de esperar confirmaciones")
+    void despachar_confirmsPorLote_enviaTodoAntesDeEsperar() throws Exception {
+        // Setup: el broker confirma todo recién cuando recibió el último mensaje del lote
+        var dispatcher = dispatcher(true, 2000, 4);
+        List<CorrelationData> enviados = Collections.synchronizedList(new ArrayList<>());
+        when(stockPublisher.enviar(any())).thenAnswer(invocacion -> {
+            CorrelationData correlationData = new CorrelationData();
+            synchronized (enviados) {
+                enviados.add(correlationData);
+                if (enviados.size() == 3) {
+                    enviados.forEach(cd -> cd.getFuture().complete(new CorrelationData.Confirm(true, null)));
+                }
+            }
+            return correlationData;
+        });
+
+        // Ejercitación: Ejecutar la acción a probar
+        OutboxDispatchResult resultado = dispatcher.despachar(List.of(stock(1L, 1L), stock(2L, 2L), stock(3L, 3L)));
+
+        // Verificación: Verificar el resultado esperado
+        assertEquals(List.of(1L, 2L, 3L), resultado.publicados(), "Los confirms de compras distintas se esperan solapados");
+    }
+
+    @Test
+    @DisplayName("Despachar con confirms por lote sin confirmación registra timeout")
+    void despachar_confirmsPorLoteSinConfirmacion_registraTimeout() throws Exception {
+        // Setup: Preparar el escenario
+        var dispatcher = dispatcher(true, 20, 4);
+        when(stockPublisher.enviar(any())).thenReturn(new CorrelationData());
+
+        // Ejercitación: Ejecutar la acción a probar
+        OutboxDispatchResult resultado = dispatcher.despachar(List.of(stock(1L, 1L)));
+
+        // Verificación: Verificar el resultado esperado
+        assertTrue(resultado.publicados().isEmpty(), "Sin confirmación no se puede marcar publicado");
+        assertEquals(OutboxDispatcher.ERROR_CONFIRMACION_TIMEOUT, resultado.fallidos().get(0).error());
+    }
+
+    @Test
+    @DisplayName("Despachar compras distintas las publica en paralelo")
+    void despachar_comprasDistintas_publicaEnParalelo() throws Exception {
+        // Setup: cada publicación espera a que la otra compra también esté publicando
+        var dispatcher = dispatcher(false, 1000, 2);
+        CountDownLatch ambasEnCurso = new CountDownLatch(2);
+        doAnswer(invocacion -> {
+            ambasEnCurso.countDown();
+            if (!ambasEnCurso.await(2, TimeUnit.SECONDS)) {
+                throw new RuntimeException("publicación serializada");
+            }
+            return null;
+        }).when(stockPublisher).publicarAhora(any());
+
+        // Ejercitación: Ejecutar la acción a probar
+        OutboxDispatchResult resultado = dispatcher.despachar(List.of(stock(1L, 1L), stock(2L, 2L)));
+
+        // Verificación: Verificar el resultado esperado
+        assertEquals(List.of(1L, 2L), resultado.publicados(), "Compras distintas no deben esperarse entre sí");
+    }
+
+    @Test
+    @DisplayName("Despachar misma compra con falla no publica los eventos posteriores del carril")
+    void despachar_mismaCompraConFalla_noPublicaEventosPosteriores() throws Exception {
+        // Setup: Preparar el escenario
+        var dispatcher = dispatcher(false, 1000, 4);
+        doThrow(new RuntimeException("broker caído")).when(stockPublisher).publicarAhora(any());
+
+        // Ejercitación: Ejecutar la acción a probar
+        OutboxDispatchResult resultado = dispatcher.despachar(List.of(stock(1L, 7L), compraConfirmada(2L, 7L)));
+
+        // Verificación: Verificar el resultado esperado
+        assertTrue(resultado.publicados().isEmpty(), "CompraConfirmada no puede adelantarse a StockValidationRequested");
+        assertEquals(OutboxDispatcher.ERROR_EVENTO_ANTERIOR_FALLIDO, resultado.fallidos().get(1).error());
+        verify(compraPublisher, never()).publicarAhora(any());
+    }
+
+    @Test
+    @DisplayName("Despachar con payload almacenado publica los bytes guardados sin deserializar")
+    void despachar_payloadAlmacenado_publicaBytesGuardados() throws Exception {
+        // Setup: Preparar el escenario
+        var dispatcher = new OutboxDispatcher(objectMapper, compraPublisher, stockPublisher,
+                new SimpleMeterRegistry(), 1000, false, true, 4);
+        OutboxEventEntity evento = stock(1L, 1L);
+
+        // Ejercitación: Ejecutar la acción a probar
+        OutboxDispatchResult resultado = dispatcher.despachar(List.of(evento));
+
+        // Verificación: Verificar el resultado esperado
+        assertEquals(List.of(1L), resultado.publicados());
+        verify(stockPublisher).publicarPayloadAhora(eq("event-1"),
+                aryEq(evento.getPayloadJson().getBytes(StandardCharsets.UTF_8)));
+        verify(stockPublisher, never()).publicarAhora(any());
+    }
+
+    @Test
+    @DisplayName("Constructor con cero carriles lanza excepción")
+    void constructor_ceroCarriles_lanzaExcepcion() {
+        // Ejercitación: Ejecutar la acción a probar
+        var ex = assertThrows(RuntimeException.class, () -> dispatcher(false, 1000, 0));
+
+        // Verificación: Verificar el resultado esperado
+        assertEquals(OutboxDispatcher.ERROR_CARRILES_INVALIDOS, ex.getMessage());
+    }
+
+    private OutboxDispatcher dispatcher(boolean batchConfirms, long confirmTimeoutMs, int maxCarriles) {
+        return new OutboxDispatcher(objectMapper, compraPublisher, stockPublisher,
+                new SimpleMeterRegistry(), confirmTimeoutMs, batchConfirms, false, maxCarriles);
+    }
+
+    private CorrelationData confirmado(boolean ack, String causa) {
+        CorrelationData correlationData = new CorrelationData();
+        correlationData.getFuture().complete(new CorrelationData.Confirm(ack, causa));
+        return correlationData;
+    }
+
+    private CorrelationData retornado() {
+        CorrelationData correlationData = confirmado(true, null);
+        correlationData.setReturned(new ReturnedMessage(new Message(new byte[0]), 312, "NO_ROUTE", "ventas.events", "rk"));
+        return correlationData;
+    }
+
+    private OutboxEventEntity stock(Long id, Long compraId) throws Exception {
+        var event = new StockValidationRequestedEvent("event-" + id, compraId,
+                List.of(new StockValidationRequestedEvent.Item(1L, 1)), Instant.parse("2026-10-18T10:00:00Z"));
+        return entidad(id, compraId, OutboxEventService.EVENT_TYPE_STOCK_VALIDATION_REQUESTED, event.eventId(),
+                objectMapper.writeValueAsString(event));
+    }
+
+    // El payload no llega a leerse: el carril se corta antes de publicar
+    private OutboxEventEntity compraConfirmada(Long id, Long compraId) {
+        return entidad(id, compraId, OutboxEventService.EVENT_TYPE_COMPRA_CONFIRMADA, "event-" + id, "{}");
+    }
+
+    private OutboxEventEntity entidad(Long id, Long compraId, String eventType, String eventId, String payload) {
+        var entity = new OutboxEventEntity(OutboxEventService.AGGREGATE_TYPE_COMPRA, compraId, eventType, eventId,
+                payload);
+        ReflectionTestUtils.setField(entity, "id", id);
+        return entity;
+    }
+}
@@ -0,0 +1,102 @@
+package unrn.outbox;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OutboxDrainPolicyTest {
+
+    @Test
+    @DisplayName("RegistrarLote con lote completo duplica el tamaño y pide seguir drenando")
+    void registrarLote_loteCompleto_duplicaTamanioYContinua() {
+        // Setup: Preparar el escenario
+        var policy = new OutboxDrainPolicy(10, 100, 50, 3000);
+
+        // Ejercitación: Ejecutar la acción a probar
+        boolean continuar = policy.registrarLote(10, 0);
+
+        // Verificación: Verificar el resultado esperado
+        assertTrue(continuar, "Un lote completo indica backlog pendiente");
+        assertEquals(20, policy.batchSize(), "El tamaño de lote debe duplicarse");
+    }
+
+    @Test
+    @DisplayName("RegistrarLote con lote completo no supera el tamaño máximo")
+    void registrarLote_loteCompletoEnMaximo_noSuperaMaximo() {
+        // Setup: Preparar el escenario
+        var policy = new OutboxDrainPolicy(60, 100, 50, 3000);
+
+        // Ejercitación: Ejecutar la acción a probar
+        policy.registrarLote(60, 0);
+
+        // Verificación: Verificar el resultado esperado
+        assertEquals(100, policy.batchSize(), "El tamaño de lote debe acotarse al máximo");
+    }
+
+    @Test
+    @DisplayName("RegistrarLote con fallos deja de drenar aunque el lote esté completo")
+    void registrarLote_conFallidos_noContinua() {
+        // Setup: Preparar el escenario
+        var policy = new OutboxDrainPolicy(10, 100, 50, 3000);
+
+        // Ejercitación: Ejecutar la acción a probar
+        boolean continuar = policy.registrarLote(10, 3);
+
+        // Verificación: Verificar el resultado esperado
+        assertFalse(continuar, "Con fallos de publicación no se debe insistir en el mismo ciclo");
+    }
+
+    @Test
+    @DisplayName("RegistrarLote con lote casi vacío reduce el tamaño sin bajar del mínimo")
+    void registrarLote_loteCasiVacio_reduceTamanioHastaMinimo() {
+        // Setup: Preparar el escenario
+        var policy = new OutboxDrainPolicy(10, 100, 50, 3000);
+        policy.registrarLote(10, 0);
+
+        // Ejercitación: Ejecutar la acción a probar
+        boolean continuar = policy.registrarLote(2, 0);
+
+        // Verificación: Verificar el resultado esperado
+        assertFalse(continuar, "Un lote parcial indica que no queda backlog");
+        assertEquals(10, policy.batchSize(), "El tamaño de lote debe volver al mínimo");
+    }
+
+    @Test
+    @DisplayName("RegistrarFinCiclo sin trabajo duplica el intervalo hasta el máximo")
+    void registrarFinCiclo_sinTrabajo_duplicaIntervaloHastaMaximo() {
+        // Setup: Preparar el escenario
+        var policy = new OutboxDrainPolicy(10, 100, 1000, 3000);
+
+        // Ejercitación: Ejecutar la acción a probar
+        policy.registrarFinCiclo(false);
+        policy.registrarFinCiclo(false);
+
+        // Verificación: Verificar el resultado esperado
+        assertEquals(3000, policy.delayMs(), "El backoff en idle debe acotarse al intervalo máximo");
+    }
+
+    @Test
+    @DisplayName("RegistrarFinCiclo con trabajo vuelve al intervalo mínimo")
+    void registrarFinCiclo_conTrabajo_vuelveAIntervaloMinimo() {
+        // Setup: Preparar el escenario
+        var policy = new OutboxDrainPolicy(10, 100, 50, 3000);
+        policy.registrarFinCiclo(false);
+
+        // Ejercitación: Ejecutar la acción a probar
+        policy.registrarFinCiclo(true);
+
+        // Verificación: Verificar el resultado esperado
+        assertEquals(50, policy.delayMs(), "Con trabajo el polling debe volver al mínimo");
+    }
+
+    @Test
+    @DisplayName("Constructor con tamaño mínimo mayor al máximo lanza excepción")
+    void constructor_minimoMayorAMaximo_lanzaExcepcion() {
+        // Ejercitación: Ejecutar la acción a probar
+        var ex = assertThrows(RuntimeException.class, () -> new OutboxDrainPolicy(200, 100, 50, 3000));
+
+        // Verificación: Verificar el resultado esperado
+        assertEquals(OutboxDrainPolicy.ERROR_TAMANIO_LOTE_INVALIDO, ex.getMessage());
+    }
+}
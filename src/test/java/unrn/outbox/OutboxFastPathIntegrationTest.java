@@ -0,0 +1,120 @@
+package unrn.outbox;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.support.TransactionTemplate;
+import unrn.event.compra.CompraConfirmadaPublisher;
+import unrn.event.stock.StockValidationRequestedEvent;
+import unrn.event.stock.StockValidationRequestedPublisher;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = "ventas.outbox.fast-path.enabled=true")
+class OutboxFastPathIntegrationTest {
+
+    private static final long ESPERA_MAXIMA_MS = 5000;
+
+    @Autowired
+    private OutboxEventService outboxEventService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManagerFactory emf;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoBean
+    private CompraConfirmadaPublisher compraConfirmadaPublisher;
+
+    @MockitoBean
+    private StockValidationRequestedPublisher stockValidationRequestedPublisher;
+
+    @BeforeEach
+    void beforeEach() {
+        emf.getSchemaManager().truncate();
+    }
+
+    @Test
+    @DisplayName("RegistrarStockValidationRequested alConfirmarTransaccion publicaSinEsperarAlScheduler")
+    void registrarStockValidationRequested_alConfirmarTransaccion_publicaSinEsperarAlScheduler() throws InterruptedException {
+        // Setup: el scheduler está deshabilitado en el perfil de test
+        double publicadosFastPath = publicadosPorPath(OutboxEventService.PATH_FAST);
+
+        // Ejercitación: registrar el evento dentro de una transacción de negocio
+        transactionTemplate.executeWithoutResult(status ->
+                outboxEventService.registrarStockValidationRequested(10L, evento(10L)));
+
+        // Verificación: el evento queda publicado por el camino rápido
+        assertTrue(esperarEstado("PUBLISHED"), "El evento debe publicarse inmediatamente después del commit");
+        verify(stockValidationRequestedPublisher).publicarAhora(any(StockValidationRequestedEvent.class));
+        assertEquals(publicadosFastPath + 1, publicadosPorPath(OutboxEventService.PATH_FAST),
+                "La publicación debe contabilizarse en el camino rápido");
+    }
+
+    @Test
+    @DisplayName("RegistrarStockValidationRequested transaccionRevertida noPublicaEvento")
+    void registrarStockValidationRequested_transaccionRevertida_noPublicaEvento() throws InterruptedException {
+        // Ejercitación: registrar el evento y revertir la transacción de negocio
+        transactionTemplate.executeWithoutResult(status -> {
+            outboxEventService.registrarStockValidationRequested(11L, evento(11L));
+            status.setRollbackOnly();
+        });
+        Thread.sleep(200);
+
+        // Verificación: sin commit no hay fila ni publicación
+        Integer filas = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox_event", Integer.class);
+        assertEquals(0, filas, "La fila de outbox debe revertirse junto con la transacción");
+        verify(stockValidationRequestedPublisher, never()).publicarAhora(any());
+    }
+
+    private boolean esperarEstado(String estado) throws InterruptedException {
+        long limite = System.currentTimeMillis() + ESPERA_MAXIMA_MS;
+        while (System.currentTimeMillis() < limite) {
+            Integer filas = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM outbox_event WHERE status = ?", Integer.class, estado);
+            if (filas != null && filas > 0) {
+                return true;
+            }
+            Thread.sleep(20);
+        }
+        return false;
+    }
+
+    private double publicadosPorPath(String path) {
+        var counter = meterRegistry.find("ventas.outbox.published.total").tag("path", path).counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private StockValidationRequestedEvent evento(Long compraId) {
+        return new StockValidationRequestedEvent(
+                UUID.randomUUID().toString(),
+                compraId,
+                List.of(new StockValidationRequestedEvent.Item(1L, 1)),
+                Instant.now());
+    }
+}
@@ -0,0 +1,142 @@
+package unrn.outbox;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import unrn.event.stock.StockValidationRequestedEvent;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "ventas.outbox.retry.base-delay-ms=0",
+        "ventas.outbox.lease.duration-ms=60000"
+})
+class OutboxLeaseIntegrationTest {
+
+    @Autowired
+    private OutboxEventService outboxEventService;
+
+    @Autowired
+    private EntityManagerFactory emf;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void beforeEach() {
+        emf.getSchemaManager().truncate();
+    }
+
+    @Test
+    @DisplayName("ReclamarLote eventoConLeaseVigente noSeVuelveAReclamar")
+    void reclamarLote_eventoConLeaseVigente_noSeVuelveAReclamar() {
+        // Setup: un evento pendiente ya reclamado por este nodo
+        outboxEventService.registrarStockValidationRequested(1L, evento(1L));
+        List<Long> primerReclamo = idsDe(outboxEventService.reclamarLote(10));
+
+        // Ejercitación: reclamar nuevamente mientras el lease sigue vigente
+        List<Long> segundoReclamo = idsDe(outboxEventService.reclamarLote(10));
+
+        // Verificación: el evento queda arrendado al owner del nodo y no se entrega dos veces
+        assertEquals(1, primerReclamo.size(), "El primer reclamo debe tomar el evento pendiente");
+        assertTrue(segundoReclamo.isEmpty(), "Un evento con lease vigente no debe reclamarse de nuevo");
+        String owner = jdbcTemplate.queryForObject(
+                "SELECT lease_owner FROM outbox_event WHERE id = ?", String.class, primerReclamo.get(0));
+        assertEquals(outboxEventService.leaseOwner(), owner, "El lease debe registrar el owner del nodo");
+    }
+
+    @Test
+    @DisplayName("ReclamarLote eventoConLeaseVencido seReclamaNuevamente")
+    void reclamarLote_eventoConLeaseVencido_seReclamaNuevamente() {
+        // Setup: un evento reclamado cuyo lease ya venció (nodo caído)
+        outboxEventService.registrarStockValidationRequested(2L, evento(2L));
+        Long outboxId = outboxEventService.reclamarLote(10).get(0).getId();
+        jdbcTemplate.update("UPDATE outbox_event SET lease_owner = 'nodo-caido', lease_until = ? WHERE id = ?",
+                Timestamp.from(Instant.now().minusSeconds(5)), outboxId);
+
+        // Ejercitación: reclamar con el lease vencido
+        List<Long> reclamados = idsDe(outboxEventService.reclamarLote(10));
+
+        // Verificación: el evento vuelve a estar disponible y cambia de owner
+        assertEquals(List.of(outboxId), reclamados, "Un lease vencido debe poder reclamarse otra vez");
+        String owner = jdbcTemplate.queryForObject(
+                "SELECT lease_owner FROM outbox_event WHERE id = ?", String.class, outboxId);
+        assertEquals(outboxEventService.leaseOwner(), owner, "El nuevo lease debe pertenecer al nodo que reclama");
+    }
+
+    @Test
+    @DisplayName("ReclamarLote eventosViejosEnBackoff noBloqueanEventosNuevos")
+    void reclamarLote_eventosViejosEnBackoff_noBloqueanEventosNuevos() {
+        // Setup: dos eventos viejos esperando reintento y uno nuevo listo para publicar
+        outboxEventService.registrarStockValidationRequested(3L, evento(3L));
+        outboxEventService.registrarStockValidationRequested(4L, evento(4L));
+        jdbcTemplate.update("UPDATE outbox_event SET attempts = 2, next_attempt_at = ?",
+                Timestamp.from(Instant.now().plusSeconds(300)));
+        outboxEventService.registrarStockValidationRequested(5L, evento(5L));
+
+        // Ejercitación: reclamar un lote de un solo evento
+        List<OutboxEventEntity> reclamados = outboxEventService.reclamarLote(1);
+
+        // Verificación: el poller toma solo filas vencidas, sin head-of-line blocking
+        assertEquals(1, reclamados.size(), "Debe reclamarse el evento listo para publicar");
+        assertEquals(5L, reclamados.get(0).getAggregateId(), "El evento nuevo no debe quedar detrás de los que esperan");
+    }
+
+    @Test
+    @DisplayName("ReclamarLote filaEscritaSinNextAttemptAt seReclamaIgual")
+    void reclamarLote_filaSinNextAttemptAt_seReclama() {
+        // Setup: una instancia vieja (sin la columna en su INSERT) escribe un evento durante el rolling deploy
+        jdbcTemplate.update("INSERT INTO outbox_event (aggregate_type, aggregate_id, event_type, payload_json, "
+                + "status, created_at, attempts) VALUES ('Compra', 7, 'StockValidationRequestedEvent', '{}', "
+                + "'PENDING', ?, 0)", Timestamp.from(Instant.now().minusSeconds(1)));
+
+        // Ejercitación: reclamar pendientes
+        List<OutboxEventEntity> reclamados = outboxEventService.reclamarLote(10);
+
+        // Verificación: la columna toma su default y la fila no queda huérfana
+        assertEquals(1, reclamados.size(), "Una fila sin next_attempt_at explícito debe poder reclamarse");
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM outbox_event WHERE next_attempt_at IS NULL", Integer.class));
+    }
+
+    @Test
+    @DisplayName("ReclamarLote dosEventosMismaCompra reclamaSoloElPrimero")
+    void reclamarLote_dosEventosMismaCompra_reclamaSoloElPrimero() {
+        // Setup: dos eventos pendientes de la misma compra
+        outboxEventService.registrarStockValidationRequested(6L, evento(6L));
+        outboxEventService.registrarStockValidationRequested(6L, evento(6L));
+
+        // Ejercitación: reclamar con lugar para ambos
+        List<Long> reclamados = idsDe(outboxEventService.reclamarLote(10));
+
+        // Verificación: el segundo espera a que el primero deje de estar pendiente
+        Long primerId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM outbox_event", Long.class);
+        assertEquals(List.of(primerId), reclamados, "Los eventos de una misma compra se publican en orden");
+    }
+
+    private List<Long> idsDe(List<OutboxEventEntity> eventos) {
+        return eventos.stream().map(OutboxEventEntity::getId).toList();
+    }
+
+    private StockValidationRequestedEvent evento(Long compraId) {
+        return new StockValidationRequestedEvent(
+                UUID.randomUUID().toString(),
+                compraId,
+                List.of(new StockValidationRequestedEvent.Item(1L, 1)),
+                Instant.now());
+    }
+}
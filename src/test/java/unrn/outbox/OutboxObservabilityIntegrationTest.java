@@ -0,0 +1,96 @@
+package unrn.outbox;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import unrn.dto.OutboxEventoTrabadoResponse;
+import unrn.event.stock.StockValidationRequestedEvent;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class OutboxObservabilityIntegrationTest {
+
+    @Autowired
+    private OutboxBacklogMetrics outboxBacklogMetrics;
+
+    @Autowired
+    private OutboxEndpoint outboxEndpoint;
+
+    @Autowired
+    private OutboxEventService outboxEventService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManagerFactory emf;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void beforeEach() {
+        emf.getSchemaManager().truncate();
+    }
+
+    @Test
+    @DisplayName("Refrescar backlogConPendientesYFallidos actualizaGaugesCacheados")
+    void refrescar_backlogConPendientesYFallidos_actualizaGaugesCacheados() {
+        // Setup: dos pendientes (uno de hace diez minutos) y un fallido terminal
+        registrarEventos(3);
+        jdbcTemplate.update("UPDATE outbox_event SET created_at = ? WHERE aggregate_id = 1",
+                Timestamp.from(Instant.now().minus(Duration.ofMinutes(10))));
+        jdbcTemplate.update("UPDATE outbox_event SET status = 'FAILED' WHERE aggregate_id = 3");
+
+        // Ejercitación: refrescar el cache de métricas
+        outboxBacklogMetrics.refrescar();
+
+        // Verificación: los gauges reflejan el backlog y la antigüedad del pendiente más viejo
+        assertEquals(2.0, meterRegistry.get("ventas.outbox.pending").gauge().value());
+        assertEquals(1.0, meterRegistry.get("ventas.outbox.failed").gauge().value());
+        double antiguedad = meterRegistry.get("ventas.outbox.oldest.pending.age").gauge().value();
+        assertTrue(antiguedad >= 600, "La antigüedad debe medirse desde el pendiente más viejo; fue " + antiguedad);
+    }
+
+    @Test
+    @DisplayName("EventosTrabados conLimite devuelveLosMasAntiguosConUltimoError")
+    void eventosTrabados_conLimite_devuelveLosMasAntiguosConUltimoError() {
+        // Setup: tres eventos sin publicar, el primero con un error registrado
+        registrarEventos(3);
+        jdbcTemplate.update("UPDATE outbox_event SET attempts = 2, last_error = 'broker caído' WHERE aggregate_id = 1");
+
+        // Ejercitación: consultar el endpoint de actuator
+        List<OutboxEventoTrabadoResponse> trabados = outboxEndpoint.eventosTrabados(2);
+
+        // Verificación: ordenados por antigüedad y con el último error
+        assertEquals(2, trabados.size(), "Debe respetarse el límite pedido");
+        assertEquals(1L, trabados.get(0).aggregateId(), "El más antiguo va primero");
+        assertEquals("broker caído", trabados.get(0).lastError());
+        assertEquals(2, trabados.get(0).attempts());
+    }
+
+    private void registrarEventos(int cantidad) {
+        for (long compraId = 1; compraId <= cantidad; compraId++) {
+            outboxEventService.registrarStockValidationRequested(compraId, new StockValidationRequestedEvent(
+                    UUID.randomUUID().toString(),
+                    compraId,
+                    List.of(new StockValidationRequestedEvent.Item(1L, 1)),
+                    Instant.now()));
+        }
+    }
+}
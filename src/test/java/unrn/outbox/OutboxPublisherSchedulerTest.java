@@ -0,0 +1,53 @@
+package unrn.outbox;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OutboxPublisherSchedulerTest {
+
+    private final OutboxEventService outboxEventService = mock(OutboxEventService.class);
+    private final OutboxDispatcher outboxDispatcher = mock(OutboxDispatcher.class);
+
+    @Test
+    @DisplayName("PublicarPendientes con backlog sostenido corta el ciclo al llegar al máximo de lotes")
+    void publicarPendientes_backlogSostenido_cortaEnMaximoDeLotes() {
+        // Setup: cada reclamo devuelve un lote completo, como si el backlog no se vaciara nunca
+        when(outboxEventService.reclamarLote(anyInt())).thenReturn(List.of(evento(), evento()));
+        when(outboxDispatcher.despachar(any())).thenReturn(new OutboxDispatchResult());
+        var scheduler = new OutboxPublisherScheduler(outboxEventService, outboxDispatcher, new SimpleMeterRegistry(),
+                2, 2, 50, 3000, 3, false);
+
+        // Ejercitación: Ejecutar la acción a probar
+        scheduler.publicarPendientes();
+
+        // Verificación: el ciclo devuelve el hilo tras 3 lotes en vez de drenar indefinidamente
+        verify(outboxEventService, times(3)).reclamarLote(2);
+        verify(outboxEventService, times(3)).registrarResultados(any());
+    }
+
+    @Test
+    @DisplayName("OutboxPublisherScheduler con máximo de lotes por ciclo no positivo falla al construirse")
+    void outboxPublisherScheduler_maxLotesNoPositivo_lanzaExcepcion() {
+        // Ejercitación: Ejecutar la acción a probar
+        var ex = assertThrows(RuntimeException.class, () -> new OutboxPublisherScheduler(outboxEventService,
+                outboxDispatcher, new SimpleMeterRegistry(), 2, 2, 50, 3000, 0, false));
+
+        // Verificación: Verificar el resultado esperado
+        assertEquals(OutboxPublisherScheduler.ERROR_LOTES_POR_CICLO_INVALIDO, ex.getMessage());
+    }
+
+    private OutboxEventEntity evento() {
+        return new OutboxEventEntity("Compra", 1L, "CompraConfirmadaEvent", "{}");
+    }
+}
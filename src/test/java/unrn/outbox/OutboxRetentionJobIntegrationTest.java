@@ -0,0 +1,89 @@
+package unrn.outbox;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import unrn.event.stock.StockValidationRequestedEvent;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "ventas.outbox.retention.enabled=true",
+        "ventas.outbox.retention.archive=true",
+        "ventas.outbox.retention.batch-size=2",
+        "ventas.outbox.retention.max-age-ms=86400000",
+        "ventas.outbox.retention.interval-ms=3600000"
+})
+class OutboxRetentionJobIntegrationTest {
+
+    @Autowired
+    private OutboxRetentionJob outboxRetentionJob;
+
+    @Autowired
+    private OutboxEventService outboxEventService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManagerFactory emf;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void beforeEach() {
+        emf.getSchemaManager().truncate();
+        jdbcTemplate.update("DELETE FROM outbox_event_archive");
+    }
+
+    @Test
+    @DisplayName("PurgarPublicados eventosPublicadosViejos seArchivanEnLotesYSeEliminan")
+    void purgarPublicados_eventosPublicadosViejos_seArchivanEnLotesYSeEliminan() {
+        // Setup: cinco eventos publicados hace dos días, uno publicado recién y uno pendiente
+        for (long compraId = 1; compraId <= 7; compraId++) {
+            outboxEventService.registrarStockValidationRequested(compraId, evento(compraId));
+        }
+        Timestamp haceDosDias = Timestamp.from(Instant.now().minus(Duration.ofDays(2)));
+        jdbcTemplate.update("UPDATE outbox_event SET status = 'PUBLISHED', published_at = ? WHERE aggregate_id <= 5",
+                haceDosDias);
+        jdbcTemplate.update("UPDATE outbox_event SET status = 'PUBLISHED', published_at = ? WHERE aggregate_id = 6",
+                Timestamp.from(Instant.now()));
+
+        // Ejercitación: ejecutar la retención con lotes de dos filas
+        int purgadas = outboxRetentionJob.purgarPublicados();
+
+        // Verificación: solo se purgan los publicados viejos y quedan en el archivo
+        assertEquals(5, purgadas, "Deben purgarse los cinco eventos publicados fuera de la retención");
+        List<Long> restantes = jdbcTemplate.queryForList(
+                "SELECT aggregate_id FROM outbox_event ORDER BY aggregate_id", Long.class);
+        assertEquals(List.of(6L, 7L), restantes, "Publicados recientes y pendientes no se tocan");
+        Integer archivadas = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox_event_archive", Integer.class);
+        assertEquals(5, archivadas, "Los eventos purgados deben quedar en outbox_event_archive");
+        assertEquals(2.0, meterRegistry.get("ventas.outbox.table.rows").gauge().value(),
+                "El gauge de tamaño de tabla se actualiza al final de la corrida");
+    }
+
+    private StockValidationRequestedEvent evento(Long compraId) {
+        return new StockValidationRequestedEvent(
+                UUID.randomUUID().toString(),
+                compraId,
+                List.of(new StockValidationRequestedEvent.Item(1L, 1)),
+                Instant.now());
+    }
+}
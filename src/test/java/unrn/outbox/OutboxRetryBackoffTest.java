@@ -0,0 +1,62 @@
+package unrn.outbox;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OutboxRetryBackoffTest {
+
+    private static final Instant AHORA = Instant.parse("2026-10-18T10:00:00Z");
+
+    @Test
+    @DisplayName("ProximoIntento sin jitter duplica el delay por cada intento previo")
+    void proximoIntento_sinJitter_duplicaDelayPorIntento() {
+        // Setup: Preparar el escenario
+        var backoff = new OutboxRetryBackoff(1000, 60000, 0.0, () -> 0.5);
+
+        // Ejercitación: Ejecutar la acción a probar
+        Instant proximo = backoff.proximoIntento(3, AHORA);
+
+        // Verificación: Verificar el resultado esperado
+        assertEquals(AHORA.plusMillis(8000), proximo, "Con 3 intentos previos el delay debe ser 8 veces la base");
+    }
+
+    @Test
+    @DisplayName("ProximoIntento con muchos intentos se acota al delay máximo")
+    void proximoIntento_muchosIntentos_seAcotaAlMaximo() {
+        // Setup: Preparar el escenario
+        var backoff = new OutboxRetryBackoff(1000, 60000, 0.0, () -> 0.5);
+
+        // Ejercitación: Ejecutar la acción a probar
+        Instant proximo = backoff.proximoIntento(50, AHORA);
+
+        // Verificación: Verificar el resultado esperado
+        assertEquals(AHORA.plusMillis(60000), proximo, "El delay no debe superar el máximo configurado");
+    }
+
+    @Test
+    @DisplayName("ProximoIntento con jitter suma una fracción aleatoria del delay")
+    void proximoIntento_conJitter_sumaFraccionDelDelay() {
+        // Setup: Preparar el escenario
+        var backoff = new OutboxRetryBackoff(1000, 60000, 0.2, () -> 0.5);
+
+        // Ejercitación: Ejecutar la acción a probar
+        Instant proximo = backoff.proximoIntento(0, AHORA);
+
+        // Verificación: Verificar el resultado esperado
+        assertEquals(AHORA.plusMillis(1100), proximo, "El jitter debe sumar hasta el 20% del delay");
+    }
+
+    @Test
+    @DisplayName("Constructor con jitter mayor a uno lanza excepción")
+    void constructor_jitterMayorAUno_lanzaExcepcion() {
+        // Ejercitación: Ejecutar la acción a probar
+        var ex = assertThrows(RuntimeException.class, () -> new OutboxRetryBackoff(1000, 60000, 1.5, () -> 0.5));
+
+        // Verificación: Verificar el resultado esperado
+        assertEquals(OutboxRetryBackoff.ERROR_JITTER_INVALIDO, ex.getMessage());
+    }
+}
@@ -0,0 +1,90 @@
+package unrn.outbox;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import unrn.event.compra.CompraConfirmadaPublisher;
+import unrn.event.stock.StockValidationRequestedEvent;
+import unrn.event.stock.StockValidationRequestedPublisher;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "ventas.outbox.retry.base-delay-ms=60000",
+        "ventas.outbox.retry.jitter-ratio=0.2"
+})
+class OutboxRetryJitterIntegrationTest {
+
+    private static final int EVENTOS = 10;
+
+    @Autowired
+    private OutboxEventService outboxEventService;
+
+    @Autowired
+    private OutboxDispatcher outboxDispatcher;
+
+    @Autowired
+    private EntityManagerFactory emf;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoBean
+    private CompraConfirmadaPublisher compraConfirmadaPublisher;
+
+    @MockitoBean
+    private StockValidationRequestedPublisher stockValidationRequestedPublisher;
+
+    @BeforeEach
+    void beforeEach() {
+        emf.getSchemaManager().truncate();
+    }
+
+    @Test
+    @DisplayName("RegistrarResultados eventosFallidosEnElMismoLote reciben proximoIntentoDistinto")
+    void registrarResultados_eventosFallidosEnElMismoLote_recibenProximoIntentoDistinto() {
+        // Setup: eventos de compras distintas que fallan juntos con el mismo error (broker caído)
+        for (long compraId = 1; compraId <= EVENTOS; compraId++) {
+            outboxEventService.registrarStockValidationRequested(compraId, evento(compraId));
+        }
+        doThrow(new RuntimeException("broker caído"))
+                .when(stockValidationRequestedPublisher).publicarAhora(any());
+
+        // Ejercitación: reclamar, despachar y registrar resultados del lote
+        OutboxDispatchResult resultado = outboxDispatcher.despachar(outboxEventService.reclamarLote(100));
+        outboxEventService.registrarResultados(resultado);
+
+        // Verificación: cada fila sortea su jitter en vez de compartir el próximo intento del grupo
+        List<Timestamp> proximos = jdbcTemplate.queryForList(
+                "SELECT next_attempt_at FROM outbox_event", Timestamp.class);
+        assertEquals(EVENTOS, proximos.size(), "Todos los eventos deben registrar el intento fallido");
+        assertTrue(new HashSet<>(proximos).size() > 1,
+                "Los eventos que fallaron juntos no deben reintentar en el mismo instante");
+    }
+
+    private StockValidationRequestedEvent evento(Long compraId) {
+        return new StockValidationRequestedEvent(
+                UUID.randomUUID().toString(),
+                compraId,
+                List.of(new StockValidationRequestedEvent.Item(1L, 1)),
+                Instant.now());
+    }
+}
@@ -0,0 +1,124 @@
+package unrn.persistence;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "ventas.processed-events.purge.enabled=true",
+        "ventas.processed-events.purge.ttl-ms=86400000",
+        "ventas.processed-events.purge.batch-size=2"
+})
+class ProcessedEventStoreIntegrationTest {
+
+    @Autowired
+    private ProcessedEventStore processedEventStore;
+
+    @Autowired
+    private ProcessedEventPurgeJob processedEventPurgeJob;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory emf;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void beforeEach() {
+        emf.getSchemaManager().truncate();
+    }
+
+    @Test
+    @DisplayName("RegistrarSiNuevo eventoRepetido devuelveFalseSinDuplicarFila")
+    void registrarSiNuevo_eventoRepetido_devuelveFalseSinDuplicarFila() {
+        // Setup: un evento ya registrado
+        String eventId = UUID.randomUUID().toString();
+        Boolean primero = transactionTemplate.execute(status -> processedEventStore.registrarSiNuevo(eventId));
+
+        // Ejercitación: registrar el mismo evento otra vez
+        Boolean segundo = transactionTemplate.execute(status -> processedEventStore.registrarSiNuevo(eventId));
+
+        // Verificación: solo el primer registro es nuevo y hay una única fila
+        assertTrue(primero, "El primer registro del evento debe ser nuevo");
+        assertFalse(segundo, "Un evento ya registrado debe detectarse como duplicado");
+        assertEquals(1, contarFilas(), "No debe duplicarse el marcador del evento");
+    }
+
+    @Test
+    @DisplayName("RegistrarSiNuevo transaccionConRollback noQuedaRegistradoNiCacheado")
+    void registrarSiNuevo_transaccionConRollback_noQuedaRegistradoNiCacheado() {
+        // Setup: un registro dentro de una transacción que falla
+        String eventId = UUID.randomUUID().toString();
+        transactionTemplate.executeWithoutResult(status -> {
+            processedEventStore.registrarSiNuevo(eventId);
+            status.setRollbackOnly();
+        });
+
+        // Ejercitación: reintentar el mismo evento
+        Boolean reintento = transactionTemplate.execute(status -> processedEventStore.registrarSiNuevo(eventId));
+
+        // Verificación: el reintento se aplica porque el marcador se descartó con el rollback
+        assertTrue(reintento, "Un evento cuya transacción hizo rollback debe poder reprocesarse");
+        assertEquals(1, contarFilas(), "Solo debe quedar el marcador del reintento confirmado");
+    }
+
+    @Test
+    @DisplayName("FiltrarProcesados lote mixto devuelveSoloLosRegistrados")
+    void filtrarProcesados_loteMixto_devuelveSoloLosRegistrados() {
+        // Setup: dos eventos registrados en lote y uno sin registrar
+        transactionTemplate.executeWithoutResult(status -> processedEventStore.registrarTodos(List.of("e-1", "e-2")));
+
+        // Ejercitación: consultar el lote completo
+        Set<String> procesados = processedEventStore.filtrarProcesados(List.of("e-1", "e-2", "e-3"));
+
+        // Verificación: solo se informan los registrados
+        assertEquals(Set.of("e-1", "e-2"), procesados, "Deben informarse solo los eventos ya registrados");
+    }
+
+    @Test
+    @DisplayName("PurgarVencidos idsAnterioresAlTtl seEliminanEnLotesYConservaRecientes")
+    void purgarVencidos_idsAnterioresAlTtl_seEliminanEnLotesYConservaRecientes() {
+        // Setup: cinco ids vencidos y uno reciente
+        Timestamp vencido = Timestamp.from(Instant.now().minus(Duration.ofDays(2)));
+        for (int i = 0; i < 5; i++) {
+            jdbcTemplate.update("INSERT INTO processed_events (event_id, processed_at) VALUES (?, ?)",
+                    "viejo-" + i, vencido);
+        }
+        jdbcTemplate.update("INSERT INTO processed_events (event_id, processed_at) VALUES (?, ?)",
+                "reciente", Timestamp.from(Instant.now()));
+
+        // Ejercitación: ejecutar la purga con lotes de dos filas
+        int purgados = processedEventPurgeJob.purgarVencidos();
+
+        // Verificación: se eliminan todos los vencidos y queda el reciente
+        assertEquals(5, purgados, "Deben purgarse todos los ids vencidos");
+        assertEquals(1, contarFilas(), "El id reciente debe conservarse");
+    }
+
+    private int contarFilas() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM processed_events", Integer.class);
+    }
+}
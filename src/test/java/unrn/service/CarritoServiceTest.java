@@ -21,6 +21,8 @@ import unrn.repository.StockRepository;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Optional;
 import java.util.Map;
@@ -325,6 +327,19 @@ class CarritoServiceTest {
             data.put(proyeccion.movieId(), proyeccion);
         }
 
+        @Override
+        public Map<String, PeliculaProyeccion> buscarPorMovieIds(Collection<String> movieIds) {
+            Map<String, PeliculaProyeccion> encontradas = new HashMap<>();
+            movieIds.forEach(movieId -> buscarPorMovieId(movieId)
+                    .ifPresent(proyeccion -> encontradas.put(movieId, proyeccion)));
+            return encontradas;
+        }
+
+        @Override
+        public void guardarTodas(List<PeliculaProyeccion> proyecciones) {
+            proyecciones.forEach(this::guardar);
+        }
+
         @Override
         public List<PeliculaProyeccion> buscarTodas() {
             return List.copyOf(data.values());
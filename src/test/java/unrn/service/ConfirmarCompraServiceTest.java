@@ -0,0 +1,128 @@
+package unrn.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import unrn.dto.ConfirmarCompraRequest;
+import unrn.dto.ValidarCuponResponse;
+import unrn.model.Carrito;
+import unrn.outbox.OutboxEventService;
+import unrn.persistence.CompraEntity;
+import unrn.persistence.CompraJpaRepository;
+import unrn.persistence.document.CompraHistorialDocumentStore;
+import unrn.repository.CarritoRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ConfirmarCompraServiceTest {
+
+    private final CarritoRepository carritoRepository = mock(CarritoRepository.class);
+    private final CompraJpaRepository compraJpaRepository = mock(CompraJpaRepository.class);
+    private final ClienteActualProvider clienteActualProvider = mock(ClienteActualProvider.class);
+    private final CuponValidacionCache cuponValidacionCache = mock(CuponValidacionCache.class);
+
+    private final ConfirmarCompraService service = servicio(true);
+
+    @BeforeEach
+    void beforeEach() {
+        when(clienteActualProvider.obtenerClienteId()).thenReturn("cliente-1");
+        when(compraJpaRepository.save(any(CompraEntity.class))).thenAnswer(inv -> inv.getArgument(0));
+    }
+
+    @Test
+    @DisplayName("ConfirmarCompra con cupón resuelve la proyección en el hilo del request y carga el carrito con el RPC en vuelo")
+    void confirmarCompra_conCupon_cargaCarritoConRpcEnVuelo() {
+        // Setup: descuentos todavía no respondió cuando se carga el carrito
+        var rpcEnVuelo = new CompletableFuture<ValidarCuponResponse>();
+        var hiloDelRequest = Thread.currentThread();
+        when(cuponValidacionCache.validarCuponAsync("PROMO")).thenAnswer(inv -> {
+            assertSame(hiloDelRequest, Thread.currentThread(), "Cache y proyección (JDBC) van en el hilo del request");
+            return rpcEnVuelo;
+        });
+        when(carritoRepository.obtenerDe("cliente-1")).thenAnswer(inv -> {
+            assertFalse(rpcEnVuelo.isDone(), "El carrito se carga mientras el RPC sigue en vuelo");
+            rpcEnVuelo.complete(new ValidarCuponResponse(true, 10f, LocalDate.now().minusDays(1),
+                    LocalDate.now().plusDays(1), null));
+            return carritoCon("100.00");
+        });
+
+        // Ejercitación: Ejecutar la acción a probar
+        var respuesta = service.confirmarCompra(new ConfirmarCompraRequest("PROMO", null, null, null));
+
+        // Verificación: el descuento del cupón se aplica sobre el carrito cargado
+        assertEquals(0, new BigDecimal("90.00").compareTo(respuesta.totalFinal()));
+        verify(cuponValidacionCache, never()).validarCupon(anyString());
+    }
+
+    @Test
+    @DisplayName("ConfirmarCompra con falla del carrito deja de esperar el cupón")
+    void confirmarCompra_fallaCarrito_cancelaEsperaDelCupon() {
+        // Setup: el RPC del cupón queda en vuelo y la carga del carrito falla
+        var rpcEnVuelo = new CompletableFuture<ValidarCuponResponse>();
+        when(cuponValidacionCache.validarCuponAsync("PROMO")).thenReturn(rpcEnVuelo);
+        when(carritoRepository.obtenerDe("cliente-1")).thenThrow(new RuntimeException("base caída"));
+
+        // Ejercitación: Ejecutar la acción a probar
+        var ex = assertThrows(RuntimeException.class,
+                () -> service.confirmarCompra(new ConfirmarCompraRequest("PROMO", null, null, null)));
+
+        // Verificación: se propaga el error del carrito y la espera del cupón queda cancelada
+        assertEquals("base caída", ex.getMessage());
+        assertTrue(rpcEnVuelo.isCancelled(), "La espera del cupón debe cancelarse");
+    }
+
+    @Test
+    @DisplayName("ConfirmarCompra con cupón inválido propaga el error de la validación")
+    void confirmarCompra_cuponInvalido_propagaErrorDeValidacion() {
+        // Setup: Preparar el escenario
+        when(cuponValidacionCache.validarCuponAsync("VIEJO")).thenReturn(CompletableFuture.completedFuture(
+                new ValidarCuponResponse(false, null, null, null, "CUPON_VENCIDO")));
+        when(carritoRepository.obtenerDe("cliente-1")).thenReturn(carritoCon("100.00"));
+
+        // Ejercitación: Ejecutar la acción a probar
+        var ex = assertThrows(RuntimeException.class,
+                () -> service.confirmarCompra(new ConfirmarCompraRequest("VIEJO", null, null, null)));
+
+        // Verificación: el error de la validación llega sin envolver
+        assertEquals("CUPON_INVALIDO: CUPON_VENCIDO", ex.getMessage());
+    }
+
+    @Test
+    @DisplayName("ConfirmarCompra con la validación concurrente apagada valida el cupón en secuencia")
+    void confirmarCompra_concurrenciaApagada_validaCuponEnSecuencia() {
+        // Setup: servicio con el flag apagado
+        var secuencial = servicio(false);
+        when(cuponValidacionCache.validarCupon("PROMO")).thenReturn(
+                new ValidarCuponResponse(true, 10f, LocalDate.now().minusDays(1), LocalDate.now().plusDays(1), null));
+        when(carritoRepository.obtenerDe("cliente-1")).thenReturn(carritoCon("100.00"));
+
+        // Ejercitación: Ejecutar la acción a probar
+        var respuesta = secuencial.confirmarCompra(new ConfirmarCompraRequest("PROMO", null, null, null));
+
+        // Verificación: se usa la validación bloqueante
+        assertEquals(0, new BigDecimal("90.00").compareTo(respuesta.totalFinal()));
+        verify(cuponValidacionCache, never()).validarCuponAsync(anyString());
+    }
+
+    private ConfirmarCompraService servicio(boolean cuponConcurrente) {
+        return new ConfirmarCompraService(carritoRepository, compraJpaRepository, clienteActualProvider,
+                mock(OutboxEventService.class), mock(CompraHistorialDocumentStore.class), cuponValidacionCache,
+                cuponConcurrente);
+    }
+
+    private Carrito carritoCon(String precio) {
+        var carrito = new Carrito();
+        carrito.agregarPelicula("1", "Matrix", new BigDecimal(precio), 1);
+        return carrito;
+    }
+}
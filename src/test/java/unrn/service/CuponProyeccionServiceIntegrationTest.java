@@ -0,0 +1,151 @@
+package unrn.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import unrn.model.CuponProyeccion;
+import unrn.repository.CuponProyeccionRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "ventas.cupon-proyeccion.enabled=true",
+        "ventas.cupon-proyeccion.events.enabled=true"
+})
+class CuponProyeccionServiceIntegrationTest {
+
+    @Autowired
+    private CuponProyeccionService cuponProyeccionService;
+
+    @Autowired
+    private CuponProyeccionRepository cuponProyeccionRepository;
+
+    @Autowired
+    private CuponValidacionCache cuponValidacionCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoBean
+    private DescuentosCuponesClient descuentosCuponesClient;
+
+    @MockitoBean
+    private DescuentosRpcClient descuentosRpcClient;
+
+    @BeforeEach
+    void beforeEach() {
+        // cupon_proyeccion no es una entidad JPA: el truncate del schema manager no la alcanza
+        jdbcTemplate.update("DELETE FROM cupon_proyeccion");
+        cuponValidacionCache.invalidarTodo();
+    }
+
+    @Test
+    @DisplayName("RebuildProjection inserta nuevos y desactiva los que descuentos ya no informa")
+    void rebuildProjection_cuponesNuevosYFaltantes_insertaYDesactiva() {
+        // Setup: un cupón proyectado que descuentos ya no informa y dos cupones nuevos
+        cuponProyeccionRepository.guardar(cupon("RETIRADO", "10", 1));
+        when(descuentosCuponesClient.obtenerTodosLosCupones())
+                .thenReturn(List.of(cupon("PROMO", "15", 1), cupon("VERANO", "20", 3)));
+
+        // Ejercitación: reconstruir la proyección
+        ProjectionBootstrapResult resultado = cuponProyeccionService.rebuildProjection();
+
+        // Verificación: se insertan los nuevos y el faltante queda inactivo
+        assertEquals(2, resultado.fetched());
+        assertEquals(2, resultado.inserted());
+        assertEquals(0, resultado.updated());
+        assertEquals(1, resultado.deactivated());
+        var retirado = cuponProyeccionRepository.buscarPorNombre("RETIRADO").orElseThrow();
+        assertFalse(retirado.activo(), "El cupón que ya no existe en descuentos debe quedar inactivo");
+        assertEquals(1, retirado.version(), "La baja no debe inventar una versión propia");
+        assertEquals(0, new BigDecimal("20").compareTo(
+                cuponProyeccionRepository.buscarPorNombre("VERANO").orElseThrow().porcentaje()));
+    }
+
+    @Test
+    @DisplayName("AplicarCambio con versión anterior no pisa la proyección")
+    void aplicarCambio_versionAnterior_noPisaProyeccion() {
+        // Setup: un cupón proyectado en versión 5
+        cuponProyeccionRepository.guardar(cupon("PROMO", "15", 5));
+
+        // Ejercitación: llega un evento atrasado y luego uno nuevo
+        boolean atrasado = cuponProyeccionService.aplicarCambio(cupon("PROMO", "40", 4));
+        boolean nuevo = cuponProyeccionService.aplicarCambio(cupon("PROMO", "25", 6));
+
+        // Verificación: solo se aplica la versión más nueva
+        assertFalse(atrasado, "Un evento con versión anterior debe descartarse");
+        assertTrue(nuevo, "Un evento con versión posterior debe aplicarse");
+        var proyectado = cuponProyeccionRepository.buscarPorNombre("PROMO").orElseThrow();
+        assertEquals(6, proyectado.version());
+        assertEquals(0, new BigDecimal("25").compareTo(proyectado.porcentaje()));
+    }
+
+    @Test
+    @DisplayName("GuardarTodas con versión anterior no pisa un evento aplicado durante el rebuild")
+    void guardarTodas_versionAnterior_conservaVersionNueva() {
+        // Setup: un evento ya proyectó la versión 5 mientras el rebuild traía la 4
+        cuponProyeccionService.aplicarCambio(cupon("PROMO", "25", 5));
+
+        // Ejercitación: el rebuild escribe su copia atrasada
+        cuponProyeccionRepository.guardarTodas(List.of(cupon("PROMO", "40", 4)));
+
+        // Verificación: la fila conserva la versión del evento
+        var proyectado = cuponProyeccionRepository.buscarPorNombre("PROMO").orElseThrow();
+        assertEquals(5, proyectado.version());
+        assertEquals(0, new BigDecimal("25").compareTo(proyectado.porcentaje()));
+    }
+
+    @Test
+    @DisplayName("AplicarCambio después de una baja del rebuild aplica la siguiente versión de descuentos")
+    void aplicarCambio_despuesDeBajaDelRebuild_aplicaVersionSiguiente() {
+        // Setup: el rebuild da de baja un cupón proyectado en versión 1
+        cuponProyeccionRepository.guardar(cupon("PROMO", "15", 1));
+        when(descuentosCuponesClient.obtenerTodosLosCupones()).thenReturn(List.of());
+        cuponProyeccionService.rebuildProjection();
+
+        // Ejercitación: descuentos publica la versión 2 del cupón
+        boolean aplicado = cuponProyeccionService.aplicarCambio(cupon("PROMO", "30", 2));
+
+        // Verificación: el evento no se descarta como obsoleto
+        assertTrue(aplicado, "La baja no debe consumir la versión siguiente de descuentos");
+        var proyectado = cuponProyeccionRepository.buscarPorNombre("PROMO").orElseThrow();
+        assertTrue(proyectado.activo());
+        assertEquals(2, proyectado.version());
+    }
+
+    @Test
+    @DisplayName("ValidarCupon cupón proyectado se resuelve sin RPC a descuentos")
+    void validarCupon_cuponProyectado_resuelveSinRpc() {
+        // Setup: un cupón vigente en la proyección local
+        cuponProyeccionService.aplicarCambio(cupon("PROMO", "15", 1));
+
+        // Ejercitación: validar el cupón como en el checkout
+        var respuesta = cuponValidacionCache.validarCupon("PROMO");
+
+        // Verificación: la respuesta sale de la proyección
+        assertTrue(respuesta.valido(), "El cupón proyectado y vigente debe ser válido");
+        assertEquals(15f, respuesta.porcentajeDescuento());
+        verify(descuentosRpcClient, never()).validarCupon(anyString());
+    }
+
+    private CuponProyeccion cupon(String nombre, String porcentaje, long version) {
+        return new CuponProyeccion(nombre, new BigDecimal(porcentaje), LocalDate.now().minusDays(1),
+                LocalDate.now().plusDays(30), true, version);
+    }
+}
@@ -0,0 +1,186 @@
+package unrn.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import unrn.dto.ValidarCuponResponse;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CuponValidacionCacheTest {
+
+    // 2026-03-10 12:00 UTC
+    private static final Instant AHORA = Instant.parse("2026-03-10T12:00:00Z");
+    private static final long TTL_MS = Duration.ofHours(1).toMillis();
+    private static final long TTL_INVALIDO_MS = 30_000;
+
+    private final CuponValidador cuponValidador = mock(CuponValidador.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RelojManual reloj = new RelojManual(AHORA);
+    private final CuponValidacionCache cache = new CuponValidacionCache(cuponValidador, meterRegistry, 2,
+            TTL_MS, TTL_INVALIDO_MS, reloj);
+
+    @Test
+    @DisplayName("ValidarCupon cupón repetido consulta el RPC una sola vez")
+    void validarCupon_cuponRepetido_consultaRpcUnaVez() {
+        // Setup: Preparar el escenario
+        when(cuponValidador.validarCupon("PROMO")).thenReturn(valido(LocalDate.of(2026, 12, 31)));
+
+        // Ejercitación: Ejecutar la acción a probar
+        cache.validarCupon("PROMO");
+        ValidarCuponResponse respuesta = cache.validarCupon("PROMO");
+
+        // Verificación: Verificar el resultado esperado
+        assertTrue(respuesta.valido());
+        verify(cuponValidador, times(1)).validarCupon("PROMO");
+        assertEquals(1.0, meterRegistry.get("ventas.cupon_cache.hit.total").counter().count());
+        assertEquals(1.0, meterRegistry.get("ventas.cupon_cache.miss.total").counter().count());
+    }
+
+    @Test
+    @DisplayName("ValidarCupon cupón que termina hoy vence al fin de su vigencia antes que el TTL")
+    void validarCupon_vigenciaTerminaAntesQueTtl_venceAlFinDeVigencia() {
+        // Setup: la vigencia termina a medianoche, 12 horas después; el TTL es de 1 hora
+        var cacheLarga = new CuponValidacionCache(cuponValidador, meterRegistry, 2,
+                Duration.ofDays(1).toMillis(), TTL_INVALIDO_MS, reloj);
+        when(cuponValidador.validarCupon("FINDEDIA")).thenReturn(valido(LocalDate.of(2026, 3, 10)));
+        cacheLarga.validarCupon("FINDEDIA");
+
+        // Ejercitación: Ejecutar la acción a probar
+        reloj.avanzar(Duration.ofHours(11).plusMinutes(59));
+        cacheLarga.validarCupon("FINDEDIA");
+        reloj.avanzar(Duration.ofMinutes(1));
+        cacheLarga.validarCupon("FINDEDIA");
+
+        // Verificación: Verificar el resultado esperado
+        verify(cuponValidador, times(2)).validarCupon("FINDEDIA");
+        assertEquals(1.0, meterRegistry.get("ventas.cupon_cache.eviction.total")
+                .tag("causa", "vencimiento").counter().count(), "Al terminar la vigencia la entrada debe vencer");
+    }
+
+    @Test
+    @DisplayName("ValidarCupon cupón inválido se cachea solo por el TTL corto")
+    void validarCupon_cuponInvalido_seCacheaPorTtlCorto() {
+        // Setup: Preparar el escenario
+        when(cuponValidador.validarCupon("NOEXISTE"))
+                .thenReturn(new ValidarCuponResponse(false, null, null, null, "CUPON_INEXISTENTE"));
+        cache.validarCupon("NOEXISTE");
+
+        // Ejercitación: Ejecutar la acción a probar
+        cache.validarCupon("NOEXISTE");
+        reloj.avanzar(Duration.ofMillis(TTL_INVALIDO_MS));
+        cache.validarCupon("NOEXISTE");
+
+        // Verificación: Verificar el resultado esperado
+        verify(cuponValidador, times(2)).validarCupon("NOEXISTE");
+    }
+
+    @Test
+    @DisplayName("ValidarCupon con la cache llena desaloja el cupón menos usado")
+    void validarCupon_cacheLlena_desalojaMenosUsado() {
+        // Setup: Preparar el escenario
+        when(cuponValidador.validarCupon("A")).thenReturn(valido(LocalDate.of(2026, 12, 31)));
+        when(cuponValidador.validarCupon("B")).thenReturn(valido(LocalDate.of(2026, 12, 31)));
+        when(cuponValidador.validarCupon("C")).thenReturn(valido(LocalDate.of(2026, 12, 31)));
+        cache.validarCupon("A");
+        cache.validarCupon("B");
+        cache.validarCupon("A");
+
+        // Ejercitación: Ejecutar la acción a probar
+        cache.validarCupon("C");
+
+        // Verificación: Verificar el resultado esperado
+        assertEquals(2, cache.tamanio());
+        cache.validarCupon("A");
+        cache.validarCupon("B");
+        verify(cuponValidador, times(1)).validarCupon("A");
+        verify(cuponValidador, times(2)).validarCupon("B");
+        assertTrue(meterRegistry.get("ventas.cupon_cache.eviction.total")
+                .tag("causa", "capacidad").counter().count() >= 1.0);
+    }
+
+    @Test
+    @DisplayName("Invalidar cupón cacheado fuerza una nueva consulta al RPC")
+    void invalidar_cuponCacheado_fuerzaNuevaConsulta() {
+        // Setup: Preparar el escenario
+        when(cuponValidador.validarCupon("PROMO")).thenReturn(valido(LocalDate.of(2026, 12, 31)));
+        cache.validarCupon("PROMO");
+
+        // Ejercitación: Ejecutar la acción a probar
+        cache.invalidar("PROMO");
+        cache.validarCupon("PROMO");
+
+        // Verificación: Verificar el resultado esperado
+        verify(cuponValidador, times(2)).validarCupon("PROMO");
+    }
+
+    @Test
+    @DisplayName("ValidarCupon con error del RPC no cachea el fallo")
+    void validarCupon_errorRpc_noCacheaFallo() {
+        // Setup: Preparar el escenario
+        when(cuponValidador.validarCupon("PROMO"))
+                .thenThrow(new RuntimeException(DescuentosRpcClient.ERROR_DESCUENTOS_NO_DISPONIBLE))
+                .thenReturn(valido(LocalDate.of(2026, 12, 31)));
+
+        // Ejercitación: Ejecutar la acción a probar
+        assertThrows(RuntimeException.class, () -> cache.validarCupon("PROMO"));
+        ValidarCuponResponse respuesta = cache.validarCupon("PROMO");
+
+        // Verificación: Verificar el resultado esperado
+        assertTrue(respuesta.valido(), "Tras un error el siguiente checkout vuelve a consultar");
+    }
+
+    @Test
+    @DisplayName("Constructor con capacidad en cero lanza excepción")
+    void constructor_capacidadEnCero_lanzaExcepcion() {
+        // Ejercitación: Ejecutar la acción a probar
+        var ex = assertThrows(RuntimeException.class, () -> new CuponValidacionCache(cuponValidador,
+                meterRegistry, 0, TTL_MS, TTL_INVALIDO_MS, reloj));
+
+        // Verificación: Verificar el resultado esperado
+        assertEquals(CuponValidacionCache.ERROR_CONFIGURACION_INVALIDA, ex.getMessage());
+    }
+
+    private ValidarCuponResponse valido(LocalDate vigenteHasta) {
+        return new ValidarCuponResponse(true, 10f, LocalDate.of(2026, 1, 1), vigenteHasta, null);
+    }
+
+    private static class RelojManual extends Clock {
+
+        private Instant instante;
+
+        RelojManual(Instant instante) {
+            this.instante = instante;
+        }
+
+        void avanzar(Duration duracion) {
+            instante = instante.plus(duracion);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instante;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package unrn.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import unrn.dto.ValidarCuponResponse;
+import unrn.model.CuponProyeccion;
+import unrn.repository.CuponProyeccionRepository;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CuponValidadorTest {
+
+    private final CuponProyeccionRepository repository = mock(CuponProyeccionRepository.class);
+    private final DescuentosRpcClient descuentosRpcClient = mock(DescuentosRpcClient.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Clock clock = Clock.fixed(Instant.parse("2026-03-15T12:00:00Z"), ZoneOffset.UTC);
+
+    @Test
+    @DisplayName("ValidarCupon cupón proyectado vigente resuelve sin RPC")
+    void validarCupon_cuponProyectadoVigente_resuelveSinRpc() {
+        // Setup: Preparar el escenario
+        when(repository.buscarPorNombre("PROMO")).thenReturn(Optional.of(cupon("PROMO", true, LocalDate.of(2026, 3, 31))));
+        var validador = validador(true);
+
+        // Ejercitación: Ejecutar la acción a probar
+        ValidarCuponResponse respuesta = validador.validarCupon("PROMO");
+
+        // Verificación: Verificar el resultado esperado
+        assertTrue(respuesta.valido(), "Un cupón activo y vigente debe ser válido");
+        assertEquals(15f, respuesta.porcentajeDescuento());
+        verify(descuentosRpcClient, never()).validarCupon(anyString());
+        assertEquals(1.0, meterRegistry.counter("ventas.cupon.validacion.total", "fuente", "proyeccion").count());
+    }
+
+    @Test
+    @DisplayName("ValidarCupon cupón proyectado vencido devuelve inválido")
+    void validarCupon_cuponProyectadoVencido_devuelveInvalido() {
+        // Setup: Preparar el escenario
+        when(repository.buscarPorNombre("VIEJO")).thenReturn(Optional.of(cupon("VIEJO", true, LocalDate.of(2026, 3, 14))));
+        var validador = validador(true);
+
+        // Ejercitación: Ejecutar la acción a probar
+        ValidarCuponResponse respuesta = validador.validarCupon("VIEJO");
+
+        // Verificación: Verificar el resultado esperado
+        assertFalse(respuesta.valido(), "Un cupón vencido no debe ser válido");
+        assertEquals(CuponValidador.MOTIVO_CUPON_NO_UTILIZABLE, respuesta.motivo());
+        verify(descuentosRpcClient, never()).validarCupon(anyString());
+    }
+
+    @Test
+    @DisplayName("ValidarCupon cupón desconocido consulta el RPC como fallback")
+    void validarCupon_cuponDesconocido_consultaRpc() {
+        // Setup: Preparar el escenario
+        when(repository.buscarPorNombre("NUEVO")).thenReturn(Optional.empty());
+        var esperado = new ValidarCuponResponse(true, 20f, LocalDate.of(2026, 3, 1), LocalDate.of(2026, 3, 31), null);
+        when(descuentosRpcClient.validarCupon("NUEVO")).thenReturn(esperado);
+        var validador = validador(true);
+
+        // Ejercitación: Ejecutar la acción a probar
+        ValidarCuponResponse respuesta = validador.validarCupon("NUEVO");
+
+        // Verificación: Verificar el resultado esperado
+        assertSame(esperado, respuesta, "Sin proyección la respuesta debe venir del RPC");
+        assertEquals(1.0, meterRegistry.counter("ventas.cupon.validacion.total", "fuente", "rpc").count());
+    }
+
+    @Test
+    @DisplayName("ValidarCupon cupón desconocido sin fallback devuelve inexistente")
+    void validarCupon_cuponDesconocidoSinFallback_devuelveInexistente() {
+        // Setup: Preparar el escenario
+        when(repository.buscarPorNombre("NUEVO")).thenReturn(Optional.empty());
+        var validador = validador(false);
+
+        // Ejercitación: Ejecutar la acción a probar
+        ValidarCuponResponse respuesta = validador.validarCupon("NUEVO");
+
+        // Verificación: Verificar el resultado esperado
+        assertFalse(respuesta.valido(), "Sin fallback un cupón desconocido es inválido");
+        assertEquals(CuponValidador.MOTIVO_CUPON_INEXISTENTE, respuesta.motivo());
+        verify(descuentosRpcClient, never()).validarCupon(anyString());
+    }
+
+    @Test
+    @DisplayName("ValidarCuponAsync cupón proyectado se resuelve sin dejar nada en vuelo")
+    void validarCuponAsync_cuponProyectado_devuelveRespuestaCompleta() {
+        // Setup: Preparar el escenario
+        when(repository.buscarPorNombre("PROMO")).thenReturn(Optional.of(new CuponProyeccion("PROMO",
+                new BigDecimal("15"), LocalDate.of(2026, 3, 1), LocalDate.of(2026, 3, 31), true, 1)));
+        var validador = validador(true);
+
+        // Ejercitación: Ejecutar la acción a probar
+        var respuesta = validador.validarCuponAsync("PROMO");
+
+        // Verificación: la proyección ya se leyó en el hilo del caller
+        assertTrue(respuesta.isDone(), "Un cupón proyectado no debe quedar pendiente");
+        assertTrue(respuesta.join().valido());
+        verify(descuentosRpcClient, never()).validarCuponAsync(anyString());
+    }
+
+    @Test
+    @DisplayName("CuponValidador proyección habilitada sin eventos falla al arrancar")
+    void cuponValidador_proyeccionSinEventos_fallaAlArrancar() {
+        // Ejercitación: construir el validador con la proyección encendida y el feed de eventos apagado
+        var ex = assertThrows(RuntimeException.class, () -> new CuponValidador(repository, descuentosRpcClient,
+                meterRegistry, true, true, false, clock));
+
+        // Verificación: Verificar el resultado esperado
+        assertEquals(CuponValidador.ERROR_PROYECCION_SIN_EVENTOS, ex.getMessage());
+    }
+
+    private CuponValidador validador(boolean rpcFallback) {
+        return new CuponValidador(repository, descuentosRpcClient, meterRegistry, true, rpcFallback, true, clock);
+    }
+
+    private CuponProyeccion cupon(String nombre, boolean activo, LocalDate hasta) {
+        return new CuponProyeccion(nombre, new BigDecimal("15.00"), LocalDate.of(2026, 3, 1), hasta, activo, 1);
+    }
+}
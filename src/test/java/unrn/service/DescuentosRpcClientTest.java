@@ -0,0 +1,124 @@
+package unrn.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.AsyncAmqpTemplate;
+import unrn.dto.ValidarCuponRequest;
+import unrn.dto.ValidarCuponResponse;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DescuentosRpcClientTest {
+
+    private static final int CHECKOUTS = 10;
+
+    private final AsyncAmqpTemplate asyncAmqpTemplate = mock(AsyncAmqpTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("ValidarCuponAsync checkouts concurrentes del mismo cupón comparten un solo RPC")
+    void validarCuponAsync_checkoutsConcurrentes_compartenUnSoloRpc() throws Exception {
+        // Setup: Preparar el escenario
+        var client = client(5000);
+        CompletableFuture<Object> rpc = rpcPendiente();
+
+        // Ejercitación: Ejecutar la acción a probar
+        List<CompletableFuture<ValidarCuponResponse>> respuestas = new ArrayList<>();
+        for (int i = 0; i < CHECKOUTS; i++) {
+            respuestas.add(client.validarCuponAsync("PROMO"));
+        }
+        rpc.complete(valido());
+
+        // Verificación: Verificar el resultado esperado
+        for (var respuesta : respuestas) {
+            assertTrue(respuesta.get(1, TimeUnit.SECONDS).valido());
+        }
+        verify(asyncAmqpTemplate, times(1)).convertSendAndReceive(eq("descuentos.exchange"),
+                eq("descuentos.cupon.validar"), any(ValidarCuponRequest.class));
+        assertEquals(CHECKOUTS, meterRegistry.get("ventas.descuentos.rpc.fan_in").summary().max(),
+                "El fan-in debe reflejar cuántos checkouts atendió el RPC");
+    }
+
+    @Test
+    @DisplayName("ValidarCuponAsync timeout de un checkout no cancela la consulta compartida")
+    void validarCuponAsync_timeoutDeUnCheckout_noCancelaConsultaCompartida() throws Exception {
+        // Setup: un primer checkout vence su deadline con la respuesta todavía en camino
+        var client = client(100);
+        CompletableFuture<Object> rpc = rpcPendiente();
+        var primero = client.validarCuponAsync("PROMO");
+        var ex = assertThrows(ExecutionException.class, () -> primero.get(1, TimeUnit.SECONDS));
+
+        // Ejercitación: otro checkout se suma y la respuesta llega dentro de su propio deadline
+        var segundo = client.validarCuponAsync("PROMO");
+        rpc.complete(valido());
+
+        // Verificación: Verificar el resultado esperado
+        assertEquals(DescuentosRpcClient.ERROR_DESCUENTOS_NO_DISPONIBLE, ex.getCause().getMessage());
+        assertTrue(segundo.get(1, TimeUnit.SECONDS).valido(), "El segundo checkout recibe la respuesta compartida");
+        verify(asyncAmqpTemplate, times(1)).convertSendAndReceive(any(String.class), any(String.class), any(Object.class));
+        assertEquals(1.0, meterRegistry.get("ventas.descuentos.rpc.wait.timeout.total").counter().count());
+    }
+
+    @Test
+    @DisplayName("ValidarCupon después de un RPC sin respuesta inicia una consulta nueva")
+    void validarCupon_rpcSinRespuesta_siguienteConsultaEsNueva() {
+        // Setup: Preparar el escenario
+        var client = client(5000);
+        when(asyncAmqpTemplate.convertSendAndReceive(any(String.class), any(String.class), any(Object.class)))
+                .thenReturn(CompletableFuture.completedFuture(null))
+                .thenReturn(CompletableFuture.completedFuture(valido()));
+
+        // Ejercitación: Ejecutar la acción a probar
+        var ex = assertThrows(RuntimeException.class, () -> client.validarCupon("PROMO"));
+        ValidarCuponResponse respuesta = client.validarCupon("PROMO");
+
+        // Verificación: Verificar el resultado esperado
+        assertEquals(DescuentosRpcClient.ERROR_DESCUENTOS_NO_DISPONIBLE, ex.getMessage());
+        assertTrue(respuesta.valido(), "Un fallo no debe quedar pegado al cupón");
+        assertEquals(2.0, meterRegistry.get("ventas.descuentos.rpc.total").counter().count());
+    }
+
+    @Test
+    @DisplayName("ValidarCupon con respuesta de otro tipo lanza respuesta inválida")
+    void validarCupon_respuestaDeOtroTipo_lanzaRespuestaInvalida() {
+        // Setup: Preparar el escenario
+        var client = client(5000);
+        when(asyncAmqpTemplate.convertSendAndReceive(any(String.class), any(String.class), any(Object.class)))
+                .thenReturn(CompletableFuture.completedFuture("ok"));
+
+        // Ejercitación: Ejecutar la acción a probar
+        var ex = assertThrows(RuntimeException.class, () -> client.validarCupon("PROMO"));
+
+        // Verificación: Verificar el resultado esperado
+        assertTrue(ex.getMessage().startsWith(DescuentosRpcClient.ERROR_RESPUESTA_INVALIDA));
+    }
+
+    private DescuentosRpcClient client(long timeoutMs) {
+        return new DescuentosRpcClient(asyncAmqpTemplate, meterRegistry, "descuentos.exchange",
+                "descuentos.cupon.validar", timeoutMs);
+    }
+
+    private CompletableFuture<Object> rpcPendiente() {
+        CompletableFuture<Object> rpc = new CompletableFuture<>();
+        when(asyncAmqpTemplate.convertSendAndReceive(any(String.class), any(String.class), any(Object.class))).thenReturn(rpc);
+        return rpc;
+    }
+
+    private ValidarCuponResponse valido() {
+        return new ValidarCuponResponse(true, 10f, LocalDate.of(2026, 1, 1), LocalDate.of(2026, 12, 31), null);
+    }
+}
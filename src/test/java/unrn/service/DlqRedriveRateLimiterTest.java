@@ -0,0 +1,54 @@
+package unrn.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DlqRedriveRateLimiterTest {
+
+    private static final long SEGUNDO = 1_000_000_000L;
+
+    @Test
+    @DisplayName("Reservar permisos seguidos los espacia según la tasa configurada")
+    void reservar_permisosSeguidos_losEspaciaSegunTasa() {
+        // Setup: Preparar el escenario
+        var limiter = new DlqRedriveRateLimiter(4, 0);
+
+        // Ejercitación: Ejecutar la acción a probar
+        long primero = limiter.reservar(0);
+        long segundo = limiter.reservar(0);
+        long tercero = limiter.reservar(0);
+
+        // Verificación: Verificar el resultado esperado
+        assertEquals(0, primero, "El primer permiso sale sin espera");
+        assertEquals(SEGUNDO / 4, segundo, "A 4 mensajes por segundo el segundo espera 250ms");
+        assertEquals(SEGUNDO / 2, tercero, "Cada permiso se encola detrás del anterior");
+    }
+
+    @Test
+    @DisplayName("Reservar después de un período ocioso no acumula ráfaga")
+    void reservar_despuesDePeriodoOcioso_noAcumulaRafaga() {
+        // Setup: Preparar el escenario
+        var limiter = new DlqRedriveRateLimiter(10, 0);
+        limiter.reservar(0);
+
+        // Ejercitación: Ejecutar la acción a probar
+        long primeroTrasPausa = limiter.reservar(5 * SEGUNDO);
+        long segundoTrasPausa = limiter.reservar(5 * SEGUNDO);
+
+        // Verificación: Verificar el resultado esperado
+        assertEquals(0, primeroTrasPausa, "Tras la pausa el permiso está disponible de inmediato");
+        assertEquals(SEGUNDO / 10, segundoTrasPausa, "La pausa no habilita publicar varios mensajes juntos");
+    }
+
+    @Test
+    @DisplayName("Constructor con tasa no positiva lanza excepción")
+    void constructor_tasaNoPositiva_lanzaExcepcion() {
+        // Ejercitación: Ejecutar la acción a probar
+        var ex = assertThrows(RuntimeException.class, () -> new DlqRedriveRateLimiter(0, 0));
+
+        // Verificación: Verificar el resultado esperado
+        assertEquals(DlqRedriveRateLimiter.ERROR_TASA_INVALIDA, ex.getMessage());
+    }
+}
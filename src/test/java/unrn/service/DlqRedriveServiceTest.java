@@ -0,0 +1,256 @@
+package unrn.service;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.Envelope;
+import com.rabbitmq.client.GetResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.ChannelCallback;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DlqRedriveServiceTest {
+
+    private static final String DLQ = "ventas.q.catalogo-stock-rechazado.dlq";
+    private static final String COLA = "ventas.q.catalogo-stock-rechazado";
+
+    private final RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+    private final Channel channel = mock(Channel.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final DlqRedriveService service = new DlqRedriveService(rabbitTemplate, meterRegistry,
+            DLQ, COLA, "ventas.q.catalogo-stock-validation-accepted.dlq", "ventas.q.catalogo-stock-validation-accepted",
+            500, 1000, 100);
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void beforeEach() throws Exception {
+        when(rabbitTemplate.execute(any(ChannelCallback.class)))
+                .thenAnswer(inv -> ((ChannelCallback<Object>) inv.getArgument(0)).doInRabbit(channel));
+    }
+
+    @Test
+    @DisplayName("Resumir mensajes en DLQ agrupa por motivo y devuelve todo a la cola")
+    void resumir_mensajesEnDlq_agrupaPorMotivoYDevuelveTodo() throws Exception {
+        // Setup: Preparar el escenario
+        enDlq(mensaje(1, "m-1", "JSON_INVALIDO"), mensaje(2, "m-2", "MAX_REINTENTOS"),
+                mensaje(3, "m-3", "MAX_REINTENTOS"), mensaje(4, "m-4", null));
+
+        // Ejercitación: Ejecutar la acción a probar
+        DlqResumen resumen = service.resumir("stock-rechazado");
+
+        // Verificación: Verificar el resultado esperado
+        assertEquals(4, resumen.mensajesEnCola());
+        assertEquals(Map.of("JSON_INVALIDO", 1L, "MAX_REINTENTOS", 2L, DlqRedriveService.MOTIVO_DESCONOCIDO, 1L),
+                resumen.porMotivo(), "Sin x-reject-reason el mensaje cuenta como desconocido");
+        verify(channel).basicNack(4, true, true);
+        verify(channel, never()).basicAck(any(Long.class), any(Boolean.class));
+    }
+
+    @Test
+    @DisplayName("Inspeccionar con desde salta los primeros mensajes de la página")
+    void inspeccionar_conDesde_saltaPrimerosMensajes() throws Exception {
+        // Setup: Preparar el escenario
+        enDlq(mensaje(1, "m-1", "A"), mensaje(2, "m-2", "B"), mensaje(3, "m-3", "C"));
+
+        // Ejercitación: Ejecutar la acción a probar
+        DlqPagina pagina = service.inspeccionar("stock-rechazado", 1, 1);
+
+        // Verificación: Verificar el resultado esperado
+        assertEquals(List.of("m-2"), pagina.mensajes().stream().map(DlqMensaje::messageId).toList());
+        assertEquals("{\"id\":2}", pagina.mensajes().get(0).payload());
+        verify(channel).basicNack(2, true, true);
+    }
+
+    @Test
+    @DisplayName("Redrive por motivo publica los seleccionados sin headers de fallo y devuelve el resto")
+    void redrive_porMotivo_publicaSeleccionadosYDevuelveResto() throws Exception {
+        // Setup: Preparar el escenario
+        enDlq(mensaje(1, "m-1", "MAX_REINTENTOS"), mensaje(2, "m-2", "JSON_INVALIDO"),
+                mensaje(3, "m-3", "MAX_REINTENTOS"));
+        brokerConfirma(true);
+
+        // Ejercitación: Ejecutar la acción a probar
+        DlqRedriveResult resultado = service.redrive("stock-rechazado", List.of(), "MAX_REINTENTOS", 100);
+
+        // Verificación: Verificar el resultado esperado
+        assertEquals(2, resultado.redirigidos());
+        assertEquals(1, resultado.omitidos());
+        assertEquals(0, resultado.fallidos());
+        var enviado = ArgumentCaptor.forClass(Message.class);
+        verify(rabbitTemplate, times(2))
+                .send(eq(""), eq(COLA), enviado.capture(), any(CorrelationData.class));
+        Map<String, Object> headers = enviado.getValue().getMessageProperties().getHeaders();
+        assertFalse(headers.containsKey("x-reject-reason"), "El mensaje redirigido no conserva el motivo de rechazo");
+        assertFalse(headers.containsKey("x-retry-count"), "El mensaje redirigido arranca sin reintentos");
+        verify(channel).basicAck(1, false);
+        verify(channel).basicAck(3, false);
+        verify(channel).basicNack(2, true, true);
+        assertEquals(2.0, meterRegistry.get("ventas.dlq.redrive.total")
+                .tags("cola", "stock-rechazado", "resultado", "redirigido").counter().count());
+    }
+
+    @Test
+    @DisplayName("Redrive con nack del broker corta el recorrido y no confirma el mensaje de la DLQ")
+    void redrive_nackDelBroker_cortaYNoConfirma() throws Exception {
+        // Setup: Preparar el escenario
+        enDlq(mensaje(1, "m-1", "A"), mensaje(2, "m-2", "A"));
+        brokerConfirma(false);
+
+        // Ejercitación: Ejecutar la acción a probar
+        DlqRedriveResult resultado = service.redrive("stock-rechazado", List.of(), null, 100);
+
+        // Verificación: Verificar el resultado esperado
+        assertEquals(0, resultado.redirigidos());
+        assertEquals(1, resultado.fallidos());
+        verify(channel, never()).basicAck(any(Long.class), any(Boolean.class));
+        verify(channel).basicNack(1, true, true);
+        verify(channel, times(1)).basicGet(DLQ, false);
+    }
+
+    @Test
+    @DisplayName("Redrive sobre cola no permitida lanza excepción")
+    void redrive_colaNoPermitida_lanzaExcepcion() {
+        // Ejercitación: Ejecutar la acción a probar
+        var ex = assertThrows(RuntimeException.class,
+                () -> service.redrive("ventas.q.compras", List.of(), null, 10));
+
+        // Verificación: Verificar el resultado esperado
+        assertEquals(DlqRedriveService.ERROR_COLA_DESCONOCIDA, ex.getMessage());
+    }
+
+    @Test
+    @DisplayName("IniciarRedrive corre en segundo plano y el job queda consultable con sus conteos")
+    void iniciarRedrive_enSegundoPlano_jobConsultableConConteos() throws Exception {
+        // Setup: Preparar el escenario
+        enDlq(mensaje(1, "m-1", "A"), mensaje(2, "m-2", "B"));
+        brokerConfirma(true);
+
+        // Ejercitación: Ejecutar la acción a probar
+        DlqRedriveJob job = service.iniciarRedrive("stock-rechazado", List.of(), "A", 100).orElseThrow();
+
+        // Verificación: el job termina en el hilo del redrive y se consulta por su id
+        esperarFin(job);
+        DlqRedriveJob consultado = service.consultarRedrive("stock-rechazado", job.id()).orElseThrow();
+        assertEquals(DlqRedriveJob.Estado.TERMINADO, consultado.estado());
+        assertEquals(1, consultado.redirigidos());
+        assertEquals(1, consultado.omitidos());
+        assertTrue(service.consultarRedrive("stock-validation-accepted", job.id()).isEmpty(),
+                "El job solo se expone bajo su propia cola");
+        verify(channel).basicAck(1, false);
+        verify(channel).basicNack(2, true, true);
+    }
+
+    @Test
+    @DisplayName("IniciarRedrive con otro redrive en curso no arranca un segundo job")
+    void iniciarRedrive_otroEnCurso_devuelveVacio() throws Exception {
+        // Setup: el primer redrive queda bloqueado esperando el confirm del broker
+        enDlq(mensaje(1, "m-1", "A"));
+        var liberar = new CountDownLatch(1);
+        doAnswer(inv -> {
+            liberar.await(5, TimeUnit.SECONDS);
+            CorrelationData correlationData = inv.getArgument(3);
+            correlationData.getFuture().complete(new CorrelationData.Confirm(true, null));
+            return null;
+        }).when(rabbitTemplate).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+        DlqRedriveJob primero = service.iniciarRedrive("stock-rechazado", List.of(), null, 100).orElseThrow();
+
+        // Ejercitación: Ejecutar la acción a probar
+        var segundo = service.iniciarRedrive("stock-rechazado", List.of(), null, 100);
+
+        // Verificación: Verificar el resultado esperado
+        assertTrue(segundo.isEmpty());
+        assertEquals(DlqRedriveJob.Estado.EN_CURSO, primero.estado());
+        liberar.countDown();
+        esperarFin(primero);
+        assertEquals(DlqRedriveJob.Estado.TERMINADO, primero.estado());
+    }
+
+    @Test
+    @DisplayName("IniciarRedrive con error del canal deja el job fallido y libera el redrive")
+    void iniciarRedrive_errorDelCanal_jobFallido() throws Exception {
+        // Setup: la DLQ no se puede declarar en el primer intento y después aparece vacía
+        when(channel.queueDeclarePassive(DLQ))
+                .thenThrow(new RuntimeException("canal cerrado"))
+                .thenReturn(new AMQP.Queue.DeclareOk.Builder().queue(DLQ).messageCount(0).build());
+
+        // Ejercitación: Ejecutar la acción a probar
+        DlqRedriveJob job = service.iniciarRedrive("stock-rechazado", List.of(), null, 100).orElseThrow();
+
+        // Verificación: Verificar el resultado esperado
+        esperarFin(job);
+        assertEquals(DlqRedriveJob.Estado.FALLIDO, job.estado());
+        assertEquals("canal cerrado", job.error());
+        esperarLibre();
+    }
+
+    private void esperarFin(DlqRedriveJob job) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (job.estado() == DlqRedriveJob.Estado.EN_CURSO && System.nanoTime() < limite) {
+            Thread.sleep(10);
+        }
+    }
+
+    // El flag se libera en el finally del hilo del redrive, apenas después de cerrar el job
+    private void esperarLibre() throws Exception {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < limite) {
+            var job = service.iniciarRedrive("stock-rechazado", List.of(), null, 100);
+            if (job.isPresent()) {
+                esperarFin(job.get());
+                return;
+            }
+            Thread.sleep(10);
+        }
+        fail("El redrive quedó tomado después de fallar");
+    }
+
+    private void enDlq(GetResponse... mensajes) throws Exception {
+        when(channel.queueDeclarePassive(DLQ))
+                .thenReturn(new AMQP.Queue.DeclareOk.Builder().queue(DLQ).messageCount(mensajes.length).build());
+        GetResponse[] siguientes = new GetResponse[mensajes.length];
+        System.arraycopy(mensajes, 1, siguientes, 0, mensajes.length - 1);
+        when(channel.basicGet(DLQ, false)).thenReturn(mensajes[0], siguientes);
+    }
+
+    private void brokerConfirma(boolean ack) {
+        doAnswer(inv -> {
+            CorrelationData correlationData = inv.getArgument(3);
+            correlationData.getFuture().complete(new CorrelationData.Confirm(ack, ack ? null : "nack"));
+            return null;
+        }).when(rabbitTemplate).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+    }
+
+    private GetResponse mensaje(long tag, String messageId, String motivo) {
+        Map<String, Object> headers = motivo != null
+                ? Map.of("x-reject-reason", motivo, "x-retry-count", 4L)
+                : Map.of();
+        AMQP.BasicProperties props = new AMQP.BasicProperties.Builder()
+                .messageId(messageId)
+                .headers(headers)
+                .build();
+        byte[] body = ("{\"id\":" + tag + "}").getBytes(StandardCharsets.UTF_8);
+        return new GetResponse(new Envelope(tag, false, "", DLQ), props, body, 0);
+    }
+}